@@ -168,6 +168,16 @@ public class CitaController {
         return new ResponseEntity<>(mapResponse, HttpStatus.OK);
     }
 
+    /**
+     * Obtiene las métricas de reconciliación del historial con la base de datos
+     * @return ResponseEntity con las discrepancias detectadas y el estado HTTP
+     */
+    @GetMapping("/historial/metricas")
+    public ResponseEntity<Object> getMetricasHistorial() {
+        CustomMap<String, Object> mapResponse = citaService.getMetricasHistorial();
+        return new ResponseEntity<>(mapResponse, HttpStatus.OK);
+    }
+
     /**
      * Obtiene la última cita procesada
      * @return ResponseEntity con la última cita procesada y el estado HTTP
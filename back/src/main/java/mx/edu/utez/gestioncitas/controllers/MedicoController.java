@@ -46,6 +46,34 @@ public class MedicoController {
 
     }
 
+    /**
+     * Obtiene todos los médicos ordenados por nombre alfabéticamente.
+     * @return ResponseEntity con un CustomMap que contiene la lista ordenada y el estado HTTP correspondiente.
+     */
+    @GetMapping("/nombre/asc")
+    public ResponseEntity<Object> getNombreAsc() {
+
+        CustomMap<String, Object> mapResponse = medicoService.getAllOrdenadosPorNombre();
+        int code = (int) mapResponse.get("code");
+
+        return new ResponseEntity<>(mapResponse, getStatus(code));
+
+    }
+
+    /**
+     * Obtiene todos los médicos ordenados por especialidad alfabéticamente.
+     * @return ResponseEntity con un CustomMap que contiene la lista ordenada y el estado HTTP correspondiente.
+     */
+    @GetMapping("/especialidad/asc")
+    public ResponseEntity<Object> getEspecialidadAsc() {
+
+        CustomMap<String, Object> mapResponse = medicoService.getAllOrdenadosPorEspecialidad();
+        int code = (int) mapResponse.get("code");
+
+        return new ResponseEntity<>(mapResponse, getStatus(code));
+
+    }
+
     /**
      * Obtiene un médico por su ID.
      * @param id ID del médico a obtener.
@@ -148,4 +176,36 @@ public class MedicoController {
 
     }
 
+    /**
+     * Autocompleta nombres de médicos usando el índice en memoria.
+     * @param termino Prefijo del nombre, apellido o nombre completo.
+     * @param limite Número máximo de resultados (10 por defecto).
+     * @return ResponseEntity con un CustomMap que contiene los IDs de los médicos que coinciden y el estado HTTP correspondiente.
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<Object> autocomplete(@RequestParam String termino,
+                                               @RequestParam(defaultValue = "10") Integer limite) {
+
+        CustomMap<String, Object> mapResponse = medicoService.autocompletar(termino, limite);
+        int code = (int) mapResponse.get("code");
+
+        return new ResponseEntity<>(mapResponse, getStatus(code));
+
+    }
+
+    /**
+     * Registra que se eligió un médico del autocompletado mediante una petición POST
+     * @param id ID del médico seleccionado
+     * @return ResponseEntity con el resultado del registro y el estado HTTP
+     */
+    @PostMapping("/{id}/seleccion")
+    public ResponseEntity<Object> registrarSeleccion(@PathVariable Integer id) {
+
+        CustomMap<String, Object> mapResponse = medicoService.registrarSeleccion(id);
+        int code = (int) mapResponse.get("code");
+
+        return new ResponseEntity<>(mapResponse, getStatus(code));
+
+    }
+
 }
@@ -109,20 +109,65 @@ public class PacienteController {
 
     }
 
+    /**
+     * Obtiene todos los pacientes ordenados por nombre alfabéticamente mediante una petición GET
+     * @return ResponseEntity con la lista de pacientes ordenados y el estado HTTP
+     */
+    @GetMapping("/nombre/asc")
+    public ResponseEntity<Object> getNombreAsc() {
+
+        CustomMap<String, Object> mapResponse = pacienteService.getAllOrdenadosPorNombre();
+        int code = (int) mapResponse.get("code");
+
+        return new ResponseEntity<>(mapResponse, getStatus(code));
+
+    }
+
     /**
      * Obtiene todos los pacientes ordenados por prioridad ascendente mediante una petición GET
+     * @param limite Número máximo de pacientes (opcional; sin él se devuelven todos)
      * @return ResponseEntity con la lista de pacientes ordenados y el estado HTTP
      */
     @GetMapping("/prioridad/asc")
-    public ResponseEntity<Object> getPrioridadAsc() {
+    public ResponseEntity<Object> getPrioridadAsc(@RequestParam(required = false) Integer limite) {
+
+        CustomMap<String, Object> mapResponse = pacienteService.getAllPrioridadAsc(limite);
+        int code = (int) mapResponse.get("code");
+
+        return new ResponseEntity<>(mapResponse, getStatus(code));
+
+    }
 
-        CustomMap<String, Object> mapResponse = pacienteService.getAllPrioridadAsc();
+    /**
+     * Autocompleta nombres de pacientes mediante una petición GET, usando el índice en memoria
+     * @param termino Prefijo del nombre, apellido o nombre completo
+     * @param limite Número máximo de resultados (10 por defecto)
+     * @return ResponseEntity con los IDs de los pacientes que coinciden y el estado HTTP
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<Object> autocomplete(@RequestParam String termino,
+                                               @RequestParam(defaultValue = "10") Integer limite) {
+
+        CustomMap<String, Object> mapResponse = pacienteService.autocompletar(termino, limite);
         int code = (int) mapResponse.get("code");
 
         return new ResponseEntity<>(mapResponse, getStatus(code));
 
     }
 
+    /**
+     * Registra que se eligió un paciente del autocompletado mediante una petición POST
+     * @param id ID del paciente seleccionado
+     * @return ResponseEntity con el resultado del registro y el estado HTTP
+     */
+    @PostMapping("/{id}/seleccion")
+    public ResponseEntity<Object> registrarSeleccion(@PathVariable Integer id) {
+
+        CustomMap<String, Object> mapResponse = pacienteService.registrarSeleccion(id);
+        int code = (int) mapResponse.get("code");
 
+        return new ResponseEntity<>(mapResponse, getStatus(code));
+
+    }
 
 }
@@ -0,0 +1,263 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import java.util.Comparator;
+import java.util.function.ToIntFunction;
+
+/**
+ * Árbol binario de búsqueda auto-balanceado (AVL).
+ * Mantiene la diferencia de alturas entre subárboles en a lo más 1, por lo que
+ * insert y search son O(log n) aunque los elementos lleguen ordenados.
+ * Inserción y búsqueda son iterativas; los recorridos heredados son recursivos
+ * pero su profundidad queda acotada por la altura (~1.44 log n).
+ * Puede usarse en cualquier lugar donde se espera un BinaryTree.
+ * @param <T> Tipo de elementos almacenados en el árbol
+ */
+public class AVLTree<T> extends BinaryTree<T> {
+
+    // Altura máxima de un AVL con Integer.MAX_VALUE nodos es ~45
+    private static final int MAX_HEIGHT = 64;
+
+    /**
+     * Constructor del árbol AVL con comparador
+     * @param comparator Comparador para ordenar los elementos
+     */
+    public AVLTree(Comparator<T> comparator) {
+        super(comparator);
+    }
+
+    /**
+     * Constructor del árbol AVL sin comparador (requiere que T implemente Comparable)
+     */
+    public AVLTree() {
+        super();
+    }
+
+    /**
+     * Inserta un elemento en el árbol y lo rebalancea en el camino de regreso a la raíz
+     * @param data el elemento a insertar
+     * @return true si se insertó correctamente
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean insert(T data) {
+        if (data == null) {
+            throw new NullPointerException("No se puede insertar un elemento nulo");
+        }
+
+        BinaryTreeNode<T> newNode = new BinaryTreeNode<>(data);
+        if (root == null) {
+            root = newNode;
+            size++;
+            return true;
+        }
+
+        // Guardar el camino desde la raíz para rebalancear sin recursión
+        BinaryTreeNode<T>[] path = (BinaryTreeNode<T>[]) new BinaryTreeNode<?>[MAX_HEIGHT];
+        int depth = 0;
+
+        BinaryTreeNode<T> current = root;
+        while (true) {
+            path[depth++] = current;
+            // Si es igual, se va a la derecha (permite duplicados como BinaryTree)
+            if (comparator.compare(data, current.getData()) < 0) {
+                if (current.getLeft() == null) {
+                    current.setLeft(newNode);
+                    break;
+                }
+                current = current.getLeft();
+            } else {
+                if (current.getRight() == null) {
+                    current.setRight(newNode);
+                    break;
+                }
+                current = current.getRight();
+            }
+        }
+
+        size++;
+        rebalancePath(path, depth);
+        return true;
+    }
+
+    /**
+     * Busca un elemento en el árbol de forma iterativa
+     * @param data el elemento a buscar
+     * @return el elemento encontrado o null si no existe
+     */
+    @Override
+    public T search(T data) {
+        if (data == null) {
+            return null;
+        }
+
+        BinaryTreeNode<T> current = root;
+        while (current != null) {
+            int comparison = comparator.compare(data, current.getData());
+            if (comparison == 0) {
+                return current.getData();
+            }
+            current = comparison < 0 ? current.getLeft() : current.getRight();
+        }
+        return null;
+    }
+
+    /**
+     * Busca el nodo cuyo dato coincide con el objetivo, sin construir un elemento de prueba
+     * @param target función que compara el objetivo contra el dato de un nodo
+     *               (negativo si el objetivo va a la izquierda, positivo si va a la derecha)
+     * @return el nodo encontrado o null si no existe
+     */
+    protected BinaryTreeNode<T> findNode(ToIntFunction<T> target) {
+        BinaryTreeNode<T> current = root;
+        while (current != null) {
+            int comparison = target.applyAsInt(current.getData());
+            if (comparison == 0) {
+                return current;
+            }
+            current = comparison < 0 ? current.getLeft() : current.getRight();
+        }
+        return null;
+    }
+
+    /**
+     * Elimina el primer nodo que coincide con el objetivo y rebalancea el camino hacia la raíz
+     * @param target función que compara el objetivo contra el dato de un nodo
+     * @return el dato eliminado o null si no existía
+     */
+    @SuppressWarnings("unchecked")
+    protected T removeNode(ToIntFunction<T> target) {
+        BinaryTreeNode<T>[] path = (BinaryTreeNode<T>[]) new BinaryTreeNode<?>[MAX_HEIGHT];
+        int depth = 0;
+
+        BinaryTreeNode<T> current = root;
+        while (current != null) {
+            int comparison = target.applyAsInt(current.getData());
+            if (comparison == 0) {
+                break;
+            }
+            path[depth++] = current;
+            current = comparison < 0 ? current.getLeft() : current.getRight();
+        }
+
+        if (current == null) {
+            return null;
+        }
+
+        T removed = current.getData();
+
+        if (current.getLeft() != null && current.getRight() != null) {
+            // Dos hijos: se copia el sucesor (mínimo del subárbol derecho) y se elimina ese nodo
+            path[depth++] = current;
+            BinaryTreeNode<T> successor = current.getRight();
+            while (successor.getLeft() != null) {
+                path[depth++] = successor;
+                successor = successor.getLeft();
+            }
+            current.setData(successor.getData());
+            current = successor;
+        }
+
+        // En este punto current tiene a lo más un hijo
+        BinaryTreeNode<T> child = current.getLeft() != null ? current.getLeft() : current.getRight();
+        if (depth == 0) {
+            root = child;
+        } else {
+            BinaryTreeNode<T> parent = path[depth - 1];
+            if (parent.getLeft() == current) {
+                parent.setLeft(child);
+            } else {
+                parent.setRight(child);
+            }
+        }
+
+        size--;
+        rebalancePath(path, depth);
+        return removed;
+    }
+
+    /**
+     * Obtiene la altura actual del árbol
+     * @return altura del árbol, 0 si está vacío
+     */
+    public int height() {
+        return height(root);
+    }
+
+    /**
+     * Recorre el camino guardado desde el nodo más profundo hacia la raíz,
+     * actualizando alturas y rotando donde sea necesario.
+     * @param path nodos visitados desde la raíz
+     * @param depth número de nodos válidos en path
+     */
+    protected void rebalancePath(BinaryTreeNode<T>[] path, int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            BinaryTreeNode<T> node = path[i];
+            BinaryTreeNode<T> balanced = balance(node);
+
+            if (i == 0) {
+                root = balanced;
+            } else if (balanced != node) {
+                BinaryTreeNode<T> parent = path[i - 1];
+                if (parent.getLeft() == node) {
+                    parent.setLeft(balanced);
+                } else {
+                    parent.setRight(balanced);
+                }
+            }
+        }
+    }
+
+    /**
+     * Actualiza la altura del nodo y aplica la rotación que corresponda
+     * @param node raíz del subárbol a balancear
+     * @return nueva raíz del subárbol
+     */
+    private BinaryTreeNode<T> balance(BinaryTreeNode<T> node) {
+        updateHeight(node);
+        int factor = height(node.getLeft()) - height(node.getRight());
+
+        if (factor > 1) {
+            // Caso izquierda-derecha: rotar primero el hijo izquierdo
+            if (height(node.getLeft().getLeft()) < height(node.getLeft().getRight())) {
+                node.setLeft(rotateLeft(node.getLeft()));
+            }
+            return rotateRight(node);
+        }
+
+        if (factor < -1) {
+            // Caso derecha-izquierda: rotar primero el hijo derecho
+            if (height(node.getRight().getRight()) < height(node.getRight().getLeft())) {
+                node.setRight(rotateRight(node.getRight()));
+            }
+            return rotateLeft(node);
+        }
+
+        return node;
+    }
+
+    private BinaryTreeNode<T> rotateRight(BinaryTreeNode<T> node) {
+        BinaryTreeNode<T> pivot = node.getLeft();
+        node.setLeft(pivot.getRight());
+        pivot.setRight(node);
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    private BinaryTreeNode<T> rotateLeft(BinaryTreeNode<T> node) {
+        BinaryTreeNode<T> pivot = node.getRight();
+        node.setRight(pivot.getLeft());
+        pivot.setLeft(node);
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    private void updateHeight(BinaryTreeNode<T> node) {
+        node.setHeight(1 + Math.max(height(node.getLeft()), height(node.getRight())));
+    }
+
+    private int height(BinaryTreeNode<T> node) {
+        return node == null ? 0 : node.getHeight();
+    }
+}
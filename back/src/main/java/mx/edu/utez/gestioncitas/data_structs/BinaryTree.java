@@ -10,9 +10,9 @@ import java.util.function.Function;
  */
 public class BinaryTree<T> {
 
-    private BinaryTreeNode<T> root;
-    private int size;
-    private Comparator<T> comparator;
+    protected BinaryTreeNode<T> root;
+    protected int size;
+    protected Comparator<T> comparator;
 
     /**
      * Constructor del árbol binario con comparador
@@ -9,6 +9,7 @@ public class BinaryTreeNode<T> {
     private T data;
     private BinaryTreeNode<T> left;
     private BinaryTreeNode<T> right;
+    private int height; // Altura del subárbol, usada por AVLTree
 
     /**
      * Constructor del nodo binario
@@ -18,6 +19,7 @@ public class BinaryTreeNode<T> {
         this.data = data;
         this.left = null;
         this.right = null;
+        this.height = 1;
     }
 
     // Getters y Setters
@@ -44,5 +46,12 @@ public class BinaryTreeNode<T> {
     public void setRight(BinaryTreeNode<T> right) {
         this.right = right;
     }
-}
 
+    public int getHeight() {
+        return height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+}
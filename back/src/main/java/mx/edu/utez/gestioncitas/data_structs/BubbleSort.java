@@ -6,7 +6,10 @@ import mx.edu.utez.gestioncitas.model.Medico;
  * Implementación del algoritmo de ordenamiento Bubble Sort
  * para ordenar una lista de Medico por nombre en orden alfabético.
  * @author Tilines Crew
+ * @deprecated O(n²) comparaciones y cada get(j) sobre ListaSimple es O(n); usar
+ * {@link MergeSort#sort(ListaSimple, java.util.Comparator)} o {@link ListaSimple#sort(java.util.Comparator)}.
  */
+@Deprecated
 public class BubbleSort {
 
     /**
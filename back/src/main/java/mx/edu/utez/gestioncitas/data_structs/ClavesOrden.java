@@ -0,0 +1,95 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Caché de claves de ordenamiento (CollationKey) en español, una por entidad.
+ * El Collator ordena como un diccionario: sin distinguir mayúsculas y con las vocales acentuadas
+ * junto a las que no llevan acento ("Álvarez" antes que "Beltrán"), cosa que String.compareTo no hace.
+ * La clave se calcula una vez por entidad y comparar dos claves es comparar sus bytes.
+ * Cada clave recuerda el texto del que salió: si la entidad cambió sin que se invalidara,
+ * se recalcula en lugar de devolver una clave vieja.
+ * Se comparte entre peticiones, por eso las claves viven en un ConcurrentCustomMap.
+ * @param <T> tipo de las entidades
+ * @author Tilines Crew
+ */
+public class ClavesOrden<T> {
+
+    private final Collator collator;
+    private final Function<T, Integer> idGetter;
+    private final Function<T, String> texto;
+
+    // ID de la entidad -> clave del último texto visto
+    private final ConcurrentCustomMap<Integer, CollationKey> claves = new ConcurrentCustomMap<>();
+
+    /**
+     * Constructor de la caché
+     * @param idGetter función que obtiene el ID de cada entidad
+     * @param texto función que obtiene el texto por el que se ordena (null cuenta como vacío)
+     */
+    public ClavesOrden(Function<T, Integer> idGetter, Function<T, String> texto) {
+        this.collator = Collator.getInstance(Locale.forLanguageTag("es-MX"));
+        this.collator.setStrength(Collator.SECONDARY);
+        this.collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        this.idGetter = idGetter;
+        this.texto = texto;
+    }
+
+    /**
+     * Obtiene la clave de ordenamiento de la entidad, calculándola solo si no está en caché
+     * o si su texto cambió
+     * @param entidad entidad a evaluar
+     * @return la CollationKey de su texto
+     */
+    public CollationKey getClave(T entidad) {
+        String actual = texto.apply(entidad);
+        if (actual == null)
+            actual = "";
+
+        Integer id = idGetter.apply(entidad);
+        if (id == null)
+            return collator.getCollationKey(actual);
+
+        CollationKey clave = claves.get(id);
+        if (clave == null || !clave.getSourceString().equals(actual)) {
+            clave = collator.getCollationKey(actual);
+            claves.put(id, clave);
+        }
+        return clave;
+    }
+
+    /**
+     * Ordena una copia de la lista por las claves de la caché (estable)
+     * @param lista ListaSimple a ordenar (no se modifica)
+     * @return una nueva ListaSimple ordenada
+     */
+    public ListaSimple<T> ordenar(ListaSimple<T> lista) {
+        return MergeSort.sortByKey(lista, this::getClave);
+    }
+
+    /**
+     * Descarta la clave de una entidad (al actualizarla o eliminarla)
+     * @param id ID de la entidad
+     */
+    public void invalidar(Integer id) {
+        if (id != null)
+            claves.remove(id);
+    }
+
+    /**
+     * Descarta todas las claves
+     */
+    public void limpiar() {
+        claves.clear();
+    }
+
+    /**
+     * @return número de claves en caché
+     */
+    public int size() {
+        return claves.size();
+    }
+}
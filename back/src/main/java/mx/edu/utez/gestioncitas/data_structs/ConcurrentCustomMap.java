@@ -0,0 +1,550 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.springframework.lang.NonNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Map seguro para hilos pensado para estado compartido entre peticiones HTTP y el scheduler.
+ * La tabla se divide en segmentos, cada uno con su propio candado (lock striping):
+ * escrituras sobre segmentos distintos no compiten entre sí y cada segmento se redimensiona
+ * por su cuenta mientras los demás siguen trabajando.
+ * Las lecturas no toman candado: los nodos se publican con escrituras volátiles y al
+ * redimensionar se copian, así que un lector siempre recorre una cadena consistente.
+ * Como ConcurrentHashMap, no admite claves ni valores nulos, y size() y los iteradores
+ * son débilmente consistentes (no lanzan ConcurrentModificationException).
+ * @param <K> Tipo de clave
+ * @param <V> Tipo de valor
+ */
+public class ConcurrentCustomMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+    // Capacidad inicial por defecto
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Número de segmentos por defecto
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    // Factor de carga de cada segmento
+    private static final float LOAD_FACTOR = 0.75f;
+
+    // Capacidad mínima de la tabla de un segmento
+    private static final int MIN_SEGMENT_CAPACITY = 2;
+
+    // Capacidad máxima de la tabla de un segmento
+    private static final int MAXIMUM_SEGMENT_CAPACITY = 1 << 30;
+
+    // Número máximo de segmentos
+    private static final int MAX_SEGMENTS = 1 << 16;
+
+    private final Segment<K, V>[] segments;
+
+    // Bits altos del hash que eligen el segmento
+    private final int segmentShift;
+    private final int segmentMask;
+
+    /**
+     * Nodo de una cadena. value y next son volátiles para que las lecturas sin candado
+     * vean nodos completamente construidos.
+     * @param <K> Tipo de clave
+     * @param <V> Tipo de valor
+     */
+    static final class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Segmento de la tabla: una tabla hash pequeña protegida por su propio candado.
+     * Solo las escrituras toman el candado.
+     * @param <K> Tipo de clave
+     * @param <V> Tipo de valor
+     */
+    static final class Segment<K, V> {
+
+        final ReentrantLock lock = new ReentrantLock();
+        volatile AtomicReferenceArray<Node<K, V>> table;
+        volatile int count;
+        int threshold;
+
+        Segment(int capacity) {
+            this.table = new AtomicReferenceArray<>(capacity);
+            this.threshold = (int) (capacity * LOAD_FACTOR);
+        }
+
+        /**
+         * Busca un nodo sin tomar el candado
+         */
+        Node<K, V> getNode(int hash, Object key) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            for (Node<K, V> e = tab.get(hash & (tab.length() - 1)); e != null; e = e.next) {
+                if (e.hash == hash && key.equals(e.key)) {
+                    return e;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Inserta o actualiza bajo el candado del segmento
+         * @return Valor anterior, o null si la clave no existía
+         */
+        V put(int hash, K key, V value, boolean onlyIfAbsent) {
+            lock.lock();
+            try {
+                Node<K, V> e = getNode(hash, key);
+                if (e != null) {
+                    V oldValue = e.value;
+                    if (!onlyIfAbsent) {
+                        e.value = value;
+                    }
+                    return oldValue;
+                }
+
+                if (count + 1 > threshold) {
+                    rehash();
+                }
+
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int i = hash & (tab.length() - 1);
+                tab.set(i, new Node<>(hash, key, value, tab.get(i)));
+                count = count + 1;
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Elimina la clave si existe y, cuando expected no es nulo, si su valor coincide
+         * @return Valor eliminado, o null si no se eliminó nada
+         */
+        V remove(int hash, Object key, Object expected) {
+            lock.lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int i = hash & (tab.length() - 1);
+                Node<K, V> prev = null;
+
+                for (Node<K, V> e = tab.get(i); e != null; prev = e, e = e.next) {
+                    if (e.hash == hash && key.equals(e.key)) {
+                        V value = e.value;
+                        if (expected != null && !expected.equals(value)) {
+                            return null;
+                        }
+                        // Un lector que ya esté en e sigue viendo e.next, así que la cadena no se rompe
+                        if (prev == null) {
+                            tab.set(i, e.next);
+                        } else {
+                            prev.next = e.next;
+                        }
+                        count = count - 1;
+                        return value;
+                    }
+                }
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Reemplaza el valor de una clave existente; si expected no es nulo, solo si coincide
+         * @return Valor anterior, o null si no se reemplazó
+         */
+        V replace(int hash, K key, V expected, V value) {
+            lock.lock();
+            try {
+                Node<K, V> e = getNode(hash, key);
+                if (e == null || (expected != null && !expected.equals(e.value))) {
+                    return null;
+                }
+                V oldValue = e.value;
+                e.value = value;
+                return oldValue;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                table = new AtomicReferenceArray<>(table.length());
+                count = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Duplica la tabla del segmento copiando los nodos: los lectores que van por la
+         * tabla anterior no ven cadenas a medio mover. Se llama con el candado tomado.
+         */
+        private void rehash() {
+            AtomicReferenceArray<Node<K, V>> oldTab = table;
+            int oldCap = oldTab.length();
+            if (oldCap >= MAXIMUM_SEGMENT_CAPACITY) {
+                threshold = Integer.MAX_VALUE;
+                return;
+            }
+
+            int newCap = oldCap << 1;
+            AtomicReferenceArray<Node<K, V>> newTab = new AtomicReferenceArray<>(newCap);
+            for (int i = 0; i < oldCap; i++) {
+                for (Node<K, V> e = oldTab.get(i); e != null; e = e.next) {
+                    int j = e.hash & (newCap - 1);
+                    newTab.set(j, new Node<>(e.hash, e.key, e.value, newTab.get(j)));
+                }
+            }
+
+            table = newTab;
+            threshold = (int) (newCap * LOAD_FACTOR);
+        }
+    }
+
+    /**
+     * Constructor por defecto
+     */
+    public ConcurrentCustomMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Constructor con capacidad inicial
+     * @param initialCapacity Capacidad inicial del mapa
+     * @throws IllegalArgumentException si la capacidad inicial es negativa
+     */
+    public ConcurrentCustomMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Constructor con capacidad inicial y nivel de concurrencia
+     * @param initialCapacity Capacidad inicial del mapa
+     * @param concurrencyLevel Número estimado de hilos que escriben a la vez (define los segmentos)
+     * @throws IllegalArgumentException si algún parámetro es inválido
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentCustomMap(int initialCapacity, int concurrencyLevel) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Capacidad inicial no puede ser negativa: " + initialCapacity);
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Nivel de concurrencia inválido: " + concurrencyLevel);
+        }
+
+        int segmentCount = tableSizeFor(Math.min(concurrencyLevel, MAX_SEGMENTS));
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+        this.segmentMask = segmentCount - 1;
+
+        int perSegment = tableSizeFor(Math.max(MIN_SEGMENT_CAPACITY, (initialCapacity + segmentCount - 1) / segmentCount));
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(perSegment);
+        }
+    }
+
+    /**
+     * Mezcla los bits del hash: los altos eligen el segmento y los bajos el bucket
+     * @param key Clave a hashear
+     * @return Hash de la clave
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        h *= 0x85EBCA6B;
+        h ^= (h >>> 13);
+        return h;
+    }
+
+    /**
+     * Retorna la siguiente potencia de 2 mayor o igual a cap
+     * @param cap Capacidad deseada
+     * @return Siguiente potencia de 2 mayor o igual a cap
+     */
+    private static int tableSizeFor(int cap) {
+        int n = -1 >>> Integer.numberOfLeadingZeros(Math.max(cap, 1) - 1);
+        return (n < 0) ? 1 : (n >= MAXIMUM_SEGMENT_CAPACITY) ? MAXIMUM_SEGMENT_CAPACITY : n + 1;
+    }
+
+    private Segment<K, V> segmentFor(int hash) {
+        // Con un solo segmento el desplazamiento es 32, que Java reduce a 0; la máscara lo corrige
+        return segments[(hash >>> segmentShift) & segmentMask];
+    }
+
+    /**
+     * Obtiene un valor del map sin bloquear
+     * @param key Clave del valor a obtener
+     * @return Valor asociado con la clave, o null si no existe
+     */
+    @Override
+    public V get(Object key) {
+        int h = hash(key);
+        Node<K, V> e = segmentFor(h).getNode(h, key);
+        return e == null ? null : e.value;
+    }
+
+    /**
+     * Verifica si el map contiene una clave, sin bloquear
+     * @param key Clave a verificar
+     * @return True si la clave existe, false en caso contrario
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        int h = hash(key);
+        return segmentFor(h).getNode(h, key) != null;
+    }
+
+    /**
+     * Agrega o actualiza un valor en el map
+     * @param key Clave del valor (no nula)
+     * @param value Valor a asociar con la clave (no nulo)
+     * @return Valor antiguo asociado con la clave, o null si no existía
+     */
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(value);
+        int h = hash(key);
+        return segmentFor(h).put(h, key, value, false);
+    }
+
+    /**
+     * Inserta el valor solo si la clave no está presente, de forma atómica
+     * @param key Clave a insertar (no nula)
+     * @param value Valor a insertar (no nulo)
+     * @return El valor existente si la clave ya estaba presente, null si se insertó el nuevo valor
+     */
+    @Override
+    public V putIfAbsent(@NonNull K key, V value) {
+        Objects.requireNonNull(value);
+        int h = hash(key);
+        return segmentFor(h).put(h, key, value, true);
+    }
+
+    /**
+     * Elimina un elemento del map
+     * @param key Clave del valor a eliminar
+     * @return Valor eliminado, o null si no existía
+     */
+    @Override
+    public V remove(Object key) {
+        int h = hash(key);
+        return segmentFor(h).remove(h, key, null);
+    }
+
+    /**
+     * Elimina la clave solo si está asociada al valor dado, de forma atómica
+     * @param key Clave a eliminar
+     * @param value Valor esperado
+     * @return True si se eliminó la entrada
+     */
+    @Override
+    public boolean remove(@NonNull Object key, Object value) {
+        if (value == null) {
+            return false;
+        }
+        int h = hash(key);
+        return segmentFor(h).remove(h, key, value) != null;
+    }
+
+    /**
+     * Reemplaza el valor de la clave solo si está asociada al valor esperado, de forma atómica
+     * @param key Clave a reemplazar
+     * @param oldValue Valor esperado
+     * @param newValue Nuevo valor (no nulo)
+     * @return True si se reemplazó el valor
+     */
+    @Override
+    public boolean replace(@NonNull K key, @NonNull V oldValue, @NonNull V newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+        int h = hash(key);
+        return segmentFor(h).replace(h, key, oldValue, newValue) != null;
+    }
+
+    /**
+     * Reemplaza el valor de la clave solo si ya existe, de forma atómica
+     * @param key Clave a reemplazar
+     * @param value Nuevo valor (no nulo)
+     * @return Valor anterior, o null si la clave no existía
+     */
+    @Override
+    public V replace(@NonNull K key, @NonNull V value) {
+        Objects.requireNonNull(value);
+        int h = hash(key);
+        return segmentFor(h).replace(h, key, null, value);
+    }
+
+    /**
+     * Retorna el tamaño del map sumando los segmentos (aproximado si hay escrituras en curso)
+     * @return Número de entradas en el map
+     */
+    @Override
+    public int size() {
+        long sum = 0;
+        for (Segment<K, V> segment : segments) {
+            sum += segment.count;
+        }
+        return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+    }
+
+    /**
+     * Verifica si el map está vacío
+     * @return True si el map está vacío, false en caso contrario
+     */
+    @Override
+    public boolean isEmpty() {
+        for (Segment<K, V> segment : segments) {
+            if (segment.count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Limpia el map, un segmento a la vez
+     */
+    @Override
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Método requerido por AbstractMap - retorna el conjunto de entradas.
+     * Su iterador es débilmente consistente: refleja el estado en algún punto desde que se creó.
+     * @return Conjunto de entradas del mapa
+     */
+    @Override
+    @NonNull
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            @NonNull
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return ConcurrentCustomMap.this.size();
+            }
+
+            @Override
+            public void clear() {
+                ConcurrentCustomMap.this.clear();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Entry<?, ?> e) || e.getKey() == null) {
+                    return false;
+                }
+                V value = get(e.getKey());
+                return value != null && value.equals(e.getValue());
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                return o instanceof Entry<?, ?> e && e.getKey() != null
+                        && ConcurrentCustomMap.this.remove(e.getKey(), e.getValue());
+            }
+        };
+    }
+
+    /**
+     * Iterador débilmente consistente: recorre cada segmento sobre la tabla que tenía al llegar a él
+     */
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private int segmentIndex = 0;
+        private AtomicReferenceArray<Node<K, V>> currentTable;
+        private int binIndex = 0;
+        private Node<K, V> next;
+        private Node<K, V> lastReturned;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            if (next != null && (next = next.next) != null) {
+                return;
+            }
+
+            while (true) {
+                if (currentTable != null) {
+                    while (binIndex < currentTable.length()) {
+                        if ((next = currentTable.get(binIndex++)) != null) {
+                            return;
+                        }
+                    }
+                }
+                if (segmentIndex >= segments.length) {
+                    currentTable = null;
+                    return;
+                }
+                currentTable = segments[segmentIndex++].table;
+                binIndex = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            Node<K, V> e = next;
+            if (e == null) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = e;
+            advance();
+            return new MapEntry(e.key, e.value);
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            ConcurrentCustomMap.this.remove(lastReturned.key);
+            lastReturned = null;
+        }
+    }
+
+    /**
+     * Entrada entregada por el iterador; setValue escribe en el map
+     */
+    private class MapEntry extends SimpleEntry<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        MapEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            Objects.requireNonNull(value);
+            super.setValue(value);
+            return ConcurrentCustomMap.this.put(getKey(), value);
+        }
+    }
+}
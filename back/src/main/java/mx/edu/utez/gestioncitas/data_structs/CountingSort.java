@@ -0,0 +1,114 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * Ordenamiento por conteo (cubetas) para claves enteras de un dominio chico: prioridad (1 a 3),
+ * códigos de estado, números de consultorio, minutos del día...
+ * Cada nodo se engancha al final de la cubeta de su clave y luego se concatenan las cubetas,
+ * así que es O(n + k) y estable: dentro de una misma clave se conserva el orden original
+ * (por ejemplo, el de llegada). Las claves null van al final, como en los comparadores de MergeSort.
+ * @author Tilines Crew
+ */
+public class CountingSort {
+
+    // Más cubetas que esto ya no es un dominio chico: conviene MergeSort
+    private static final int MAX_CUBETAS = 1 << 16;
+
+    /**
+     * Ordena una copia de la lista por una clave entera en [minimo, maximo].
+     * Si alguna clave cae fuera del rango, la lista se ordena con MergeSort por la misma clave
+     * (mismo resultado, en O(n log n)).
+     * @param lista ListaSimple a ordenar (no se modifica)
+     * @param clave función que obtiene la clave de cada elemento (puede devolver null)
+     * @param minimo clave mínima del dominio
+     * @param maximo clave máxima del dominio
+     * @param <T> tipo de los elementos
+     * @return una nueva ListaSimple ordenada por clave ascendente
+     * @throws IllegalArgumentException si el rango está vacío o es demasiado grande
+     */
+    public static <T> ListaSimple<T> sort(ListaSimple<T> lista, Function<? super T, Integer> clave,
+                                         int minimo, int maximo) {
+
+        if (maximo < minimo || (long) maximo - minimo + 1 > MAX_CUBETAS)
+            throw new IllegalArgumentException("Rango de claves inválido: [" + minimo + ", " + maximo + "]");
+
+        ListaSimple<T> resultado = new ListaSimple<>();
+        if (lista == null)
+            return resultado;
+
+        resultado.addAll(lista);
+
+        // 1. Cubeta de cada elemento; la lista no se toca hasta saber que todas las claves son válidas
+        int cubetaNull = maximo - minimo + 1;
+        int[] cubetas = new int[resultado.size()];
+        int i = 0;
+
+        for (T dato : resultado) {
+            Integer valor = clave.apply(dato);
+
+            if (valor == null) {
+                cubetas[i++] = cubetaNull;
+            } else if (valor < minimo || valor > maximo) {
+                resultado.sort(Comparator.comparing(clave, Comparator.nullsLast(Comparator.<Integer>naturalOrder())));
+                return resultado;
+            } else {
+                cubetas[i++] = valor - minimo;
+            }
+        }
+
+        // 2. Reenlazar los nodos por cubeta
+        resultado.ordenarPorCubetas(cubetas, cubetaNull + 1);
+        return resultado;
+
+    }
+
+    /**
+     * Reparte la cadena en cubetas respetando el orden de llegada y las concatena en orden
+     * @param head primer nodo de la cadena
+     * @param cubetas cubeta de cada nodo, en el orden de la cadena
+     * @param numCubetas número de cubetas
+     * @param <T> tipo de los elementos
+     * @return el primer nodo de la cadena ordenada
+     */
+    static <T> Nodo<T> ordenarNodos(Nodo<T> head, int[] cubetas, int numCubetas) {
+
+        @SuppressWarnings("unchecked")
+        Nodo<T>[] primeros = (Nodo<T>[]) new Nodo<?>[numCubetas];
+        @SuppressWarnings("unchecked")
+        Nodo<T>[] ultimos = (Nodo<T>[]) new Nodo<?>[numCubetas];
+
+        int i = 0;
+        for (Nodo<T> actual = head; actual != null; i++) {
+            Nodo<T> siguiente = actual.getNext();
+            int cubeta = cubetas[i];
+
+            actual.setNext(null);
+            if (ultimos[cubeta] == null)
+                primeros[cubeta] = actual;
+            else
+                ultimos[cubeta].setNext(actual);
+            ultimos[cubeta] = actual;
+
+            actual = siguiente;
+        }
+
+        // Concatenar las cubetas no vacías
+        Nodo<T> cabeza = null;
+        Nodo<T> cola = null;
+        for (int c = 0; c < numCubetas; c++) {
+            if (primeros[c] == null)
+                continue;
+
+            if (cola == null)
+                cabeza = primeros[c];
+            else
+                cola.setNext(primeros[c]);
+            cola = ultimos[c];
+        }
+
+        return cabeza;
+
+    }
+}
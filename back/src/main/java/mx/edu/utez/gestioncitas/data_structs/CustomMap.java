@@ -2,11 +2,17 @@ package mx.edu.utez.gestioncitas.data_structs;
 
 import org.springframework.lang.NonNull;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.*;
 
 /**
  * Implementación personalizada de Map usando AbstractMap
- * Utiliza una tabla hash con encadenamiento para manejar colisiones
+ * Utiliza una tabla hash con encadenamiento para manejar colisiones.
+ * Cuando una cadena crece más de TREEIFY_THRESHOLD nodos se convierte en un árbol AVL
+ * (ordenado por hash, clase y compareTo si las claves son Comparable), de modo que
+ * claves con hashes malos o adversarios no degradan get/put/remove a O(n).
+ * Al encogerse a UNTREEIFY_THRESHOLD nodos o menos vuelve a ser una cadena.
  * @param <K> Tipo de clave
  * @param <V> Tipo de valor
  */
@@ -18,9 +24,45 @@ public class CustomMap<K, V> extends AbstractMap<K, V> {
     // Factor de carga por defecto
     private static final float DEFAULT_LOAD_FACTOR = 0.75f;
 
+    // Longitud de cadena a partir de la cual el bucket se convierte en árbol
+    static final int TREEIFY_THRESHOLD = 8;
+
+    // Longitud de cadena a la que un árbol vuelve a ser cadena
+    static final int UNTREEIFY_THRESHOLD = 6;
+
+    // Capacidad mínima para convertir buckets en árbol; con menos se prefiere redimensionar
+    static final int MIN_TREEIFY_CAPACITY = 64;
+
+    /**
+     * Indica, por clase, si implementa Comparable de sí misma (por ejemplo String implements Comparable&lt;String&gt;).
+     * Se calcula una sola vez por clase.
+     */
+    private static final ClassValue<Boolean> SELF_COMPARABLE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> c) {
+            if (!Comparable.class.isAssignableFrom(c)) {
+                return false;
+            }
+            for (Type t : c.getGenericInterfaces()) {
+                if (t instanceof ParameterizedType p
+                        && p.getRawType() == Comparable.class
+                        && p.getActualTypeArguments()[0] == c) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    };
+
     // Tabla hash que contiene los nodos
     private Node<K, V>[] table;
 
+    // Raíz del árbol de cada bucket convertido (null si ningún bucket lo está)
+    private TreeNode<K, V>[] treeBins;
+
+    // Secuencia para desempatar nodos del árbol que no se pueden ordenar por clave
+    private long treeSeq;
+
     // Número de entradas en el map
     private int size;
 
@@ -99,7 +141,7 @@ public class CustomMap<K, V> extends AbstractMap<K, V> {
                     Objects.equals(value, e.getValue());
         }
 
-        /**|
+        /**
          * Calcula el hash code del nodo
          * @return Hash code del nodo
          */
@@ -118,6 +160,34 @@ public class CustomMap<K, V> extends AbstractMap<K, V> {
         }
     }
 
+    /**
+     * Nodo de un bucket convertido en árbol AVL.
+     * Sigue enlazado en la cadena (next/prev) para que la iteración y el redimensionado no cambien;
+     * left/right forman el árbol que se usa para buscar.
+     * @param <K> Tipo de clave
+     * @param <V> Tipo de valor
+     */
+    static final class TreeNode<K, V> extends Node<K, V> {
+
+        TreeNode<K, V> prev;
+        TreeNode<K, V> left;
+        TreeNode<K, V> right;
+        int height = 1;
+        final long seq;
+
+        /** Constructor del nodo de árbol
+         * @param hash Hash de la clave
+         * @param key Clave
+         * @param value Valor
+         * @param next Siguiente nodo en la cadena
+         * @param seq Número de secuencia para desempatar
+         */
+        TreeNode(int hash, K key, V value, Node<K, V> next, long seq) {
+            super(hash, key, value, next);
+            this.seq = seq;
+        }
+    }
+
     /**
      * Constructor por defecto
      */
@@ -210,7 +280,7 @@ public class CustomMap<K, V> extends AbstractMap<K, V> {
      */
     @Override
     public V put(K key, V value) {
-        return putValue(hash(key), key, value);
+        return putValue(hash(key), key, value, false);
     }
 
     /**
@@ -218,8 +288,10 @@ public class CustomMap<K, V> extends AbstractMap<K, V> {
      * @param hash Hash de la clave
      * @param key Clave del valor
      * @param value Valor a asociar con la clave
+     * @param onlyIfAbsent Si es true no se modifica el valor de una clave existente
+     * @return Valor asociado antes con la clave, o null si no existía
      */
-    private V putValue(int hash, K key, V value) {
+    private V putValue(int hash, K key, V value, boolean onlyIfAbsent) {
         Node<K, V>[] tab = table;
         int n = tab.length;
         int i = (n - 1) & hash;
@@ -227,26 +299,51 @@ public class CustomMap<K, V> extends AbstractMap<K, V> {
         // Si no hay nodo en esa posición, crear uno nuevo
         if (tab[i] == null) {
             tab[i] = new Node<>(hash, key, value, null);
+        } else if (treeBins != null && treeBins[i] != null) {
+            // El bucket es un árbol: buscar en O(log n)
+            TreeNode<K, V> existing = findTreeNode(treeBins[i], hash, key);
+            if (existing != null) {
+                V oldValue = existing.value;
+                if (!onlyIfAbsent) {
+                    existing.value = value;
+                }
+                return oldValue;
+            }
+
+            // Agregar al inicio de la cadena y al árbol
+            TreeNode<K, V> first = (TreeNode<K, V>) tab[i];
+            TreeNode<K, V> x = new TreeNode<>(hash, key, value, first, treeSeq++);
+            first.prev = x;
+            tab[i] = x;
+            treeBins[i] = treeInsert(treeBins[i], x);
         } else {
             // Hay colisión, buscar en la cadena
             Node<K, V> e = tab[i];
+            int binCount = 1;
 
             // Recorrer la cadena
             while (true) {
                 // Si la clave ya existe, actualizar el valor
                 if (e.hash == hash && Objects.equals(key, e.key)) {
                     V oldValue = e.value;
-                    e.value = value;
+                    if (!onlyIfAbsent) {
+                        e.value = value;
+                    }
                     return oldValue;
                 }
 
                 // Si llegamos al final de la cadena, agregar nuevo nodo
                 if (e.next == null) {
                     e.next = new Node<>(hash, key, value, null);
+                    // La cadena quedó demasiado larga: convertir a árbol
+                    if (binCount >= TREEIFY_THRESHOLD) {
+                        treeifyBin(tab, i);
+                    }
                     break;
                 }
 
                 e = e.next;
+                binCount++;
             }
         }
 
@@ -282,6 +379,10 @@ public class CustomMap<K, V> extends AbstractMap<K, V> {
         Node<K, V> first = tab[i];
 
         if (first != null) {
+            if (treeBins != null && treeBins[i] != null) {
+                return findTreeNode(treeBins[i], hash, key);
+            }
+
             Node<K, V> e = first;
             while (e != null) {
                 if (e.hash == hash && Objects.equals(key, e.key)) {
@@ -317,6 +418,10 @@ public class CustomMap<K, V> extends AbstractMap<K, V> {
         Node<K, V> first = tab[i];
 
         if (first != null) {
+            if (treeBins != null && treeBins[i] != null) {
+                return removeTreeNode(tab, i, hash, key);
+            }
+
             Node<K, V> e = first;
             Node<K, V> prev = null;
 
@@ -374,6 +479,7 @@ public class CustomMap<K, V> extends AbstractMap<K, V> {
         if (tab != null && size > 0) {
             size = 0;
             Arrays.fill(tab, null);
+            treeBins = null;
         }
     }
 
@@ -385,41 +491,7 @@ public class CustomMap<K, V> extends AbstractMap<K, V> {
      */
     @Override
     public V putIfAbsent(K key, V value) {
-        int hash = hash(key);
-        Node<K, V>[] tab = table;
-        int n = tab.length;
-        int i = (n - 1) & hash;
-
-        Node<K, V> e = tab[i];
-
-        // Si no existe nodo en el bucket, lo insertamos directamente
-        if (e == null) {
-            tab[i] = new Node<>(hash, key, value, null);
-            if (++size > threshold) {
-                resize();
-            }
-            return null;
-        }
-
-        // Recorrer la cadena
-        Node<K, V> current = e;
-        while (true) {
-
-            // Si la clave ya existe, retornamos su valor sin modificarlo
-            if (current.hash == hash && Objects.equals(key, current.key))
-                return current.value;
-
-            // Llegamos al final de la cadena: insertar nuevo nodo
-            if (current.next == null) {
-                current.next = new Node<>(hash, key, value, null);
-                if (++size > threshold) {
-                    resize();
-                }
-                return null;
-            }
-
-            current = current.next;
-        }
+        return putValue(hash(key), key, value, true);
     }
 
     /**
@@ -436,6 +508,8 @@ public class CustomMap<K, V> extends AbstractMap<K, V> {
         }
 
         Node<K, V>[] newTab = (Node<K, V>[]) new Node[newCap];
+        TreeNode<K, V>[] oldTrees = treeBins;
+        treeBins = null;
 
         // Redistribuir todos los nodos
         for (int i = 0; i < oldCap; i++) {
@@ -443,6 +517,11 @@ public class CustomMap<K, V> extends AbstractMap<K, V> {
             if (e != null) {
                 oldTab[i] = null;
 
+                if (oldTrees != null && oldTrees[i] != null) {
+                    splitTreeBin(newTab, (TreeNode<K, V>) e, i, oldCap);
+                    continue;
+                }
+
                 do {
                     Node<K, V> next = e.next;
                     int newIndex = (newCap - 1) & e.hash;
@@ -457,6 +536,311 @@ public class CustomMap<K, V> extends AbstractMap<K, V> {
         threshold = (int) (newCap * loadFactor);
     }
 
+    /**
+     * Divide un bucket convertido en árbol entre sus dos posiciones de la tabla nueva
+     * (i e i + oldCap), conservando el orden de la cadena. Cada mitad vuelve a ser árbol
+     * si conserva más de UNTREEIFY_THRESHOLD nodos, o cadena simple en caso contrario.
+     * @param newTab Tabla nueva
+     * @param head Primer nodo de la cadena del bucket
+     * @param index Índice del bucket en la tabla anterior
+     * @param oldCap Capacidad de la tabla anterior
+     */
+    private void splitTreeBin(Node<K, V>[] newTab, TreeNode<K, V> head, int index, int oldCap) {
+        TreeNode<K, V> loHead = null, loTail = null, hiHead = null, hiTail = null;
+        int loCount = 0, hiCount = 0;
+
+        for (TreeNode<K, V> e = head, next; e != null; e = next) {
+            next = (TreeNode<K, V>) e.next;
+            e.next = null;
+            if ((e.hash & oldCap) == 0) {
+                e.prev = loTail;
+                if (loTail == null) loHead = e; else loTail.next = e;
+                loTail = e;
+                loCount++;
+            } else {
+                e.prev = hiTail;
+                if (hiTail == null) hiHead = e; else hiTail.next = e;
+                hiTail = e;
+                hiCount++;
+            }
+        }
+
+        placeSplitBin(newTab, loHead, loCount, index);
+        placeSplitBin(newTab, hiHead, hiCount, index + oldCap);
+    }
+
+    /**
+     * Coloca una mitad de un bucket dividido en la tabla nueva como árbol o como cadena
+     */
+    @SuppressWarnings("unchecked")
+    private void placeSplitBin(Node<K, V>[] newTab, TreeNode<K, V> head, int count, int index) {
+        if (head == null) {
+            return;
+        }
+        newTab[index] = head;
+        if (count <= UNTREEIFY_THRESHOLD) {
+            untreeify(head);
+            return;
+        }
+        if (treeBins == null) {
+            treeBins = (TreeNode<K, V>[]) new TreeNode[newTab.length];
+        }
+        treeBins[index] = buildTree(head);
+    }
+
+    /**
+     * Convierte la cadena del bucket en árbol, o redimensiona si la tabla aún es pequeña
+     * @param tab Tabla actual
+     * @param index Índice del bucket
+     */
+    @SuppressWarnings("unchecked")
+    private void treeifyBin(Node<K, V>[] tab, int index) {
+        if (tab.length < MIN_TREEIFY_CAPACITY) {
+            resize();
+            return;
+        }
+
+        TreeNode<K, V> head = null, tail = null;
+        for (Node<K, V> e = tab[index]; e != null; e = e.next) {
+            TreeNode<K, V> t = new TreeNode<>(e.hash, e.key, e.value, null, treeSeq++);
+            t.prev = tail;
+            if (tail == null) head = t; else tail.next = t;
+            tail = t;
+        }
+
+        if (treeBins == null) {
+            treeBins = (TreeNode<K, V>[]) new TreeNode[tab.length];
+        }
+        tab[index] = head;
+        treeBins[index] = buildTree(head);
+    }
+
+    /**
+     * Deja la cadena de nodos de árbol como cadena simple: los nodos se conservan
+     * (así las entradas e iteradores existentes siguen siendo válidos) y se sueltan sus enlaces de árbol
+     * @param head Primer nodo de la cadena
+     */
+    private void untreeify(TreeNode<K, V> head) {
+        for (TreeNode<K, V> e = head; e != null; e = (TreeNode<K, V>) e.next) {
+            e.prev = e.left = e.right = null;
+        }
+    }
+
+    /**
+     * Construye el árbol AVL con todos los nodos de una cadena
+     * @param head Primer nodo de la cadena
+     * @return Raíz del árbol
+     */
+    private TreeNode<K, V> buildTree(TreeNode<K, V> head) {
+        TreeNode<K, V> root = null;
+        for (TreeNode<K, V> e = head; e != null; e = (TreeNode<K, V>) e.next) {
+            e.left = e.right = null;
+            e.height = 1;
+            root = treeInsert(root, e);
+        }
+        return root;
+    }
+
+    /**
+     * Elimina una clave de un bucket convertido en árbol
+     * @param tab Tabla actual
+     * @param i Índice del bucket
+     * @param hash Hash de la clave
+     * @param key Clave a eliminar
+     * @return Nodo eliminado, o null si no existía
+     */
+    private Node<K, V> removeTreeNode(Node<K, V>[] tab, int i, int hash, Object key) {
+        TreeNode<K, V> p = findTreeNode(treeBins[i], hash, key);
+        if (p == null) {
+            return null;
+        }
+
+        // Quitar de la cadena
+        TreeNode<K, V> prev = p.prev;
+        TreeNode<K, V> next = (TreeNode<K, V>) p.next;
+        if (prev == null) tab[i] = next; else prev.next = next;
+        if (next != null) next.prev = prev;
+
+        // Quitar del árbol
+        TreeNode<K, V> root = treeRemove(treeBins[i], p);
+        treeBins[i] = root;
+
+        // Un AVL de altura 3 tiene a lo más 7 nodos: solo entonces vale la pena contar
+        if (root == null) {
+            treeBins[i] = null;
+        } else if (root.height <= 3 && countChain(tab[i]) <= UNTREEIFY_THRESHOLD) {
+            untreeify((TreeNode<K, V>) tab[i]);
+            treeBins[i] = null;
+        }
+
+        size--;
+        return p;
+    }
+
+    private int countChain(Node<K, V> e) {
+        int count = 0;
+        for (; e != null; e = e.next) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Busca una clave en el árbol de un bucket.
+     * Si la clave no se puede ordenar contra un nodo (mismo hash, sin compareTo útil) se buscan
+     * ambos subárboles, como hace HashMap; con claves Comparable la búsqueda es O(log n).
+     * @param p Raíz del subárbol
+     * @param hash Hash de la clave
+     * @param key Clave a buscar
+     * @return Nodo encontrado, o null si no existe
+     */
+    private TreeNode<K, V> findTreeNode(TreeNode<K, V> p, int hash, Object key) {
+        while (p != null) {
+            if (p.hash == hash && Objects.equals(key, p.key)) {
+                return p;
+            }
+            int dir = compareKeys(hash, key, p.hash, p.key);
+            if (dir < 0) {
+                p = p.left;
+            } else if (dir > 0) {
+                p = p.right;
+            } else {
+                TreeNode<K, V> q = findTreeNode(p.right, hash, key);
+                if (q != null) {
+                    return q;
+                }
+                p = p.left;
+            }
+        }
+        return null;
+    }
+
+    private TreeNode<K, V> treeInsert(TreeNode<K, V> p, TreeNode<K, V> x) {
+        if (p == null) {
+            return x;
+        }
+        if (compareNodes(x, p) < 0) {
+            p.left = treeInsert(p.left, x);
+        } else {
+            p.right = treeInsert(p.right, x);
+        }
+        return rebalance(p);
+    }
+
+    /**
+     * Elimina el nodo x del subárbol p (x debe estar en el subárbol)
+     * @return Nueva raíz del subárbol
+     */
+    private TreeNode<K, V> treeRemove(TreeNode<K, V> p, TreeNode<K, V> x) {
+        if (p == x) {
+            if (p.left == null) return p.right;
+            if (p.right == null) return p.left;
+
+            // Dos hijos: el sucesor toma el lugar del nodo
+            TreeNode<K, V> successor = p.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(p.right);
+            successor.left = p.left;
+            p.left = p.right = null;
+            return rebalance(successor);
+        }
+
+        if (compareNodes(x, p) < 0) {
+            p.left = treeRemove(p.left, x);
+        } else {
+            p.right = treeRemove(p.right, x);
+        }
+        return rebalance(p);
+    }
+
+    private TreeNode<K, V> removeMin(TreeNode<K, V> p) {
+        if (p.left == null) {
+            return p.right;
+        }
+        p.left = removeMin(p.left);
+        return rebalance(p);
+    }
+
+    private TreeNode<K, V> rebalance(TreeNode<K, V> p) {
+        updateHeight(p);
+        int factor = height(p.left) - height(p.right);
+
+        if (factor > 1) {
+            if (height(p.left.left) < height(p.left.right)) {
+                p.left = rotateLeft(p.left);
+            }
+            return rotateRight(p);
+        }
+        if (factor < -1) {
+            if (height(p.right.right) < height(p.right.left)) {
+                p.right = rotateRight(p.right);
+            }
+            return rotateLeft(p);
+        }
+        return p;
+    }
+
+    private TreeNode<K, V> rotateRight(TreeNode<K, V> p) {
+        TreeNode<K, V> pivot = p.left;
+        p.left = pivot.right;
+        pivot.right = p;
+        updateHeight(p);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    private TreeNode<K, V> rotateLeft(TreeNode<K, V> p) {
+        TreeNode<K, V> pivot = p.right;
+        p.right = pivot.left;
+        pivot.left = p;
+        updateHeight(p);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    private void updateHeight(TreeNode<K, V> p) {
+        p.height = 1 + Math.max(height(p.left), height(p.right));
+    }
+
+    private int height(TreeNode<K, V> p) {
+        return p == null ? 0 : p.height;
+    }
+
+    /**
+     * Orden total entre nodos de árbol: el de sus claves y, si empatan, el de creación
+     */
+    private int compareNodes(TreeNode<K, V> a, TreeNode<K, V> b) {
+        int dir = compareKeys(a.hash, a.key, b.hash, b.key);
+        return dir != 0 ? dir : Long.compare(a.seq, b.seq);
+    }
+
+    /**
+     * Ordena dos claves por hash, luego por nombre de clase y luego por compareTo
+     * si ambas son de la misma clase Comparable consigo misma.
+     * @return negativo, cero (no se pueden ordenar) o positivo
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareKeys(int h1, Object k1, int h2, Object k2) {
+        if (h1 != h2) {
+            return h1 < h2 ? -1 : 1;
+        }
+        if (k1 == null || k2 == null) {
+            return k1 == null ? (k2 == null ? 0 : -1) : 1;
+        }
+
+        Class<?> c1 = k1.getClass();
+        Class<?> c2 = k2.getClass();
+        if (c1 != c2) {
+            return c1.getName().compareTo(c2.getName());
+        }
+        if (SELF_COMPARABLE.get(c1)) {
+            return ((Comparable) k1).compareTo(k2);
+        }
+        return 0;
+    }
+
     /**
      * Clase interna para el conjunto de entradas
       */
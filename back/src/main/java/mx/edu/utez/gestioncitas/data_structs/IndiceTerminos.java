@@ -0,0 +1,25 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+/**
+ * Índice que asocia palabras a IDs de entidades y cuenta los usos de cada palabra.
+ * Lo implementan Trie (solo en memoria) y TriePersistente (snapshot en disco más cambios en memoria),
+ * así IndiceNombres mantiene cualquiera de los dos de la misma forma.
+ */
+public interface IndiceTerminos {
+
+    /**
+     * Cambia las palabras de un ID en una sola publicación
+     * @param anteriores palabras de las que se quita el ID
+     * @param nuevas palabras a las que se agrega el ID
+     * @param id ID de la entidad
+     * @param texto texto para mostrar con las palabras nuevas
+     */
+    void replace(Iterable<String> anteriores, Iterable<String> nuevas, int id, String texto);
+
+    /**
+     * Suma un uso (visita) al puntaje de la palabra
+     * @param word la palabra usada
+     * @return true si la palabra está en el índice
+     */
+    boolean registrarUso(String word);
+}
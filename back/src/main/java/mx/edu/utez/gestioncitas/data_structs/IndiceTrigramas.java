@@ -0,0 +1,229 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Índice invertido de trigramas para búsquedas por subcadena (infijo).
+ * Cada texto se normaliza (sin acentos ni mayúsculas, igual que Trie.normalizar) y se parte
+ * en trigramas; cada trigrama apunta a la lista ordenada de IDs cuyos textos lo contienen.
+ * Una consulta de 3 o más letras se resuelve intersectando las listas de sus trigramas
+ * y verificando a los candidatos, sin recorrer todos los textos.
+ * Se mantiene de forma incremental con agregar y quitar. No es seguro para hilos.
+ */
+public class IndiceTrigramas {
+
+    private static final int N = 3;
+
+    // Trigrama (tres chars empacados en un long) -> IDs que lo contienen
+    private final CustomMap<Long, Postings> postings = new CustomMap<>();
+
+    // ID -> texto normalizado (para verificar candidatos y para quitar)
+    private final IntCustomMap<String> textos = new IntCustomMap<>();
+
+    /**
+     * Lista ordenada de IDs sin repetir, en un arreglo int que crece al doble
+     */
+    private static final class Postings {
+
+        int[] ids = new int[4];
+        int size;
+
+        /**
+         * Inserta el ID en su lugar; los IDs nuevos suelen ser los mayores, así que casi siempre es al final
+         */
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0)
+                    return;
+                insertAt(-pos - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0)
+                return;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+        }
+
+        private void insertAt(int pos, int id) {
+            if (size == ids.length)
+                ids = Arrays.copyOf(ids, size << 1);
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+    }
+
+    /**
+     * Agrega o reemplaza el texto asociado a un ID
+     * @param id ID del registro (por ejemplo, de la cita)
+     * @param texto texto a indexar (por ejemplo, el nombre completo del paciente)
+     */
+    public void agregar(int id, String texto) {
+
+        String normalizado = Trie.normalizar(texto);
+        String anterior = textos.get(id);
+
+        if (normalizado.equals(anterior))
+            return;
+
+        if (anterior != null)
+            quitar(id);
+
+        textos.put(id, normalizado);
+        for (int i = 0; i + N <= normalizado.length(); i++)
+            postings.computeIfAbsent(trigrama(normalizado, i), k -> new Postings()).add(id);
+
+    }
+
+    /**
+     * Quita un ID del índice
+     * @param id ID del registro
+     * @return true si el ID estaba en el índice
+     */
+    public boolean quitar(int id) {
+
+        String texto = textos.remove(id);
+        if (texto == null)
+            return false;
+
+        for (int i = 0; i + N <= texto.length(); i++) {
+            Long gram = trigrama(texto, i);
+            Postings lista = postings.get(gram);
+            if (lista == null)
+                continue; // Trigrama repetido en el mismo texto, ya se quitó
+
+            lista.remove(id);
+            if (lista.size == 0)
+                postings.remove(gram);
+        }
+        return true;
+
+    }
+
+    /**
+     * Busca los IDs cuyo texto contiene la consulta (sin acentos ni mayúsculas)
+     * @param consulta subcadena a buscar
+     * @return IDs encontrados en orden ascendente
+     */
+    public ListaSimple<Integer> buscar(String consulta) {
+
+        ListaSimple<Integer> resultado = new ListaSimple<>();
+        String q = Trie.normalizar(consulta);
+
+        // Consultas cortas: no forman un trigrama, se verifica cada texto
+        if (q.length() < N) {
+            int[] ids = new int[textos.size()];
+            int n = 0;
+            for (Map.Entry<Integer, String> entrada : textos.entrySet()) {
+                if (entrada.getValue().contains(q))
+                    ids[n++] = entrada.getKey();
+            }
+            Arrays.sort(ids, 0, n);
+            for (int i = 0; i < n; i++)
+                resultado.add(ids[i]);
+            return resultado;
+        }
+
+        Postings[] listas = listasDe(q);
+        if (listas == null)
+            return resultado; // Algún trigrama no aparece en ningún texto
+
+        // Se parte de la lista más corta para que las intersecciones sean baratas
+        Arrays.sort(listas, (a, b) -> Integer.compare(a.size, b.size));
+        int[] candidatos = Arrays.copyOf(listas[0].ids, listas[0].size);
+        int n = candidatos.length;
+
+        for (int l = 1; l < listas.length && n > 0; l++)
+            n = intersectar(candidatos, n, listas[l]);
+
+        // Los trigramas pueden estar en otro orden dentro del texto: se confirma la subcadena
+        for (int i = 0; i < n; i++) {
+            if (textos.get(candidatos[i]).contains(q))
+                resultado.add(candidatos[i]);
+        }
+        return resultado;
+
+    }
+
+    /**
+     * Verifica si un ID está indexado con el texto dado (sin acentos ni mayúsculas)
+     * @param id ID del registro
+     * @param texto texto esperado, o null si el ID no debería estar en el índice
+     * @return true si el índice ya tiene ese texto para el ID
+     */
+    public boolean coincide(int id, String texto) {
+        String actual = textos.get(id);
+        return texto == null ? actual == null : Trie.normalizar(texto).equals(actual);
+    }
+
+    /**
+     * Retorna el número de textos indexados
+     * @return número de IDs en el índice
+     */
+    public int size() {
+        return textos.size();
+    }
+
+    /**
+     * Obtiene la lista de cada trigrama distinto de la consulta
+     * @return las listas, o null si algún trigrama no está indexado
+     */
+    private Postings[] listasDe(String q) {
+
+        Postings[] listas = new Postings[q.length() - N + 1];
+        int n = 0;
+
+        for (int i = 0; i + N <= q.length(); i++) {
+            Postings lista = postings.get(trigrama(q, i));
+            if (lista == null)
+                return null;
+
+            boolean repetida = false;
+            for (int j = 0; j < n && !repetida; j++)
+                repetida = listas[j] == lista;
+            if (!repetida)
+                listas[n++] = lista;
+        }
+
+        return Arrays.copyOf(listas, n);
+
+    }
+
+    /**
+     * Deja en candidatos solo los IDs que también están en la lista (ambas ordenadas).
+     * Cada candidato se busca con búsqueda binaria a partir de la última posición encontrada.
+     * @return número de candidatos que quedan
+     */
+    private static int intersectar(int[] candidatos, int n, Postings lista) {
+
+        int quedan = 0;
+        int desde = 0;
+
+        for (int i = 0; i < n && desde < lista.size; i++) {
+            int pos = Arrays.binarySearch(lista.ids, desde, lista.size, candidatos[i]);
+            if (pos >= 0) {
+                candidatos[quedan++] = candidatos[i];
+                desde = pos + 1;
+            } else {
+                desde = -pos - 1;
+            }
+        }
+
+        return quedan;
+
+    }
+
+    /**
+     * Empaca los tres chars que empiezan en la posición i en un long
+     */
+    private static Long trigrama(String texto, int i) {
+        return ((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2);
+    }
+}
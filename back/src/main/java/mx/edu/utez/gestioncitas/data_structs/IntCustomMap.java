@@ -0,0 +1,416 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.springframework.lang.NonNull;
+
+import java.util.*;
+
+/**
+ * Mapa con claves int primitivas implementado con direccionamiento abierto y sondeo lineal.
+ * Las claves y los valores viven en dos arreglos paralelos, sin un objeto Node por entrada
+ * ni Integer para la clave. Pensado para mapas indexados por ID (tareas, posiciones, citas).
+ * No admite valores nulos: una casilla con valor null se considera libre.
+ * Además de la API de Map ofrece get/put/remove/containsKey especializados para int.
+ * @param <V> Tipo de valor
+ */
+public class IntCustomMap<V> extends AbstractMap<Integer, V> {
+
+    // Capacidad inicial por defecto
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Factor de carga: con sondeo lineal conviene mantener la tabla poco llena
+    private static final float LOAD_FACTOR = 0.6f;
+
+    // Capacidad máxima (potencia de 2)
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    // Arreglos paralelos de claves y valores
+    private int[] keys;
+    private Object[] values;
+
+    // Número de entradas en el map
+    private int size;
+
+    // Umbral para redimensionar
+    private int threshold;
+
+    /**
+     * Constructor por defecto
+     */
+    public IntCustomMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor con capacidad inicial
+     * @param initialCapacity número de entradas que se esperan
+     * @throws IllegalArgumentException si la capacidad inicial es negativa
+     */
+    public IntCustomMap(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Capacidad inicial no puede ser negativa: " + initialCapacity);
+        }
+        int capacity = tableSizeFor((int) Math.ceil(Math.max(initialCapacity, 2) / LOAD_FACTOR));
+        allocate(capacity);
+    }
+
+    /**
+     * Mezcla los bits de la clave para que IDs consecutivos no formen racimos
+     * @param key Clave a hashear
+     * @return Hash de la clave
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Retorna la siguiente potencia de 2 mayor o igual a cap
+     * @param cap Capacidad deseada
+     * @return Siguiente potencia de 2 mayor o igual a cap
+     */
+    private static int tableSizeFor(int cap) {
+        int n = -1 >>> Integer.numberOfLeadingZeros(cap - 1);
+        return (n < 0) ? 1 : (n >= MAXIMUM_CAPACITY) ? MAXIMUM_CAPACITY : n + 1;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Busca la casilla de una clave
+     * @param key Clave a buscar
+     * @return índice de la casilla o -1 si la clave no existe
+     */
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Obtiene el valor asociado a una clave int
+     * @param key Clave del valor a obtener
+     * @return Valor asociado, o null si no existe
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int i = indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    /**
+     * Verifica si el map contiene una clave int
+     * @param key Clave a verificar
+     * @return True si la clave existe, false en caso contrario
+     */
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Agrega o actualiza un valor con clave int
+     * @param key Clave del valor
+     * @param value Valor a asociar con la clave (no nulo)
+     * @return Valor antiguo asociado con la clave, o null si no existía
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("IntCustomMap no admite valores nulos");
+        }
+
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                V oldValue = (V) values[i];
+                values[i] = value;
+                return oldValue;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+
+        if (++size > threshold) {
+            resize();
+        }
+        return null;
+    }
+
+    /**
+     * Inserta el valor solo si la clave int no está presente
+     * @param key Clave a insertar
+     * @param value Valor a insertar (no nulo)
+     * @return El valor existente si la clave ya estaba presente, null si se insertó el nuevo valor
+     */
+    public V putIfAbsent(int key, V value) {
+        V existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        put(key, value);
+        return null;
+    }
+
+    /**
+     * Elimina la entrada con clave int.
+     * Usa borrado con corrimiento hacia atrás: las entradas siguientes del racimo se recorren
+     * para no dejar huecos, así no se necesitan marcas de borrado.
+     * @param key Clave del valor a eliminar
+     * @return Valor eliminado, o null si no existía
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+
+        V oldValue = (V) values[i];
+        int mask = keys.length - 1;
+
+        // Recorrer el racimo moviendo hacia el hueco las entradas que puedan ocuparlo
+        int hole = i;
+        int j = (i + 1) & mask;
+        while (values[j] != null) {
+            int home = hash(keys[j]) & mask;
+            // La entrada en j puede moverse al hueco si su casilla ideal no está entre hole y j
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+            j = (j + 1) & mask;
+        }
+
+        values[hole] = null;
+        keys[hole] = 0;
+        size--;
+        return oldValue;
+    }
+
+    /**
+     * Duplica la tabla y reinserta todas las entradas
+     */
+    private void resize() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        int newCap = oldKeys.length << 1;
+
+        if (newCap > MAXIMUM_CAPACITY) {
+            threshold = Integer.MAX_VALUE; // Capacidad máxima alcanzada
+            return;
+        }
+
+        allocate(newCap);
+        int mask = newCap - 1;
+
+        for (int k = 0; k < oldKeys.length; k++) {
+            if (oldValues[k] != null) {
+                int i = hash(oldKeys[k]) & mask;
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[k];
+                values[i] = oldValues[k];
+            }
+        }
+    }
+
+    /**
+     * Obtiene un valor del map
+     * @param key Clave del valor a obtener
+     * @return Valor asociado con la clave, o null si no existe
+     */
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer k ? get(k.intValue()) : null;
+    }
+
+    /**
+     * Agrega o actualiza un valor en el map
+     * @param key Clave del valor (no nula)
+     * @param value Valor a asociar con la clave (no nulo)
+     * @return Valor antiguo asociado con la clave, o null si no existía
+     */
+    @Override
+    public V put(Integer key, V value) {
+        return put(key.intValue(), value);
+    }
+
+    /**
+     * Inserta el valor solo si la clave no está presente
+     * @param key Clave a insertar (no nula)
+     * @param value Valor a insertar (no nulo)
+     * @return El valor existente si la clave ya estaba presente, null si se insertó el nuevo valor
+     */
+    @Override
+    public V putIfAbsent(Integer key, V value) {
+        return putIfAbsent(key.intValue(), value);
+    }
+
+    /**
+     * Elimina un elemento del map
+     * @param key Clave del valor a eliminar
+     * @return Valor eliminado, o null si no existía
+     */
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer k ? remove(k.intValue()) : null;
+    }
+
+    /**
+     * Verifica si el map contiene una clave
+     * @param key Clave a verificar
+     * @return True si la clave existe, false en caso contrario
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer k && containsKey(k.intValue());
+    }
+
+    /**
+     * Retorna el tamaño del map
+     * @return Número de entradas en el map
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Verifica si el map está vacío
+     * @return True si el map está vacío, false en caso contrario
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Limpia el map
+     */
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(values, null);
+            Arrays.fill(keys, 0);
+            size = 0;
+        }
+    }
+
+    /**
+     * Método requerido por AbstractMap - retorna el conjunto de entradas.
+     * Las entradas se crean al iterar; setValue escribe directamente en la tabla.
+     * @return Conjunto de entradas del mapa
+     */
+    @Override
+    @NonNull
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            @NonNull
+            public Iterator<Entry<Integer, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                IntCustomMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * Iterador de entradas. No permite eliminar: el corrimiento hacia atrás puede mover
+     * una entrada ya visitada a una casilla pendiente (o al revés); para eso está remove(int).
+     */
+    private class EntryIterator implements Iterator<Entry<Integer, V>> {
+
+        private int index = 0;
+        private int remaining = size;
+        private final int[] tableKeys = keys;
+        private final Object[] tableValues = values;
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public Entry<Integer, V> next() {
+            if (tableValues != values || remaining > size) {
+                throw new ConcurrentModificationException();
+            }
+            if (remaining <= 0) {
+                throw new NoSuchElementException();
+            }
+
+            while (tableValues[index] == null) {
+                index++;
+            }
+
+            final int slot = index++;
+            remaining--;
+
+            return new Entry<>() {
+                @Override
+                public Integer getKey() {
+                    return tableKeys[slot];
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public V getValue() {
+                    return (V) tableValues[slot];
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public V setValue(V value) {
+                    if (value == null) {
+                        throw new NullPointerException("IntCustomMap no admite valores nulos");
+                    }
+                    V oldValue = (V) tableValues[slot];
+                    tableValues[slot] = value;
+                    return oldValue;
+                }
+
+                @Override
+                public boolean equals(Object o) {
+                    return o instanceof Entry<?, ?> e
+                            && Objects.equals(getKey(), e.getKey())
+                            && Objects.equals(getValue(), e.getValue());
+                }
+
+                @Override
+                public int hashCode() {
+                    return Integer.hashCode(tableKeys[slot]) ^ Objects.hashCode(tableValues[slot]);
+                }
+
+                @Override
+                public String toString() {
+                    return tableKeys[slot] + "=" + tableValues[slot];
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * Árbol AVL ordenado por una clave extraída de cada elemento (por ejemplo el ID de una Cita).
+ * Permite buscar, acotar y eliminar por clave en O(log n) sin construir un elemento de prueba.
+ * @param <K> Tipo de la clave
+ * @param <T> Tipo de elementos almacenados en el árbol
+ */
+public class KeyedBinaryTree<K, T> extends AVLTree<T> {
+
+    private final Function<T, K> keyExtractor;
+    private final Comparator<? super K> keyComparator;
+
+    /**
+     * Constructor del árbol con extractor de clave y comparador de claves
+     * @param keyExtractor función que obtiene la clave de un elemento
+     * @param keyComparator comparador para ordenar las claves
+     */
+    public KeyedBinaryTree(Function<T, K> keyExtractor, Comparator<? super K> keyComparator) {
+        super((a, b) -> keyComparator.compare(keyExtractor.apply(a), keyExtractor.apply(b)));
+        this.keyExtractor = keyExtractor;
+        this.keyComparator = keyComparator;
+    }
+
+    /**
+     * Obtiene el elemento con la clave dada
+     * @param key la clave a buscar
+     * @return el elemento encontrado o null si no existe
+     */
+    public T get(K key) {
+        BinaryTreeNode<T> node = findNode(data -> compareKey(key, data));
+        return node == null ? null : node.getData();
+    }
+
+    /**
+     * Verifica si existe un elemento con la clave dada
+     * @param key la clave a buscar
+     * @return true si existe, false en caso contrario
+     */
+    public boolean containsKey(K key) {
+        return findNode(data -> compareKey(key, data)) != null;
+    }
+
+    /**
+     * Inserta el elemento o reemplaza al que tenga la misma clave
+     * @param data el elemento a guardar
+     * @return el elemento reemplazado o null si la clave no existía
+     */
+    public T put(T data) {
+        if (data == null) {
+            throw new NullPointerException("No se puede insertar un elemento nulo");
+        }
+
+        K key = keyExtractor.apply(data);
+        BinaryTreeNode<T> node = findNode(existing -> compareKey(key, existing));
+        if (node != null) {
+            T old = node.getData();
+            node.setData(data);
+            return old;
+        }
+
+        insert(data);
+        return null;
+    }
+
+    /**
+     * Elimina el elemento con la clave dada
+     * @param key la clave del elemento a eliminar
+     * @return el elemento eliminado o null si no existía
+     */
+    public T remove(K key) {
+        return removeNode(data -> compareKey(key, data));
+    }
+
+    /**
+     * Obtiene el elemento con la mayor clave menor o igual a la dada
+     * @param key la clave de referencia
+     * @return el elemento encontrado o null si no hay ninguno
+     */
+    public T floor(K key) {
+        T candidate = null;
+        BinaryTreeNode<T> current = root;
+
+        while (current != null) {
+            int comparison = compareKey(key, current.getData());
+            if (comparison == 0) {
+                return current.getData();
+            }
+            if (comparison < 0) {
+                current = current.getLeft();
+            } else {
+                candidate = current.getData();
+                current = current.getRight();
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * Obtiene el elemento con la menor clave mayor o igual a la dada
+     * @param key la clave de referencia
+     * @return el elemento encontrado o null si no hay ninguno
+     */
+    public T ceiling(K key) {
+        T candidate = null;
+        BinaryTreeNode<T> current = root;
+
+        while (current != null) {
+            int comparison = compareKey(key, current.getData());
+            if (comparison == 0) {
+                return current.getData();
+            }
+            if (comparison > 0) {
+                current = current.getRight();
+            } else {
+                candidate = current.getData();
+                current = current.getLeft();
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * Compara una clave contra la clave de un elemento del árbol
+     * @param key la clave buscada
+     * @param data el elemento del nodo actual
+     * @return resultado de la comparación de claves
+     */
+    private int compareKey(K key, T data) {
+        return keyComparator.compare(key, keyExtractor.apply(data));
+    }
+}
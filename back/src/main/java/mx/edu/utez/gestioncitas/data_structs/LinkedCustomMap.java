@@ -0,0 +1,317 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.springframework.lang.NonNull;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Map que recuerda el orden de sus entradas, construido sobre CustomMap.
+ * Cada entrada está en el CustomMap (búsqueda O(1)) y en una lista doblemente enlazada
+ * que define el orden de iteración: de inserción, o de acceso si accessOrder es true
+ * (cada get/put mueve la entrada al final, así la primera es la menos usada recientemente).
+ * Con un tamaño máximo se comporta como caché LRU: al pasarse, elimina la entrada más
+ * antigua y avisa al callback de desalojo.
+ * No es seguro para hilos; en modo acceso hasta get modifica la estructura.
+ * @param <K> Tipo de clave
+ * @param <V> Tipo de valor
+ */
+public class LinkedCustomMap<K, V> extends AbstractMap<K, V> {
+
+    // Índice de las entradas por clave
+    private final CustomMap<K, Entrada<K, V>> index;
+
+    // Centinela de la lista circular: head.after es la más antigua y head.before la más reciente
+    private final Entrada<K, V> head;
+
+    // true para orden de acceso, false para orden de inserción
+    private final boolean accessOrder;
+
+    // Tamaño máximo (0 = sin límite)
+    private final int maxSize;
+
+    // Se llama con cada entrada desalojada por exceder el tamaño máximo
+    private final BiConsumer<? super K, ? super V> onEviction;
+
+    // Contador de modificaciones para que los iteradores fallen rápido
+    private int modCount;
+
+    /**
+     * Entrada del map, enlazada con la anterior y la siguiente en el orden de iteración
+     * @param <K> Tipo de clave
+     * @param <V> Tipo de valor
+     */
+    static final class Entrada<K, V> extends SimpleEntry<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        Entrada<K, V> before;
+        Entrada<K, V> after;
+
+        Entrada(K key, V value) {
+            super(key, value);
+        }
+    }
+
+    /**
+     * Constructor por defecto: orden de inserción y sin límite de tamaño
+     */
+    public LinkedCustomMap() {
+        this(0, false, null);
+    }
+
+    /**
+     * Constructor de caché LRU: orden de acceso con tamaño máximo
+     * @param maxSize Número máximo de entradas
+     */
+    public LinkedCustomMap(int maxSize) {
+        this(maxSize, true, null);
+    }
+
+    /**
+     * Constructor completo
+     * @param maxSize Número máximo de entradas (0 = sin límite)
+     * @param accessOrder true para orden de acceso (LRU), false para orden de inserción
+     * @param onEviction Callback para las entradas desalojadas, puede ser null
+     * @throws IllegalArgumentException si el tamaño máximo es negativo
+     */
+    public LinkedCustomMap(int maxSize, boolean accessOrder, BiConsumer<? super K, ? super V> onEviction) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Tamaño máximo no puede ser negativo: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.accessOrder = accessOrder;
+        this.onEviction = onEviction;
+        this.index = maxSize > 0 ? new CustomMap<>((int) (maxSize / 0.75f) + 1) : new CustomMap<>();
+        this.head = new Entrada<>(null, null);
+        head.before = head.after = head;
+    }
+
+    /**
+     * Obtiene un valor del map; en orden de acceso la entrada pasa a ser la más reciente
+     * @param key Clave del valor a obtener
+     * @return Valor asociado con la clave, o null si no existe
+     */
+    @Override
+    public V get(Object key) {
+        Entrada<K, V> e = index.get(key);
+        if (e == null) {
+            return null;
+        }
+        if (accessOrder) {
+            moveToEnd(e);
+        }
+        return e.getValue();
+    }
+
+    /**
+     * Agrega o actualiza un valor en el map y desaloja la entrada más antigua si se excede el tamaño máximo
+     * @param key Clave del valor
+     * @param value Valor a asociar con la clave
+     * @return Valor antiguo asociado con la clave, o null si no existía
+     */
+    @Override
+    public V put(K key, V value) {
+        Entrada<K, V> e = index.get(key);
+        if (e != null) {
+            V oldValue = e.setValue(value);
+            if (accessOrder) {
+                moveToEnd(e);
+            }
+            return oldValue;
+        }
+
+        e = new Entrada<>(key, value);
+        index.put(key, e);
+        linkLast(e);
+        modCount++;
+
+        evictIfNeeded();
+        return null;
+    }
+
+    /**
+     * Inserta el valor solo si la clave no está presente
+     * @param key Clave a insertar
+     * @param value Valor a insertar
+     * @return El valor existente si la clave ya estaba presente, null si se insertó el nuevo valor
+     */
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Entrada<K, V> e = index.get(key);
+        if (e != null) {
+            if (accessOrder) {
+                moveToEnd(e);
+            }
+            return e.getValue();
+        }
+        return put(key, value);
+    }
+
+    /**
+     * Elimina un elemento del map
+     * @param key Clave del valor a eliminar
+     * @return Valor eliminado, o null si no existía
+     */
+    @Override
+    public V remove(Object key) {
+        Entrada<K, V> e = index.remove(key);
+        if (e == null) {
+            return null;
+        }
+        unlink(e);
+        modCount++;
+        return e.getValue();
+    }
+
+    /**
+     * Verifica si el map contiene una clave, sin cambiar el orden
+     * @param key Clave a verificar
+     * @return True si la clave existe, false en caso contrario
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Retorna el tamaño del map
+     * @return Número de entradas en el map
+     */
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Verifica si el map está vacío
+     * @return True si el map está vacío, false en caso contrario
+     */
+    @Override
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    /**
+     * Limpia el map (sin llamar al callback de desalojo)
+     */
+    @Override
+    public void clear() {
+        index.clear();
+        head.before = head.after = head;
+        modCount++;
+    }
+
+    /**
+     * Indica si se debe desalojar la entrada más antigua después de insertar.
+     * Por defecto desaloja cuando se excede el tamaño máximo; las subclases pueden cambiar la regla.
+     * @param eldest Entrada más antigua (o menos usada recientemente)
+     * @return true si se debe eliminar
+     */
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return maxSize > 0 && size() > maxSize;
+    }
+
+    /**
+     * Método requerido por AbstractMap - retorna el conjunto de entradas en orden
+     * @return Conjunto de entradas del mapa
+     */
+    @Override
+    @NonNull
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            @NonNull
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return LinkedCustomMap.this.size();
+            }
+
+            @Override
+            public void clear() {
+                LinkedCustomMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * Desaloja entradas desde la más antigua mientras removeEldestEntry lo pida
+     */
+    private void evictIfNeeded() {
+        while (head.after != head && removeEldestEntry(head.after)) {
+            Entrada<K, V> eldest = head.after;
+            index.remove(eldest.getKey());
+            unlink(eldest);
+            if (onEviction != null) {
+                onEviction.accept(eldest.getKey(), eldest.getValue());
+            }
+        }
+    }
+
+    private void linkLast(Entrada<K, V> e) {
+        Entrada<K, V> last = head.before;
+        e.before = last;
+        e.after = head;
+        last.after = e;
+        head.before = e;
+    }
+
+    private void unlink(Entrada<K, V> e) {
+        e.before.after = e.after;
+        e.after.before = e.before;
+        e.before = e.after = null;
+    }
+
+    private void moveToEnd(Entrada<K, V> e) {
+        if (head.before != e) {
+            unlink(e);
+            linkLast(e);
+            modCount++;
+        }
+    }
+
+    /**
+     * Iterador en el orden de la lista enlazada
+     */
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private Entrada<K, V> next = head.after;
+        private Entrada<K, V> lastReturned;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next != head;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next == head) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            next = next.after;
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            LinkedCustomMap.this.remove(lastReturned.getKey());
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+    }
+}
@@ -0,0 +1,687 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import mx.edu.utez.gestioncitas.serializers.ListaDesenrolladaDeserializer;
+import mx.edu.utez.gestioncitas.serializers.ListaDesenrolladaSerializer;
+
+import org.springframework.lang.NonNull;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Lista enlazada desenrollada (unrolled): cada bloque guarda hasta CAPACIDAD_BLOQUE elementos en un arreglo.
+ * Tiene la misma API y el mismo JSON que ListaSimple, pero recorrerla es casi como recorrer un arreglo:
+ * un salto de puntero y un encabezado de objeto cada CAPACIDAD_BLOQUE elementos en lugar de uno por elemento.
+ * Agregar al final es O(1); insertar o eliminar a media lista busca el bloque (O(n / CAPACIDAD_BLOQUE))
+ * y recorre a lo más un bloque. Los bloques que quedan a menos de la mitad se fusionan con el siguiente.
+ * @param <T> el tipo de elementos en la lista
+ */
+@JsonSerialize(using = ListaDesenrolladaSerializer.class)
+@JsonDeserialize(using = ListaDesenrolladaDeserializer.class)
+public class ListaDesenrollada<T> extends AbstractList<T> {
+
+    // Elementos por bloque; debajo de la mitad un bloque intenta fusionarse con el siguiente
+    static final int CAPACIDAD_BLOQUE = 32;
+    private static final int MINIMO_BLOQUE = CAPACIDAD_BLOQUE / 2;
+
+    /**
+     * Bloque de la lista: arreglo de elementos con enlaces al bloque anterior y al siguiente
+     */
+    private static final class Bloque<T> {
+
+        private final Object[] elementos = new Object[CAPACIDAD_BLOQUE];
+        private int cuenta;
+        private Bloque<T> prev;
+        private Bloque<T> next;
+
+        @SuppressWarnings("unchecked")
+        T get(int i) {
+            return (T) elementos[i];
+        }
+    }
+
+    /**
+     * Ubicación de un elemento: su bloque y su posición dentro del bloque
+     */
+    private static final class Posicion<T> {
+
+        private final Bloque<T> bloque;
+        private final int offset;
+
+        Posicion(Bloque<T> bloque, int offset) {
+            this.bloque = bloque;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Primer y último bloque, además del tamaño de la lista.
+     */
+    private Bloque<T> head;
+    private Bloque<T> tail;
+    private int size;
+
+    /**
+     * Constructor de la lista desenrollada.
+     */
+    public ListaDesenrollada() {
+        this.head = null;
+        this.tail = null;
+        this.size = 0;
+    }
+
+    /**
+     * Obtiene el elemento en la posición idx.
+     * @param idx índice del elemento a obtener
+     * @return el elemento en la posición idx
+     */
+    @Override
+    public T get(int idx) {
+        checkIndex(idx);
+
+        Posicion<T> posicion = ubicar(idx);
+        return posicion.bloque.get(posicion.offset);
+    }
+
+    /**
+     * Obtiene el tamaño de la lista.
+     * @return el tamaño de la lista
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Agrega un elemento al final de la lista; solo crea un bloque cuando el último está lleno.
+     * @param data el elemento a agregar
+     * @return true si el elemento fue agregado exitosamente
+     */
+    @Override
+    public boolean add(T data) {
+        if (tail == null || tail.cuenta == CAPACIDAD_BLOQUE)
+            enlazarDespues(tail, new Bloque<>());
+
+        tail.elementos[tail.cuenta++] = data;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Reemplaza el elemento en la posición idx con el nuevo elemento.
+     * @param idx índice del elemento a reemplazar
+     * @param element nuevo elemento
+     * @return el elemento anterior en esa posición
+     */
+    @Override
+    public T set(int idx, T element) {
+        checkIndex(idx);
+
+        Posicion<T> posicion = ubicar(idx);
+        T oldData = posicion.bloque.get(posicion.offset);
+        posicion.bloque.elementos[posicion.offset] = element;
+        modCount++;
+        return oldData;
+    }
+
+    /**
+     * Inserta un elemento en la posición idx, recorriendo a la derecha los siguientes.
+     * Si el bloque está lleno se parte en dos mitades.
+     * @param idx posición donde se insertará el elemento
+     * @param data el elemento a insertar
+     */
+    @Override
+    public void add(int idx, T data) {
+        checkPositionIndex(idx);
+
+        if (idx == size) {
+            add(data);
+            return;
+        }
+
+        Posicion<T> posicion = ubicar(idx);
+        Bloque<T> bloque = posicion.bloque;
+        int offset = posicion.offset;
+
+        if (bloque.cuenta == CAPACIDAD_BLOQUE) {
+            partir(bloque);
+            if (offset > MINIMO_BLOQUE) {
+                bloque = bloque.next;
+                offset -= MINIMO_BLOQUE;
+            }
+        }
+
+        System.arraycopy(bloque.elementos, offset, bloque.elementos, offset + 1, bloque.cuenta - offset);
+        bloque.elementos[offset] = data;
+        bloque.cuenta++;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Remueve el elemento en la posición idx.
+     * @param idx índice del elemento a remover
+     * @return el elemento removido
+     */
+    @Override
+    public T remove(int idx) {
+        checkIndex(idx);
+
+        Posicion<T> posicion = ubicar(idx);
+        T removed = posicion.bloque.get(posicion.offset);
+        eliminarEn(posicion.bloque, posicion.offset);
+        return removed;
+    }
+
+    /**
+     * Limpia la lista.
+     */
+    @Override
+    public void clear() {
+        head = null;
+        tail = null;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Verifica si la lista está vacía.
+     * @return true si la lista está vacía, false en caso contrario
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Verifica si el índice es válido.
+     * @param idx índice a verificar
+     */
+    private void checkIndex(int idx) {
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Verifica si la posición es válida para insertar o para iniciar un iterador (0 a size).
+     * @param idx posición a verificar
+     */
+    private void checkPositionIndex(int idx) {
+        if (idx < 0 || idx > size) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Ubica el elemento idx saltando bloques completos, desde la cabeza o desde la cola según cuál esté más cerca.
+     * @param idx índice válido del elemento
+     * @return el bloque y la posición del elemento dentro del bloque
+     */
+    private Posicion<T> ubicar(int idx) {
+        if (idx < size / 2) {
+            Bloque<T> bloque = head;
+            while (idx >= bloque.cuenta) {
+                idx -= bloque.cuenta;
+                bloque = bloque.next;
+            }
+            return new Posicion<>(bloque, idx);
+        }
+
+        // inicio = índice del primer elemento del bloque
+        Bloque<T> bloque = tail;
+        int inicio = size - bloque.cuenta;
+        while (idx < inicio) {
+            bloque = bloque.prev;
+            inicio -= bloque.cuenta;
+        }
+        return new Posicion<>(bloque, idx - inicio);
+    }
+
+    /**
+     * Enlaza un bloque justo después de prev (o al inicio si prev es null).
+     * @param prev bloque anterior, o null para enlazarlo como cabeza
+     * @param bloque bloque a enlazar
+     */
+    private void enlazarDespues(Bloque<T> prev, Bloque<T> bloque) {
+        bloque.prev = prev;
+        bloque.next = prev == null ? head : prev.next;
+
+        if (prev == null)
+            head = bloque;
+        else
+            prev.next = bloque;
+
+        if (bloque.next == null)
+            tail = bloque;
+        else
+            bloque.next.prev = bloque;
+    }
+
+    /**
+     * Desenlaza un bloque de la lista.
+     * @param bloque bloque a desenlazar
+     */
+    private void desenlazar(Bloque<T> bloque) {
+        if (bloque.prev == null)
+            head = bloque.next;
+        else
+            bloque.prev.next = bloque.next;
+
+        if (bloque.next == null)
+            tail = bloque.prev;
+        else
+            bloque.next.prev = bloque.prev;
+
+        bloque.prev = null;
+        bloque.next = null;
+    }
+
+    /**
+     * Parte un bloque lleno: la segunda mitad pasa a un bloque nuevo enlazado después.
+     * @param bloque bloque lleno
+     */
+    private void partir(Bloque<T> bloque) {
+        Bloque<T> nuevo = new Bloque<>();
+        int mover = bloque.cuenta - MINIMO_BLOQUE;
+
+        System.arraycopy(bloque.elementos, MINIMO_BLOQUE, nuevo.elementos, 0, mover);
+        Arrays.fill(bloque.elementos, MINIMO_BLOQUE, bloque.cuenta, null);
+        nuevo.cuenta = mover;
+        bloque.cuenta = MINIMO_BLOQUE;
+
+        enlazarDespues(bloque, nuevo);
+    }
+
+    /**
+     * Elimina el elemento de la posición dada. Si el bloque queda vacío se desenlaza;
+     * si queda a menos de la mitad y cabe junto con el siguiente, absorbe al siguiente.
+     * Los elementos que seguían al eliminado conservan su orden: el primero de ellos queda en
+     * (bloque, offset) si el bloque sigue enlazado, o al inicio del bloque siguiente si no.
+     * @param bloque bloque del elemento
+     * @param offset posición del elemento dentro del bloque
+     * @return el bloque donde queda el elemento que seguía al eliminado (puede ser null al final)
+     */
+    private Bloque<T> eliminarEn(Bloque<T> bloque, int offset) {
+        System.arraycopy(bloque.elementos, offset + 1, bloque.elementos, offset, bloque.cuenta - offset - 1);
+        bloque.elementos[--bloque.cuenta] = null;
+        size--;
+        modCount++;
+
+        if (bloque.cuenta == 0) {
+            Bloque<T> siguiente = bloque.next;
+            desenlazar(bloque);
+            return siguiente;
+        }
+
+        Bloque<T> siguiente = bloque.next;
+        if (bloque.cuenta < MINIMO_BLOQUE && siguiente != null && bloque.cuenta + siguiente.cuenta <= CAPACIDAD_BLOQUE) {
+            System.arraycopy(siguiente.elementos, 0, bloque.elementos, bloque.cuenta, siguiente.cuenta);
+            bloque.cuenta += siguiente.cuenta;
+            desenlazar(siguiente);
+        }
+
+        return bloque;
+    }
+
+    /**
+     * Devuelve un iterador que avanza dentro del arreglo de cada bloque, cada paso es O(1).
+     * @return iterador de la lista
+     */
+    @Override
+    @NonNull
+    public Iterator<T> iterator() {
+        return new ListItr(0);
+    }
+
+    /**
+     * Devuelve un ListIterator posicionado al inicio de la lista.
+     * @return ListIterator de la lista
+     */
+    @Override
+    @NonNull
+    public ListIterator<T> listIterator() {
+        return new ListItr(0);
+    }
+
+    /**
+     * Devuelve un ListIterator posicionado en idx.
+     * @param idx posición inicial del cursor (0 a size)
+     * @return ListIterator de la lista
+     */
+    @Override
+    @NonNull
+    public ListIterator<T> listIterator(int idx) {
+        checkPositionIndex(idx);
+        return new ListItr(idx);
+    }
+
+    /**
+     * Aplica la acción a cada elemento recorriendo los arreglos de los bloques directamente.
+     * @param action acción a aplicar
+     * @throws NullPointerException si la acción es nula
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        if (action == null)
+            throw new NullPointerException("La acción no puede ser nula");
+
+        int expectedModCount = modCount;
+        for (Bloque<T> bloque = head; bloque != null; bloque = bloque.next) {
+            for (int i = 0; i < bloque.cuenta; i++) {
+                action.accept(bloque.get(i));
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * Agrega todos los elementos de una colección a la lista.
+     * @param c la colección de elementos a agregar
+     * @return true si los elementos fueron agregados exitosamente
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+
+        if (c == null)
+            throw new NullPointerException("La colección a añadir no puede ser nula.");
+
+        boolean modified = false;
+        for (T item : c)
+            if (add(item))
+                modified = true;
+
+        return modified;
+
+    }
+
+    /**
+     * Busca un elemento por su ID utilizando una función para obtener el ID del elemento.
+     * @param id el ID a buscar
+     * @param idGetter función que obtiene el ID del elemento
+     * @return el elemento encontrado o null si no se encuentra
+     */
+    public T findById(Integer id, Function<T, Integer> idGetter) {
+        for (Bloque<T> bloque = head; bloque != null; bloque = bloque.next) {
+            for (int i = 0; i < bloque.cuenta; i++) {
+                Integer currentId = idGetter.apply(bloque.get(i));
+                if (currentId != null && currentId.equals(id))
+                    return bloque.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retorna el primer elemento de la lista.
+     * @return El elemento de tipo T al inicio de la lista.
+     * @throws NoSuchElementException Si la lista está vacía.
+     */
+    @Override
+    public T getFirst() {
+        if (head == null)
+            throw new NoSuchElementException("La lista está vacía.");
+
+        return head.get(0);
+    }
+
+    /**
+     * Ordena la lista de forma estable: copia los elementos a un arreglo, lo ordena y los reescribe
+     * bloque por bloque (que quedan llenos). Si el comparador lanza una excepción la lista no cambia.
+     * @param c el comparador; si es null se usa el orden natural
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sort(Comparator<? super T> c) {
+        Object[] ordenados = toArray();
+        Arrays.sort(ordenados, (Comparator<Object>) (c != null ? c : Comparator.naturalOrder()));
+
+        clear();
+        for (Object dato : ordenados)
+            add((T) dato);
+    }
+
+    /**
+     * Remueve todos los elementos que cumplen con el predicado dado en una sola pasada:
+     * los que se conservan se recorren hacia adelante y los bloques sobrantes se descartan.
+     * Si el predicado lanza una excepción, se conservan los elementos que faltaba evaluar y la excepción se propaga.
+     * @param filter el predicado que determina qué elementos eliminar
+     * @return true si se eliminó al menos un elemento, false en caso contrario
+     * @throws NullPointerException si el predicado es nulo
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+
+        if (filter == null)
+            throw new NullPointerException("El filtro no puede ser nulo");
+
+        if (head == null)
+            return false;
+
+        RuntimeException error = null;
+        int removidos = 0;
+        boolean movidos = false;
+
+        // La escritura nunca alcanza a la lectura: los bloques anteriores se llenan antes de avanzar
+        Bloque<T> escritura = head;
+        int w = 0;
+
+        for (Bloque<T> lectura = head; lectura != null; lectura = lectura.next) {
+            for (int i = 0; i < lectura.cuenta; i++) {
+                T dato = lectura.get(i);
+
+                if (error == null) {
+                    try {
+                        if (filter.test(dato)) {
+                            removidos++;
+                            continue;
+                        }
+                    } catch (RuntimeException e) {
+                        error = e;
+                    }
+                }
+
+                if (w == CAPACIDAD_BLOQUE) {
+                    escritura.cuenta = CAPACIDAD_BLOQUE;
+                    escritura = escritura.next;
+                    w = 0;
+                }
+                if (escritura != lectura || w != i)
+                    movidos = true;
+                escritura.elementos[w++] = dato;
+            }
+        }
+
+        // También si no se eliminó nada pero se compactaron bloques a medio llenar
+        if (removidos > 0 || movidos) {
+            // Descartar lo que sobra del último bloque escrito y los bloques siguientes
+            Arrays.fill(escritura.elementos, w, CAPACIDAD_BLOQUE, null);
+            escritura.cuenta = w;
+            escritura.next = null;
+            tail = escritura;
+            if (w == 0)
+                desenlazar(escritura);
+
+            size -= removidos;
+            modCount++;
+        }
+
+        if (error != null)
+            throw error;
+
+        return removidos > 0;
+    }
+
+    /**
+     * ListIterator que guarda el bloque y la posición del cursor, así next() y previous() son O(1)
+     * y remove() solo recorre el bloque del elemento. add() ubica de nuevo el cursor (O(n / CAPACIDAD_BLOQUE)).
+     */
+    private class ListItr implements ListIterator<T> {
+
+        // Bloque y posición del elemento que devolverá next() (bloque null al final)
+        private Bloque<T> bloque;
+        private int offset;
+
+        // Bloque y posición del último elemento devuelto (bloque null si no hay), necesarios para remove() y set()
+        private Bloque<T> lastBloque;
+        private int lastOffset;
+        private boolean lastFueNext;
+
+        private int nextIndex;
+        private int expectedModCount = modCount;
+
+        ListItr(int idx) {
+            posicionar(idx);
+        }
+
+        private void posicionar(int idx) {
+            nextIndex = idx;
+            if (idx == size) {
+                bloque = null;
+                offset = 0;
+            } else {
+                Posicion<T> posicion = ubicar(idx);
+                bloque = posicion.bloque;
+                offset = posicion.offset;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public T next() {
+            checkForComodification();
+            if (bloque == null)
+                throw new NoSuchElementException();
+
+            lastBloque = bloque;
+            lastOffset = offset;
+            lastFueNext = true;
+
+            if (++offset == bloque.cuenta) {
+                bloque = bloque.next;
+                offset = 0;
+            }
+            nextIndex++;
+            return lastBloque.get(lastOffset);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public T previous() {
+            checkForComodification();
+            if (nextIndex == 0)
+                throw new NoSuchElementException();
+
+            if (bloque == null) {
+                bloque = tail;
+                offset = tail.cuenta - 1;
+            } else if (offset == 0) {
+                bloque = bloque.prev;
+                offset = bloque.cuenta - 1;
+            } else {
+                offset--;
+            }
+
+            lastBloque = bloque;
+            lastOffset = offset;
+            lastFueNext = false;
+            nextIndex--;
+            return bloque.get(offset);
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            if (lastBloque == null)
+                throw new IllegalStateException();
+            checkForComodification();
+
+            // Tras eliminar, el cursor queda en el elemento que seguía al eliminado
+            Bloque<T> siguiente = eliminarEn(lastBloque, lastOffset);
+            bloque = siguiente;
+            offset = siguiente == lastBloque ? lastOffset : 0;
+            if (bloque != null && offset == bloque.cuenta) {
+                bloque = bloque.next;
+                offset = 0;
+            }
+            if (lastFueNext)
+                nextIndex--;
+
+            lastBloque = null;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void set(T e) {
+            if (lastBloque == null)
+                throw new IllegalStateException();
+            checkForComodification();
+
+            lastBloque.elementos[lastOffset] = e;
+        }
+
+        @Override
+        public void add(T e) {
+            checkForComodification();
+
+            ListaDesenrollada.this.add(nextIndex, e);
+            posicionar(nextIndex + 1);
+            lastBloque = null;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (action == null)
+                throw new NullPointerException("La acción no puede ser nula");
+
+            while (bloque != null && modCount == expectedModCount) {
+                lastBloque = bloque;
+                lastOffset = offset;
+                lastFueNext = true;
+                if (++offset == bloque.cuenta) {
+                    bloque = bloque.next;
+                    offset = 0;
+                }
+                nextIndex++;
+                action.accept(lastBloque.get(lastOffset));
+            }
+            checkForComodification();
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+}
@@ -6,14 +6,24 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import mx.edu.utez.gestioncitas.serializers.ListaSimpleDeserializer;
 import mx.edu.utez.gestioncitas.serializers.ListaSimpleSerializer;
 
+import org.springframework.lang.NonNull;
+
 import java.util.AbstractList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
 /**
- * Clase que representa una lista enlazada simple genérica. Utiliza Serialización y Deserialización personalizada para JSON.
+ * Clase que representa una lista enlazada genérica. Utiliza Serialización y Deserialización personalizada para JSON.
+ * Cada nodo guarda el enlace al siguiente y al anterior, así que quitar el último, recorrerla al revés
+ * y quitar un nodo devuelto por addNode son O(1).
  * @param <T> el tipo de elementos en la lista
  */
 @JsonSerialize(using = ListaSimpleSerializer.class)
@@ -46,13 +56,7 @@ public class ListaSimple<T> extends AbstractList<T> {
     public T get(int idx) {
 
         checkIndex(idx);
-
-        Nodo<T> current = head;
-
-        for(int i = 0; i < idx; i++)
-            current = current.getNext();
-
-        return current.getData();
+        return nodeAt(idx).getData();
     }
 
     /**
@@ -71,17 +75,47 @@ public class ListaSimple<T> extends AbstractList<T> {
      */
     @Override
     public boolean add(T data) {
+        addNode(data);
+        return true;
+    }
+
+    /**
+     * Agrega un elemento al final de la lista y devuelve su nodo, para quitarlo después en O(1) con removeNode.
+     * @param data el elemento a agregar
+     * @return el nodo que guarda al elemento
+     */
+    public Nodo<T> addNode(T data) {
         Nodo<T> newNode = new Nodo<>(data);
+        newNode.setLista(this);
 
         if (isEmpty())
             head = newNode;
         else
              tail.setNext(newNode);
 
+        newNode.setPrevious(tail);
         tail = newNode;
         size++;
         modCount++;
-        return true;
+        return newNode;
+    }
+
+    /**
+     * Quita de la lista un nodo devuelto por addNode, sin recorrerla.
+     * El nodo debe pertenecer a esta lista; uno que ya se quitó, que es de otra lista
+     * o que quedó fuera con clear se rechaza.
+     * @param node nodo a quitar
+     * @return el elemento que guardaba el nodo
+     * @throws IllegalArgumentException si el nodo ya no está en la lista
+     */
+    public T removeNode(Nodo<T> node) {
+        if (node == null)
+            throw new NullPointerException("El nodo no puede ser nulo");
+        if (node.getLista() != this)
+            throw new IllegalArgumentException("El nodo no pertenece a la lista");
+
+        unlink(node);
+        return node.getData();
     }
 
     /**
@@ -93,17 +127,29 @@ public class ListaSimple<T> extends AbstractList<T> {
     @Override
     public T set(int idx, T element) {
         checkIndex(idx);
-        
-        Nodo<T> current = head;
-        for (int i = 0; i < idx; i++)
-            current = current.getNext();
-        
+
+        Nodo<T> current = nodeAt(idx);
         T oldData = current.getData();
         current.setData(element);
         modCount++;
         return oldData;
     }
 
+    /**
+     * Inserta un elemento en la posición idx, recorriendo a la derecha los siguientes.
+     * @param idx posición donde se insertará el elemento
+     * @param data el elemento a insertar
+     */
+    @Override
+    public void add(int idx, T data) {
+        checkPositionIndex(idx);
+
+        if (idx == size)
+            add(data);
+        else
+            linkAfter(idx == 0 ? null : nodeAt(idx - 1), data);
+    }
+
     /**
      * Remueve el elemento en la posición idx.
      * @param idx índice del elemento a remover
@@ -113,29 +159,39 @@ public class ListaSimple<T> extends AbstractList<T> {
     public T remove(int idx) {
         checkIndex(idx);
 
-        T removedData;
-
-        if (idx == 0) {
-            removedData = head.getData();
-            head = head.getNext();
-        } else {
-
-            Nodo<T> current = head;
-
-            for (int i = 0; i < idx - 1; i++)
-                current = current.getNext();
+        Nodo<T> removed = nodeAt(idx);
+        unlink(removed);
+        return removed.getData();
+    }
 
-            removedData = current.getNext().getData();
-            current.setNext(current.getNext().getNext());
+    /**
+     * Remueve el primer elemento de la lista en O(1).
+     * @return el elemento removido
+     * @throws NoSuchElementException si la lista está vacía
+     */
+    @Override
+    public T removeFirst() {
+        if (head == null)
+            throw new NoSuchElementException("La lista está vacía.");
 
-            if (idx == size - 1)
-                tail = current;
+        T data = head.getData();
+        unlink(head);
+        return data;
+    }
 
-        }
+    /**
+     * Remueve el último elemento de la lista en O(1), usando el enlace al anterior de la cola.
+     * @return el elemento removido
+     * @throws NoSuchElementException si la lista está vacía
+     */
+    @Override
+    public T removeLast() {
+        if (tail == null)
+            throw new NoSuchElementException("La lista está vacía.");
 
-        size--;
-        modCount++;
-        return removedData;
+        T data = tail.getData();
+        unlink(tail);
+        return data;
     }
 
     /**
@@ -143,7 +199,16 @@ public class ListaSimple<T> extends AbstractList<T> {
      */
     @Override
     public void clear() {
+        // Se desenlaza cada nodo para que los devueltos por addNode ya no cuenten como de esta lista
+        for (Nodo<T> current = head; current != null; ) {
+            Nodo<T> next = current.getNext();
+            current.setNext(null);
+            current.setPrevious(null);
+            current.setLista(null);
+            current = next;
+        }
         head = null;
+        tail = null;
         size = 0;
         modCount++;
     }
@@ -166,6 +231,166 @@ public class ListaSimple<T> extends AbstractList<T> {
         }
     }
 
+    /**
+     * Verifica si la posición es válida para insertar o para iniciar un iterador (0 a size).
+     * @param idx posición a verificar
+     */
+    private void checkPositionIndex(int idx) {
+        if (idx < 0 || idx > size) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Obtiene el nodo en la posición idx recorriendo desde la cabeza o desde la cola, según cuál esté más cerca.
+     * @param idx índice válido del nodo
+     * @return el nodo en esa posición
+     */
+    private Nodo<T> nodeAt(int idx) {
+        if (idx < size / 2) {
+            Nodo<T> current = head;
+            for (int i = 0; i < idx; i++)
+                current = current.getNext();
+            return current;
+        }
+
+        Nodo<T> current = tail;
+        for (int i = size - 1; i > idx; i--)
+            current = current.getPrevious();
+        return current;
+    }
+
+    /**
+     * Enlaza un nuevo nodo justo después de prev (o al inicio si prev es null).
+     * @param prev nodo anterior a la posición de inserción, o null para insertar en la cabeza
+     * @param data el elemento a insertar
+     * @return el nodo creado
+     */
+    private Nodo<T> linkAfter(Nodo<T> prev, T data) {
+        Nodo<T> newNode = new Nodo<>(data);
+        newNode.setLista(this);
+
+        if (prev == null) {
+            newNode.setNext(head);
+            head = newNode;
+        } else {
+            newNode.setNext(prev.getNext());
+            prev.setNext(newNode);
+        }
+        newNode.setPrevious(prev);
+
+        if (newNode.getNext() == null)
+            tail = newNode;
+        else
+            newNode.getNext().setPrevious(newNode);
+
+        size++;
+        modCount++;
+        return newNode;
+    }
+
+    /**
+     * Desenlaza un nodo de la lista usando sus enlaces al anterior y al siguiente.
+     * @param node nodo a desenlazar
+     */
+    private void unlink(Nodo<T> node) {
+        Nodo<T> prev = node.getPrevious();
+        Nodo<T> next = node.getNext();
+
+        if (prev == null)
+            head = next;
+        else
+            prev.setNext(next);
+
+        if (next == null)
+            tail = prev;
+        else
+            next.setPrevious(prev);
+
+        node.setNext(null);
+        node.setPrevious(null);
+        node.setLista(null);
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Devuelve un iterador que avanza nodo por nodo, cada paso es O(1).
+     * Sin esta sobreescritura AbstractList usaría get(i), que es O(n) por paso.
+     * @return iterador de la lista
+     */
+    @Override
+    @NonNull
+    public Iterator<T> iterator() {
+        return new ListItr(0);
+    }
+
+    /**
+     * Devuelve un ListIterator posicionado al inicio de la lista.
+     * @return ListIterator de la lista
+     */
+    @Override
+    @NonNull
+    public ListIterator<T> listIterator() {
+        return new ListItr(0);
+    }
+
+    /**
+     * Devuelve un ListIterator posicionado en idx.
+     * @param idx posición inicial del cursor (0 a size)
+     * @return ListIterator de la lista
+     */
+    @Override
+    @NonNull
+    public ListIterator<T> listIterator(int idx) {
+        checkPositionIndex(idx);
+        return new ListItr(idx);
+    }
+
+    /**
+     * Devuelve un iterador que recorre la lista del último al primero siguiendo los enlaces al anterior.
+     * Cada paso es O(1) y admite remove().
+     * @return iterador en orden inverso
+     */
+    @NonNull
+    public Iterator<T> descendingIterator() {
+        ListItr itr = new ListItr(size);
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return itr.hasPrevious();
+            }
+
+            @Override
+            public T next() {
+                return itr.previous();
+            }
+
+            @Override
+            public void remove() {
+                itr.remove();
+            }
+        };
+    }
+
+    /**
+     * Aplica la acción a cada elemento recorriendo los nodos directamente.
+     * @param action acción a aplicar
+     * @throws NullPointerException si la acción es nula
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        if (action == null)
+            throw new NullPointerException("La acción no puede ser nula");
+
+        int expectedModCount = modCount;
+        for (Nodo<T> current = head; current != null; current = current.getNext()) {
+            action.accept(current.getData());
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+
     /**
      * Agrega todos los elementos de una colección a la lista.
      * @param c la colección de elementos a agregar
@@ -208,6 +433,19 @@ public class ListaSimple<T> extends AbstractList<T> {
         return null;
     }
 
+    /**
+     * Retorna el último elemento de la lista, en O(1).
+     * @return El elemento de tipo T en la cola (tail) de la lista.
+     * @throws NoSuchElementException Si la lista está vacía.
+     */
+    @Override
+    public T getLast() {
+        if (tail == null)
+            throw new NoSuchElementException("La lista está vacía.");
+
+        return tail.getData();
+    }
+
     /**
      * Retorna el primer elemento (dato) de la lista.
      * * @return El elemento de tipo T en la cabeza (head) de la lista.
@@ -227,6 +465,61 @@ public class ListaSimple<T> extends AbstractList<T> {
         return head.getData();
     }
 
+    /**
+     * Ordena la lista reenlazando sus nodos con MergeSort (estable, O(n log n)).
+     * Sin esta sobreescritura List.sort copiaría a un arreglo y reescribiría cada nodo.
+     * @param c el comparador; si es null se usa el orden natural
+     */
+    @Override
+    public void sort(Comparator<? super T> c) {
+        ordenar(c, null);
+    }
+
+    /**
+     * Ordena la lista reenlazando sus nodos, en el hilo actual o repartiendo trozos entre hilos.
+     * Si el comparador lanza una excepción, la lista conserva todos sus elementos
+     * (en un orden no especificado) y la excepción se propaga.
+     * @param c el comparador; si es null se usa el orden natural
+     * @param pool hilos para MergeSort.ordenarNodosEnParalelo, o null para ordenar en el hilo actual
+     */
+    @SuppressWarnings("unchecked")
+    void ordenar(Comparator<? super T> c, ForkJoinPool pool) {
+
+        MergeSort.ComparadorSeguro<T> comparador = new MergeSort.ComparadorSeguro<>(
+                c != null ? c : (Comparator<? super T>) Comparator.naturalOrder());
+        reenlazar(pool != null
+                ? MergeSort.ordenarNodosEnParalelo(head, size, comparador, pool)
+                : MergeSort.ordenarNodos(head, size, comparador));
+        comparador.relanzarError();
+    }
+
+    /**
+     * Ordena la lista reenlazando sus nodos por cubetas (ver CountingSort).
+     * @param cubetas cubeta de cada elemento, en el orden actual de la lista
+     * @param numCubetas número de cubetas
+     */
+    void ordenarPorCubetas(int[] cubetas, int numCubetas) {
+        reenlazar(CountingSort.ordenarNodos(head, cubetas, numCubetas));
+    }
+
+    /**
+     * Toma como cabeza la de la cadena ya reordenada, rehace los enlaces al anterior
+     * (los ordenamientos solo reenlazan hacia adelante) y vuelve a ubicar la cola.
+     * @param nuevaCabeza primer nodo de la cadena con los mismos nodos de la lista
+     */
+    private void reenlazar(Nodo<T> nuevaCabeza) {
+        head = nuevaCabeza;
+
+        Nodo<T> prev = null;
+        for (Nodo<T> current = head; current != null; current = current.getNext()) {
+            current.setPrevious(prev);
+            prev = current;
+        }
+        tail = prev;
+
+        modCount++;
+    }
+
     /**
      * Remueve todos los elementos que cumplen con el predicado dado.
      * @param filter el predicado que determina qué elementos eliminar
@@ -270,6 +563,13 @@ public class ListaSimple<T> extends AbstractList<T> {
                         tail = prev;
 
                 }
+
+                // El siguiente ahora apunta hacia atrás al último nodo conservado
+                if (nextNode != null)
+                    nextNode.setPrevious(prev);
+                current.setNext(null);
+                current.setPrevious(null);
+                current.setLista(null);
                 // Importante: No avanzamos 'prev', porque el actual fue borrado
                 // y el 'prev' sigue siendo el anterior del nuevo 'current'.
             } else {
@@ -282,6 +582,140 @@ public class ListaSimple<T> extends AbstractList<T> {
             current = nextNode;
         }
 
+        if (removed)
+            modCount++;
+
         return removed;
     }
-}
\ No newline at end of file
+
+    /**
+     * ListIterator que recorre los nodos guardando el nodo anterior al cursor,
+     * así next(), previous(), remove(), set() y add() son O(1).
+     */
+    private class ListItr implements ListIterator<T> {
+
+        // Nodo que devolverá next() y nodo anterior al cursor
+        private Nodo<T> next;
+        private Nodo<T> prev;
+
+        // Último nodo devuelto, necesario para remove() y set()
+        private Nodo<T> lastReturned;
+
+        private int nextIndex;
+        private int expectedModCount = modCount;
+
+        ListItr(int idx) {
+            next = idx == size ? null : nodeAt(idx);
+            prev = next == null ? tail : next.getPrevious();
+            nextIndex = idx;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public T next() {
+            checkForComodification();
+            if (next == null)
+                throw new NoSuchElementException();
+
+            lastReturned = next;
+            prev = next;
+            next = next.getNext();
+            nextIndex++;
+            return lastReturned.getData();
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public T previous() {
+            checkForComodification();
+            if (nextIndex == 0)
+                throw new NoSuchElementException();
+
+            lastReturned = prev;
+            next = prev;
+            prev = prev.getPrevious();
+            nextIndex--;
+            return lastReturned.getData();
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null)
+                throw new IllegalStateException();
+            checkForComodification();
+
+            Nodo<T> lastPrev = lastReturned.getPrevious();
+            Nodo<T> lastNext = lastReturned.getNext();
+            unlink(lastReturned);
+
+            if (prev == lastReturned) {
+                // Se llamó a next(): el cursor retrocede una posición
+                prev = lastPrev;
+                nextIndex--;
+            } else {
+                // Se llamó a previous(): el cursor queda antes del siguiente nodo
+                next = lastNext;
+            }
+
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void set(T e) {
+            if (lastReturned == null)
+                throw new IllegalStateException();
+            checkForComodification();
+
+            lastReturned.setData(e);
+        }
+
+        @Override
+        public void add(T e) {
+            checkForComodification();
+
+            prev = linkAfter(prev, e);
+            nextIndex++;
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (action == null)
+                throw new NullPointerException("La acción no puede ser nula");
+
+            while (next != null && modCount == expectedModCount) {
+                lastReturned = next;
+                prev = next;
+                next = next.getNext();
+                nextIndex++;
+                action.accept(lastReturned.getData());
+            }
+            checkForComodification();
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+}
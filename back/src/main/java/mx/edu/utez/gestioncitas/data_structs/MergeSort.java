@@ -1,85 +1,404 @@
 package mx.edu.utez.gestioncitas.data_structs;
 
+import mx.edu.utez.gestioncitas.model.Cita;
 import mx.edu.utez.gestioncitas.model.Paciente;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
 
 /**
- * Implementación del algoritmo de ordenamiento Merge Sort
- * para ordenar una lista de Paciente por su prioridad en orden ascendente.
+ * Implementación del algoritmo de ordenamiento Merge Sort.
+ * sort ordena cualquier ListaSimple con un Comparator reenlazando sus nodos (de abajo hacia arriba:
+ * corridas cortas ordenadas por inserción que luego se mezclan de dos en dos), sin get(i) ni arreglos.
+ * sortByKey calcula la clave de cada elemento una sola vez (por ejemplo, una CollationKey) y ordena por ella.
+ * sortByPrioridadAsc y sortCitasByPrioridadAsc ordenan pacientes y citas por prioridad en orden ascendente.
  * @author Tilines Crew
  */
 public class MergeSort {
 
+    // Prioridad ascendente (1 = Alta); los pacientes sin prioridad van al final
+    public static final Comparator<Paciente> PACIENTE_POR_PRIORIDAD =
+            Comparator.comparing(Paciente::getPrioridad, Comparator.nullsLast(Comparator.<Integer>naturalOrder()));
+
+    // Fecha y hora de la cita (las que no tienen fecha u hora van al final)
+    public static final Comparator<Cita> CITA_POR_FECHA_HORA = Comparator
+            .comparing(Cita::getFecha, Comparator.nullsLast(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(Cita::getHora, Comparator.nullsLast(Comparator.<LocalTime>naturalOrder()));
+
+    // Prioridad del paciente, luego fecha y hora de la cita. Lee la prioridad en cada comparación,
+    // así que solo sirve para ordenar de una vez, no para estructuras que guardan el orden
+    public static final Comparator<Cita> CITA_POR_PRIORIDAD = Comparator
+            .comparing((Cita c) -> c.getPaciente().getPrioridad(), Comparator.nullsLast(Comparator.<Integer>naturalOrder()))
+            .thenComparing(CITA_POR_FECHA_HORA);
+
+    // Las corridas de hasta este tamaño se ordenan por inserción antes de empezar a mezclar
+    private static final int TAM_CORRIDA = 8;
+
+    // Tamaño mínimo de cada trozo de la versión paralela; debajo de 2 trozos se ordena en un solo hilo
+    private static final int UMBRAL_PARALELO = 8_192;
+
+    /**
+     * Ordena una copia de la lista con el comparador dado. Es estable: los elementos iguales
+     * conservan su orden original. O(n log n) comparaciones.
+     * @param lista ListaSimple a ordenar (no se modifica)
+     * @param comparator criterio de orden
+     * @param <T> tipo de los elementos
+     * @return una nueva ListaSimple ordenada
+     */
+    public static <T> ListaSimple<T> sort(ListaSimple<T> lista, Comparator<? super T> comparator) {
+
+        ListaSimple<T> resultado = new ListaSimple<>();
+        if (lista == null)
+            return resultado;
+
+        resultado.addAll(lista);
+        resultado.sort(comparator);
+        return resultado;
+
+    }
+
+    /**
+     * Ordena una copia de la lista por una clave que se calcula una sola vez por elemento,
+     * en lugar de una vez por comparación. Es estable; las claves null van al final.
+     * @param lista ListaSimple a ordenar (no se modifica)
+     * @param clave función que obtiene la clave de cada elemento
+     * @param <T> tipo de los elementos
+     * @param <K> tipo de la clave
+     * @return una nueva ListaSimple ordenada por clave ascendente
+     */
+    public static <T, K extends Comparable<? super K>> ListaSimple<T> sortByKey(ListaSimple<T> lista,
+                                                                              Function<? super T, ? extends K> clave) {
+
+        ListaSimple<T> resultado = new ListaSimple<>();
+        if (lista == null)
+            return resultado;
+
+        ListaSimple<ConClave<T, K>> conClaves = new ListaSimple<>();
+        for (T dato : lista)
+            conClaves.add(new ConClave<>(dato, clave.apply(dato)));
+
+        conClaves.sort((a, b) -> a.clave == null
+                ? (b.clave == null ? 0 : 1)
+                : (b.clave == null ? -1 : a.clave.compareTo(b.clave)));
+
+        for (ConClave<T, K> conClave : conClaves)
+            resultado.add(conClave.dato);
+        return resultado;
+
+    }
+
+    /**
+     * Versión paralela de sort para listas grandes (por ejemplo, reportes de fin de mes):
+     * reparte trozos de la lista entre los hilos del ForkJoinPool común. También es estable.
+     * Las listas de menos de 2 * UMBRAL_PARALELO elementos se ordenan con sort.
+     * @param lista ListaSimple a ordenar (no se modifica)
+     * @param comparator criterio de orden
+     * @param <T> tipo de los elementos
+     * @return una nueva ListaSimple ordenada
+     */
+    public static <T> ListaSimple<T> parallelSort(ListaSimple<T> lista, Comparator<? super T> comparator) {
+        return parallelSort(lista, comparator, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Igual que parallelSort, con el pool de hilos dado
+     */
+    static <T> ListaSimple<T> parallelSort(ListaSimple<T> lista, Comparator<? super T> comparator, ForkJoinPool pool) {
+
+        ListaSimple<T> resultado = new ListaSimple<>();
+        if (lista == null)
+            return resultado;
+
+        resultado.addAll(lista);
+        resultado.ordenar(comparator, pool);
+        return resultado;
+
+    }
+
     /**
      * Ordena una lista de Paciente por su prioridad en orden ascendente
-     * utilizando el algoritmo Merge Sort.
+     * utilizando el algoritmo Merge Sort. A igual prioridad se conserva el orden original.
      * @param p ListaSimple de Paciente a ordenar
      * @return ListaSimple de Paciente ordenada por prioridad ascendente
      */
     public static ListaSimple<Paciente> sortByPrioridadAsc(ListaSimple<Paciente> p) {
+        return sort(p, PACIENTE_POR_PRIORIDAD);
+    }
+
+    /**
+     * Ordena una lista de Cita por la prioridad de su paciente y luego por fecha y hora,
+     * utilizando el algoritmo Merge Sort.
+     * @param citas ListaSimple de Cita a ordenar (todas con paciente)
+     * @return ListaSimple de Cita ordenada
+     */
+    public static ListaSimple<Cita> sortCitasByPrioridadAsc(ListaSimple<Cita> citas) {
+        return sort(citas, CITA_POR_PRIORIDAD);
+    }
+
+    /**
+     * Ordena una cadena de nodos reenlazándolos, sin crear nodos nuevos.
+     * Primero ordena por inserción corridas de TAM_CORRIDA nodos y luego mezcla corridas vecinas
+     * de ancho 8, 16, 32... hasta cubrir la cadena; cada pasada recorre los nodos una vez.
+     * @param head primer nodo de la cadena (el último debe apuntar a null)
+     * @param size número de nodos de la cadena
+     * @param comparator criterio de orden
+     * @param <T> tipo de los elementos
+     * @return el primer nodo de la cadena ordenada
+     */
+    static <T> Nodo<T> ordenarNodos(Nodo<T> head, int size, Comparator<? super T> comparator) {
+
+        if (size < 2)
+            return head;
+
+        // Nodo centinela: su siguiente es la cabeza de la cadena que se va armando
+        Nodo<T> inicio = new Nodo<>(null);
+
+        // 1. Corridas cortas ordenadas por inserción
+        Nodo<T> cola = inicio;
+        Nodo<T> actual = head;
 
-        if (p == null || p.size() <= 1) {
-            return p;
+        while (actual != null) {
+            Nodo<T> resto = cortar(actual, TAM_CORRIDA);
+            cola.setNext(ordenarPorInsercion(actual, comparator));
+            while (cola.getNext() != null)
+                cola = cola.getNext();
+            actual = resto;
         }
 
-        // 1. Dividir la lista en dos mitades
-        int mid = p.size() / 2;
+        // 2. Mezclar corridas vecinas duplicando el ancho en cada pasada
+        for (int ancho = TAM_CORRIDA; ancho < size; ancho <<= 1) {
+            actual = inicio.getNext();
+            cola = inicio;
 
-        ListaSimple<Paciente> left = new ListaSimple<>();
-        ListaSimple<Paciente> right = new ListaSimple<>();
+            while (actual != null) {
+                Nodo<T> izquierda = actual;
+                Nodo<T> derecha = cortar(izquierda, ancho);
+                actual = cortar(derecha, ancho);
+                cola = mezclar(cola, izquierda, derecha, comparator);
+            }
+        }
+
+        return inicio.getNext();
 
-        for (int i = 0; i < mid; i++)
-            left.add(p.get(i));
+    }
 
-        for (int i = mid; i < p.size(); i++)
-            right.add(p.get(i));
+    /**
+     * Ordena una cadena grande en paralelo: la parte en trozos de al menos UMBRAL_PARALELO nodos,
+     * ordena cada trozo como una tarea del pool y mezcla los trozos de dos en dos
+     * conforme terminan (la mezcla de dos trozos es secuencial, pero las mezclas de trozos
+     * distintos corren a la vez). Las cadenas chicas se ordenan en el hilo actual.
+     * @param head primer nodo de la cadena (el último debe apuntar a null)
+     * @param size número de nodos de la cadena
+     * @param comparator criterio de orden
+     * @param pool hilos donde corren las tareas
+     * @param <T> tipo de los elementos
+     * @return el primer nodo de la cadena ordenada
+     */
+    static <T> Nodo<T> ordenarNodosEnParalelo(Nodo<T> head, int size, Comparator<? super T> comparator,
+                                              ForkJoinPool pool) {
 
+        int hilos = pool.getParallelism();
+        if (size < 2 * UMBRAL_PARALELO || hilos < 2)
+            return ordenarNodos(head, size, comparator);
 
-        // 2. Llamada recursiva para ordenar cada mitad
-        left = sortByPrioridadAsc(left);
-        right = sortByPrioridadAsc(right);
+        // Algunos trozos más que hilos para repartir bien la carga, sin bajar del umbral
+        int trozos = Math.min(size / UMBRAL_PARALELO, 4 * hilos);
+        @SuppressWarnings("unchecked")
+        Nodo<T>[] cabezas = (Nodo<T>[]) new Nodo<?>[trozos];
+        int[] tamanos = new int[trozos];
+
+        Nodo<T> actual = head;
+        for (int i = 0; i < trozos; i++) {
+            tamanos[i] = size / trozos + (i < size % trozos ? 1 : 0);
+            cabezas[i] = actual;
+            actual = cortar(actual, tamanos[i]);
+        }
+
+        return pool.invoke(new OrdenarTrozos<>(cabezas, tamanos, 0, trozos, comparator));
 
-        // 3. Mezclar resultados ordenados
-        return merge(left, right);
     }
 
     /**
-     * Mezcla dos listas ordenadas de Paciente en una sola lista ordenada.
-     * @param left ListaSimple de Paciente ordenada
-     * @param right ListaSimple de Paciente ordenada
-     * @return ListaSimple de Paciente resultante de la mezcla ordenada
+     * Tarea que ordena los trozos [desde, hasta) y los mezcla en una sola cadena.
+     * Los trozos de la izquierda van antes en la lista original, así la mezcla sigue siendo estable.
      */
-    private static ListaSimple<Paciente> merge(ListaSimple<Paciente> left,
-                                               ListaSimple<Paciente> right) {
+    // RecursiveTask es Serializable, pero la tarea solo vive dentro del pool y nunca se serializa
+    @SuppressWarnings("serial")
+    private static final class OrdenarTrozos<T> extends RecursiveTask<Nodo<T>> {
+
+        private final Nodo<T>[] cabezas;
+        private final int[] tamanos;
+        private final int desde;
+        private final int hasta;
+        private final Comparator<? super T> comparator;
+
+        OrdenarTrozos(Nodo<T>[] cabezas, int[] tamanos, int desde, int hasta, Comparator<? super T> comparator) {
+            this.cabezas = cabezas;
+            this.tamanos = tamanos;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected Nodo<T> compute() {
 
-        ListaSimple<Paciente> result = new ListaSimple<>();
+            if (hasta - desde == 1)
+                return ordenarNodos(cabezas[desde], tamanos[desde], comparator);
 
-        int i = 0, j = 0;
+            int mitad = (desde + hasta) >>> 1;
+            OrdenarTrozos<T> izquierda = new OrdenarTrozos<>(cabezas, tamanos, desde, mitad, comparator);
+            izquierda.fork();
+            Nodo<T> derecha = new OrdenarTrozos<>(cabezas, tamanos, mitad, hasta, comparator).compute();
 
-        // Mezcla principal
-        while (i < left.size() && j < right.size()) {
+            Nodo<T> inicio = new Nodo<>(null);
+            mezclar(inicio, izquierda.join(), derecha, comparator);
+            return inicio.getNext();
+
+        }
+    }
+
+    /**
+     * Mezcla dos cadenas ordenadas y pega el resultado después de cola.
+     * En empate se toma el de la izquierda para que el orden sea estable.
+     * @return el último nodo de la mezcla
+     */
+    private static <T> Nodo<T> mezclar(Nodo<T> cola, Nodo<T> izquierda, Nodo<T> derecha,
+                                       Comparator<? super T> comparator) {
 
-            if (left.get(i).getPrioridad() <= right.get(j).getPrioridad()) {
-                result.add(left.get(i));
-                i++;
+        while (izquierda != null && derecha != null) {
+            if (comparator.compare(derecha.getData(), izquierda.getData()) < 0) {
+                cola.setNext(derecha);
+                derecha = derecha.getNext();
             } else {
-                result.add(right.get(j));
-                j++;
+                cola.setNext(izquierda);
+                izquierda = izquierda.getNext();
             }
+            cola = cola.getNext();
         }
 
-        // Agregar sobrantes
-        while (i < left.size()) {
-            result.add(left.get(i));
-            i++;
+        // Sobrantes: ya están ordenados, se pegan completos
+        cola.setNext(izquierda != null ? izquierda : derecha);
+        while (cola.getNext() != null)
+            cola = cola.getNext();
+
+        return cola;
+
+    }
+
+    /**
+     * Separa los primeros n nodos de la cadena
+     * @return el nodo que sigue a los n primeros, o null si la cadena es más corta
+     */
+    private static <T> Nodo<T> cortar(Nodo<T> head, int n) {
+
+        if (head == null)
+            return null;
+
+        Nodo<T> ultimo = head;
+        for (int i = 1; i < n && ultimo.getNext() != null; i++)
+            ultimo = ultimo.getNext();
+
+        Nodo<T> resto = ultimo.getNext();
+        ultimo.setNext(null);
+        return resto;
+
+    }
+
+    /**
+     * Ordena por inserción una cadena corta. Cada nodo se inserta después de los iguales
+     * (estable); si ya viene en orden, cada nodo solo se compara con el último.
+     * @return el primer nodo de la cadena ordenada
+     */
+    private static <T> Nodo<T> ordenarPorInsercion(Nodo<T> head, Comparator<? super T> comparator) {
+
+        Nodo<T> primero = head;
+        Nodo<T> ultimo = head;
+        Nodo<T> actual = head.getNext();
+        ultimo.setNext(null);
+
+        while (actual != null) {
+            Nodo<T> siguiente = actual.getNext();
+            T dato = actual.getData();
+
+            if (comparator.compare(dato, ultimo.getData()) >= 0) {
+                ultimo.setNext(actual);
+                actual.setNext(null);
+                ultimo = actual;
+            } else if (comparator.compare(dato, primero.getData()) < 0) {
+                actual.setNext(primero);
+                primero = actual;
+            } else {
+                // Va antes de ultimo: el límite evita salirse de la corrida aunque el comparador sea inconsistente
+                Nodo<T> anterior = primero;
+                while (anterior.getNext() != ultimo && comparator.compare(dato, anterior.getNext().getData()) >= 0)
+                    anterior = anterior.getNext();
+                actual.setNext(anterior.getNext());
+                anterior.setNext(actual);
+            }
+
+            actual = siguiente;
         }
 
-        while (j < right.size()) {
-            result.add(right.get(j));
-            j++;
+        return primero;
+
+    }
+
+    /**
+     * Elemento acompañado de su clave ya calculada (para sortByKey)
+     */
+    private static final class ConClave<T, K> {
+
+        private final T dato;
+        private final K clave;
+
+        ConClave(T dato, K clave) {
+            this.dato = dato;
+            this.clave = clave;
+        }
+    }
+
+    /**
+     * Envuelve al comparador para que una excepción no deje nodos sueltos a media mezcla:
+     * guarda la primera excepción, a partir de ahí trata todo como igual para terminar de enlazar
+     * la cadena, y la lista la relanza cuando ya quedó armada (con todos sus elementos).
+     * Puede usarse desde varios hilos a la vez.
+     */
+    static final class ComparadorSeguro<T> implements Comparator<T> {
+
+        private final Comparator<? super T> comparator;
+        private final AtomicReference<RuntimeException> error = new AtomicReference<>();
+
+        ComparadorSeguro(Comparator<? super T> comparator) {
+            this.comparator = comparator;
+        }
+
+        @Override
+        public int compare(T a, T b) {
+            if (error.get() != null)
+                return 0;
+            try {
+                return comparator.compare(a, b);
+            } catch (RuntimeException e) {
+                error.compareAndSet(null, e);
+                return 0;
+            }
         }
 
-        return result;
+        /**
+         * Relanza la excepción del comparador, si hubo
+         */
+        void relanzarError() {
+            RuntimeException e = error.get();
+            if (e != null)
+                throw e;
+        }
     }
 
-}
\ No newline at end of file
+}
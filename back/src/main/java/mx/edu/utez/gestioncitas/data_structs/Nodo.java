@@ -10,6 +10,7 @@ public class Nodo<T> {
     private T data;
     private Nodo<T> next;
     private Nodo<T> previous;
+    private Object lista; // Lista a la que pertenece el nodo, para rechazar nodos ajenos en removeNode
 
     // Constructor del nodo
     public Nodo(T data) {
@@ -43,4 +44,12 @@ public class Nodo<T> {
         this.previous = previous;
     }
 
+    Object getLista() {
+        return lista;
+    }
+
+    void setLista(Object lista) {
+        this.lista = lista;
+    }
+
 }
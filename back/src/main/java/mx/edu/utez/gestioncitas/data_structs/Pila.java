@@ -1,5 +1,7 @@
 package mx.edu.utez.gestioncitas.data_structs;
 
+import java.util.function.Predicate;
+
 /**
  * Implementación de una pila genérica utilizando nodos enlazados.
  * Sigue el principio LIFO (Last In, First Out).
@@ -134,6 +136,61 @@ public class Pila<T> {
         return false;
     }
 
+    /**
+     * Reemplaza el primer elemento (desde la cima) que cumple el predicado, conservando su posición
+     * @param filter el predicado que identifica al elemento
+     * @param data el nuevo dato
+     * @return true si se reemplazó un elemento, false si ninguno cumplió el predicado
+     */
+    public boolean replaceFirst(Predicate<? super T> filter, T data) {
+
+        Nodo<T> current = top;
+        while (current != null) {
+
+            if (filter.test(current.getData())) {
+                current.setData(data);
+                return true;
+            }
+
+            current = current.getNext();
+        }
+
+        return false;
+    }
+
+    /**
+     * Remueve de la pila todos los elementos que cumplen el predicado, conservando el orden del resto
+     * @param filter el predicado que determina qué elementos eliminar
+     * @return true si se eliminó al menos un elemento, false en caso contrario
+     */
+    public boolean removeIf(Predicate<? super T> filter) {
+
+        boolean removed = false;
+        Nodo<T> current = top;
+        Nodo<T> prev = null;
+
+        while (current != null) {
+
+            Nodo<T> nextNode = current.getNext();
+
+            if (filter.test(current.getData())) {
+                if (prev == null)
+                    top = nextNode;
+                else
+                    prev.setNext(nextNode);
+
+                size--;
+                removed = true;
+            } else {
+                prev = current;
+            }
+
+            current = nextNode;
+        }
+
+        return removed;
+    }
+
     /**
      * Limpia la pila, removiendo todos sus elementos
      */
@@ -0,0 +1,281 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.springframework.lang.NonNull;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Cola de prioridad implementada como un montículo binario (min-heap) indexado.
+ * Además del arreglo del montículo guarda la posición de cada elemento por su ID,
+ * así que actualizar o eliminar un elemento por ID también es O(log n).
+ * Si se ofrece un elemento cuyo ID ya está en la cola, se reemplaza y se reacomoda.
+ * Creada sin función de ID es un montículo simple: no indexa posiciones y admite elementos repetidos.
+ * @param <T> Tipo de elementos almacenados en la cola.
+ */
+public class PriorityCola<T> extends AbstractQueue<T> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] heap;
+    private int size;
+    private int modCount;
+
+    private final Comparator<? super T> comparator;
+    private final Function<T, Integer> idGetter;
+
+    // ID del elemento -> índice en el arreglo del montículo (null si la cola no está indexada)
+    private final IntCustomMap<Integer> posiciones;
+
+    /**
+     * Constructor de la cola de prioridad
+     * @param comparator comparador que define la prioridad (el menor sale primero)
+     * @param idGetter función que obtiene el ID único de cada elemento
+     */
+    public PriorityCola(Comparator<? super T> comparator, Function<T, Integer> idGetter) {
+        this.heap = new Object[DEFAULT_CAPACITY];
+        this.size = 0;
+        this.comparator = comparator;
+        this.idGetter = idGetter;
+        this.posiciones = idGetter == null ? null : new IntCustomMap<>();
+    }
+
+    /**
+     * Constructor de una cola de prioridad sin índice por ID (montículo simple)
+     * @param comparator comparador que define la prioridad (el menor sale primero)
+     */
+    public PriorityCola(Comparator<? super T> comparator) {
+        this(comparator, null);
+    }
+
+    /**
+     * Inserta un elemento, o reemplaza al que tenga el mismo ID y lo reacomoda
+     * @param e elemento a insertar
+     * @return true si se insertó o actualizó correctamente
+     */
+    @Override
+    public boolean offer(T e) {
+        if (e == null) throw new NullPointerException();
+
+        if (posiciones != null) {
+            Integer id = idGetter.apply(e);
+            if (id == null) throw new NullPointerException("El elemento debe tener ID para entrar a la cola de prioridad");
+
+            Integer pos = posiciones.get(id);
+            if (pos != null) {
+                heap[pos] = e;
+                if (!siftUp(pos))
+                    siftDown(pos);
+                modCount++;
+                return true;
+            }
+        }
+
+        if (size == heap.length)
+            heap = Arrays.copyOf(heap, size << 1);
+
+        heap[size] = e;
+        siftUp(size++);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Saca el elemento con mayor prioridad
+     * @return el elemento con mayor prioridad o null si la cola está vacía
+     */
+    @Override
+    public T poll() {
+        if (size == 0) return null;
+        return removeAt(0);
+    }
+
+    /**
+     * Ve el elemento con mayor prioridad sin sacarlo
+     * @return el elemento con mayor prioridad o null si la cola está vacía
+     */
+    @Override
+    public T peek() {
+        if (size == 0) return null;
+        return elementAt(0);
+    }
+
+    /**
+     * Devuelve el tamaño de la cola
+     * @return número de elementos en la cola
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Verifica si hay un elemento con el ID dado
+     * @param id ID a buscar
+     * @return true si el elemento está en la cola
+     */
+    public boolean containsId(Integer id) {
+        return indexada().containsKey(id);
+    }
+
+    /**
+     * Obtiene el elemento con el ID dado sin sacarlo
+     * @param id ID a buscar
+     * @return el elemento o null si no está en la cola
+     */
+    public T getById(Integer id) {
+        Integer pos = indexada().get(id);
+        return pos == null ? null : elementAt(pos);
+    }
+
+    /**
+     * Elimina el elemento con el ID dado
+     * @param id ID del elemento a eliminar
+     * @return el elemento eliminado o null si no estaba en la cola
+     */
+    public T removeById(Integer id) {
+        Integer pos = indexada().get(id);
+        return pos == null ? null : removeAt(pos);
+    }
+
+    /**
+     * Vacía la cola
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        if (posiciones != null)
+            posiciones.clear();
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Devuelve un iterador en el orden interno del montículo (no en orden de prioridad).
+     * No permite eliminar: al reacomodar el montículo se saltarían elementos, para eso está removeById.
+     * @return iterador de la cola
+     */
+    @Override
+    @NonNull
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int cursor = 0;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size;
+            }
+
+            @Override
+            public T next() {
+                if (expectedModCount != modCount) throw new ConcurrentModificationException();
+                if (cursor >= size) throw new NoSuchElementException();
+                return elementAt(cursor++);
+            }
+        };
+    }
+
+    /**
+     * Elimina el elemento en la posición i y reacomoda al que ocupe su lugar
+     * @param i índice en el montículo
+     * @return el elemento eliminado
+     */
+    private T removeAt(int i) {
+        T removed = elementAt(i);
+        if (posiciones != null)
+            posiciones.remove(idOf(removed));
+
+        int last = --size;
+        if (i != last) {
+            heap[i] = heap[last];
+            heap[last] = null;
+            if (!siftUp(i))
+                siftDown(i);
+        } else {
+            heap[last] = null;
+        }
+
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Sube el elemento en la posición i mientras tenga más prioridad que su padre
+     * @param i índice del elemento
+     * @return true si el elemento se movió
+     */
+    private boolean siftUp(int i) {
+        int start = i;
+        T item = elementAt(i);
+
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            T parentItem = elementAt(parent);
+            if (comparator.compare(item, parentItem) >= 0)
+                break;
+            place(parentItem, i);
+            i = parent;
+        }
+
+        place(item, i);
+        return i != start;
+    }
+
+    /**
+     * Baja el elemento en la posición i mientras algún hijo tenga más prioridad
+     * @param i índice del elemento
+     */
+    private void siftDown(int i) {
+        T item = elementAt(i);
+        int half = size >>> 1;
+
+        while (i < half) {
+            int child = (i << 1) + 1;
+            int right = child + 1;
+            if (right < size && comparator.compare(elementAt(right), elementAt(child)) < 0)
+                child = right;
+            if (comparator.compare(item, elementAt(child)) <= 0)
+                break;
+            place(elementAt(child), i);
+            i = child;
+        }
+
+        place(item, i);
+    }
+
+    /**
+     * Coloca un elemento en la posición i y actualiza su índice
+     */
+    private void place(T item, int i) {
+        heap[i] = item;
+        if (posiciones != null)
+            posiciones.put(idOf(item), Integer.valueOf(i));
+    }
+
+    /**
+     * Obtiene el índice por ID, o falla si la cola se creó sin función de ID
+     */
+    private IntCustomMap<Integer> indexada() {
+        if (posiciones == null)
+            throw new UnsupportedOperationException("La cola no está indexada por ID");
+        return posiciones;
+    }
+
+    /**
+     * Obtiene el ID de un elemento como int para indexar posiciones sin crear Integer
+     */
+    private int idOf(T item) {
+        return idGetter.apply(item);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(int i) {
+        return (T) heap[i];
+    }
+}
@@ -0,0 +1,248 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import java.util.Arrays;
+
+/**
+ * Trie comprimido (radix / Patricia): cada arista guarda un fragmento de palabra en lugar
+ * de un solo carácter, así que las cadenas sin ramificaciones ocupan un solo nodo.
+ * Los hijos se guardan en arreglos ordenados (primer carácter de cada fragmento y nodo hijo)
+ * y se buscan con búsqueda binaria, sin CustomMap ni Character por nodo.
+ * Ofrece la misma API que Trie (insert y getSuggestions) y las sugerencias salen en orden alfabético.
+ */
+public class RadixTrie {
+
+    private static final char[] EMPTY_KEYS = new char[0];
+    private static final RadixNode[] EMPTY_CHILDREN = new RadixNode[0];
+
+    private final RadixNode root;
+    private int size;
+
+    /**
+     * Nodo del trie comprimido. label es el fragmento de la arista que llega al nodo;
+     * keys[i] es el primer carácter del fragmento de children[i].
+     */
+    static final class RadixNode {
+
+        char[] label;
+        char[] keys = EMPTY_KEYS;
+        RadixNode[] children = EMPTY_CHILDREN;
+        boolean endOfWord;
+
+        RadixNode(char[] label) {
+            this.label = label;
+        }
+    }
+
+    public RadixTrie() {
+        root = new RadixNode(EMPTY_KEYS); // Nodo raíz vacío
+    }
+
+    /**
+     * Inserta una palabra en el trie, partiendo una arista si la palabra se separa a la mitad de ella.
+     * @param word la palabra a insertar.
+     * @return true si la palabra no estaba.
+     */
+    public boolean insert(String word) {
+
+        RadixNode node = root;
+        int i = 0;
+
+        while (i < word.length()) {
+            int idx = Arrays.binarySearch(node.keys, word.charAt(i));
+
+            // Ningún hijo empieza con este carácter: el resto de la palabra es una arista nueva
+            if (idx < 0) {
+                RadixNode leaf = new RadixNode(word.substring(i).toCharArray());
+                leaf.endOfWord = true;
+                addChild(node, -idx - 1, leaf);
+                size++;
+                return true;
+            }
+
+            RadixNode child = node.children[idx];
+            int common = commonPrefix(child.label, word, i);
+
+            // La palabra se separa dentro de la arista: partirla en el punto común
+            if (common < child.label.length) {
+                RadixNode middle = new RadixNode(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.keys = new char[]{child.label[0]};
+                middle.children = new RadixNode[]{child};
+                node.children[idx] = middle;
+                child = middle;
+            }
+
+            node = child;
+            i += common;
+        }
+
+        if (node.endOfWord)
+            return false;
+
+        node.endOfWord = true;
+        size++;
+        return true;
+
+    }
+
+    /**
+     * Verifica si la palabra está en el trie.
+     * @param word la palabra a buscar.
+     * @return true si la palabra fue insertada.
+     */
+    public boolean contains(String word) {
+
+        RadixNode node = root;
+        int i = 0;
+
+        while (i < word.length()) {
+            int idx = Arrays.binarySearch(node.keys, word.charAt(i));
+            if (idx < 0)
+                return false;
+
+            RadixNode child = node.children[idx];
+            int common = commonPrefix(child.label, word, i);
+            if (common < child.label.length)
+                return false;
+
+            node = child;
+            i += common;
+        }
+
+        return node.endOfWord;
+
+    }
+
+    /**
+     * Obtiene una lista de sugerencias de palabras que comienzan con el prefijo dado.
+     * @param prefix el prefijo para buscar sugerencias.
+     * @return una lista simple de sugerencias en orden alfabético.
+     */
+    public ListaSimple<String> getSuggestions(String prefix) {
+
+        ListaSimple<String> suggestions = new ListaSimple<>();
+        StringBuilder path = new StringBuilder(prefix.length() + 16);
+        RadixNode node = root;
+        int i = 0;
+
+        while (i < prefix.length()) {
+            int idx = Arrays.binarySearch(node.keys, prefix.charAt(i));
+            if (idx < 0)
+                return suggestions; // No hay palabras con este prefijo
+
+            RadixNode child = node.children[idx];
+            int common = commonPrefix(child.label, prefix, i);
+
+            // El prefijo se separa de la arista antes de terminar
+            if (common < child.label.length && i + common < prefix.length())
+                return suggestions;
+
+            // Se agrega la arista completa: si el prefijo termina a la mitad, el resto también coincide
+            path.append(child.label);
+            node = child;
+            i += common;
+        }
+
+        findAllWords(node, path, suggestions);
+        return suggestions;
+
+    }
+
+    /**
+     * Retorna el número de palabras en el trie
+     * @return número de palabras distintas insertadas
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Cuenta los nodos del trie (incluida la raíz)
+     * @return número de nodos
+     */
+    public int countNodes() {
+        return countNodes(root);
+    }
+
+    private int countNodes(RadixNode node) {
+        int count = 1;
+        for (RadixNode child : node.children)
+            count += countNodes(child);
+        return count;
+    }
+
+    /**
+     * Cuenta los arreglos propios de los nodos (etiquetas, claves e hijos), sin contar los vacíos compartidos
+     * @return número de arreglos asignados
+     */
+    int countArrays() {
+        return countArrays(root);
+    }
+
+    private int countArrays(RadixNode node) {
+        int count = 0;
+        if (node.label != EMPTY_KEYS)
+            count++;
+        if (node.keys != EMPTY_KEYS)
+            count++;
+        if (node.children != EMPTY_CHILDREN)
+            count++;
+        for (RadixNode child : node.children)
+            count += countArrays(child);
+        return count;
+    }
+
+    /**
+     * Encuentra todas las palabras del subárbol reutilizando un solo StringBuilder para el camino.
+     * @param node El nodo actual en el trie.
+     * @param path El camino construido hasta este nodo (se restaura al regresar).
+     * @param suggestions La lista para almacenar las sugerencias encontradas.
+     */
+    private void findAllWords(RadixNode node, StringBuilder path, ListaSimple<String> suggestions) {
+
+        if (node.endOfWord)
+            suggestions.add(path.toString());
+
+        int length = path.length();
+        for (RadixNode child : node.children) {
+            path.append(child.label);
+            findAllWords(child, path, suggestions);
+            path.setLength(length);
+        }
+
+    }
+
+    /**
+     * Inserta un hijo en la posición dada manteniendo los arreglos ordenados y del tamaño exacto
+     */
+    private static void addChild(RadixNode node, int pos, RadixNode child) {
+
+        int n = node.keys.length;
+        char[] keys = new char[n + 1];
+        RadixNode[] children = new RadixNode[n + 1];
+
+        System.arraycopy(node.keys, 0, keys, 0, pos);
+        System.arraycopy(node.children, 0, children, 0, pos);
+        keys[pos] = child.label[0];
+        children[pos] = child;
+        System.arraycopy(node.keys, pos, keys, pos + 1, n - pos);
+        System.arraycopy(node.children, pos, children, pos + 1, n - pos);
+
+        node.keys = keys;
+        node.children = children;
+
+    }
+
+    /**
+     * Longitud del prefijo común entre el fragmento y la palabra a partir de la posición from
+     */
+    private static int commonPrefix(char[] label, String word, int from) {
+
+        int max = Math.min(label.length, word.length() - from);
+        int i = 0;
+        while (i < max && label[i] == word.charAt(from + i))
+            i++;
+        return i;
+
+    }
+}
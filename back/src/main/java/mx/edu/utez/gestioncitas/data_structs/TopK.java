@@ -0,0 +1,81 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import java.util.Comparator;
+
+/**
+ * Selección de los k mejores elementos sin ordenar toda la colección.
+ * Recorre los elementos una vez con un montículo acotado a k (PriorityCola invertida):
+ * la raíz es el peor de los k mejores y solo se reemplaza cuando llega uno mejor, así que es O(n log k).
+ * Es estable: en empate gana el que llegó primero, igual que en MergeSort y CountingSort.
+ * @author Tilines Crew
+ */
+public class TopK {
+
+    /**
+     * Elemento con su orden de llegada, para desempatar
+     */
+    private static final class Posicion<T> {
+
+        private final T dato;
+        private final long orden;
+
+        Posicion(T dato, long orden) {
+            this.dato = dato;
+            this.orden = orden;
+        }
+    }
+
+    /**
+     * Selecciona los k menores elementos según el comparador
+     * @param elementos elementos a evaluar (no se modifican)
+     * @param k número máximo de elementos a devolver
+     * @param comparator comparador que define el orden (el menor es el mejor); null para el orden natural
+     * @param <T> tipo de los elementos
+     * @return una nueva ListaSimple con a lo más k elementos, en orden ascendente
+     * @throws IllegalArgumentException si k es negativo
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ListaSimple<T> select(Iterable<? extends T> elementos, int k, Comparator<? super T> comparator) {
+
+        if (k < 0)
+            throw new IllegalArgumentException("k no puede ser negativo: " + k);
+
+        ListaSimple<T> resultado = new ListaSimple<>();
+        if (elementos == null || k == 0)
+            return resultado;
+
+        Comparator<? super T> orden = comparator != null
+                ? comparator
+                : (a, b) -> ((Comparable<? super T>) a).compareTo(b);
+        Comparator<Posicion<T>> mejorPrimero = (a, b) -> {
+            int cmp = orden.compare(a.dato, b.dato);
+            return cmp != 0 ? cmp : Long.compare(a.orden, b.orden);
+        };
+
+        // Montículo de máximos: en la raíz queda el peor de los seleccionados
+        PriorityCola<Posicion<T>> seleccionados = new PriorityCola<>(mejorPrimero.reversed());
+        long llegada = 0;
+
+        for (T dato : elementos) {
+            if (seleccionados.size() < k) {
+                seleccionados.offer(new Posicion<>(dato, llegada));
+            } else if (orden.compare(dato, seleccionados.peek().dato) < 0) {
+                // En empate no entra: el peor seleccionado llegó antes
+                seleccionados.poll();
+                seleccionados.offer(new Posicion<>(dato, llegada));
+            }
+            llegada++;
+        }
+
+        // Vaciar el montículo (del peor al mejor) y devolverlos del mejor al peor
+        Object[] ordenados = new Object[seleccionados.size()];
+        for (int i = ordenados.length - 1; i >= 0; i--)
+            ordenados[i] = seleccionados.poll().dato;
+
+        for (Object dato : ordenados)
+            resultado.add((T) dato);
+
+        return resultado;
+
+    }
+}
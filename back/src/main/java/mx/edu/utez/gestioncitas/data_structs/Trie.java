@@ -1,32 +1,358 @@
 package mx.edu.utez.gestioncitas.data_structs;
 
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
 /**
  * Implementación de un Trie (árbol prefijo) para almacenamiento y búsqueda de palabras.
  * Permite insertar palabras y obtener sugerencias basadas en un prefijo dado.
+ * Las palabras pueden llevar IDs de entidades con su texto original para mostrar,
+ * así un prefijo se resuelve directamente a registros sin consultar la base de datos.
+ * En modo normalizado las palabras y prefijos se comparan sin acentos, mayúsculas
+ * ni espacios repetidos ("José  Pérez" y "jose perez" son la misma palabra).
+ * Cada palabra tiene un puntaje (por ejemplo, visitas) y cada nodo guarda el máximo de su subárbol,
+ * así las mejores k sugerencias se obtienen con una búsqueda del mejor primero sin recorrer todo el subárbol.
+ * También permite búsqueda aproximada por distancia de edición (Levenshtein) para tolerar errores de dedo.
+ * Concurrencia: las escrituras copian el camino que modifican (copy-on-write) y publican la nueva raíz
+ * de un solo golpe, así que los nodos publicados nunca cambian. Las lecturas toman la raíz vigente
+ * y trabajan sobre esa versión sin candados; las escrituras se serializan entre ellas.
  */
-public class Trie {
+public class Trie implements IndiceTerminos {
+
+    // Orden de exploración: mayor puntaje, luego menor longitud, luego orden alfabético.
+    // Un subárbol se compara con la mejor palabra que podría tener (maxScore, longitud mínima y su prefijo)
+    private static final Comparator<Candidato> ORDEN_CANDIDATOS = (a, b) -> {
+        int cmp = Long.compare(b.puntaje(), a.puntaje());
+        if (cmp != 0) return cmp;
+        cmp = Integer.compare(a.largoMinimo(), b.largoMinimo());
+        if (cmp != 0) return cmp;
+        cmp = a.camino.compareTo(b.camino);
+        if (cmp != 0) return cmp;
+        return a.palabra == b.palabra ? 0 : a.palabra ? -1 : 1;
+    };
+
+    // Marcas diacríticas que quedan separadas después de la descomposición NFD
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    // Orden de los resultados aproximados: menor distancia, mayor puntaje, orden alfabético
+    private static final Comparator<Coincidencia> ORDEN_COINCIDENCIAS = (a, b) -> {
+        int cmp = Integer.compare(a.distancia, b.distancia);
+        if (cmp != 0) return cmp;
+        cmp = Long.compare(b.node.getScore(), a.node.getScore());
+        if (cmp != 0) return cmp;
+        return a.node.getWord().compareTo(b.node.getWord());
+    };
+
+    // Cada cuántos nodos visitados se revisa el presupuesto de tiempo de la búsqueda aproximada
+    private static final int NODOS_POR_REVISION = 64;
+
+    // Raíz de la versión publicada; cada escritura la reemplaza por la raíz de una copia
+    private volatile TrieNode root;
+
+    // true si las palabras se normalizan antes de insertarse o buscarse
+    private final boolean normalizado;
+
+    /**
+     * Elemento de la búsqueda del mejor primero: un subárbol pendiente (con la cota maxScore)
+     * o una palabra ya lista para devolverse (con su puntaje exacto)
+     */
+    private static final class Candidato {
+
+        final TrieNode node;
+        final String camino;
+        final boolean palabra;
+
+        Candidato(TrieNode node, String camino, boolean palabra) {
+            this.node = node;
+            this.camino = camino;
+            this.palabra = palabra;
+        }
+
+        long puntaje() {
+            return palabra ? node.getScore() : node.getMaxScore();
+        }
+
+        int largoMinimo() {
+            return palabra || node.isEndOfWord() ? camino.length() : camino.length() + 1;
+        }
+    }
 
-    private final TrieNode root;
+    /**
+     * Palabra encontrada por la búsqueda aproximada con su distancia de edición a la consulta
+     */
+    private static final class Coincidencia {
+
+        final TrieNode node;
+        final int distancia;
+
+        Coincidencia(TrieNode node, int distancia) {
+            this.node = node;
+            this.distancia = distancia;
+        }
+    }
+
+    /**
+     * Estado de un recorrido aproximado: la consulta, una fila de la matriz de Levenshtein
+     * por profundidad (se reutilizan entre ramas) y el límite de tiempo
+     */
+    private static final class BusquedaAproximada {
+
+        final String consulta;
+        final int maxDistancia;
+        final long limiteNanos;
+        final PriorityCola<Coincidencia> coincidencias = new PriorityCola<>(ORDEN_COINCIDENCIAS);
+        int[][] filas = new int[16][];
+        int visitados;
+        boolean agotada;
+
+        BusquedaAproximada(String consulta, int maxDistancia, long presupuestoNanos) {
+            this.consulta = consulta;
+            this.maxDistancia = maxDistancia;
+            this.limiteNanos = System.nanoTime() + presupuestoNanos;
+        }
+
+        int[] fila(int profundidad) {
+            if (profundidad >= filas.length)
+                filas = Arrays.copyOf(filas, filas.length << 1);
+            if (filas[profundidad] == null)
+                filas[profundidad] = new int[consulta.length() + 1];
+            return filas[profundidad];
+        }
+
+        boolean tiempoAgotado() {
+            if (++visitados % NODOS_POR_REVISION == 0 && System.nanoTime() - limiteNanos > 0)
+                agotada = true;
+            return agotada;
+        }
+    }
 
     public Trie() {
+        this(false);
+    }
+
+    /**
+     * Constructor del trie
+     * @param normalizado true para comparar sin acentos, mayúsculas ni espacios repetidos
+     */
+    public Trie(boolean normalizado) {
         root = new TrieNode('\0'); // Nodo raíz vacío
+        this.normalizado = normalizado;
+    }
+
+    /**
+     * Normaliza un texto para búsqueda: descompone con NFD y quita los diacríticos,
+     * pasa a minúsculas y deja un solo espacio entre palabras.
+     * @param texto el texto a normalizar (null se toma como vacío).
+     * @return el texto normalizado.
+     */
+    public static String normalizar(String texto) {
+
+        if (texto == null)
+            return "";
+
+        String sinAcentos = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinAcentos.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+
     }
 
     /**
      * Inserta una palabra en el trie.
      * @param word la palabra a insertar.
      */
-    public void insert(String word) {
+    public synchronized void insert(String word) {
+
+        String clave = clave(word);
+        TrieNode[] camino = copiarCamino(root, clave, true);
+        marcarPalabra(camino[clave.length()], clave);
+        root = cerrarCamino(camino, clave);
+
+    }
+
+    /**
+     * Inserta una palabra asociada al ID de una entidad (por ejemplo el nombre de un paciente).
+     * Una misma palabra puede tener varios IDs y un ID puede estar en varias palabras.
+     * @param word la palabra a insertar.
+     * @param id el ID de la entidad.
+     */
+    public void insert(String word, int id) {
+
+        insert(word, id, word);
+
+    }
+
+    /**
+     * Inserta una palabra asociada al ID de una entidad y al texto con el que se muestra.
+     * Si el ID ya estaba en la palabra solo se actualiza su texto.
+     * @param word la palabra a insertar.
+     * @param id el ID de la entidad.
+     * @param texto el texto original para mostrar (por ejemplo "José Pérez").
+     */
+    public synchronized void insert(String word, int id, String texto) {
+
+        root = insertarEn(root, clave(word), id, texto);
+
+    }
+
+    /**
+     * Quita el ID de una palabra; si la palabra se queda sin IDs deja de ser sugerible
+     * y se podan los nodos que quedaron sin palabras.
+     * @param word la palabra.
+     * @param id el ID a quitar.
+     * @return true si el ID estaba asociado a la palabra.
+     */
+    public synchronized boolean remove(String word, int id) {
+
+        TrieNode nuevaRaiz = quitarEn(root, clave(word), id);
+        if (nuevaRaiz == null)
+            return false;
+
+        root = nuevaRaiz;
+        return true;
+
+    }
+
+    /**
+     * Quita una palabra con todos sus IDs y poda los nodos que quedaron sin palabras.
+     * @param word la palabra a quitar.
+     * @return true si la palabra estaba en el trie.
+     */
+    public synchronized boolean remove(String word) {
+
+        String clave = clave(word);
+        TrieNode actual = findNode(root, clave);
+        if (actual == null || !actual.isEndOfWord())
+            return false;
+
+        TrieNode[] camino = copiarCamino(root, clave, false);
+        desmarcarPalabra(camino[clave.length()]);
+        root = cerrarCamino(camino, clave);
+        return true;
+
+    }
+
+    /**
+     * Mueve el ID de una palabra a otra (por ejemplo, al renombrar a un paciente).
+     * Los lectores ven la versión anterior completa o la nueva completa, nunca una intermedia.
+     * @param anterior la palabra actual del ID.
+     * @param nueva la palabra nueva.
+     * @param id el ID de la entidad.
+     * @param texto el texto para mostrar con la palabra nueva.
+     */
+    public synchronized void replace(String anterior, String nueva, int id, String texto) {
+
+        TrieNode raiz = root;
+        TrieNode sinAnterior = quitarEn(raiz, clave(anterior), id);
+        if (sinAnterior != null)
+            raiz = sinAnterior;
+
+        root = insertarEn(raiz, clave(nueva), id, texto);
+
+    }
 
-        TrieNode current = root;
-        for (char ch : word.toCharArray()) {
+    /**
+     * Cambia todas las palabras de un ID (por ejemplo nombre, apellido y nombre completo) en una sola publicación.
+     * @param anteriores las palabras de las que se quita el ID.
+     * @param nuevas las palabras a las que se agrega el ID.
+     * @param id el ID de la entidad.
+     * @param texto el texto para mostrar con las palabras nuevas.
+     */
+    @Override
+    public synchronized void replace(Iterable<String> anteriores, Iterable<String> nuevas, int id, String texto) {
 
-            current.getChildren().putIfAbsent(ch, new TrieNode(ch));
-            current = current.getChildren().get(ch);
+        TrieNode raiz = root;
 
+        for (String anterior : anteriores) {
+            TrieNode sinAnterior = quitarEn(raiz, clave(anterior), id);
+            if (sinAnterior != null)
+                raiz = sinAnterior;
         }
 
-        current.setEndOfWord(true);
+        for (String nueva : nuevas)
+            raiz = insertarEn(raiz, clave(nueva), id, texto);
+
+        root = raiz;
+
+    }
+
+    /**
+     * Suma un uso (visita) al puntaje de la palabra.
+     * @param word la palabra usada.
+     * @return true si la palabra está en el trie.
+     */
+    @Override
+    public boolean registrarUso(String word) {
+
+        return registrarUso(word, 1);
+
+    }
+
+    /**
+     * Suma varios usos al puntaje de la palabra (por ejemplo, al restaurar un puntaje guardado).
+     * @param word la palabra usada.
+     * @param usos número de usos a sumar.
+     * @return true si la palabra está en el trie.
+     */
+    public synchronized boolean registrarUso(String word, long usos) {
+
+        String clave = clave(word);
+        TrieNode actual = findNode(root, clave);
+        if (actual == null || !actual.isEndOfWord())
+            return false;
+
+        TrieNode[] camino = copiarCamino(root, clave, false);
+        TrieNode node = camino[clave.length()];
+        node.setScore(node.getScore() + usos);
+        root = cerrarCamino(camino, clave);
+        return true;
+
+    }
+
+    /**
+     * Cuenta los nodos de la versión publicada (incluida la raíz)
+     * @return número de nodos
+     */
+    public int countNodes() {
+        return countNodes(root);
+    }
+
+    private static int countNodes(TrieNode node) {
+        int count = 1;
+        for (TrieNode child : node.getChildren().values())
+            count += countNodes(child);
+        return count;
+    }
+
+    /**
+     * Obtiene el puntaje de una palabra.
+     * @param word la palabra.
+     * @return el puntaje, o -1 si la palabra no está en el trie.
+     */
+    public long getScore(String word) {
+
+        TrieNode node = findNode(root, clave(word));
+        return node == null || !node.isEndOfWord() ? -1 : node.getScore();
+
+    }
+
+    /**
+     * Obtiene los IDs de una palabra exacta con su texto para mostrar.
+     * @param word la palabra.
+     * @return un map de ID a texto (vacío si la palabra no está o no tiene IDs).
+     */
+    public LinkedCustomMap<Integer, String> getEntradas(String word) {
+
+        LinkedCustomMap<Integer, String> entradas = new LinkedCustomMap<>();
+        TrieNode node = findNode(root, clave(word));
+        if (node != null && node.isEndOfWord() && node.getEntradas() != null)
+            entradas.putAll(node.getEntradas());
+
+        return entradas;
 
     }
 
@@ -38,33 +364,423 @@ public class Trie {
     public ListaSimple<String> getSuggestions(String prefix) {
 
         ListaSimple<String> suggestions = new ListaSimple<>();
-        TrieNode current = root;
+        TrieNode start = findNode(root, clave(prefix));
 
-        for (char ch : prefix.toCharArray()) {
-            if (!current.getChildren().containsKey(ch))
-                return suggestions; // No hay palabras con este prefijo
+        if (start != null)
+            findAllWords(start, suggestions);
 
-            current = current.getChildren().get(ch);
-        }
+        return suggestions;
+
+    }
+
+    /**
+     * Obtiene las k mejores sugerencias para el prefijo, de mayor a menor puntaje
+     * (a igual puntaje, las más cortas primero).
+     * Solo se expanden los subárboles cuyo puntaje máximo puede entrar en el resultado.
+     * @param prefix el prefijo para buscar sugerencias.
+     * @param k número máximo de sugerencias.
+     * @return una lista simple con a lo más k palabras.
+     */
+    public ListaSimple<String> getSuggestions(String prefix, int k) {
+
+        ListaSimple<String> suggestions = new ListaSimple<>();
+        String clave = clave(prefix);
+        TrieNode start = findNode(root, clave);
+        if (start == null || k <= 0)
+            return suggestions;
+
+        recorrerMejores(start, clave, node -> {
+            suggestions.add(node.getWord());
+            return suggestions.size() < k;
+        });
 
-        findAllWords(current, prefix, suggestions);
         return suggestions;
 
     }
 
+    /**
+     * Obtiene los IDs asociados a las palabras que comienzan con el prefijo, sin repetir.
+     * Las palabras salen por puntaje y, a igual puntaje, las más cortas (las más parecidas al prefijo)
+     * primero; se detiene en cuanto junta el límite sin recorrer el resto.
+     * @param prefix el prefijo a buscar.
+     * @param limite número máximo de IDs a devolver.
+     * @return una lista simple con los IDs encontrados.
+     */
+    public ListaSimple<Integer> buscarIds(String prefix, int limite) {
+
+        ListaSimple<Integer> resultado = new ListaSimple<>();
+        for (Integer id : buscarEntradas(prefix, limite).keySet())
+            resultado.add(id);
+
+        return resultado;
+
+    }
+
+    /**
+     * Obtiene las entidades de las palabras que comienzan con el prefijo: ID y texto para mostrar,
+     * en el mismo orden que buscarIds y sin repetir IDs.
+     * @param prefix el prefijo a buscar.
+     * @param limite número máximo de entidades a devolver.
+     * @return un map ordenado de ID a texto original.
+     */
+    public LinkedCustomMap<Integer, String> buscarEntradas(String prefix, int limite) {
+
+        LinkedCustomMap<Integer, String> resultado = new LinkedCustomMap<>();
+        String clave = clave(prefix);
+        TrieNode start = findNode(root, clave);
+        if (start == null || limite <= 0)
+            return resultado;
+
+        recorrerMejores(start, clave, node -> {
+            if (node.getEntradas() == null)
+                return true;
+
+            for (Map.Entry<Integer, String> entrada : node.getEntradas().entrySet()) {
+                if (resultado.putIfAbsent(entrada.getKey(), entrada.getValue()) == null
+                        && resultado.size() == limite)
+                    return false;
+            }
+            return true;
+        });
+
+        return resultado;
+
+    }
+
+    /**
+     * Busca las palabras a distancia de edición (Levenshtein) de a lo más maxDistancia de la consulta.
+     * Si se acaba el presupuesto de tiempo devuelve lo que alcanzó a encontrar.
+     * @param word la consulta, posiblemente con errores de dedo.
+     * @param maxDistancia distancia máxima permitida (1 o 2 es lo usual).
+     * @param presupuestoNanos tiempo máximo de la búsqueda en nanosegundos.
+     * @return las palabras encontradas, de menor a mayor distancia y luego por puntaje.
+     */
+    public ListaSimple<String> buscarAproximado(String word, int maxDistancia, long presupuestoNanos) {
+
+        ListaSimple<String> resultado = new ListaSimple<>();
+        PriorityCola<Coincidencia> coincidencias = recorrerAproximado(word, maxDistancia, presupuestoNanos);
+
+        while (!coincidencias.isEmpty())
+            resultado.add(coincidencias.poll().node.getWord());
+
+        return resultado;
+
+    }
+
+    /**
+     * Obtiene las entidades de las palabras a distancia de edición de a lo más maxDistancia de la consulta,
+     * sin repetir IDs y en el orden de buscarAproximado.
+     * @param word la consulta, posiblemente con errores de dedo.
+     * @param maxDistancia distancia máxima permitida (1 o 2 es lo usual).
+     * @param limite número máximo de entidades a devolver.
+     * @param presupuestoNanos tiempo máximo de la búsqueda en nanosegundos.
+     * @return un map ordenado de ID a texto original.
+     */
+    public LinkedCustomMap<Integer, String> buscarEntradasAproximadas(String word, int maxDistancia, int limite,
+                                                                      long presupuestoNanos) {
+
+        LinkedCustomMap<Integer, String> resultado = new LinkedCustomMap<>();
+        if (limite <= 0)
+            return resultado;
+
+        PriorityCola<Coincidencia> coincidencias = recorrerAproximado(word, maxDistancia, presupuestoNanos);
+
+        while (!coincidencias.isEmpty()) {
+            TrieNode node = coincidencias.poll().node;
+            if (node.getEntradas() == null)
+                continue;
+
+            for (Map.Entry<Integer, String> entrada : node.getEntradas().entrySet()) {
+                if (resultado.putIfAbsent(entrada.getKey(), entrada.getValue()) == null
+                        && resultado.size() == limite)
+                    return resultado;
+            }
+        }
+
+        return resultado;
+
+    }
+
+    /**
+     * Recorre el trie calculando una fila de la matriz de Levenshtein por nodo: la fila del hijo
+     * se obtiene de la del padre en O(largo de la consulta), y un subárbol se descarta en cuanto
+     * el mínimo de su fila pasa de maxDistancia (ninguna palabra de abajo puede bajar de ahí).
+     * @throws IllegalArgumentException si la distancia máxima es negativa
+     */
+    private PriorityCola<Coincidencia> recorrerAproximado(String word, int maxDistancia, long presupuestoNanos) {
+
+        if (maxDistancia < 0)
+            throw new IllegalArgumentException("La distancia máxima no puede ser negativa: " + maxDistancia);
+
+        BusquedaAproximada busqueda = new BusquedaAproximada(clave(word), maxDistancia, presupuestoNanos);
+        TrieNode raiz = root;
+
+        // Fila de la raíz: distancia de la cadena vacía a cada prefijo de la consulta
+        int[] filaRaiz = busqueda.fila(0);
+        for (int i = 0; i < filaRaiz.length; i++)
+            filaRaiz[i] = i;
+
+        if (raiz.isEndOfWord() && filaRaiz[filaRaiz.length - 1] <= maxDistancia)
+            busqueda.coincidencias.offer(new Coincidencia(raiz, filaRaiz[filaRaiz.length - 1]));
+
+        for (TrieNode child : raiz.getChildren().values()) {
+            if (busqueda.agotada)
+                break;
+            recorrerAproximado(child, 1, busqueda);
+        }
+
+        return busqueda.coincidencias;
+
+    }
+
+    private void recorrerAproximado(TrieNode node, int profundidad, BusquedaAproximada busqueda) {
+
+        if (node.getMaxScore() < 0 || busqueda.tiempoAgotado())
+            return; // Subárbol sin palabras o sin tiempo
+
+        String consulta = busqueda.consulta;
+        int[] anterior = busqueda.fila(profundidad - 1);
+        int[] fila = busqueda.fila(profundidad);
+        char ch = node.getCharacter();
+
+        fila[0] = anterior[0] + 1;
+        int minimo = fila[0];
+        for (int i = 1; i < fila.length; i++) {
+            int sustitucion = anterior[i - 1] + (consulta.charAt(i - 1) == ch ? 0 : 1);
+            int valor = Math.min(sustitucion, Math.min(anterior[i] + 1, fila[i - 1] + 1));
+            fila[i] = valor;
+            if (valor < minimo)
+                minimo = valor;
+        }
+
+        if (minimo > busqueda.maxDistancia)
+            return; // Ninguna palabra del subárbol queda dentro de la distancia
+
+        int distancia = fila[fila.length - 1];
+        if (node.isEndOfWord() && distancia <= busqueda.maxDistancia)
+            busqueda.coincidencias.offer(new Coincidencia(node, distancia));
+
+        for (TrieNode child : node.getChildren().values()) {
+            if (busqueda.agotada)
+                return;
+            recorrerAproximado(child, profundidad + 1, busqueda);
+        }
+
+    }
+
+    /**
+     * Búsqueda del mejor primero desde el nodo: entrega las palabras del subárbol en orden
+     * de puntaje (luego de longitud y luego alfabético) hasta que el visitante pida parar.
+     * Un subárbol entra al montículo con su maxScore como cota, así que ninguna palabra
+     * se entrega antes que otra mejor que siga dentro de un subárbol sin expandir.
+     * @param start nodo del prefijo.
+     * @param prefijo el prefijo ya convertido a clave.
+     * @param visitante recibe cada nodo final de palabra; regresa false para detenerse.
+     */
+    private void recorrerMejores(TrieNode start, String prefijo, Predicate<TrieNode> visitante) {
+
+        if (start.getMaxScore() < 0)
+            return; // Subárbol sin palabras
+
+        PriorityCola<Candidato> pendientes = new PriorityCola<>(ORDEN_CANDIDATOS);
+        pendientes.offer(new Candidato(start, prefijo, false));
+
+        while (!pendientes.isEmpty()) {
+            Candidato candidato = pendientes.poll();
+            TrieNode node = candidato.node;
+
+            if (candidato.palabra) {
+                if (!visitante.test(node))
+                    return;
+                continue;
+            }
+
+            if (node.isEndOfWord())
+                pendientes.offer(new Candidato(node, candidato.camino, true));
+
+            for (TrieNode child : node.getChildren().values()) {
+                if (child.getMaxScore() >= 0)
+                    pendientes.offer(new Candidato(child, candidato.camino + child.getCharacter(), false));
+            }
+        }
+
+    }
+
+    /**
+     * Agrega el ID a la palabra sobre una copia del camino.
+     * @param raiz raíz de la versión de trabajo.
+     * @param clave la palabra ya convertida a clave.
+     * @return la raíz de la nueva versión.
+     */
+    private static TrieNode insertarEn(TrieNode raiz, String clave, int id, String texto) {
+
+        TrieNode[] camino = copiarCamino(raiz, clave, true);
+        TrieNode node = camino[clave.length()];
+        marcarPalabra(node, clave);
+
+        IntCustomMap<String> entradas = copiarEntradas(node.getEntradas());
+        entradas.put(id, texto == null ? clave : texto);
+        node.setEntradas(entradas);
+
+        return cerrarCamino(camino, clave);
+
+    }
+
+    /**
+     * Quita el ID de la palabra sobre una copia del camino.
+     * @param raiz raíz de la versión de trabajo.
+     * @param clave la palabra ya convertida a clave.
+     * @return la raíz de la nueva versión, o null si el ID no estaba en la palabra (no se copia nada).
+     */
+    private static TrieNode quitarEn(TrieNode raiz, String clave, int id) {
+
+        TrieNode actual = findNode(raiz, clave);
+        if (actual == null || actual.getEntradas() == null || !actual.getEntradas().containsKey(id))
+            return null;
+
+        TrieNode[] camino = copiarCamino(raiz, clave, false);
+        TrieNode node = camino[clave.length()];
+
+        IntCustomMap<String> entradas = copiarEntradas(node.getEntradas());
+        entradas.remove(id);
+        if (entradas.isEmpty())
+            desmarcarPalabra(node);
+        else
+            node.setEntradas(entradas);
+
+        return cerrarCamino(camino, clave);
+
+    }
+
+    /**
+     * Copia los nodos del camino de la palabra: cada copia queda enlazada a la copia de su padre
+     * y comparte el resto de los hijos con la versión publicada, que no se modifica.
+     * @param raiz raíz de la versión de trabajo.
+     * @param word la palabra (ya como clave); su camino debe existir si crear es false.
+     * @param crear true para crear los nodos que falten.
+     * @return los nodos copiados, desde la raíz (posición 0) hasta el final de la palabra.
+     */
+    private static TrieNode[] copiarCamino(TrieNode raiz, String word, boolean crear) {
+
+        TrieNode[] camino = new TrieNode[word.length() + 1];
+        camino[0] = new TrieNode(raiz);
+
+        for (int i = 0; i < word.length(); i++) {
+            char ch = word.charAt(i);
+            TrieNode child = camino[i].getChildren().get(ch);
+            if (child == null && !crear)
+                throw new IllegalStateException("El camino de la palabra no existe: " + word);
+
+            TrieNode copia = child == null ? new TrieNode(ch) : new TrieNode(child);
+            camino[i].getChildren().put(ch, copia);
+            camino[i + 1] = copia;
+        }
+
+        return camino;
+
+    }
+
+    /**
+     * Termina una escritura: de abajo hacia arriba poda los nodos del camino que se quedaron
+     * sin palabra ni hijos y recalcula el puntaje máximo de los demás.
+     * @param camino nodos copiados por copiarCamino.
+     * @param word la palabra del camino.
+     * @return la raíz de la nueva versión.
+     */
+    private static TrieNode cerrarCamino(TrieNode[] camino, String word) {
+
+        for (int i = camino.length - 1; i >= 0; i--) {
+            TrieNode node = camino[i];
+
+            if (i > 0 && !node.isEndOfWord() && node.getChildren().isEmpty()) {
+                camino[i - 1].getChildren().remove(word.charAt(i - 1));
+                continue;
+            }
+
+            long max = node.isEndOfWord() ? node.getScore() : -1;
+            for (TrieNode child : node.getChildren().values())
+                max = Math.max(max, child.getMaxScore());
+            node.setMaxScore(max);
+        }
+
+        return camino[0];
+
+    }
+
+    /**
+     * Marca el nodo (ya copiado) como final de la palabra.
+     */
+    private static void marcarPalabra(TrieNode node, String word) {
+
+        if (node.isEndOfWord())
+            return;
+
+        node.setEndOfWord(true);
+        node.setWord(word);
+        node.setScore(0);
+
+    }
+
+    /**
+     * Quita la marca de final de palabra del nodo (ya copiado) junto con sus IDs y puntaje.
+     */
+    private static void desmarcarPalabra(TrieNode node) {
+
+        node.setEndOfWord(false);
+        node.setWord(null);
+        node.setScore(0);
+        node.setEntradas(null);
+
+    }
+
+    /**
+     * Copia los IDs de un nodo para modificarlos sin tocar la versión publicada
+     */
+    private static IntCustomMap<String> copiarEntradas(IntCustomMap<String> entradas) {
+
+        IntCustomMap<String> copia = new IntCustomMap<>();
+        if (entradas != null)
+            copia.putAll(entradas);
+        return copia;
+
+    }
+
+    /**
+     * Convierte la palabra a la forma con la que se guarda en el trie
+     */
+    private String clave(String word) {
+        return normalizado ? normalizar(word) : word;
+    }
+
+    /**
+     * Busca el nodo al final del camino de la palabra.
+     * @param desde raíz de la versión a consultar.
+     * @param word la palabra o prefijo.
+     * @return el nodo o null si el camino no existe.
+     */
+    private static TrieNode findNode(TrieNode desde, String word) {
+
+        TrieNode current = desde;
+        for (int i = 0; i < word.length() && current != null; i++)
+            current = current.getChildren().get(word.charAt(i));
+
+        return current;
+
+    }
+
     /**
      * Encuentra todas las palabras en el trie que comienzan desde el nodo dado.
+     * Cada nodo final guarda su palabra, así que no se concatenan cadenas en el recorrido.
      * @param node El nodo actual en el trie.
-     * @param currentPrefix El prefijo actual construido hasta este nodo.
      * @param suggestions La lista para almacenar las sugerencias encontradas.
      */
-    private void findAllWords(TrieNode node, String currentPrefix, ListaSimple<String> suggestions) {
+    private void findAllWords(TrieNode node, ListaSimple<String> suggestions) {
 
         if (node.isEndOfWord())
-            suggestions.add(currentPrefix);
+            suggestions.add(node.getWord());
 
-        for (char ch : node.getChildren().keySet())
-            findAllWords(node.getChildren().get(ch), currentPrefix + ch, suggestions);
+        for (TrieNode child : node.getChildren().values())
+            findAllWords(child, suggestions);
 
     }
 }
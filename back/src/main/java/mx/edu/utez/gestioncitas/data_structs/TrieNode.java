@@ -11,6 +11,18 @@ public class TrieNode {
     private CustomMap<Character, TrieNode> children;
     private boolean isEndOfWord;
 
+    // ID de cada entidad cuyo nombre termina en este nodo -> texto original para mostrar (null si no hay)
+    private IntCustomMap<String> entradas;
+
+    // Palabra completa que termina en este nodo (null si no es final de palabra)
+    private String word;
+
+    // Puntaje de la palabra (por ejemplo, número de visitas)
+    private long score;
+
+    // Puntaje máximo de las palabras del subárbol, incluido este nodo (-1 si no hay palabras)
+    private long maxScore = -1;
+
     // Constructor con parámetro de carácter
     public TrieNode(char character) {
         this.character = character;
@@ -18,6 +30,18 @@ public class TrieNode {
         this.isEndOfWord = false;
     }
 
+    // Constructor de copia: comparte los nodos hijos y las entradas, pero el map de hijos es nuevo
+    public TrieNode(TrieNode otro) {
+        this.character = otro.character;
+        this.children = new CustomMap<>((int) (otro.children.size() / 0.75f) + 1);
+        this.children.putAll(otro.children);
+        this.isEndOfWord = otro.isEndOfWord;
+        this.entradas = otro.entradas;
+        this.word = otro.word;
+        this.score = otro.score;
+        this.maxScore = otro.maxScore;
+    }
+
     // Getters y Setters
     public char getCharacter() {
         return character;
@@ -42,4 +66,36 @@ public class TrieNode {
     public void setEndOfWord(boolean endOfWord) {
         isEndOfWord = endOfWord;
     }
-}
\ No newline at end of file
+
+    public IntCustomMap<String> getEntradas() {
+        return entradas;
+    }
+
+    public void setEntradas(IntCustomMap<String> entradas) {
+        this.entradas = entradas;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public void setWord(String word) {
+        this.word = word;
+    }
+
+    public long getScore() {
+        return score;
+    }
+
+    public void setScore(long score) {
+        this.score = score;
+    }
+
+    public long getMaxScore() {
+        return maxScore;
+    }
+
+    public void setMaxScore(long maxScore) {
+        this.maxScore = maxScore;
+    }
+}
@@ -0,0 +1,497 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de nombres que arranca desde un snapshot en disco (TrieSnapshot, mapeado en memoria)
+ * y guarda los cambios en un Trie pequeño en memoria (overlay) hasta la siguiente compactación.
+ * Cuando una palabra del snapshot se modifica, se copia completa al overlay y se marca como
+ * sombreada: desde entonces las consultas usan la versión del overlay y saltan la del snapshot.
+ * compactar() escribe snapshot + overlay como una nueva generación del archivo y vacía el overlay.
+ * Las palabras se normalizan como en Trie(true). Las lecturas no usan candados; las escrituras
+ * y la compactación se serializan.
+ */
+public class TriePersistente implements IndiceTerminos {
+
+    private static final String EXTENSION = ".idx";
+
+    // Orden de los resultados aproximados: menor distancia, mayor puntaje, orden alfabético
+    private static final Comparator<Coincidencia> ORDEN_COINCIDENCIAS = Comparator
+            .comparingInt((Coincidencia c) -> c.distancia)
+            .thenComparing(c -> c.puntaje, Comparator.reverseOrder())
+            .thenComparing(c -> c.palabra);
+
+    private final Path directorio;
+    private final String nombre;
+    private final Pattern patronArchivo;
+
+    // Snapshot, overlay y palabras sombreadas vigentes; la compactación los cambia juntos
+    private volatile Estado estado;
+
+    /**
+     * Estado de una generación: el snapshot mapeado y los cambios hechos después de escribirlo
+     */
+    private static final class Estado {
+
+        final TrieSnapshot snapshot;
+        final int generacion;
+        final Trie overlay = new Trie(true);
+        final ConcurrentCustomMap<String, Boolean> sombreadas = new ConcurrentCustomMap<>();
+
+        Estado(TrieSnapshot snapshot, int generacion) {
+            this.snapshot = snapshot;
+            this.generacion = generacion;
+        }
+    }
+
+    /**
+     * Palabra encontrada con su distancia a la consulta y su puntaje
+     */
+    private static final class Coincidencia {
+
+        final String palabra;
+        final int distancia;
+        final long puntaje;
+
+        Coincidencia(String palabra, int distancia, long puntaje) {
+            this.palabra = palabra;
+            this.distancia = distancia;
+            this.puntaje = puntaje;
+        }
+    }
+
+    private TriePersistente(Path directorio, String nombre, TrieSnapshot snapshot, int generacion) {
+        this.directorio = directorio;
+        this.nombre = nombre;
+        this.patronArchivo = Pattern.compile(Pattern.quote(nombre) + "-(\\d+)" + Pattern.quote(EXTENSION));
+        this.estado = new Estado(snapshot, generacion);
+    }
+
+    /**
+     * Abre la generación más reciente del índice en el directorio, o uno vacío si no hay ninguna.
+     * Las generaciones anteriores se borran.
+     * @param directorio carpeta de los archivos del índice
+     * @param nombre nombre base de los archivos (por ejemplo "pacientes-nombres")
+     * @return el índice
+     * @throws IOException si el archivo más reciente no se puede leer o está dañado
+     */
+    public static TriePersistente abrir(Path directorio, String nombre) throws IOException {
+
+        TriePersistente indice = new TriePersistente(directorio, nombre, TrieSnapshot.vacio(), 0);
+        int generacion = indice.ultimaGeneracion();
+
+        if (generacion > 0) {
+            indice.estado = new Estado(TrieSnapshot.abrir(indice.archivo(generacion)), generacion);
+            indice.borrarGeneracionesAnteriores(generacion);
+        }
+
+        return indice;
+
+    }
+
+    /**
+     * Crea un índice vacío para reconstruirlo desde cero (por ejemplo, si el archivo está dañado).
+     * Empieza en la generación más alta que haya en el directorio, así la siguiente compactación la reemplaza.
+     * @param directorio carpeta de los archivos del índice
+     * @param nombre nombre base de los archivos
+     * @return el índice vacío
+     */
+    public static TriePersistente vacio(Path directorio, String nombre) {
+
+        TriePersistente indice = new TriePersistente(directorio, nombre, TrieSnapshot.vacio(), 0);
+        try {
+            indice.estado = new Estado(TrieSnapshot.vacio(), indice.ultimaGeneracion());
+        } catch (IOException e) {
+            // Sin acceso al directorio: se queda en la generación 0
+        }
+        return indice;
+
+    }
+
+    /**
+     * Indica si el índice arrancó desde (o ya escribió) un snapshot en disco
+     * @return true si hay un snapshot
+     */
+    public boolean tieneSnapshot() {
+        return estado.snapshot != TrieSnapshot.vacio();
+    }
+
+    /**
+     * Número de palabras modificadas desde la última compactación
+     * @return tamaño del overlay
+     */
+    public int cambiosPendientes() {
+        return estado.sombreadas.size();
+    }
+
+    /**
+     * Cambia las palabras de un ID en una sola publicación (ver Trie.replace)
+     * @param anteriores palabras de las que se quita el ID
+     * @param nuevas palabras a las que se agrega el ID
+     * @param id ID de la entidad
+     * @param texto texto para mostrar con las palabras nuevas
+     */
+    @Override
+    public synchronized void replace(Iterable<String> anteriores, Iterable<String> nuevas, int id, String texto) {
+
+        Estado actual = estado;
+        ListaSimple<String> quitar = new ListaSimple<>();
+        ListaSimple<String> agregar = new ListaSimple<>();
+
+        for (String palabra : anteriores) {
+            String clave = Trie.normalizar(palabra);
+            materializar(actual, clave);
+            quitar.add(clave);
+        }
+        for (String palabra : nuevas) {
+            String clave = Trie.normalizar(palabra);
+            materializar(actual, clave);
+            agregar.add(clave);
+        }
+
+        actual.overlay.replace(quitar, agregar, id, texto);
+
+    }
+
+    /**
+     * Suma un uso (visita) al puntaje de la palabra
+     * @param word la palabra usada
+     * @return true si la palabra está en el índice
+     */
+    @Override
+    public synchronized boolean registrarUso(String word) {
+
+        Estado actual = estado;
+        String clave = Trie.normalizar(word);
+        if (!actual.sombreadas.containsKey(clave) && !actual.snapshot.contains(clave))
+            return false;
+
+        materializar(actual, clave);
+        return actual.overlay.registrarUso(clave);
+
+    }
+
+    /**
+     * Obtiene el puntaje de una palabra
+     * @param word la palabra
+     * @return el puntaje, o -1 si la palabra no está
+     */
+    public long getScore(String word) {
+        Estado actual = estado;
+        String clave = Trie.normalizar(word);
+        return actual.sombreadas.containsKey(clave) ? actual.overlay.getScore(clave) : actual.snapshot.getScore(clave);
+    }
+
+    /**
+     * Obtiene las entidades de las palabras que comienzan con el prefijo, en el orden de Trie.buscarEntradas
+     * @param prefix el prefijo
+     * @param limite número máximo de entidades
+     * @return un map ordenado de ID a texto para mostrar
+     */
+    public LinkedCustomMap<Integer, String> buscarEntradas(String prefix, int limite) {
+
+        Estado actual = estado;
+        String clave = Trie.normalizar(prefix);
+        LinkedCustomMap<Integer, String> resultado = new LinkedCustomMap<>();
+        if (limite <= 0)
+            return resultado;
+
+        // Cada entidad suele estar en varias palabras: si las k mejores no alcanzan, se piden más
+        for (int k = limite; ; k = k > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : k * 2) {
+            ListaSimple<String> palabras = mejoresPalabras(actual, clave, k);
+            resultado.clear();
+
+            for (String palabra : palabras) {
+                for (Map.Entry<Integer, String> entrada : entradasDe(actual, palabra).entrySet()) {
+                    if (resultado.putIfAbsent(entrada.getKey(), entrada.getValue()) == null
+                            && resultado.size() == limite)
+                        return resultado;
+                }
+            }
+
+            if (palabras.size() < k || k == Integer.MAX_VALUE)
+                return resultado;
+        }
+
+    }
+
+    /**
+     * Obtiene las entidades de las palabras a distancia de edición de a lo más maxDistancia,
+     * en el orden de Trie.buscarEntradasAproximadas
+     * @param word la consulta
+     * @param maxDistancia distancia máxima permitida
+     * @param limite número máximo de entidades
+     * @param presupuestoNanos tiempo máximo de la búsqueda (entre overlay y snapshot)
+     * @return un map ordenado de ID a texto para mostrar
+     */
+    public LinkedCustomMap<Integer, String> buscarEntradasAproximadas(String word, int maxDistancia, int limite,
+                                                                      long presupuestoNanos) {
+
+        Estado actual = estado;
+        String clave = Trie.normalizar(word);
+        LinkedCustomMap<Integer, String> resultado = new LinkedCustomMap<>();
+        if (limite <= 0)
+            return resultado;
+
+        long inicio = System.nanoTime();
+        ListaSimple<String> delOverlay = actual.overlay.buscarAproximado(clave, maxDistancia, presupuestoNanos);
+        long restante = Math.max(0, presupuestoNanos - (System.nanoTime() - inicio));
+        ListaSimple<String> delSnapshot = actual.snapshot.buscarAproximado(clave, maxDistancia, restante);
+
+        CustomMap<String, Boolean> vistas = new CustomMap<>();
+        ListaSimple<Coincidencia> coincidencias = new ListaSimple<>();
+        for (String palabra : delOverlay) {
+            if (vistas.putIfAbsent(palabra, Boolean.TRUE) == null)
+                coincidencias.add(new Coincidencia(palabra, distancia(clave, palabra), actual.overlay.getScore(palabra)));
+        }
+        for (String palabra : delSnapshot) {
+            if (!actual.sombreadas.containsKey(palabra) && vistas.putIfAbsent(palabra, Boolean.TRUE) == null)
+                coincidencias.add(new Coincidencia(palabra, distancia(clave, palabra), actual.snapshot.getScore(palabra)));
+        }
+
+        Coincidencia[] ordenadas = new Coincidencia[coincidencias.size()];
+        int n = 0;
+        for (Coincidencia coincidencia : coincidencias)
+            ordenadas[n++] = coincidencia;
+        Arrays.sort(ordenadas, ORDEN_COINCIDENCIAS);
+
+        for (Coincidencia coincidencia : ordenadas) {
+            for (Map.Entry<Integer, String> entrada : entradasDe(actual, coincidencia.palabra).entrySet()) {
+                if (resultado.putIfAbsent(entrada.getKey(), entrada.getValue()) == null
+                        && resultado.size() == limite)
+                    return resultado;
+            }
+        }
+
+        return resultado;
+
+    }
+
+    /**
+     * Obtiene las palabras de cada ID con su texto para mostrar (para reconciliar con la BD)
+     * @return map de ID a (palabra -> texto)
+     */
+    public IntCustomMap<LinkedCustomMap<String, String>> entradasPorId() {
+
+        Estado actual = estado;
+        IntCustomMap<LinkedCustomMap<String, String>> porId = new IntCustomMap<>();
+
+        for (TrieSnapshot.Palabra palabra : palabrasVigentes(actual)) {
+            for (Map.Entry<Integer, String> entrada : palabra.getEntradas().entrySet()) {
+                LinkedCustomMap<String, String> palabras = porId.get(entrada.getKey().intValue());
+                if (palabras == null) {
+                    palabras = new LinkedCustomMap<>();
+                    porId.put(entrada.getKey().intValue(), palabras);
+                }
+                palabras.put(palabra.getPalabra(), entrada.getValue());
+            }
+        }
+
+        return porId;
+
+    }
+
+    /**
+     * Escribe snapshot + overlay como una nueva generación, la mapea y empieza un overlay vacío.
+     * Los lectores siguen con la generación anterior hasta que se publica la nueva.
+     * @throws IOException si no se puede escribir o leer el archivo nuevo (el índice sigue como estaba)
+     */
+    public synchronized void compactar() throws IOException {
+
+        Estado actual = estado;
+        int generacion = actual.generacion + 1;
+        Path archivo = archivo(generacion);
+
+        TrieSnapshot.escribir(archivo, palabrasVigentes(actual));
+        estado = new Estado(TrieSnapshot.abrir(archivo), generacion);
+
+        borrarGeneracionesAnteriores(generacion);
+
+    }
+
+    /**
+     * Copia al overlay la versión del snapshot de la palabra (IDs y puntaje) y la marca como sombreada.
+     * Se copia antes de marcarla, así un lector nunca ve la palabra ausente de ambos lados.
+     */
+    private static void materializar(Estado actual, String clave) {
+
+        if (actual.sombreadas.containsKey(clave))
+            return;
+
+        if (actual.snapshot.contains(clave)) {
+            ListaSimple<String> palabra = new ListaSimple<>();
+            palabra.add(clave);
+            ListaSimple<String> ninguna = new ListaSimple<>();
+
+            for (Map.Entry<Integer, String> entrada : actual.snapshot.getEntradas(clave).entrySet())
+                actual.overlay.replace(ninguna, palabra, entrada.getKey(), entrada.getValue());
+
+            long puntaje = actual.snapshot.getScore(clave);
+            if (puntaje > 0)
+                actual.overlay.registrarUso(clave, puntaje);
+        }
+
+        actual.sombreadas.put(clave, Boolean.TRUE);
+
+    }
+
+    /**
+     * Mezcla las k mejores palabras del overlay y del snapshot (sin las sombreadas) con el orden de Trie:
+     * mayor puntaje, luego las más cortas, luego orden alfabético
+     */
+    private static ListaSimple<String> mejoresPalabras(Estado actual, String clave, int k) {
+
+        ListaSimple<String> delOverlay = actual.overlay.getSuggestions(clave, k);
+        ListaSimple<String> delSnapshot = actual.snapshot.getSuggestions(clave, k, actual.sombreadas::containsKey);
+
+        ListaSimple<String> mezcla = new ListaSimple<>();
+        CustomMap<String, Boolean> vistas = new CustomMap<>();
+        Iterator<String> a = delOverlay.iterator();
+        Iterator<String> b = delSnapshot.iterator();
+        String siguienteA = a.hasNext() ? a.next() : null;
+        String siguienteB = b.hasNext() ? b.next() : null;
+
+        while (mezcla.size() < k && (siguienteA != null || siguienteB != null)) {
+            boolean tomarA;
+            if (siguienteB == null)
+                tomarA = true;
+            else if (siguienteA == null)
+                tomarA = false;
+            else {
+                long puntajeA = actual.overlay.getScore(siguienteA);
+                long puntajeB = actual.snapshot.getScore(siguienteB);
+                if (puntajeA != puntajeB)
+                    tomarA = puntajeA > puntajeB;
+                else if (siguienteA.length() != siguienteB.length())
+                    tomarA = siguienteA.length() < siguienteB.length();
+                else
+                    tomarA = siguienteA.compareTo(siguienteB) <= 0;
+            }
+
+            String palabra;
+            if (tomarA) {
+                palabra = siguienteA;
+                siguienteA = a.hasNext() ? a.next() : null;
+            } else {
+                palabra = siguienteB;
+                siguienteB = b.hasNext() ? b.next() : null;
+            }
+
+            if (vistas.putIfAbsent(palabra, Boolean.TRUE) == null)
+                mezcla.add(palabra);
+        }
+
+        return mezcla;
+
+    }
+
+    /**
+     * IDs de la palabra desde el lado que la tiene vigente
+     */
+    private static LinkedCustomMap<Integer, String> entradasDe(Estado actual, String palabra) {
+        return actual.sombreadas.containsKey(palabra)
+                ? actual.overlay.getEntradas(palabra)
+                : actual.snapshot.getEntradas(palabra);
+    }
+
+    /**
+     * Todas las palabras vigentes con su carga: las del snapshot que no están sombreadas y las del overlay
+     */
+    private static ListaSimple<TrieSnapshot.Palabra> palabrasVigentes(Estado actual) {
+
+        ListaSimple<TrieSnapshot.Palabra> palabras = new ListaSimple<>();
+
+        for (TrieSnapshot.Palabra palabra : actual.snapshot.toList()) {
+            if (!actual.sombreadas.containsKey(palabra.getPalabra()))
+                palabras.add(palabra);
+        }
+
+        for (String palabra : actual.overlay.getSuggestions(""))
+            palabras.add(new TrieSnapshot.Palabra(palabra, actual.overlay.getScore(palabra), actual.overlay.getEntradas(palabra)));
+
+        return palabras;
+
+    }
+
+    private Path archivo(int generacion) {
+        return directorio.resolve(nombre + "-" + generacion + EXTENSION);
+    }
+
+    /**
+     * Busca la generación más alta de los archivos del índice en el directorio
+     * @return la generación, o 0 si no hay archivos
+     */
+    private int ultimaGeneracion() throws IOException {
+
+        if (!Files.isDirectory(directorio))
+            return 0;
+
+        int ultima = 0;
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : archivos) {
+                Matcher matcher = patronArchivo.matcher(archivo.getFileName().toString());
+                if (matcher.matches())
+                    ultima = Math.max(ultima, Integer.parseInt(matcher.group(1)));
+            }
+        }
+        return ultima;
+
+    }
+
+    /**
+     * Borra los archivos de generaciones anteriores. Si alguno sigue mapeado y el sistema no deja
+     * borrarlo, se queda para la siguiente compactación o el siguiente arranque.
+     */
+    private void borrarGeneracionesAnteriores(int vigente) {
+
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : archivos) {
+                Matcher matcher = patronArchivo.matcher(archivo.getFileName().toString());
+                if (matcher.matches() && Integer.parseInt(matcher.group(1)) < vigente) {
+                    try {
+                        Files.deleteIfExists(archivo);
+                    } catch (IOException e) {
+                        // Se reintenta más adelante
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Solo es limpieza
+        }
+
+    }
+
+    /**
+     * Distancia de Levenshtein entre dos palabras cortas
+     */
+    private static int distancia(String a, String b) {
+
+        int[] anterior = new int[b.length() + 1];
+        int[] fila = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++)
+            anterior[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            fila[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int sustitucion = anterior[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                fila[j] = Math.min(sustitucion, Math.min(anterior[j] + 1, fila[j - 1] + 1));
+            }
+            int[] tmp = anterior;
+            anterior = fila;
+            fila = tmp;
+        }
+
+        return anterior[b.length()];
+
+    }
+}
@@ -0,0 +1,637 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Versión inmutable y compacta de un Trie guardada en disco y leída con un archivo mapeado en memoria.
+ * Los nodos forman un grafo acíclico (DAWG): los subárboles iguales se escriben una sola vez,
+ * así los sufijos comunes ("-ez", "-ina", ...) se comparten. Cada palabra tiene un número de orden
+ * (su posición alfabética) que se calcula al bajar por el grafo con el conteo de palabras de cada nodo,
+ * y con él se localiza su carga (puntaje e IDs con su texto) en una tabla aparte.
+ * Las consultas leen el buffer directamente, sin crear objetos TrieNode; el buffer solo se lee
+ * con accesos absolutos, así que varios hilos pueden consultar a la vez.
+ * <p>
+ * Formato (enteros big-endian):
+ * <pre>
+ * encabezado: MAGIA, VERSION, palabras, nodos, offsetRaiz, offsetIndiceCargas
+ * nodo:       flags (byte), hijos (short), palabras del subárbol (int), puntaje máximo (long),
+ *             y por hijo: carácter (char), offset del hijo (int), ordenados por carácter
+ * cargas:     un offset (int) por palabra; cada carga es puntaje (long), n (int)
+ *             y n veces: ID (int), largo (short) y los chars del texto
+ * </pre>
+ */
+public class TrieSnapshot {
+
+    private static final int MAGIA = 0x54524945; // "TRIE"
+    private static final int VERSION = 1;
+    private static final int TAM_ENCABEZADO = 24;
+    private static final int TAM_NODO = 15;
+    private static final int TAM_ARISTA = 6;
+    private static final byte FIN_DE_PALABRA = 1;
+
+    // Snapshot sin palabras, para cuando todavía no hay archivo
+    private static final TrieSnapshot VACIO = new TrieSnapshot(null, 0, 0, -1, -1);
+
+    private final ByteBuffer buffer;
+    private final int palabras;
+    private final int nodos;
+    private final int raiz;
+    private final int indiceCargas;
+
+    /**
+     * Palabra con su carga, tal como se escribe en el snapshot
+     */
+    public static final class Palabra {
+
+        private final String palabra;
+        private final long puntaje;
+        private final LinkedCustomMap<Integer, String> entradas;
+
+        public Palabra(String palabra, long puntaje, LinkedCustomMap<Integer, String> entradas) {
+            this.palabra = palabra;
+            this.puntaje = puntaje;
+            this.entradas = entradas;
+        }
+
+        public String getPalabra() {
+            return palabra;
+        }
+
+        public long getPuntaje() {
+            return puntaje;
+        }
+
+        public LinkedCustomMap<Integer, String> getEntradas() {
+            return entradas;
+        }
+    }
+
+    /**
+     * Nodo pendiente de la búsqueda del mejor primero sobre el buffer
+     */
+    private static final class Candidato {
+
+        final int nodo;
+        final int orden;
+        final String camino;
+        final boolean palabra;
+        final long puntaje;
+        // Longitud de la palabra más corta que puede salir de este candidato
+        final int largoMinimo;
+
+        Candidato(int nodo, int orden, String camino, boolean palabra, long puntaje, boolean esFinal) {
+            this.nodo = nodo;
+            this.orden = orden;
+            this.camino = camino;
+            this.palabra = palabra;
+            this.puntaje = puntaje;
+            this.largoMinimo = palabra || esFinal ? camino.length() : camino.length() + 1;
+        }
+    }
+
+    // Mismo orden que Trie: mayor puntaje, luego menor longitud, luego orden alfabético
+    private static final Comparator<Candidato> ORDEN_CANDIDATOS = (a, b) -> {
+        int cmp = Long.compare(b.puntaje, a.puntaje);
+        if (cmp != 0) return cmp;
+        cmp = Integer.compare(a.largoMinimo, b.largoMinimo);
+        if (cmp != 0) return cmp;
+        cmp = a.camino.compareTo(b.camino);
+        if (cmp != 0) return cmp;
+        return a.palabra == b.palabra ? 0 : a.palabra ? -1 : 1;
+    };
+
+    private TrieSnapshot(ByteBuffer buffer, int palabras, int nodos, int raiz, int indiceCargas) {
+        this.buffer = buffer;
+        this.palabras = palabras;
+        this.nodos = nodos;
+        this.raiz = raiz;
+        this.indiceCargas = indiceCargas;
+    }
+
+    /**
+     * Obtiene un snapshot vacío
+     * @return snapshot sin palabras
+     */
+    public static TrieSnapshot vacio() {
+        return VACIO;
+    }
+
+    /**
+     * Mapea en memoria un snapshot escrito con escribir
+     * @param archivo ruta del archivo
+     * @return el snapshot listo para consultarse
+     * @throws IOException si el archivo no se puede leer o no tiene el formato esperado
+     */
+    public static TrieSnapshot abrir(Path archivo) throws IOException {
+
+        ByteBuffer buffer;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+
+        if (buffer.capacity() < TAM_ENCABEZADO || buffer.getInt(0) != MAGIA)
+            throw new IOException("El archivo no es un snapshot de trie: " + archivo);
+        if (buffer.getInt(4) != VERSION)
+            throw new IOException("Versión de snapshot no soportada: " + buffer.getInt(4));
+
+        return new TrieSnapshot(buffer, buffer.getInt(8), buffer.getInt(12), buffer.getInt(16), buffer.getInt(20));
+
+    }
+
+    /**
+     * Escribe un snapshot con las palabras dadas. Se escribe a un archivo temporal
+     * y luego se mueve, así nunca queda un archivo a medias con el nombre final.
+     * @param archivo ruta del archivo a crear o reemplazar
+     * @param lista palabras con su carga, sin repetir (se ordenan aquí)
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public static void escribir(Path archivo, ListaSimple<Palabra> lista) throws IOException {
+
+        Palabra[] ordenadas = new Palabra[lista.size()];
+        int n = 0;
+        for (Palabra palabra : lista)
+            ordenadas[n++] = palabra;
+        Arrays.sort(ordenadas, Comparator.comparing(Palabra::getPalabra));
+
+        // Trie temporal con las palabras en orden alfabético (los hijos quedan ordenados al agregarse)
+        NodoTemporal raizTemporal = new NodoTemporal();
+        for (int i = 0; i < ordenadas.length; i++) {
+            if (i > 0 && ordenadas[i].getPalabra().equals(ordenadas[i - 1].getPalabra()))
+                throw new IllegalArgumentException("Palabra repetida en el snapshot: " + ordenadas[i].getPalabra());
+            raizTemporal.agregar(ordenadas[i].getPalabra(), ordenadas[i].getPuntaje());
+        }
+
+        EscritorNodos escritor = new EscritorNodos();
+        int offsetRaiz = escritor.escribir(raizTemporal);
+
+        ByteArrayOutputStream bytesNodos = escritor.bytes;
+        int indiceCargas = TAM_ENCABEZADO + bytesNodos.size();
+
+        // Cargas: primero el índice de offsets y luego los datos, en el orden de las palabras
+        ByteArrayOutputStream bytesCargas = new ByteArrayOutputStream();
+        DataOutputStream cargas = new DataOutputStream(bytesCargas);
+        int offsetCarga = indiceCargas + 4 * ordenadas.length;
+        int[] offsets = new int[ordenadas.length];
+
+        for (int i = 0; i < ordenadas.length; i++) {
+            offsets[i] = offsetCarga + cargas.size();
+            LinkedCustomMap<Integer, String> entradas = ordenadas[i].getEntradas();
+            cargas.writeLong(ordenadas[i].getPuntaje());
+            cargas.writeInt(entradas == null ? 0 : entradas.size());
+            if (entradas == null)
+                continue;
+            for (Map.Entry<Integer, String> entrada : entradas.entrySet()) {
+                String texto = entrada.getValue();
+                if (texto.length() > Short.MAX_VALUE)
+                    texto = texto.substring(0, Short.MAX_VALUE);
+                cargas.writeInt(entrada.getKey());
+                cargas.writeShort(texto.length());
+                cargas.writeChars(texto);
+            }
+        }
+
+        Files.createDirectories(archivo.toAbsolutePath().getParent());
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+
+        try (DataOutputStream salida = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+            salida.writeInt(MAGIA);
+            salida.writeInt(VERSION);
+            salida.writeInt(ordenadas.length);
+            salida.writeInt(escritor.nodosEscritos);
+            salida.writeInt(offsetRaiz);
+            salida.writeInt(indiceCargas);
+            bytesNodos.writeTo(salida);
+            for (int offset : offsets)
+                salida.writeInt(offset);
+            bytesCargas.writeTo(salida);
+        }
+
+        try {
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+    }
+
+    /**
+     * Retorna el número de palabras del snapshot
+     * @return número de palabras
+     */
+    public int size() {
+        return palabras;
+    }
+
+    /**
+     * Retorna el número de nodos escritos (menor que el de un trie gracias a los sufijos compartidos)
+     * @return número de nodos
+     */
+    public int countNodes() {
+        return nodos;
+    }
+
+    /**
+     * Verifica si la palabra está en el snapshot
+     * @param word la palabra exacta
+     * @return true si está
+     */
+    public boolean contains(String word) {
+        return orden(word) >= 0;
+    }
+
+    /**
+     * Obtiene el puntaje de una palabra
+     * @param word la palabra exacta
+     * @return el puntaje, o -1 si la palabra no está
+     */
+    public long getScore(String word) {
+        int orden = orden(word);
+        return orden < 0 ? -1 : puntaje(orden);
+    }
+
+    /**
+     * Obtiene los IDs de una palabra con su texto para mostrar
+     * @param word la palabra exacta
+     * @return un map ordenado de ID a texto (vacío si la palabra no está)
+     */
+    public LinkedCustomMap<Integer, String> getEntradas(String word) {
+
+        LinkedCustomMap<Integer, String> entradas = new LinkedCustomMap<>();
+        int orden = orden(word);
+        if (orden >= 0)
+            leerEntradas(orden, entradas);
+        return entradas;
+
+    }
+
+    /**
+     * Obtiene todas las palabras que comienzan con el prefijo en orden alfabético
+     * @param prefix el prefijo
+     * @return una lista simple de palabras
+     */
+    public ListaSimple<String> getSuggestions(String prefix) {
+
+        ListaSimple<String> suggestions = new ListaSimple<>();
+        int[] destino = bajar(prefix);
+        if (destino == null)
+            return suggestions;
+
+        StringBuilder camino = new StringBuilder(prefix);
+        recorrerAlfabetico(destino[0], camino, suggestions);
+        return suggestions;
+
+    }
+
+    /**
+     * Obtiene las k mejores palabras para el prefijo con el mismo orden que Trie.getSuggestions(prefix, k):
+     * mayor puntaje y luego las más cortas. Cada nodo guarda el puntaje máximo de su subárbol,
+     * así la búsqueda del mejor primero no recorre el subárbol completo.
+     * @param prefix el prefijo
+     * @param k número máximo de palabras
+     * @param excluidas palabras a saltar (por ejemplo, las que ya se reemplazaron en memoria), puede ser null
+     * @return las palabras en orden
+     */
+    public ListaSimple<String> getSuggestions(String prefix, int k, Predicate<String> excluidas) {
+
+        ListaSimple<String> suggestions = new ListaSimple<>();
+        int[] destino = bajar(prefix);
+        if (destino == null || k <= 0 || maxScore(destino[0]) < 0)
+            return suggestions;
+
+        PriorityCola<Candidato> pendientes = new PriorityCola<>(ORDEN_CANDIDATOS);
+        pendientes.offer(new Candidato(destino[0], destino[1], prefix, false, maxScore(destino[0]), esFinal(destino[0])));
+
+        while (!pendientes.isEmpty()) {
+            Candidato candidato = pendientes.poll();
+
+            if (candidato.palabra) {
+                if (excluidas == null || !excluidas.test(candidato.camino)) {
+                    suggestions.add(candidato.camino);
+                    if (suggestions.size() == k)
+                        break;
+                }
+                continue;
+            }
+
+            int nodo = candidato.nodo;
+            int orden = candidato.orden;
+            if (esFinal(nodo)) {
+                pendientes.offer(new Candidato(nodo, orden, candidato.camino, true, puntaje(orden), true));
+                orden++;
+            }
+
+            for (int i = 0, hijos = hijos(nodo); i < hijos; i++) {
+                int hijo = destinoArista(nodo, i);
+                pendientes.offer(new Candidato(hijo, orden, candidato.camino + etiqueta(nodo, i), false, maxScore(hijo), esFinal(hijo)));
+                orden += conteo(hijo);
+            }
+        }
+
+        return suggestions;
+
+    }
+
+    /**
+     * Busca las palabras a distancia de edición de a lo más maxDistancia, con el mismo recorrido
+     * por filas de Levenshtein que Trie.buscarAproximado (poda y presupuesto de tiempo incluidos).
+     * @param word la consulta
+     * @param maxDistancia distancia máxima permitida
+     * @param presupuestoNanos tiempo máximo de la búsqueda en nanosegundos
+     * @return las palabras encontradas (sin orden particular)
+     * @throws IllegalArgumentException si la distancia máxima es negativa
+     */
+    public ListaSimple<String> buscarAproximado(String word, int maxDistancia, long presupuestoNanos) {
+
+        if (maxDistancia < 0)
+            throw new IllegalArgumentException("La distancia máxima no puede ser negativa: " + maxDistancia);
+
+        ListaSimple<String> resultado = new ListaSimple<>();
+        if (buffer == null)
+            return resultado;
+
+        int[] fila = new int[word.length() + 1];
+        for (int i = 0; i < fila.length; i++)
+            fila[i] = i;
+
+        if (esFinal(raiz) && fila[word.length()] <= maxDistancia)
+            resultado.add("");
+
+        long limite = System.nanoTime() + presupuestoNanos;
+        StringBuilder camino = new StringBuilder();
+        for (int i = 0, hijos = hijos(raiz); i < hijos; i++) {
+            if (!recorrerAproximado(raiz, i, fila, word, maxDistancia, limite, camino, resultado))
+                break;
+        }
+        return resultado;
+
+    }
+
+    /**
+     * Recorre todas las palabras con su carga en orden alfabético (para compactar)
+     * @return las palabras del snapshot
+     */
+    public ListaSimple<Palabra> toList() {
+
+        ListaSimple<Palabra> lista = new ListaSimple<>();
+        ListaSimple<String> palabrasOrdenadas = getSuggestions("");
+        int orden = 0;
+        for (String palabra : palabrasOrdenadas) {
+            LinkedCustomMap<Integer, String> entradas = new LinkedCustomMap<>();
+            leerEntradas(orden, entradas);
+            lista.add(new Palabra(palabra, puntaje(orden), entradas));
+            orden++;
+        }
+        return lista;
+
+    }
+
+    /**
+     * Baja por el grafo siguiendo la palabra
+     * @return {nodo, orden de la primera palabra del nodo} o null si el camino no existe
+     */
+    private int[] bajar(String word) {
+
+        if (buffer == null)
+            return null;
+
+        int nodo = raiz;
+        int orden = 0;
+
+        for (int i = 0; i < word.length(); i++) {
+            if (esFinal(nodo))
+                orden++;
+
+            // Búsqueda binaria del carácter entre las aristas ordenadas
+            char ch = word.charAt(i);
+            int bajo = 0;
+            int alto = hijos(nodo) - 1;
+            int encontrada = -1;
+            while (bajo <= alto) {
+                int medio = (bajo + alto) >>> 1;
+                char etiqueta = etiqueta(nodo, medio);
+                if (etiqueta < ch)
+                    bajo = medio + 1;
+                else if (etiqueta > ch)
+                    alto = medio - 1;
+                else {
+                    encontrada = medio;
+                    break;
+                }
+            }
+            if (encontrada < 0)
+                return null;
+
+            // Las palabras de los hermanos anteriores van antes en orden alfabético
+            for (int j = 0; j < encontrada; j++)
+                orden += conteo(destinoArista(nodo, j));
+            nodo = destinoArista(nodo, encontrada);
+        }
+
+        return new int[]{nodo, orden};
+
+    }
+
+    /**
+     * Orden alfabético de la palabra, o -1 si no está
+     */
+    private int orden(String word) {
+        int[] destino = bajar(word);
+        return destino != null && esFinal(destino[0]) ? destino[1] : -1;
+    }
+
+    private void recorrerAlfabetico(int nodo, StringBuilder camino, ListaSimple<String> suggestions) {
+
+        if (esFinal(nodo))
+            suggestions.add(camino.toString());
+
+        int largo = camino.length();
+        for (int i = 0, hijos = hijos(nodo); i < hijos; i++) {
+            camino.append(etiqueta(nodo, i));
+            recorrerAlfabetico(destinoArista(nodo, i), camino, suggestions);
+            camino.setLength(largo);
+        }
+
+    }
+
+    /**
+     * Calcula la fila de Levenshtein del hijo i y sigue bajando si todavía puede haber coincidencias
+     * @return false si se acabó el tiempo
+     */
+    private boolean recorrerAproximado(int padre, int i, int[] anterior, String consulta, int maxDistancia,
+                                       long limite, StringBuilder camino, ListaSimple<String> resultado) {
+
+        if (System.nanoTime() - limite > 0)
+            return false;
+
+        int nodo = destinoArista(padre, i);
+        char ch = etiqueta(padre, i);
+        int[] fila = new int[anterior.length];
+
+        fila[0] = anterior[0] + 1;
+        int minimo = fila[0];
+        for (int j = 1; j < fila.length; j++) {
+            int sustitucion = anterior[j - 1] + (consulta.charAt(j - 1) == ch ? 0 : 1);
+            fila[j] = Math.min(sustitucion, Math.min(anterior[j] + 1, fila[j - 1] + 1));
+            minimo = Math.min(minimo, fila[j]);
+        }
+
+        if (minimo > maxDistancia)
+            return true;
+
+        camino.append(ch);
+        if (esFinal(nodo) && fila[fila.length - 1] <= maxDistancia)
+            resultado.add(camino.toString());
+
+        boolean seguir = true;
+        for (int j = 0, hijos = hijos(nodo); j < hijos && seguir; j++)
+            seguir = recorrerAproximado(nodo, j, fila, consulta, maxDistancia, limite, camino, resultado);
+
+        camino.setLength(camino.length() - 1);
+        return seguir;
+
+    }
+
+    private void leerEntradas(int orden, LinkedCustomMap<Integer, String> entradas) {
+
+        int offset = buffer.getInt(indiceCargas + 4 * orden) + 8;
+        int n = buffer.getInt(offset);
+        offset += 4;
+
+        for (int i = 0; i < n; i++) {
+            int id = buffer.getInt(offset);
+            int largo = buffer.getShort(offset + 4);
+            offset += 6;
+            char[] texto = new char[largo];
+            for (int c = 0; c < largo; c++, offset += 2)
+                texto[c] = buffer.getChar(offset);
+            entradas.put(id, new String(texto));
+        }
+
+    }
+
+    // Accesos a los campos de un nodo en el buffer
+
+    private boolean esFinal(int nodo) {
+        return (buffer.get(nodo) & FIN_DE_PALABRA) != 0;
+    }
+
+    private int hijos(int nodo) {
+        return buffer.getShort(nodo + 1) & 0xFFFF;
+    }
+
+    private int conteo(int nodo) {
+        return buffer.getInt(nodo + 3);
+    }
+
+    private long maxScore(int nodo) {
+        return buffer.getLong(nodo + 7);
+    }
+
+    private char etiqueta(int nodo, int i) {
+        return buffer.getChar(nodo + TAM_NODO + i * TAM_ARISTA);
+    }
+
+    private int destinoArista(int nodo, int i) {
+        return buffer.getInt(nodo + TAM_NODO + i * TAM_ARISTA + 2);
+    }
+
+    private long puntaje(int orden) {
+        return buffer.getLong(buffer.getInt(indiceCargas + 4 * orden));
+    }
+
+    /**
+     * Nodo del trie temporal que se arma para escribir el snapshot
+     */
+    private static final class NodoTemporal {
+
+        char[] etiquetas = new char[0];
+        NodoTemporal[] hijos = new NodoTemporal[0];
+        boolean fin;
+        int conteo;
+        long maxScore = -1;
+
+        /**
+         * Agrega una palabra; como llegan en orden alfabético, un hijo nuevo siempre va al final
+         */
+        void agregar(String palabra, long puntaje) {
+            NodoTemporal nodo = this;
+            for (int i = 0; i < palabra.length(); i++) {
+                nodo.conteo++;
+                nodo.maxScore = Math.max(nodo.maxScore, puntaje);
+                char ch = palabra.charAt(i);
+                int n = nodo.etiquetas.length;
+                if (n == 0 || nodo.etiquetas[n - 1] != ch) {
+                    nodo.etiquetas = Arrays.copyOf(nodo.etiquetas, n + 1);
+                    nodo.hijos = Arrays.copyOf(nodo.hijos, n + 1);
+                    nodo.etiquetas[n] = ch;
+                    nodo.hijos[n] = new NodoTemporal();
+                    n++;
+                }
+                nodo = nodo.hijos[n - 1];
+            }
+            nodo.conteo++;
+            nodo.maxScore = Math.max(nodo.maxScore, puntaje);
+            nodo.fin = true;
+        }
+    }
+
+    /**
+     * Escribe los nodos en postorden (los hijos antes que el padre) y reutiliza el offset
+     * de cualquier subárbol idéntico ya escrito
+     */
+    private static final class EscritorNodos {
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream salida = new DataOutputStream(bytes);
+        final CustomMap<String, Integer> escritos = new CustomMap<>();
+        int nodosEscritos;
+
+        int escribir(NodoTemporal nodo) throws IOException {
+
+            int[] destinos = new int[nodo.hijos.length];
+            for (int i = 0; i < destinos.length; i++)
+                destinos[i] = escribir(nodo.hijos[i]);
+
+            // Firma del subárbol: dos subárboles con la misma firma son idénticos
+            StringBuilder firma = new StringBuilder();
+            firma.append(nodo.fin ? 'F' : 'N').append(nodo.conteo).append(':').append(nodo.maxScore);
+            for (int i = 0; i < destinos.length; i++)
+                firma.append('|').append(nodo.etiquetas[i]).append(destinos[i]);
+
+            String clave = firma.toString();
+            Integer existente = escritos.get(clave);
+            if (existente != null)
+                return existente;
+
+            int offset = TAM_ENCABEZADO + salida.size();
+            salida.writeByte(nodo.fin ? FIN_DE_PALABRA : 0);
+            salida.writeShort(destinos.length);
+            salida.writeInt(nodo.conteo);
+            salida.writeLong(nodo.maxScore);
+            for (int i = 0; i < destinos.length; i++) {
+                salida.writeChar(nodo.etiquetas[i]);
+                salida.writeInt(destinos[i]);
+            }
+
+            escritos.put(clave, offset);
+            nodosEscritos++;
+            return offset;
+
+        }
+    }
+}
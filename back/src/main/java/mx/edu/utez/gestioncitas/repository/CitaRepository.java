@@ -1,9 +1,13 @@
 package mx.edu.utez.gestioncitas.repository;
 
+import mx.edu.utez.gestioncitas.data_structs.ListaSimple;
 import mx.edu.utez.gestioncitas.model.Cita;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+
 /**
  * Repositorio JPA para la entidad Cita.
  * Proporciona métodos CRUD para gestionar las citas en la base de datos.
@@ -11,4 +15,22 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface CitaRepository extends JpaRepository<Cita, Integer> {
+
+    /**
+     * Busca citas por estado
+     *
+     * @param estado El estado de la cita ('P', 'C', 'F', 'R', 'E')
+     * @return Una lista simple de citas con el estado especificado
+     */
+    ListaSimple<Cita> findByEstado(Character estado);
+
+    /**
+     * Busca las citas de una fecha que estén en alguno de los estados dados
+     *
+     * @param fecha La fecha de la cita
+     * @param estados Los estados aceptados
+     * @return Una lista simple de citas de esa fecha con alguno de los estados
+     */
+    ListaSimple<Cita> findByFechaAndEstadoIn(LocalDate fecha, Collection<Character> estados);
+
 }
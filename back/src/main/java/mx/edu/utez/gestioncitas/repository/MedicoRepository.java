@@ -1,5 +1,6 @@
 package mx.edu.utez.gestioncitas.repository;
 
+import mx.edu.utez.gestioncitas.data_structs.ListaSimple;
 import mx.edu.utez.gestioncitas.model.Medico;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -11,4 +12,12 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface MedicoRepository extends JpaRepository<Medico, Integer> {
+
+    /**
+     * Busca los médicos que no están ocupados (ocupado en false o sin valor)
+     *
+     * @return Una lista simple de los médicos libres
+     */
+    ListaSimple<Medico> findByOcupadoFalseOrOcupadoIsNull();
+
 }
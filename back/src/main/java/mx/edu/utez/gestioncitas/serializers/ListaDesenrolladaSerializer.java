@@ -0,0 +1,45 @@
+package mx.edu.utez.gestioncitas.serializers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import mx.edu.utez.gestioncitas.data_structs.ListaDesenrollada;
+
+import java.io.IOException;
+
+/**
+ * Serializador personalizado para la clase ListaDesenrollada.
+ * Para que funcione correctamente con Jackson, debe estar anotada con:
+ * @JsonSerialize(using = ListaDesenrolladaSerializer.class)
+ *
+ */
+public class ListaDesenrolladaSerializer extends StdSerializer<ListaDesenrollada<?>> {
+
+    /**
+     * Constructor por defecto.
+     */
+    public ListaDesenrolladaSerializer() {
+        super(ListaDesenrollada.class, true);
+    }
+
+    /**
+     * Serializa una instancia de ListaDesenrollada en JSON.
+     * @param lista la instancia de ListaDesenrollada a serializar
+     * @param gen el generador JSON
+     * @param provider el proveedor de serialización
+     * @throws IOException si ocurre un error durante la serialización
+     */
+    @Override
+    public void serialize(ListaDesenrollada<?> lista, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+
+        gen.writeStartArray();
+        for (Object item : lista)
+            gen.writeObject(item);
+
+        gen.writeEndArray();
+    }
+
+}
+
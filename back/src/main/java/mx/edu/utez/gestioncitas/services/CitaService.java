@@ -1,11 +1,17 @@
 package mx.edu.utez.gestioncitas.services;
 
-import mx.edu.utez.gestioncitas.data_structs.BinaryTree;
 import mx.edu.utez.gestioncitas.data_structs.Cola;
+import mx.edu.utez.gestioncitas.data_structs.ConcurrentCustomMap;
 import mx.edu.utez.gestioncitas.data_structs.CustomMap;
+import mx.edu.utez.gestioncitas.data_structs.IndiceTrigramas;
+import mx.edu.utez.gestioncitas.data_structs.IntCustomMap;
+import mx.edu.utez.gestioncitas.data_structs.KeyedBinaryTree;
+import mx.edu.utez.gestioncitas.data_structs.LinkedCustomMap;
+import mx.edu.utez.gestioncitas.data_structs.ListaDesenrollada;
 import mx.edu.utez.gestioncitas.data_structs.ListaSimple;
 import mx.edu.utez.gestioncitas.data_structs.MergeSort;
 import mx.edu.utez.gestioncitas.data_structs.Pila;
+import mx.edu.utez.gestioncitas.data_structs.PriorityCola;
 
 import mx.edu.utez.gestioncitas.dtos.CreateCitaDTO;
 
@@ -16,19 +22,26 @@ import mx.edu.utez.gestioncitas.model.Paciente;
 import mx.edu.utez.gestioncitas.repository.CitaRepository;
 import mx.edu.utez.gestioncitas.repository.MedicoRepository;
 import mx.edu.utez.gestioncitas.repository.PacienteRepository;
+import mx.edu.utez.gestioncitas.util.IndiceNombres;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 @Service
 public class CitaService {
@@ -43,11 +56,49 @@ public class CitaService {
     private final MedicoRepository medicoRepository;
     private final Cola<Cita> colaCitasPendientes = new Cola<>();
     private final Pila<Cita> pilaHistorialCitas = new Pila<>();
-    private final BinaryTree<Cita> arbolBusquedaHistorial; // Para búsqueda eficiente
+    private final KeyedBinaryTree<Integer, Cita> arbolBusquedaHistorial; // Para búsqueda eficiente por ID
+    private final IndiceTrigramas indicePacientesHistorial = new IndiceTrigramas(); // Nombre del paciente -> IDs de citas
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(10);
 
-    private final CustomMap<Integer, ScheduledFuture<?>> tareasProgramadas = new CustomMap<>();
+    /**
+     * Citas de hoy programadas (P) o reagendadas (R) ordenadas por prioridad del paciente,
+     * fecha y hora. Se mantiene con cada cambio de estado, así atenderPacientePorPrioridad
+     * obtiene al siguiente paciente en O(log n) sin recorrer la BD. Se recarga al cambiar de día.
+     * La prioridad se copia al ofrecer la cita: si se leyera del Paciente, un cambio hecho con la cita
+     * dentro del montículo lo dejaría desordenado. Cambiar la prioridad reofrece las citas del paciente.
+     */
+    private static final Comparator<CitaEnCola> COMPARADOR_PRIORIDAD = Comparator
+            .comparing((CitaEnCola e) -> e.prioridad, Comparator.nullsLast(Comparator.<Integer>naturalOrder()))
+            .thenComparing(e -> e.cita, MergeSort.CITA_POR_FECHA_HORA)
+            .thenComparing(e -> e.cita.getId());
+    private final PriorityCola<CitaEnCola> colaPrioridadHoy = new PriorityCola<>(COMPARADOR_PRIORIDAD, e -> e.cita.getId());
+    private LocalDate fechaColaPrioridad;
 
+    // Se modifica desde los hilos de las peticiones y desde los del scheduler
+    private final ConcurrentCustomMap<Integer, ScheduledFuture<?>> tareasProgramadas = new ConcurrentCustomMap<>();
+
+    /**
+     * El historial (pila y árbol) se mantiene con cada cambio de estado de las citas.
+     * La reconciliación periódica con la BD solo corrige discrepancias y las contabiliza.
+     * El candado protege al historial porque también lo modifican los hilos del scheduler.
+     */
+    private static final long INTERVALO_RECONCILIACION_MINUTOS = 5;
+    private final Object lockHistorial = new Object();
+    private final AtomicLong reconciliacionesRealizadas = new AtomicLong();
+    private final AtomicLong discrepanciasAcumuladas = new AtomicLong();
+    private volatile int discrepanciasUltimaReconciliacion = 0;
+    private volatile LocalDateTime ultimaReconciliacion;
+
+    /**
+     * Cachés LRU de pacientes y médicos para no repetir findById en create,
+     * atenderPacientePorPrioridad y el timeout de atención. Cada save hecho aquí actualiza la caché
+     * (write-through); PacienteService y MedicoService invalidan la entrada cuando modifican o eliminan.
+     * Guardan copias y entregan copias, así cada hilo modifica su propia entidad sin que los demás
+     * vean cambios que todavía no se guardan.
+     */
+    private static final int TAM_CACHE_ENTIDADES = 256;
+    private final CacheEntidades<Paciente> cachePacientes;
+    private final CacheEntidades<Medico> cacheMedicos;
 
     private final Random random = new Random();
 
@@ -61,18 +112,39 @@ public class CitaService {
         this.citaRepository = citaRepository;
         this.pacienteRepository = pacienteRepository;
         this.medicoRepository = medicoRepository;
+        this.cachePacientes = new CacheEntidades<>(pacienteRepository::findById, pacienteRepository::save,
+                Paciente::getId, CitaService::copiarPaciente);
+        this.cacheMedicos = new CacheEntidades<>(medicoRepository::findById, medicoRepository::save,
+                Medico::getId, CitaService::copiarMedico);
         
-        // Crear BinaryTree para búsqueda por ID (más eficiente)
-        this.arbolBusquedaHistorial = new BinaryTree<>((c1, c2) -> {
-            Integer id1 = c1.getId() != null ? c1.getId() : 0;
-            Integer id2 = c2.getId() != null ? c2.getId() : 0;
-            return id1.compareTo(id2);
-        });
+        // Crear árbol AVL indexado por ID: las citas llegan en orden ascendente
+        // desde findAll y un BinaryTree sin balancear degeneraría en una lista
+        this.arbolBusquedaHistorial = new KeyedBinaryTree<>(Cita::getId,
+                Comparator.nullsFirst(Comparator.<Integer>naturalOrder()));
         
         cargarCitasPendientes();
         cargarHistorialCitas();
     }
 
+    /**
+     * Programa la reconciliación periódica del historial con la BD como red de seguridad.
+     * Se programa aquí y no en el constructor para no publicar this antes de terminar de construirlo
+     */
+    @PostConstruct
+    public void iniciarReconciliacion() {
+        scheduler.scheduleWithFixedDelay(this::reconciliarHistorial,
+                INTERVALO_RECONCILIACION_MINUTOS, INTERVALO_RECONCILIACION_MINUTOS, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Detiene la reconciliación y los timeouts de atención pendientes, así ninguna tarea
+     * sigue usando los repositorios después de cerrar el contexto
+     */
+    @PreDestroy
+    public void cerrar() {
+        scheduler.shutdownNow();
+    }
+
     /**
      * Carga las citas activas desde la BD a la cola al iniciar el servicio
      */
@@ -84,18 +156,235 @@ public class CitaService {
 
     }
 
+    /**
+     * Recarga la cola de prioridad si cambió el día. Debe llamarse con el candado de colaPrioridadHoy.
+     * @param fechaHoy fecha actual
+     */
+    private void sincronizarColaPrioridad(LocalDate fechaHoy) {
+        if (fechaHoy.equals(fechaColaPrioridad))
+            return;
+
+        colaPrioridadHoy.clear();
+        for (Cita cita : citaRepository.findByFechaAndEstadoIn(fechaHoy, List.of('P', 'R')))
+            if (cita.getPaciente() != null)
+                colaPrioridadHoy.offer(new CitaEnCola(cita));
+
+        fechaColaPrioridad = fechaHoy;
+    }
+
+    /**
+     * Refleja en la cola de prioridad el estado actual de una cita: entra (o se reacomoda)
+     * si está programada o reagendada para hoy, y sale en cualquier otro caso
+     * @param cita cita recién guardada en la BD
+     */
+    private void actualizarColaPrioridad(Cita cita) {
+        synchronized (colaPrioridadHoy) {
+            LocalDate fechaHoy = LocalDate.now();
+            sincronizarColaPrioridad(fechaHoy);
+
+            boolean disponible = cita.getEstado() != null
+                    && (cita.getEstado() == 'P' || cita.getEstado() == 'R')
+                    && fechaHoy.equals(cita.getFecha())
+                    && cita.getPaciente() != null;
+
+            if (disponible)
+                colaPrioridadHoy.offer(new CitaEnCola(cita));
+            else
+                colaPrioridadHoy.removeById(cita.getId());
+        }
+    }
+
+    /**
+     * Reacomoda en la cola de prioridad las citas del paciente con su nueva prioridad.
+     * Se llama cada vez que se guarda la prioridad de un paciente.
+     * @param idPaciente ID del paciente
+     * @param prioridad prioridad recién guardada
+     */
+    public void actualizarPrioridadPaciente(Integer idPaciente, Integer prioridad) {
+        if (idPaciente == null)
+            return;
+
+        synchronized (colaPrioridadHoy) {
+            ListaSimple<CitaEnCola> citasDelPaciente = new ListaSimple<>();
+            for (CitaEnCola enCola : colaPrioridadHoy)
+                if (idPaciente.equals(enCola.cita.getPaciente().getId()))
+                    citasDelPaciente.add(enCola);
+
+            for (CitaEnCola enCola : citasDelPaciente) {
+                enCola.cita.getPaciente().setPrioridad(prioridad);
+                colaPrioridadHoy.removeById(enCola.cita.getId());
+                colaPrioridadHoy.offer(new CitaEnCola(enCola.cita, prioridad));
+            }
+        }
+    }
+
+    /**
+     * Busca un paciente primero en la caché y, si no está, en la BD
+     * @param id ID del paciente
+     * @return una copia del paciente que el llamador puede modificar, o vacío si no existe
+     */
+    private Optional<Paciente> buscarPaciente(Integer id) {
+        return cachePacientes.buscar(id);
+    }
+
+    /**
+     * Busca un médico primero en la caché y, si no está, en la BD
+     * @param id ID del médico
+     * @return una copia del médico que el llamador puede modificar, o vacío si no existe
+     */
+    private Optional<Medico> buscarMedico(Integer id) {
+        return cacheMedicos.buscar(id);
+    }
+
+    /**
+     * Guarda el paciente en la BD y deja en la caché una copia de la versión guardada
+     * @param paciente paciente a guardar
+     */
+    private void guardarPaciente(Paciente paciente) {
+        cachePacientes.guardar(paciente);
+    }
+
+    /**
+     * Guarda el médico en la BD y deja en la caché una copia de la versión guardada
+     * @param medico médico a guardar
+     */
+    private void guardarMedico(Medico medico) {
+        cacheMedicos.guardar(medico);
+    }
+
+    /**
+     * Descarta al paciente de la caché; lo llama PacienteService al modificarlo o eliminarlo
+     * @param id ID del paciente
+     */
+    public void invalidarPaciente(Integer id) {
+        cachePacientes.invalidar(id);
+    }
+
+    /**
+     * Descarta al médico de la caché; lo llama MedicoService al modificarlo o eliminarlo
+     * @param id ID del médico
+     */
+    public void invalidarMedico(Integer id) {
+        cacheMedicos.invalidar(id);
+    }
+
+    /**
+     * Copia los campos persistentes de un paciente (las citas son transitorias y no se copian)
+     */
+    private static Paciente copiarPaciente(Paciente paciente) {
+        Paciente copia = new Paciente();
+        copia.setId(paciente.getId());
+        copia.setNombre(paciente.getNombre());
+        copia.setApellido(paciente.getApellido());
+        copia.setNumeroTelefono(paciente.getNumeroTelefono());
+        copia.setDireccion(paciente.getDireccion());
+        copia.setCorreoElectronico(paciente.getCorreoElectronico());
+        copia.setSexo(paciente.getSexo());
+        copia.setPrioridad(paciente.getPrioridad());
+        copia.setFechaNacimiento(paciente.getFechaNacimiento());
+        copia.setEnAtencion(paciente.getEnAtencion());
+        return copia;
+    }
+
+    /**
+     * Copia los campos persistentes de un médico
+     */
+    private static Medico copiarMedico(Medico medico) {
+        Medico copia = new Medico();
+        copia.setId(medico.getId());
+        copia.setNombre(medico.getNombre());
+        copia.setApellido(medico.getApellido());
+        copia.setEspecialidad(medico.getEspecialidad());
+        copia.setNumeroConsultorio(medico.getNumeroConsultorio());
+        copia.setOcupado(medico.getOcupado());
+        return copia;
+    }
+
     /**
      * Carga el historial de citas finalizadas desde la BD a la pila y al árbol de búsqueda al iniciar el servicio
      */
     private void cargarHistorialCitas() {
-        for (Cita cita : citaRepository.findAll()) {
-            if (cita.getEstado() != null && cita.getEstado() == 'F') { // F = Finalizada
+        for (Cita cita : citaRepository.findByEstado('F')) // F = Finalizada
+            registrarEnHistorial(cita);
+    }
+
+    /**
+     * Agrega una cita finalizada al historial, o reemplaza su entrada si ya estaba
+     * @param cita cita en estado 'F'
+     */
+    private void registrarEnHistorial(Cita cita) {
+        synchronized (lockHistorial) {
+            if (arbolBusquedaHistorial.put(cita) == null)
                 pilaHistorialCitas.push(cita);
-                arbolBusquedaHistorial.insert(cita); // Para búsqueda eficiente
+            else
+                pilaHistorialCitas.replaceFirst(c -> cita.getId().equals(c.getId()), cita);
+
+            String texto = textoIndiceHistorial(cita);
+            if (texto != null)
+                indicePacientesHistorial.agregar(cita.getId(), texto);
+            else
+                indicePacientesHistorial.quitar(cita.getId());
+        }
+    }
+
+    /**
+     * Texto con el que se indexa una cita del historial: el nombre completo de su paciente
+     * @param cita cita del historial
+     * @return el nombre completo, o null si la cita no tiene paciente
+     */
+    private static String textoIndiceHistorial(Cita cita) {
+        Paciente paciente = cita.getPaciente();
+        return paciente == null ? null : IndiceNombres.nombreCompleto(paciente.getNombre(), paciente.getApellido());
+    }
+
+    /**
+     * Lleva el nombre nuevo de un paciente a sus citas del historial y al índice de trigramas.
+     * Se llama cada vez que PacienteService guarda un paciente.
+     * @param idPaciente ID del paciente
+     * @param nombre nombre guardado
+     * @param apellido apellido guardado
+     */
+    public void actualizarPacienteEnHistorial(Integer idPaciente, String nombre, String apellido) {
+        if (idPaciente == null)
+            return;
+
+        synchronized (lockHistorial) {
+            for (Cita cita : arbolBusquedaHistorial.toList()) {
+                Paciente paciente = cita.getPaciente();
+                if (paciente == null || !idPaciente.equals(paciente.getId()))
+                    continue;
+
+                paciente.setNombre(nombre);
+                paciente.setApellido(apellido);
+                indicePacientesHistorial.agregar(cita.getId(), textoIndiceHistorial(cita));
+            }
+        }
+    }
+
+    /**
+     * Quita una cita del historial si estaba en él
+     * @param id ID de la cita
+     */
+    private void quitarDeHistorial(Integer id) {
+        synchronized (lockHistorial) {
+            if (arbolBusquedaHistorial.remove(id) != null) {
+                pilaHistorialCitas.removeIf(c -> id.equals(c.getId()));
+                indicePacientesHistorial.quitar(id);
             }
         }
     }
 
+    /**
+     * Refleja en el historial el estado actual de una cita: entra si está finalizada y sale si no
+     * @param cita cita recién guardada en la BD
+     */
+    private void actualizarHistorial(Cita cita) {
+        if (cita.getEstado() != null && cita.getEstado() == 'F')
+            registrarEnHistorial(cita);
+        else
+            quitarDeHistorial(cita.getId());
+    }
+
     /**
      * Obtiene todas las citas desde la base de datos
      * @return CustomMap con la lista de todas las citas
@@ -103,8 +392,8 @@ public class CitaService {
     public CustomMap<String, Object> getAll() {
         CustomMap<String, Object> mapResponse = new CustomMap<>();
 
-        // Usar ArrayList para la serialización JSON (ListaSimple causa problemas con Jackson)
-        ListaSimple<Cita> listaCitas = new ListaSimple<>();
+        // Solo se llena y se serializa: la lista desenrollada la recorre casi como un arreglo
+        ListaDesenrollada<Cita> listaCitas = new ListaDesenrollada<>();
         listaCitas.addAll(citaRepository.findAll());
         mapResponse.put("listCitas", listaCitas);
         return mapResponse;
@@ -189,11 +478,12 @@ public class CitaService {
             // Si el paciente viene con prioridad desde el formulario, actualizarla
             if (paciente.getPrioridad() != null) {
                 // Actualizar la prioridad del paciente en BD
-                Optional<Paciente> optPaciente = pacienteRepository.findById(paciente.getId());
+                Optional<Paciente> optPaciente = buscarPaciente(paciente.getId());
                 if (optPaciente.isPresent()) {
                     Paciente pacienteBD = optPaciente.get();
                     pacienteBD.setPrioridad(paciente.getPrioridad());
-                    pacienteRepository.save(pacienteBD);
+                    guardarPaciente(pacienteBD);
+                    actualizarPrioridadPaciente(pacienteBD.getId(), pacienteBD.getPrioridad());
                     // Actualizar referencia en la cita
                     nuevaCita.setPaciente(pacienteBD);
                 }
@@ -201,6 +491,8 @@ public class CitaService {
         }
         
         citaRepository.save(nuevaCita);
+        actualizarHistorial(nuevaCita);
+        actualizarColaPrioridad(nuevaCita);
 
         // Agregar a la cola si está Programada, Reagendada, o en estado A
         // Las citas reagendadas vuelven a la cola para ser atendidas
@@ -238,23 +530,26 @@ public class CitaService {
             return mapResponse;
         }
 
-        Cita citaExistente = getExistente(cita, optCita);
+        // El estado anterior se lee antes de aplicar los cambios del DTO sobre la misma entidad
         Character estadoAnterior = optCita.get().getEstado();
+        Cita citaExistente = getExistente(cita, optCita);
         Character estadoNuevo = citaExistente.getEstado();
 
         // Si se finaliza o cancela, liberar recursos
         if (estadoNuevo == 'F' || estadoNuevo == 'C') {
             if (citaExistente.getMedicoAsignado() != null) {
                 citaExistente.getMedicoAsignado().setOcupado(false);
-                medicoRepository.save(citaExistente.getMedicoAsignado());
+                guardarMedico(citaExistente.getMedicoAsignado());
             }
             if (citaExistente.getPaciente() != null) {
                 citaExistente.getPaciente().setEnAtencion(false);
-                pacienteRepository.save(citaExistente.getPaciente());
+                guardarPaciente(citaExistente.getPaciente());
             }
         }
 
         citaRepository.save(citaExistente);
+        actualizarHistorial(citaExistente);
+        actualizarColaPrioridad(citaExistente);
 
         // Si se reagenda (R), agregar a la cola usando estructura manual (Cola)
         if (estadoNuevo == 'R' && estadoAnterior != 'R') {
@@ -326,10 +621,10 @@ public class CitaService {
         
         Cita citaExistente = cita.get();
 
-        ScheduledFuture<?> tarea = tareasProgramadas.get(id);
+        // remove es atómico: si el timeout termina al mismo tiempo, solo uno de los dos se queda con la tarea
+        ScheduledFuture<?> tarea = tareasProgramadas.remove(id);
         if (tarea != null && !tarea.isDone()) {
             tarea.cancel(false); // Cancelar sin interrumpir si ya está ejecutándose
-            tareasProgramadas.remove(id);
             System.out.println("Tarea programada cancelada para cita ID: " + id);
         }
 
@@ -337,7 +632,7 @@ public class CitaService {
         if (citaExistente.getMedicoAsignado() != null) {
 
             citaExistente.getMedicoAsignado().setOcupado(false);
-            medicoRepository.save(citaExistente.getMedicoAsignado());
+            guardarMedico(citaExistente.getMedicoAsignado());
 
         }
 
@@ -345,11 +640,15 @@ public class CitaService {
         if (citaExistente.getPaciente() != null) {
 
             citaExistente.getPaciente().setEnAtencion(false);
-            pacienteRepository.save(citaExistente.getPaciente());
+            guardarPaciente(citaExistente.getPaciente());
 
         }
         
         citaRepository.delete(citaExistente);
+        quitarDeHistorial(id);
+        synchronized (colaPrioridadHoy) {
+            colaPrioridadHoy.removeById(id);
+        }
 
         mapResponse.put("message", "Cita eliminada correctamente");
         mapResponse.put("citaEliminada", citaExistente);
@@ -429,8 +728,8 @@ public class CitaService {
         citaRepository.save(citaAtendida);
 
         // Agregar al historial (Pila) y al árbol de búsqueda
-        pilaHistorialCitas.push(citaAtendida);
-        arbolBusquedaHistorial.insert(citaAtendida);
+        registrarEnHistorial(citaAtendida);
+        actualizarColaPrioridad(citaAtendida);
 
         mapResponse.put("message", "Cita atendida exitosamente. Movida de la cola al historial.");
         mapResponse.put("citaAtendida", citaAtendida);
@@ -447,108 +746,125 @@ public class CitaService {
     public CustomMap<String, Object> atenderPacientePorPrioridad() {
         CustomMap<String, Object> mapResponse = new CustomMap<>();
 
-        // Verificar que hay médicos disponibles
-        ListaSimple<Medico> medicosDisponibles = new ListaSimple<>();
-        for (Medico medico : medicoRepository.findAll()) {
-            if (medico.getOcupado() == null || !medico.getOcupado()) {
-                medicosDisponibles.add(medico);
+        LocalDate fechaHoy = LocalDate.now();
+        CitaEnCola enColaAAtender = null;
+        Cita citaAAtender = null;
+        Paciente pacienteAAtender = null;
+        Medico medicoAsignado = null;
+        ListaSimple<CitaEnCola> citasApartadas = new ListaSimple<>();
+
+        // Elegir y apartar médico, paciente y cita bajo el mismo candado: dos despachos a la vez
+        // no pueden asignar al mismo médico libre ni tomar la misma cita
+        synchronized (colaPrioridadHoy) {
+            // Médicos libres según la BD en este momento, no según lo que se copió al encolar la cita
+            ListaSimple<Medico> medicosDisponibles = medicoRepository.findByOcupadoFalseOrOcupadoIsNull();
+
+            if (medicosDisponibles.isEmpty()) {
+                mapResponse.put("error", "No hay médicos disponibles para atender");
+                mapResponse.put("code", 404);
+                return mapResponse;
             }
-        }
 
-        if (medicosDisponibles.isEmpty()) {
-            mapResponse.put("error", "No hay médicos disponibles para atender");
-            mapResponse.put("code", 404);
-            return mapResponse;
-        }
+            // Tomar de la cola de prioridad la cita de hoy con mayor prioridad cuyo paciente no esté en atención
+            sincronizarColaPrioridad(fechaHoy);
 
-        // Obtener citas programadas (P) o reagendadas (R) de la cola para hoy
-        LocalDate fechaHoy = java.time.LocalDate.now();
-        ListaSimple<Cita> citasDisponibles = new ListaSimple<>();
-        
-        // Obtener todas las citas programadas o reagendadas para hoy
-        for (Cita cita : citaRepository.findAll()) {
-            if (cita.getFecha() != null && 
-                cita.getFecha().equals(fechaHoy) &&
-                (cita.getEstado() == 'P' || cita.getEstado() == 'R') &&
-                cita.getPaciente() != null) {
-                
-                // Verificar que el paciente no esté en atención
-                Paciente paciente = cita.getPaciente();
-                if (paciente.getEnAtencion() == null || !paciente.getEnAtencion()) {
-                    citasDisponibles.add(cita);
-                }
-            }
-        }
+            while (!colaPrioridadHoy.isEmpty()) {
+                CitaEnCola enCola = colaPrioridadHoy.poll();
 
-        if (citasDisponibles.isEmpty()) {
-            mapResponse.put("error", "No hay citas programadas disponibles para atender");
-            mapResponse.put("code", 404);
-            return mapResponse;
-        }
+                // Releer la cita: la que está en la cola es la copia de cuando se encoló
+                Optional<Cita> optCita = citaRepository.findById(enCola.cita.getId());
+                if (optCita.isEmpty() || optCita.get().getPaciente() == null)
+                    continue;
 
-        // Obtener pacientes de las citas disponibles
-        ListaSimple<Paciente> pacientesDeCitas = new ListaSimple<>();
-        CustomMap<Integer, Cita> citasPorPaciente = new CustomMap<>(); // Para asociar cita con paciente
-        
-        for (Cita cita : citasDisponibles) {
-            Paciente paciente = cita.getPaciente();
-            pacientesDeCitas.add(paciente);
-            citasPorPaciente.put(paciente.getId(), cita);
-        }
+                Cita candidata = optCita.get();
+                if (candidata.getEstado() == null || (candidata.getEstado() != 'P' && candidata.getEstado() != 'R')
+                        || !fechaHoy.equals(candidata.getFecha()))
+                    continue;
 
-        // Ordenar pacientes por prioridad usando MergeSort (menor número = mayor prioridad)
-        ListaSimple<Paciente> pacientesOrdenados = MergeSort.sortByPrioridadAsc(pacientesDeCitas);
+                // Verificar que el paciente existe y consultar su estado actual
+                Optional<Paciente> optPaciente = buscarPaciente(candidata.getPaciente().getId());
+                if (optPaciente.isEmpty())
+                    continue;
 
-        if (pacientesOrdenados.isEmpty()) {
-            mapResponse.put("error", "No hay pacientes disponibles para atender");
-            mapResponse.put("code", 404);
-            return mapResponse;
-        }
+                Paciente paciente = optPaciente.get();
+                if (paciente.getEnAtencion() != null && paciente.getEnAtencion()) {
+                    // Sigue en espera, pero no se puede atender mientras tenga otra cita en curso
+                    citasApartadas.add(enCola);
+                    continue;
+                }
 
-        Paciente pacienteAAtender = pacientesOrdenados.get(0);
-        Cita citaAAtender = citasPorPaciente.get(pacienteAAtender.getId());
-        
-        if (citaAAtender == null) {
-            mapResponse.put("error", "No se encontró la cita asociada al paciente");
-            mapResponse.put("code", 404);
-            return mapResponse;
-        }
-        
-        // Verificar que el paciente existe
-        Optional<Paciente> optPaciente = pacienteRepository.findById(pacienteAAtender.getId());
-        if (optPaciente.isEmpty()) {
-            mapResponse.put("error", "El paciente seleccionado no existe en la base de datos");
-            mapResponse.put("code", 404);
-            return mapResponse;
-        }
-        
-        pacienteAAtender = optPaciente.get();
+                enColaAAtender = enCola;
+                citaAAtender = candidata;
+                pacienteAAtender = paciente;
+                break;
+            }
+
+            for (CitaEnCola apartada : citasApartadas)
+                colaPrioridadHoy.offer(apartada);
 
-        // Obtener médico de la cita o asignar uno disponible
-        Medico medicoAsignado = citaAAtender.getMedicoAsignado();
-        if (medicoAsignado == null || (medicoAsignado.getOcupado() != null && medicoAsignado.getOcupado())) {
-            // Si el médico de la cita está ocupado o no tiene médico, asignar uno disponible
+            if (citaAAtender == null) {
+                mapResponse.put("error", "No hay citas programadas disponibles para atender");
+                mapResponse.put("code", 404);
+                return mapResponse;
+            }
+
+            // El médico de la cita si sigue libre; si no tiene o está ocupado, el primero disponible
+            Medico medicoDeLaCita = citaAAtender.getMedicoAsignado();
             medicoAsignado = medicosDisponibles.get(0);
-        }
-        
-        medicoAsignado.setOcupado(true);
-        medicoRepository.save(medicoAsignado);
+            if (medicoDeLaCita != null)
+                for (Medico medico : medicosDisponibles)
+                    if (medico.getId().equals(medicoDeLaCita.getId())) {
+                        medicoAsignado = medico;
+                        break;
+                    }
 
-        // Marcar paciente como en atención
-        pacienteAAtender.setEnAtencion(true);
-        pacienteRepository.save(pacienteAAtender);
+            boolean medicoApartado = false;
+            boolean pacienteApartado = false;
+            try {
+                medicoAsignado.setOcupado(true);
+                guardarMedico(medicoAsignado);
+                medicoApartado = true;
+
+                // Marcar paciente como en atención
+                pacienteAAtender.setEnAtencion(true);
+                guardarPaciente(pacienteAAtender);
+                pacienteApartado = true;
+
+                // Actualizar la cita existente a estado 'E' (En Atención)
+                citaAAtender.setEstado('E'); // E = En Atención
+                citaAAtender.setMedicoAsignado(medicoAsignado);
+                if (citaAAtender.getMotivoConsulta() == null || citaAAtender.getMotivoConsulta().isEmpty()) {
+                    citaAAtender.setMotivoConsulta("Atención por prioridad: " +
+                        (pacienteAAtender.getPrioridad() == 1 ? "Alta" :
+                         pacienteAAtender.getPrioridad() == 2 ? "Media" : "Baja"));
+                }
 
-        // Actualizar la cita existente a estado 'E' (En Atención)
-        citaAAtender.setEstado('E'); // E = En Atención
-        citaAAtender.setMedicoAsignado(medicoAsignado);
-        if (citaAAtender.getMotivoConsulta() == null || citaAAtender.getMotivoConsulta().isEmpty()) {
-            citaAAtender.setMotivoConsulta("Atención por prioridad: " + 
-                (pacienteAAtender.getPrioridad() == 1 ? "Alta" : 
-                 pacienteAAtender.getPrioridad() == 2 ? "Media" : "Baja"));
-        }
+                // Guardar cita actualizada en BD
+                citaRepository.save(citaAAtender);
+            } catch (Exception e) {
+                System.err.println("Error al atender por prioridad la cita " + citaAAtender.getId() + ": " + e.getMessage());
 
-        // Guardar cita actualizada en BD
-        citaRepository.save(citaAAtender);
+                // Liberar lo que ya se apartó, o el médico y el paciente quedarían ocupados sin cita en curso
+                try {
+                    if (medicoApartado) {
+                        medicoAsignado.setOcupado(false);
+                        guardarMedico(medicoAsignado);
+                    }
+                    if (pacienteApartado) {
+                        pacienteAAtender.setEnAtencion(false);
+                        guardarPaciente(pacienteAAtender);
+                    }
+                } catch (Exception ex) {
+                    System.err.println("No se pudo liberar al médico o al paciente: " + ex.getMessage());
+                }
+
+                // La cita sigue en 'P' o 'R' en la BD: devolverla a la cola para no perderla hasta mañana
+                colaPrioridadHoy.offer(enColaAAtender);
+                mapResponse.put("error", "No se pudo atender la cita: " + e.getMessage());
+                mapResponse.put("code", 500);
+                return mapResponse;
+            }
+        }
 
         // Crear variables finales para usar en el lambda
         final Integer pacienteId = pacienteAAtender.getId();
@@ -563,7 +879,7 @@ public class CitaService {
         ScheduledFuture<?> tareaFutura = scheduler.schedule(() -> {
             try {
                 // Obtener el paciente actualizado de la BD
-                Optional<Paciente> optPacienteTimeout = pacienteRepository.findById(pacienteId);
+                Optional<Paciente> optPacienteTimeout = buscarPaciente(pacienteId);
                 if (optPacienteTimeout.isEmpty()) {
                     tareasProgramadas.remove(citaId);
                     return;
@@ -587,40 +903,33 @@ public class CitaService {
 
                 // Liberar al médico
                 if (cita.getMedicoAsignado() != null) {
-                    Optional<Medico> optMedico = medicoRepository.findById(medicoId);
+                    Optional<Medico> optMedico = buscarMedico(medicoId);
                     if (optMedico.isPresent()) {
                         Medico medico = optMedico.get();
                         medico.setOcupado(false);
-                        medicoRepository.save(medico);
+                        guardarMedico(medico);
                     }
                 }
 
-                // Verificar si el paciente tiene otras citas activas antes de marcarlo como disponible
+                // Verificar si el paciente tiene otras citas activas (P o E) para hoy antes de marcarlo como disponible
                 boolean tieneOtrasCitasActivas = false;
-                for (Cita otraCita : citaRepository.findAll()) {
-                    if (otraCita.getPaciente() != null && 
+                for (Cita otraCita : citaRepository.findByFechaAndEstadoIn(fechaHoyFinal, List.of('P', 'E'))) {
+                    if (otraCita.getPaciente() != null &&
                         otraCita.getPaciente().getId().equals(pacienteId) &&
                         !otraCita.getId().equals(citaId)) {
-                        Character estado = otraCita.getEstado();
-                        LocalDate fechaCita = otraCita.getFecha();
-                        // Verificar si tiene otra cita activa (P o E) para hoy
-                        if ((estado == 'P' || estado == 'E') && 
-                            fechaCita != null && fechaCita.equals(fechaHoyFinal)) {
-                            tieneOtrasCitasActivas = true;
-                            break;
-                        }
+                        tieneOtrasCitasActivas = true;
+                        break;
                     }
                 }
 
                 // Solo marcar como no en atención si no tiene otras citas activas
                 if (!tieneOtrasCitasActivas) {
                     paciente.setEnAtencion(false);
-                    pacienteRepository.save(paciente);
+                    guardarPaciente(paciente);
                 }
 
                 // Agregar al historial
-                pilaHistorialCitas.push(cita);
-                arbolBusquedaHistorial.insert(cita);
+                registrarEnHistorial(cita);
 
                 // Remover tarea del mapa
                 tareasProgramadas.remove(citaId);
@@ -685,37 +994,106 @@ public class CitaService {
     public CustomMap<String, Object> getHistorialCitas() {
         CustomMap<String, Object> mapResponse = new CustomMap<>();
 
-        // Sincronizar la pila con la BD (por si hay citas finalizadas que no están en la pila)
-        sincronizarHistorialConBD();
-
         // Obtener lista de la pila (LIFO - última en entrar, primera en salir)
-        ListaSimple<Cita> listaHistorial = pilaHistorialCitas.toList();
+        ListaSimple<Cita> listaHistorial;
+        synchronized (lockHistorial) {
+            listaHistorial = pilaHistorialCitas.toList();
+        }
 
         mapResponse.put("historialCitas", listaHistorial);
-        mapResponse.put("tamaño", pilaHistorialCitas.size());
-        mapResponse.put("isEmpty", pilaHistorialCitas.isEmpty());
+        mapResponse.put("tamaño", listaHistorial.size());
+        mapResponse.put("isEmpty", listaHistorial.isEmpty());
         mapResponse.put("message", "Historial ordenado LIFO (Pila): la última cita procesada aparece primero");
 
         return mapResponse;
     }
 
     /**
-     * Sincroniza la pila y el árbol de búsqueda con las citas finalizadas de la BD
+     * Compara el historial en memoria con las citas finalizadas de la BD y corrige las diferencias,
+     * tanto las citas que sobran o faltan como las que están indexadas con otro nombre de paciente.
+     * Cada discrepancia se confirma con findById antes de aplicarla, por si la cita cambió
+     * mientras se hacía la consulta. Se ejecuta periódicamente desde el scheduler.
      */
-    private void sincronizarHistorialConBD() {
-        // Limpiar y reconstruir desde la BD para asegurar que esté sincronizado
-        pilaHistorialCitas.clear();
-        arbolBusquedaHistorial.clear();
-        
-        // Obtener todas las citas finalizadas de la BD y agregarlas
-        for (Cita cita : citaRepository.findAll()) {
-            if (cita.getEstado() != null && cita.getEstado() == 'F') { // F = Finalizada
-                pilaHistorialCitas.push(cita);
-                arbolBusquedaHistorial.insert(cita);
+    public void reconciliarHistorial() {
+        try {
+            IntCustomMap<Cita> finalizadasBD = new IntCustomMap<>();
+            for (Cita cita : citaRepository.findByEstado('F'))
+                finalizadasBD.put(cita.getId(), cita);
+
+            ListaSimple<Integer> candidatos = new ListaSimple<>();
+            synchronized (lockHistorial) {
+                // Finalizadas en la BD que faltan en memoria o cuyo paciente se indexó con otro nombre
+                for (Cita cita : finalizadasBD.values())
+                    if (!enHistorialAlDia(cita))
+                        candidatos.add(cita.getId());
+
+                // Citas en memoria que ya no están finalizadas en la BD
+                for (Cita cita : arbolBusquedaHistorial.toList())
+                    if (!finalizadasBD.containsKey(cita.getId()))
+                        candidatos.add(cita.getId());
+            }
+
+            int discrepancias = 0;
+            for (Integer id : candidatos) {
+                Optional<Cita> optCita = citaRepository.findById(id);
+                boolean finalizada = optCita.isPresent() && optCita.get().getEstado() != null
+                        && optCita.get().getEstado() == 'F';
+
+                synchronized (lockHistorial) {
+                    boolean alDia = finalizada ? enHistorialAlDia(optCita.get()) : !arbolBusquedaHistorial.containsKey(id);
+                    if (alDia)
+                        continue; // Se corrigió sola entre la consulta y la confirmación
+
+                    if (finalizada)
+                        registrarEnHistorial(optCita.get());
+                    else
+                        quitarDeHistorial(id);
+                }
+                discrepancias++;
             }
+
+            discrepanciasUltimaReconciliacion = discrepancias;
+            discrepanciasAcumuladas.addAndGet(discrepancias);
+            reconciliacionesRealizadas.incrementAndGet();
+            ultimaReconciliacion = LocalDateTime.now();
+
+            if (discrepancias > 0)
+                System.out.println("Historial reconciliado: " + discrepancias + " discrepancias corregidas");
+        } catch (Exception e) {
+            // Si la excepción escapa, el scheduler cancela las siguientes ejecuciones
+            System.err.println("Error al reconciliar el historial: " + e.getMessage());
         }
-        
-        System.out.println("Historial sincronizado: " + pilaHistorialCitas.size() + " citas finalizadas");
+    }
+
+    /**
+     * Verifica que una cita finalizada de la BD esté en el historial indexada con el nombre actual de su paciente.
+     * Debe llamarse con el candado del historial.
+     * @param cita cita finalizada leída de la BD
+     * @return true si no hay nada que corregir
+     */
+    private boolean enHistorialAlDia(Cita cita) {
+        return arbolBusquedaHistorial.containsKey(cita.getId())
+                && indicePacientesHistorial.coincide(cita.getId(), textoIndiceHistorial(cita));
+    }
+
+    /**
+     * Obtiene las métricas de la reconciliación del historial con la BD
+     * @return mapa con el tamaño del historial y las discrepancias detectadas
+     */
+    public CustomMap<String, Object> getMetricasHistorial() {
+        CustomMap<String, Object> mapResponse = new CustomMap<>();
+
+        synchronized (lockHistorial) {
+            mapResponse.put("tamaño", arbolBusquedaHistorial.size());
+        }
+        mapResponse.put("reconciliaciones", reconciliacionesRealizadas.get());
+        mapResponse.put("discrepanciasUltimaReconciliacion", discrepanciasUltimaReconciliacion);
+        mapResponse.put("discrepanciasAcumuladas", discrepanciasAcumuladas.get());
+        mapResponse.put("ultimaReconciliacion", ultimaReconciliacion);
+        mapResponse.put("intervaloMinutos", INTERVALO_RECONCILIACION_MINUTOS);
+        mapResponse.put("code", 200);
+
+        return mapResponse;
     }
 
     /**
@@ -725,12 +1103,16 @@ public class CitaService {
     public CustomMap<String, Object> getUltimaCitaProcesada() {
         CustomMap<String, Object> mapResponse = new CustomMap<>();
 
-        if (pilaHistorialCitas.isEmpty()) {
+        Cita ultimaCita;
+        synchronized (lockHistorial) {
+            ultimaCita = pilaHistorialCitas.peek();
+        }
+
+        if (ultimaCita == null) {
             mapResponse.put("error", "No hay citas en el historial");
             return mapResponse;
         }
 
-        Cita ultimaCita = pilaHistorialCitas.peek();
         mapResponse.put("ultimaCita", ultimaCita);
         mapResponse.put("message", "Esta es la última cita procesada (LIFO)");
 
@@ -751,11 +1133,11 @@ public class CitaService {
             return mapResponse;
         }
 
-        // Sincronizar primero
-        sincronizarHistorialConBD();
-
-        // Buscar en el árbol (más eficiente que recorrer la pila)
-        Cita citaEncontrada = arbolBusquedaHistorial.findById(id, Cita::getId);
+        // Buscar por clave en el árbol, O(log n) (más eficiente que recorrer la pila)
+        Cita citaEncontrada;
+        synchronized (lockHistorial) {
+            citaEncontrada = arbolBusquedaHistorial.get(id);
+        }
 
         if (citaEncontrada == null) {
             mapResponse.put("error", "Cita no encontrada en el historial con ID: " + id);
@@ -785,26 +1167,15 @@ public class CitaService {
             return mapResponse;
         }
 
-        // Sincronizar primero
-        sincronizarHistorialConBD();
-
-        // Buscar en todas las citas del historial usando el árbol binario
-        // El árbol binario ordena las citas por ID, luego filtramos por nombre
+        // El índice de trigramas da los IDs (ascendentes) de las citas cuyo paciente contiene el término,
+        // y el árbol binario resuelve cada ID a su cita
         ListaSimple<Cita> citasEncontradas = new ListaSimple<>();
-        String nombreBusqueda = nombrePaciente.toLowerCase().trim();
 
-        // Obtener todas las citas del árbol binario (más eficiente que recorrer la pila)
-        ListaSimple<Cita> todasLasCitas = arbolBusquedaHistorial.toList();
-        
-        // Filtrar por nombre de paciente
-        for (int i = 0; i < todasLasCitas.size(); i++) {
-            Cita cita = todasLasCitas.get(i);
-            if (cita.getPaciente() != null) {
-                String nombreCompleto = (cita.getPaciente().getNombre() + " " + 
-                                         cita.getPaciente().getApellido()).toLowerCase();
-                if (nombreCompleto.contains(nombreBusqueda)) {
+        synchronized (lockHistorial) {
+            for (Integer id : indicePacientesHistorial.buscar(nombrePaciente)) {
+                Cita cita = arbolBusquedaHistorial.get(id);
+                if (cita != null)
                     citasEncontradas.add(cita);
-                }
             }
         }
 
@@ -815,4 +1186,90 @@ public class CitaService {
 
         return mapResponse;
     }
-}
\ No newline at end of file
+
+    /**
+     * Cita dentro de la cola de prioridad junto con la prioridad que tenía su paciente al entrar
+     */
+    private static final class CitaEnCola {
+        private final Cita cita;
+        private final Integer prioridad;
+
+        private CitaEnCola(Cita cita) {
+            this(cita, cita.getPaciente().getPrioridad());
+        }
+
+        private CitaEnCola(Cita cita, Integer prioridad) {
+            this.cita = cita;
+            this.prioridad = prioridad;
+        }
+    }
+
+    /**
+     * Caché LRU de entidades por ID que guarda copias y entrega copias.
+     * El candado solo cubre al LinkedCustomMap: findById y save se hacen fuera de él, así una consulta
+     * lenta a la BD no detiene las búsquedas que sí están en caché. Cada cambio sube la generación,
+     * y un resultado de la BD solo entra a la caché si nadie guardó ni invalidó mientras se consultaba.
+     * Los save se hacen de uno en uno para que la caché termine con la última versión guardada.
+     * @param <T> tipo de la entidad
+     */
+    private static final class CacheEntidades<T> {
+
+        private final LinkedCustomMap<Integer, T> entradas = new LinkedCustomMap<>(TAM_CACHE_ENTIDADES);
+        private final Object lockEscritura = new Object();
+        private long generacion;
+
+        private final Function<Integer, Optional<T>> cargar;
+        private final UnaryOperator<T> persistir;
+        private final Function<T, Integer> idGetter;
+        private final UnaryOperator<T> copiar;
+
+        private CacheEntidades(Function<Integer, Optional<T>> cargar, UnaryOperator<T> persistir,
+                               Function<T, Integer> idGetter, UnaryOperator<T> copiar) {
+            this.cargar = cargar;
+            this.persistir = persistir;
+            this.idGetter = idGetter;
+            this.copiar = copiar;
+        }
+
+        Optional<T> buscar(Integer id) {
+            long generacionConsulta;
+            synchronized (this) {
+                T entidad = entradas.get(id);
+                if (entidad != null)
+                    return Optional.of(copiar.apply(entidad));
+                generacionConsulta = generacion;
+            }
+
+            Optional<T> optEntidad = cargar.apply(id);
+            if (optEntidad.isPresent()) {
+                T copia = copiar.apply(optEntidad.get());
+                synchronized (this) {
+                    if (generacion == generacionConsulta)
+                        entradas.put(id, copia);
+                }
+            }
+            return optEntidad;
+        }
+
+        void guardar(T entidad) {
+            synchronized (lockEscritura) {
+                synchronized (this) {
+                    generacion++;
+                }
+
+                // Si el save falla, la caché conserva la última versión que sí se guardó
+                T guardada = persistir.apply(entidad);
+                T copia = copiar.apply(guardada);
+                synchronized (this) {
+                    generacion++;
+                    entradas.put(idGetter.apply(guardada), copia);
+                }
+            }
+        }
+
+        synchronized void invalidar(Integer id) {
+            generacion++;
+            entradas.remove(id);
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package mx.edu.utez.gestioncitas.services;
 
-import mx.edu.utez.gestioncitas.data_structs.BubbleSort;
+import mx.edu.utez.gestioncitas.data_structs.ClavesOrden;
 import mx.edu.utez.gestioncitas.data_structs.CustomMap;
+import mx.edu.utez.gestioncitas.data_structs.LinkedCustomMap;
 import mx.edu.utez.gestioncitas.data_structs.ListaSimple;
+import mx.edu.utez.gestioncitas.data_structs.Trie;
 import mx.edu.utez.gestioncitas.dtos.CreateMedicoDTO;
 import mx.edu.utez.gestioncitas.model.Medico;
 import mx.edu.utez.gestioncitas.repository.MedicoRepository;
+import mx.edu.utez.gestioncitas.util.IndiceNombres;
 
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -16,9 +20,27 @@ public class MedicoService {
 
     private final MedicoRepository medicoRepository;
 
-    // Constructor para inyección de dependencias
-    public MedicoService(MedicoRepository medicoRepository) {
+    // Para invalidar la caché de médicos que mantiene CitaService
+    private final CitaService citaService;
+
+    // Índice en memoria de nombres para el autocompletado (nombre, apellido y nombre completo)
+    private final Trie indiceNombres = new Trie(true);
+    private final IndiceNombres nombres = new IndiceNombres(indiceNombres);
+    private static final int LIMITE_AUTOCOMPLETE_MAX = 50;
+
+    // Claves de orden alfabético en español (Collator), calculadas una vez por médico:
+    // por nombre completo y por especialidad
+    private final ClavesOrden<Medico> clavesNombre =
+            new ClavesOrden<>(Medico::getId, m -> IndiceNombres.nombreCompleto(m.getNombre(), m.getApellido()));
+    private final ClavesOrden<Medico> clavesEspecialidad = new ClavesOrden<>(Medico::getId, Medico::getEspecialidad);
+
+    // Constructor para inyección de dependencias y carga del índice de nombres
+    public MedicoService(MedicoRepository medicoRepository, CitaService citaService) {
         this.medicoRepository = medicoRepository;
+        this.citaService = citaService;
+
+        for (Medico medico : medicoRepository.findAll())
+            nombres.indexar(medico.getId(), medico.getNombre(), medico.getApellido());
     }
 
     /**
@@ -39,7 +61,7 @@ public class MedicoService {
     }
 
     /**
-     * Obtiene todos los médicos ordenados por nombre alfabéticamente usando BubbleSort
+     * Obtiene todos los médicos ordenados por nombre alfabéticamente usando MergeSort
      * @return Mapa con la lista de médicos ordenada por nombre
      */
     public CustomMap<String, Object> getAllOrdenadosPorNombre() {
@@ -48,11 +70,31 @@ public class MedicoService {
         ListaSimple<Medico> listaMedicos = new ListaSimple<>();
         listaMedicos.addAll(medicoRepository.findAll());
 
-        // Ordenar usando BubbleSort
-        ListaSimple<Medico> medicosOrdenados = BubbleSort.sortByNombreAsc(listaMedicos);
+        // Ordenar por la clave en caché de cada médico (estable, O(n log n))
+        listaMedicos = clavesNombre.ordenar(listaMedicos);
+
+        mapResponse.put("message", "Lista de médicos ordenada por nombre (MergeSort)");
+        mapResponse.put("listMedicos", listaMedicos);
+        mapResponse.put("code", 200);
+
+        return mapResponse;
+    }
+
+    /**
+     * Obtiene todos los médicos ordenados por especialidad alfabéticamente usando MergeSort.
+     * Es estable, así que a igual especialidad se conserva el orden en que llegan de la BD
+     * @return Mapa con la lista de médicos ordenada por especialidad
+     */
+    public CustomMap<String, Object> getAllOrdenadosPorEspecialidad() {
+        CustomMap<String, Object> mapResponse = new CustomMap<>();
+
+        ListaSimple<Medico> listaMedicos = new ListaSimple<>();
+        listaMedicos.addAll(medicoRepository.findAll());
+
+        listaMedicos = clavesEspecialidad.ordenar(listaMedicos);
 
-        mapResponse.put("message", "Lista de médicos ordenada por nombre (BubbleSort)");
-        mapResponse.put("listMedicos", medicosOrdenados);
+        mapResponse.put("message", "Lista de médicos ordenada por especialidad (MergeSort)");
+        mapResponse.put("listMedicos", listaMedicos);
         mapResponse.put("code", 200);
 
         return mapResponse;
@@ -78,9 +120,7 @@ public class MedicoService {
 
         }
 
-        Medico medico = optMedico.get();
-
-        mapResponse.put("medico", medico);
+        mapResponse.put("medico", optMedico.get());
         mapResponse.put("code", 200);
 
         return mapResponse;
@@ -121,6 +161,7 @@ public class MedicoService {
 
         // Guardar en BD el nuevo médico
         Medico medicoGuardado = medicoRepository.save(nuevoMedico);
+        nombres.indexar(medicoGuardado.getId(), medicoGuardado.getNombre(), medicoGuardado.getApellido());
 
         mapResponse.put("message", "Médico creado exitosamente");
         mapResponse.put("medico", medicoGuardado);
@@ -149,10 +190,18 @@ public class MedicoService {
 
         }
 
+        String nombreAnterior = optMedico.get().getNombre();
+        String apellidoAnterior = optMedico.get().getApellido();
         Medico medicoExistente = getMedicoExistente(medico, optMedico);
 
         // Guardar cambios en BD
         Medico medicoActualizado = medicoRepository.save(medicoExistente);
+        citaService.invalidarMedico(id);
+        clavesNombre.invalidar(id);
+        clavesEspecialidad.invalidar(id);
+
+        // Reindexar el nombre por si cambió
+        nombres.reindexar(id, nombreAnterior, apellidoAnterior, medicoActualizado.getNombre(), medicoActualizado.getApellido());
 
         mapResponse.put("medico", medicoActualizado);
         mapResponse.put("message", "Médico actualizado exitosamente");
@@ -211,6 +260,10 @@ public class MedicoService {
         Medico medico = optMedico.get();
 
         medicoRepository.delete(medico);
+        citaService.invalidarMedico(id);
+        clavesNombre.invalidar(id);
+        clavesEspecialidad.invalidar(id);
+        nombres.desindexar(id, medico.getNombre(), medico.getApellido());
 
         mapResponse.put("message", "Médico eliminado correctamente");
         mapResponse.put("medicoEliminado", medico);
@@ -373,6 +426,7 @@ public class MedicoService {
         medico.setOcupado(true);
 
         medicoRepository.save(medico);
+        citaService.invalidarMedico(idMedico);
 
         mapResponse.put("medico", medico);
         mapResponse.put("message", "Estado de ocupación actualizado exitosamente");
@@ -406,6 +460,7 @@ public class MedicoService {
         medico.setOcupado(false);
 
         medicoRepository.save(medico);
+        citaService.invalidarMedico(idMedico);
 
         mapResponse.put("medico", medico);
         mapResponse.put("message", "Estado de ocupación actualizado exitosamente");
@@ -415,4 +470,73 @@ public class MedicoService {
 
     }
 
-}
\ No newline at end of file
+
+    /**
+     * Autocompleta nombres de médicos usando el índice en memoria, sin consultar la BD
+     * @param termino Prefijo del nombre, apellido o nombre completo
+     * @param limite Número máximo de médicos a devolver
+     * @return Mapa con los IDs y los nombres para mostrar de los médicos que coinciden
+     */
+    public CustomMap<String, Object> autocompletar(String termino, Integer limite) {
+        CustomMap<String, Object> mapResponse = new CustomMap<>();
+
+        if (termino == null || termino.trim().isEmpty()) {
+            mapResponse.put("error", "El término no puede estar vacío");
+            mapResponse.put("code", 400);
+            return mapResponse;
+        }
+
+        if (limite == null || limite < 1) {
+            mapResponse.put("error", "El límite debe ser mayor a 0");
+            mapResponse.put("code", 400);
+            return mapResponse;
+        }
+
+        // El trie se lee sin candados: toma la versión publicada aunque haya escrituras en curso
+        LinkedCustomMap<Integer, String> entradas =
+                indiceNombres.buscarEntradas(termino, Math.min(limite, LIMITE_AUTOCOMPLETE_MAX));
+
+        ListaSimple<Integer> ids = new ListaSimple<>();
+        ListaSimple<CustomMap<String, Object>> resultados = new ListaSimple<>();
+        for (Map.Entry<Integer, String> entrada : entradas.entrySet()) {
+            CustomMap<String, Object> resultado = new CustomMap<>();
+            resultado.put("id", entrada.getKey());
+            resultado.put("nombre", entrada.getValue());
+            resultados.add(resultado);
+            ids.add(entrada.getKey());
+        }
+
+        mapResponse.put("ids", ids);
+        mapResponse.put("resultados", resultados);
+        mapResponse.put("total", ids.size());
+        mapResponse.put("code", 200);
+
+        return mapResponse;
+    }
+
+    /**
+     * Registra que se eligió al médico en el autocompletado, para que sus términos suban en las sugerencias.
+     * Es la única vía que cuenta visitas: las lecturas (getById) no modifican el índice
+     * @param id ID del médico seleccionado
+     * @return Mapa con el resultado del registro
+     */
+    public CustomMap<String, Object> registrarSeleccion(Integer id) {
+        CustomMap<String, Object> mapResponse = new CustomMap<>();
+
+        Optional<Medico> optMedico = medicoRepository.findById(id);
+
+        if (optMedico.isEmpty()) {
+            mapResponse.put("error", "No se pudo encontrar el médico con ID: " + id);
+            mapResponse.put("code", 404);
+            return mapResponse;
+        }
+
+        Medico medico = optMedico.get();
+        nombres.registrarVisita(medico.getNombre(), medico.getApellido());
+
+        mapResponse.put("message", "Selección registrada");
+        mapResponse.put("code", 200);
+
+        return mapResponse;
+    }
+}
@@ -1,18 +1,34 @@
 package mx.edu.utez.gestioncitas.services;
 
+import mx.edu.utez.gestioncitas.data_structs.ClavesOrden;
+import mx.edu.utez.gestioncitas.data_structs.CountingSort;
 import mx.edu.utez.gestioncitas.data_structs.CustomMap;
+import mx.edu.utez.gestioncitas.data_structs.IntCustomMap;
+import mx.edu.utez.gestioncitas.data_structs.LinkedCustomMap;
 import mx.edu.utez.gestioncitas.data_structs.ListaSimple;
-import mx.edu.utez.gestioncitas.data_structs.MergeSort;
+import mx.edu.utez.gestioncitas.data_structs.TopK;
+import mx.edu.utez.gestioncitas.data_structs.Trie;
+import mx.edu.utez.gestioncitas.data_structs.TriePersistente;
 import mx.edu.utez.gestioncitas.dtos.CreatePacienteDTO;
 import mx.edu.utez.gestioncitas.model.Cita;
 import mx.edu.utez.gestioncitas.model.Paciente;
 import mx.edu.utez.gestioncitas.repository.CitaRepository;
 import mx.edu.utez.gestioncitas.repository.PacienteRepository;
+import mx.edu.utez.gestioncitas.util.IndiceNombres;
 
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Servicio para gestionar las operaciones relacionadas con los pacientes.
@@ -28,10 +44,173 @@ public class PacienteService {
     private final PacienteRepository pacienteRepository;
     private final CitaRepository citaRepository;
 
-    // Constructor para inyección de dependencias
-    public PacienteService(PacienteRepository pacienteRepository, CitaRepository citaRepository) {
+    // Para invalidar la caché de pacientes que mantiene CitaService
+    private final CitaService citaService;
+
+    /**
+     * Índice de nombres para el autocompletado (nombre, apellido y nombre completo).
+     * Arranca desde el snapshot en disco (mapeado en memoria, sin recorrer la BD); los cambios
+     * quedan en memoria y se compactan a un snapshot nuevo de forma periódica y al cerrar la aplicación.
+     * El directorio de los snapshots se configura con gestioncitas.indices.directorio.
+     */
+    private final Path directorioIndices;
+    private static final String NOMBRE_INDICE = "pacientes-nombres";
+    private static final long INTERVALO_COMPACTACION_MINUTOS = 10;
+    private final TriePersistente indiceNombres;
+    private final IndiceNombres nombres;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private static final int LIMITE_AUTOCOMPLETE_MAX = 50;
+
+    // Claves de orden alfabético en español (Collator) por nombre completo, calculadas una vez por paciente
+    private final ClavesOrden<Paciente> clavesNombre =
+            new ClavesOrden<>(Paciente::getId, p -> IndiceNombres.nombreCompleto(p.getNombre(), p.getApellido()));
+
+    // Tiempo máximo de la búsqueda aproximada por nombre (50 ms)
+    private static final long PRESUPUESTO_BUSQUEDA_APROXIMADA_NANOS = 50_000_000L;
+
+    // Dominios de las claves de la lista por prioridad (ordenada con CountingSort)
+    private static final int PRIORIDAD_MAS_ALTA = 1;
+    private static final int PRIORIDAD_MAS_BAJA = 3;
+    private static final int MINUTOS_POR_DIA = 24 * 60;
+
+    // El mismo orden que las dos pasadas de CountingSort, para seleccionar solo los primeros con TopK
+    private static final Comparator<Cita> ORDEN_PRIORIDAD = Comparator
+            .comparing((Cita cita) -> cita.getPaciente().getPrioridad(), Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(PacienteService::minutoDelDia, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    // Constructor para inyección de dependencias y carga del índice de nombres
+    public PacienteService(PacienteRepository pacienteRepository, CitaRepository citaRepository, CitaService citaService,
+                           @Value("${gestioncitas.indices.directorio}") Path directorioIndices) {
         this.pacienteRepository = pacienteRepository;
         this.citaRepository = citaRepository;
+        this.citaService = citaService;
+        this.directorioIndices = directorioIndices;
+        this.indiceNombres = abrirIndiceNombres();
+        this.nombres = new IndiceNombres(indiceNombres);
+
+        if (indiceNombres.tieneSnapshot()) {
+            // El snapshot pudo quedar atrasado (cambios sin compactar o hechos fuera de la app)
+            scheduler.execute(this::reconciliarIndiceNombres);
+        } else {
+            for (Paciente paciente : pacienteRepository.findAll())
+                nombres.indexar(paciente.getId(), paciente.getNombre(), paciente.getApellido());
+            compactarIndiceNombres();
+        }
+
+        scheduler.scheduleWithFixedDelay(this::compactarIndiceNombres,
+                INTERVALO_COMPACTACION_MINUTOS, INTERVALO_COMPACTACION_MINUTOS, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Detiene la compactación periódica y escribe los cambios pendientes del índice de nombres,
+     * así lo que se modificó después de la última compactación no se pierde al cerrar
+     */
+    @PreDestroy
+    public void cerrar() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(30, TimeUnit.SECONDS))
+                scheduler.shutdownNow();
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        compactarIndiceNombres();
+    }
+
+    /**
+     * Abre el snapshot más reciente del índice de nombres; si está dañado empieza vacío y se reconstruye
+     */
+    private TriePersistente abrirIndiceNombres() {
+        try {
+            return TriePersistente.abrir(directorioIndices, NOMBRE_INDICE);
+        } catch (IOException e) {
+            System.err.println("No se pudo leer el índice de nombres, se reconstruye desde la BD: " + e.getMessage());
+            return TriePersistente.vacio(directorioIndices, NOMBRE_INDICE);
+        }
+    }
+
+    /**
+     * Escribe los cambios pendientes del índice de nombres en un snapshot nuevo.
+     * Si no se puede escribir, el índice sigue funcionando en memoria y se reintenta después.
+     */
+    private void compactarIndiceNombres() {
+        if (indiceNombres.tieneSnapshot() && indiceNombres.cambiosPendientes() == 0)
+            return;
+
+        try {
+            indiceNombres.compactar();
+        } catch (Exception e) {
+            // Si la excepción escapa, el scheduler cancela las siguientes ejecuciones
+            System.err.println("Error al compactar el índice de nombres: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compara los nombres del índice con los pacientes de la BD y corrige las diferencias.
+     * Cada discrepancia se confirma con findById antes de aplicarla, por si el paciente
+     * cambió mientras se hacía la consulta.
+     */
+    private void reconciliarIndiceNombres() {
+        try {
+            IntCustomMap<LinkedCustomMap<String, String>> indexados = indiceNombres.entradasPorId();
+            ListaSimple<Integer> candidatos = new ListaSimple<>();
+
+            for (Paciente paciente : pacienteRepository.findAll()) {
+                LinkedCustomMap<String, String> terminos = indexados.remove(paciente.getId().intValue());
+                if (!coincideIndice(terminos, paciente))
+                    candidatos.add(paciente.getId());
+            }
+            // Los que quedan ya no están en la BD
+            for (Integer id : indexados.keySet())
+                candidatos.add(id);
+
+            if (candidatos.isEmpty())
+                return;
+
+            // Términos vigentes (pudieron cambiar desde que se leyó la BD)
+            IntCustomMap<LinkedCustomMap<String, String>> actuales = indiceNombres.entradasPorId();
+            for (Integer id : candidatos) {
+                LinkedCustomMap<String, String> terminos = actuales.get(id.intValue());
+                ListaSimple<String> anteriores = new ListaSimple<>();
+                if (terminos != null)
+                    anteriores.addAll(terminos.keySet());
+
+                Optional<Paciente> optPaciente = pacienteRepository.findById(id);
+                clavesNombre.invalidar(id);
+                if (optPaciente.isEmpty()) {
+                    indiceNombres.replace(anteriores, new ListaSimple<>(), id, null);
+                } else {
+                    Paciente paciente = optPaciente.get();
+                    indiceNombres.replace(anteriores,
+                            IndiceNombres.terminosDeNombre(paciente.getNombre(), paciente.getApellido()),
+                            id, IndiceNombres.nombreCompleto(paciente.getNombre(), paciente.getApellido()));
+                }
+            }
+
+            System.out.println("Índice de nombres reconciliado: " + candidatos.size() + " pacientes corregidos");
+        } catch (Exception e) {
+            System.err.println("Error al reconciliar el índice de nombres: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Verifica que los términos indexados de un paciente sean los de su nombre actual
+     */
+    private static boolean coincideIndice(LinkedCustomMap<String, String> terminos, Paciente paciente) {
+        ListaSimple<String> esperados = IndiceNombres.terminosDeNombre(paciente.getNombre(), paciente.getApellido());
+        if (terminos == null)
+            return esperados.isEmpty();
+        if (terminos.size() != esperados.size())
+            return false;
+
+        String texto = IndiceNombres.nombreCompleto(paciente.getNombre(), paciente.getApellido());
+        for (String termino : esperados) {
+            if (!texto.equals(terminos.get(termino)))
+                return false;
+        }
+        return true;
     }
 
     /**
@@ -52,6 +231,27 @@ public class PacienteService {
         return mapResponse;
     }
 
+    /**
+     * Obtiene todos los pacientes ordenados por nombre completo alfabéticamente (en español)
+     * @return Mapa con la lista de pacientes ordenada por nombre
+     */
+    public CustomMap<String, Object> getAllOrdenadosPorNombre() {
+
+        CustomMap<String, Object> mapResponse = new CustomMap<>();
+        ListaSimple<Paciente> listaPacientes = new ListaSimple<>();
+
+        listaPacientes.addAll(pacienteRepository.findAll());
+
+        // Ordenar por la clave en caché de cada paciente (estable, O(n log n))
+        listaPacientes = clavesNombre.ordenar(listaPacientes);
+
+        mapResponse.put("message", "Lista de pacientes ordenada por nombre");
+        mapResponse.put("listPacientes", listaPacientes);
+        mapResponse.put("code", 200);
+
+        return mapResponse;
+    }
+
     /**
      * Obtiene un paciente por su ID
      * @param id ID del paciente a buscar
@@ -71,10 +271,8 @@ public class PacienteService {
             return mapResponse;
         }
 
-        Paciente paciente = optPaciente.get();
-
         mapResponse.put("message", "Paciente encontrado exitosamente");
-        mapResponse.put("paciente", paciente);
+        mapResponse.put("paciente", optPaciente.get());
         mapResponse.put("code", 200);
 
         return mapResponse;
@@ -106,6 +304,7 @@ public class PacienteService {
 
         // Guardar en BD
         pacienteRepository.save(nuevoPaciente);
+        nombres.indexar(nuevoPaciente.getId(), nuevoPaciente.getNombre(), nuevoPaciente.getApellido());
 
         mapResponse.put("message", "Paciente creado exitosamente");
         mapResponse.put("paciente", nuevoPaciente);
@@ -137,6 +336,8 @@ public class PacienteService {
         }
 
         Paciente pacienteExistente = optPaciente.get();
+        String nombreAnterior = pacienteExistente.getNombre();
+        String apellidoAnterior = pacienteExistente.getApellido();
 
         // Actualizar campos solo si vienen con datos
         if (paciente.getNombre() != null && !paciente.getNombre().trim().isEmpty())
@@ -169,6 +370,14 @@ public class PacienteService {
 
         // Guardar cambios en BD
         pacienteRepository.save(pacienteExistente);
+        citaService.invalidarPaciente(id);
+        clavesNombre.invalidar(id);
+        if (paciente.getPrioridad() != null)
+            citaService.actualizarPrioridadPaciente(id, pacienteExistente.getPrioridad());
+        citaService.actualizarPacienteEnHistorial(id, pacienteExistente.getNombre(), pacienteExistente.getApellido());
+
+        // Reindexar el nombre por si cambió
+        nombres.reindexar(id, nombreAnterior, apellidoAnterior, pacienteExistente.getNombre(), pacienteExistente.getApellido());
 
         // Se envía los datos del paciente actualizado, junto con un código 200
         mapResponse.put("message", "Paciente actualizado exitosamente");
@@ -230,6 +439,9 @@ public class PacienteService {
         }
 
         pacienteRepository.delete(paciente);
+        citaService.invalidarPaciente(id);
+        clavesNombre.invalidar(id);
+        nombres.desindexar(id, paciente.getNombre(), paciente.getApellido());
 
         mapResponse.put("message", "Paciente eliminado correctamente");
         mapResponse.put("pacienteEliminado", paciente);
@@ -261,7 +473,8 @@ public class PacienteService {
     }
 
     /**
-     * Busca por nombre o apellido
+     * Busca por nombre o apellido. Si no hay coincidencias en la BD, busca en el índice de nombres
+     * los que estén a una o dos letras de diferencia (errores de dedo) y devuelve esos pacientes
      * @param nombre Término de búsqueda
      * @return Mapa con la lista de pacientes encontrados o un mensaje de error
      */
@@ -275,8 +488,14 @@ public class PacienteService {
 
         ListaSimple<Paciente> listaJPA = pacienteRepository.buscarPorNombreOApellido(nombre);
 
-        if (listaJPA.isEmpty())
-            mapResponse.put("message", "No hay coincidencias");
+        if (listaJPA.isEmpty()) {
+            listaJPA = buscarPorNombreAproximado(nombre);
+
+            if (listaJPA.isEmpty())
+                mapResponse.put("message", "No hay coincidencias");
+            else
+                mapResponse.put("message", "No hay coincidencias exactas, se muestran nombres parecidos");
+        }
 
 
         ListaSimple<Paciente> listaSimple = new ListaSimple<>();
@@ -286,21 +505,173 @@ public class PacienteService {
         return mapResponse;
     }
 
+    /**
+     * Resuelve los pacientes cuyo nombre, apellido o nombre completo está a distancia de edición
+     * 1 (términos cortos) o 2 del término, en el orden de cercanía del índice
+     */
+    private ListaSimple<Paciente> buscarPorNombreAproximado(String nombre) {
+        ListaSimple<Paciente> pacientes = new ListaSimple<>();
+        int maxDistancia = Trie.normalizar(nombre).length() <= 4 ? 1 : 2;
+
+        LinkedCustomMap<Integer, String> aproximados = indiceNombres.buscarEntradasAproximadas(nombre, maxDistancia,
+                LIMITE_AUTOCOMPLETE_MAX, PRESUPUESTO_BUSQUEDA_APROXIMADA_NANOS);
+
+        if (aproximados.isEmpty())
+            return pacientes;
+
+        // Una sola consulta para todos los IDs, luego se respeta el orden del índice
+        IntCustomMap<Paciente> porId = new IntCustomMap<>();
+        for (Paciente paciente : pacienteRepository.findAllById(aproximados.keySet()))
+            porId.put(paciente.getId().intValue(), paciente);
+
+        for (Integer id : aproximados.keySet()) {
+            Paciente paciente = porId.get(id);
+            if (paciente != null)
+                pacientes.add(paciente);
+        }
+
+        return pacientes;
+    }
+
+    /**
+     * Autocompleta nombres de pacientes usando el índice en memoria, sin consultar la BD
+     * @param termino Prefijo del nombre, apellido o nombre completo
+     * @param limite Número máximo de pacientes a devolver
+     * @return Mapa con los IDs y los nombres para mostrar de los pacientes que coinciden
+     */
+    public CustomMap<String, Object> autocompletar(String termino, Integer limite) {
+        CustomMap<String, Object> mapResponse = new CustomMap<>();
+
+        if (termino == null || termino.trim().isEmpty()) {
+            mapResponse.put("error", "El término no puede estar vacío");
+            mapResponse.put("code", 400);
+            return mapResponse;
+        }
+
+        if (limite == null || limite < 1) {
+            mapResponse.put("error", "El límite debe ser mayor a 0");
+            mapResponse.put("code", 400);
+            return mapResponse;
+        }
+
+        // El índice se lee sin candados: toma la versión publicada aunque haya escrituras en curso
+        LinkedCustomMap<Integer, String> entradas =
+                indiceNombres.buscarEntradas(termino, Math.min(limite, LIMITE_AUTOCOMPLETE_MAX));
+
+        ListaSimple<Integer> ids = new ListaSimple<>();
+        ListaSimple<CustomMap<String, Object>> resultados = new ListaSimple<>();
+        for (Map.Entry<Integer, String> entrada : entradas.entrySet()) {
+            CustomMap<String, Object> resultado = new CustomMap<>();
+            resultado.put("id", entrada.getKey());
+            resultado.put("nombre", entrada.getValue());
+            resultados.add(resultado);
+            ids.add(entrada.getKey());
+        }
+
+        mapResponse.put("ids", ids);
+        mapResponse.put("resultados", resultados);
+        mapResponse.put("total", ids.size());
+        mapResponse.put("code", 200);
+
+        return mapResponse;
+    }
+
+    /**
+     * Minuto del día de la hora de la cita (clave de CountingSort)
+     * @param cita cita a evaluar
+     * @return minutos desde medianoche, o null si la cita no tiene hora
+     */
+    private static Integer minutoDelDia(Cita cita) {
+        return cita.getHora() == null ? null : cita.getHora().getHour() * 60 + cita.getHora().getMinute();
+    }
+
+    /**
+     * Ordena las citas por prioridad y hora, y toma a cada paciente una sola vez
+     * @param citasActivas citas de hoy en orden de llegada
+     * @return pacientes en el orden de su cita más próxima
+     */
+    private static ListaSimple<Paciente> pacientesPorPrioridad(ListaSimple<Cita> citasActivas) {
+
+        // Dos pasadas estables de CountingSort (todas las citas son de hoy): primero por minuto del día
+        // y luego por prioridad, así cada prioridad conserva el orden por hora
+        ListaSimple<Cita> citas = CountingSort.sort(citasActivas, PacienteService::minutoDelDia, 0, MINUTOS_POR_DIA - 1);
+        citas = CountingSort.sort(citas, cita -> cita.getPaciente().getPrioridad(),
+                PRIORIDAD_MAS_ALTA, PRIORIDAD_MAS_BAJA);
+
+        // Cada paciente una sola vez, en el lugar de su primera cita
+        ListaSimple<Paciente> pacientes = new ListaSimple<>();
+        IntCustomMap<Boolean> pacientesAgregados = new IntCustomMap<>();
+        for (Cita cita : citas) {
+            Paciente paciente = cita.getPaciente();
+            if (pacientesAgregados.putIfAbsent(paciente.getId().intValue(), Boolean.TRUE) == null)
+                pacientes.add(paciente);
+        }
+        return pacientes;
+
+    }
+
+    /**
+     * Los primeros pacientes del mismo orden que {@link #pacientesPorPrioridad}, sin ordenar todas las citas
+     * @param citasActivas citas de hoy en orden de llegada
+     * @param limite número máximo de pacientes
+     * @return a lo más {@code limite} pacientes en el orden de su cita más próxima
+     */
+    private static ListaSimple<Paciente> primerosPacientesPorPrioridad(ListaSimple<Cita> citasActivas, int limite) {
+
+        // La mejor cita de cada paciente (en empate, la que llegó primero)
+        IntCustomMap<Cita> mejorCita = new IntCustomMap<>();
+        for (Cita cita : citasActivas) {
+            int idPaciente = cita.getPaciente().getId().intValue();
+            Cita actual = mejorCita.get(idPaciente);
+            if (actual == null || ORDEN_PRIORIDAD.compare(cita, actual) < 0)
+                mejorCita.put(idPaciente, cita);
+        }
+
+        // Una cita por paciente, conservando el orden de llegada para los empates
+        ListaSimple<Cita> candidatas = new ListaSimple<>();
+        for (Cita cita : citasActivas) {
+            if (mejorCita.get(cita.getPaciente().getId().intValue()) == cita)
+                candidatas.add(cita);
+        }
+
+        ListaSimple<Paciente> pacientes = new ListaSimple<>();
+        for (Cita cita : TopK.select(candidatas, limite, ORDEN_PRIORIDAD))
+            pacientes.add(cita.getPaciente());
+        return pacientes;
+
+    }
+
     /**
      * Ordena la lista de pacientes dada por prioridad de forma ascendente
-     * utilizando el algoritmo de {@code MergeSort}.
+     * utilizando {@code CountingSort} (la prioridad solo toma valores de 1 a 3).
      * Filtra los pacientes basándose en sus citas activas (no finalizadas ni canceladas).
-     * La prioridad se obtiene de las citas, no del paciente directamente.
+     * Se ordenan las citas de hoy por prioridad del paciente y hora, y cada paciente aparece
+     * una vez, en la posición de su cita más próxima.
      * @return Una nueva lista simple de pacientes ordenada por prioridad (solo disponibles).
      */
     public CustomMap<String, Object> getAllPrioridadAsc() {
+        return getAllPrioridadAsc(null);
+    }
+
+    /**
+     * Igual que {@link #getAllPrioridadAsc()}, pero devuelve solo los primeros pacientes.
+     * Con límite no se ordena toda la lista: se seleccionan los primeros con {@code TopK} en O(n log k).
+     * @param limite Número máximo de pacientes a devolver (null para todos)
+     * @return Una nueva lista simple con los primeros pacientes por prioridad (solo disponibles).
+     */
+    public CustomMap<String, Object> getAllPrioridadAsc(Integer limite) {
 
         CustomMap<String, Object> mapResponse = new CustomMap<>();
 
+        if (limite != null && limite < 1) {
+            mapResponse.put("error", "El límite debe ser mayor a 0");
+            mapResponse.put("code", 400);
+            return mapResponse;
+        }
+
         // Obtener pacientes basándose en sus citas activas (P, E, R)
         // Excluir pacientes con citas finalizadas (F) o canceladas (C) para hoy
-        ListaSimple<Paciente> pacientesDisponibles = new ListaSimple<>();
-        ListaSimple<Integer> pacientesIdsAgregados = new ListaSimple<>(); // Para evitar duplicados
+        ListaSimple<Cita> citasActivas = new ListaSimple<>();
         LocalDate fechaHoy = java.time.LocalDate.now();
         
         // Obtener todas las citas activas (Programadas, En Atención, Reagendadas) para hoy
@@ -311,31 +682,19 @@ public class PacienteService {
                 (cita.getEstado() == 'P' || cita.getEstado() == 'E' || cita.getEstado() == 'R')) {
                 
                 Paciente paciente = cita.getPaciente();
-                Integer pacienteId = paciente.getId();
                 
                 // Verificar que no esté en atención (a menos que sea la cita actual en estado E)
                 if (paciente.getEnAtencion() != null && paciente.getEnAtencion() && cita.getEstado() != 'E') {
                     continue;
                 }
                 
-                // Verificar que no haya sido agregado ya
-                boolean yaAgregado = false;
-                for (int i = 0; i < pacientesIdsAgregados.size(); i++) {
-                    if (pacientesIdsAgregados.get(i).equals(pacienteId)) {
-                        yaAgregado = true;
-                        break;
-                    }
-                }
-                
-                if (!yaAgregado) {
-                    pacientesDisponibles.add(paciente);
-                    pacientesIdsAgregados.add(pacienteId);
-                }
+                citasActivas.add(cita);
             }
         }
 
-        // Ordenar por prioridad usando MergeSort
-        ListaSimple<Paciente> listaPrioridad = MergeSort.sortByPrioridadAsc(pacientesDisponibles);
+        ListaSimple<Paciente> listaPrioridad = limite == null
+                ? pacientesPorPrioridad(citasActivas)
+                : primerosPacientesPorPrioridad(citasActivas, limite);
 
         // Verificar si la lista está vacía
         if (listaPrioridad.isEmpty()) {
@@ -354,4 +713,29 @@ public class PacienteService {
         return mapResponse;
     }
 
-}
\ No newline at end of file
+    /**
+     * Registra que se eligió al paciente en el autocompletado, para que sus términos suban en las sugerencias.
+     * Es la única vía que cuenta visitas: las lecturas (getById) no modifican el índice
+     * @param id ID del paciente seleccionado
+     * @return Mapa con el resultado del registro
+     */
+    public CustomMap<String, Object> registrarSeleccion(Integer id) {
+        CustomMap<String, Object> mapResponse = new CustomMap<>();
+
+        Optional<Paciente> optPaciente = pacienteRepository.findById(id);
+
+        if (optPaciente.isEmpty()) {
+            mapResponse.put("error", "No se pudo encontrar el paciente con ID: " + id);
+            mapResponse.put("code", 404);
+            return mapResponse;
+        }
+
+        Paciente paciente = optPaciente.get();
+        nombres.registrarVisita(paciente.getNombre(), paciente.getApellido());
+
+        mapResponse.put("message", "Selección registrada");
+        mapResponse.put("code", 200);
+
+        return mapResponse;
+    }
+}
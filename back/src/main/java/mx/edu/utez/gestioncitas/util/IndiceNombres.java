@@ -0,0 +1,105 @@
+package mx.edu.utez.gestioncitas.util;
+
+import mx.edu.utez.gestioncitas.data_structs.IndiceTerminos;
+import mx.edu.utez.gestioncitas.data_structs.ListaSimple;
+import mx.edu.utez.gestioncitas.data_structs.Trie;
+
+/**
+ * HELPER -
+ * Mantiene el índice de nombres del autocompletado de pacientes y médicos: cada entidad se indexa
+ * por su nombre, su apellido y su nombre completo (sin acentos ni mayúsculas), con el nombre
+ * completo original como texto para mostrar.
+ */
+public class IndiceNombres {
+
+    private final IndiceTerminos indice;
+
+    /**
+     * Constructor
+     * @param indice Trie o TriePersistente donde se guardan los nombres
+     */
+    public IndiceNombres(IndiceTerminos indice) {
+        this.indice = indice;
+    }
+
+    /**
+     * Agrega al índice el nombre, el apellido y el nombre completo de la entidad
+     * @param id ID de la entidad (si es null no se indexa)
+     * @param nombre nombre de la entidad
+     * @param apellido apellido de la entidad
+     */
+    public void indexar(Integer id, String nombre, String apellido) {
+        if (id == null)
+            return;
+
+        indice.replace(new ListaSimple<>(), terminosDeNombre(nombre, apellido), id, nombreCompleto(nombre, apellido));
+    }
+
+    /**
+     * Quita del índice los términos del nombre de la entidad
+     * @param id ID de la entidad
+     * @param nombre nombre con el que se indexó
+     * @param apellido apellido con el que se indexó
+     */
+    public void desindexar(Integer id, String nombre, String apellido) {
+        indice.replace(terminosDeNombre(nombre, apellido), new ListaSimple<>(), id, null);
+    }
+
+    /**
+     * Cambia en el índice los términos del nombre anterior por los del nuevo en una sola publicación,
+     * así el autocompletado nunca ve a la entidad sin nombre ni con los dos nombres
+     * @param id ID de la entidad
+     * @param nombreAnterior nombre con el que se indexó
+     * @param apellidoAnterior apellido con el que se indexó
+     * @param nombre nombre nuevo
+     * @param apellido apellido nuevo
+     */
+    public void reindexar(Integer id, String nombreAnterior, String apellidoAnterior, String nombre, String apellido) {
+        indice.replace(terminosDeNombre(nombreAnterior, apellidoAnterior),
+                terminosDeNombre(nombre, apellido), id, nombreCompleto(nombre, apellido));
+    }
+
+    /**
+     * Suma una visita a los términos del nombre para que el autocompletado priorice
+     * a las entidades consultadas con más frecuencia
+     * @param nombre nombre de la entidad
+     * @param apellido apellido de la entidad
+     */
+    public void registrarVisita(String nombre, String apellido) {
+        for (String termino : terminosDeNombre(nombre, apellido))
+            indice.registrarUso(termino);
+    }
+
+    /**
+     * Genera los términos indexables de un nombre (sin acentos ni mayúsculas): nombre, apellido y nombre completo
+     * @param nombre nombre de la entidad
+     * @param apellido apellido de la entidad
+     * @return los términos no vacíos
+     */
+    public static ListaSimple<String> terminosDeNombre(String nombre, String apellido) {
+        ListaSimple<String> terminos = new ListaSimple<>();
+        String n = Trie.normalizar(nombre);
+        String a = Trie.normalizar(apellido);
+
+        if (!n.isEmpty())
+            terminos.add(n);
+        if (!a.isEmpty())
+            terminos.add(a);
+        if (!n.isEmpty() && !a.isEmpty())
+            terminos.add(n + " " + a);
+
+        return terminos;
+    }
+
+    /**
+     * Texto original del nombre completo para mostrarlo; un nombre o apellido null cuenta como vacío
+     * @param nombre nombre de la entidad
+     * @param apellido apellido de la entidad
+     * @return nombre y apellido separados por un espacio, o solo el que no esté vacío
+     */
+    public static String nombreCompleto(String nombre, String apellido) {
+        String n = nombre == null ? "" : nombre.trim();
+        String a = apellido == null ? "" : apellido.trim();
+        return n.isEmpty() || a.isEmpty() ? n + a : n + " " + a;
+    }
+}
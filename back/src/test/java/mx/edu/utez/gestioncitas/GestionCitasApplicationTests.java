@@ -1,11 +1,27 @@
 package mx.edu.utez.gestioncitas;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
 
 @SpringBootTest
+@DirtiesContext // Cierra el contexto (y su compactación final) antes de borrar el directorio temporal
 class GestionCitasApplicationTests {
 
+    // Los snapshots del índice de nombres van a un directorio temporal, no al directorio de trabajo
+    @TempDir
+    static Path directorioIndices;
+
+    @DynamicPropertySource
+    static void propiedades(DynamicPropertyRegistry registry) {
+        registry.add("gestioncitas.indices.directorio", () -> directorioIndices.toString());
+    }
+
     @Test
     void contextLoads() {
     }
@@ -0,0 +1,109 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AVLTreeTest {
+
+    /**
+     * Verifica en cada nodo la altura guardada y el factor de balance
+     * @return altura del subárbol
+     */
+    private static int verificarAlturas(BinaryTreeNode<?> nodo) {
+        if (nodo == null)
+            return 0;
+
+        int izquierda = verificarAlturas(nodo.getLeft());
+        int derecha = verificarAlturas(nodo.getRight());
+        assertTrue(Math.abs(izquierda - derecha) <= 1, "desbalance en " + nodo.getData());
+
+        int altura = 1 + Math.max(izquierda, derecha);
+        assertEquals(altura, nodo.getHeight(), "altura guardada en " + nodo.getData());
+        return altura;
+    }
+
+    /**
+     * Verifica que el árbol sea un AVL válido: alturas, balance, cota de altura y recorrido en orden
+     */
+    static <T> void verificarAvl(AVLTree<T> arbol, Comparator<? super T> orden) {
+        assertEquals(arbol.height(), verificarAlturas(arbol.root));
+        // Un AVL con n nodos mide a lo más ~1.44 log2(n + 2)
+        assertTrue(arbol.height() <= 1.45 * (Math.log(arbol.size() + 2) / Math.log(2)),
+                "altura " + arbol.height() + " con " + arbol.size() + " nodos");
+
+        T anterior = null;
+        int recorridos = 0;
+        for (T dato : arbol.toList()) {
+            if (anterior != null)
+                assertTrue(orden.compare(anterior, dato) <= 0, anterior + " antes de " + dato);
+            anterior = dato;
+            recorridos++;
+        }
+        assertEquals(arbol.size(), recorridos);
+    }
+
+    @Test
+    void staysBalancedUnderSortedInserts() {
+        AVLTree<Integer> ascendente = new AVLTree<>();
+        AVLTree<Integer> descendente = new AVLTree<>();
+        int n = 1 << 15;
+        for (int i = 0; i < n; i++) {
+            assertTrue(ascendente.insert(i));
+            assertTrue(descendente.insert(n - i));
+        }
+
+        verificarAvl(ascendente, Comparator.naturalOrder());
+        verificarAvl(descendente, Comparator.naturalOrder());
+        // Con claves ascendentes el árbol queda perfecto o casi; un BinaryTree sería una lista de n nodos
+        assertTrue(ascendente.height() <= 16);
+
+        for (int i = 0; i < n; i += 1_000) {
+            assertEquals(i, ascendente.search(i));
+            assertEquals(n - i, descendente.search(n - i));
+        }
+        assertNull(ascendente.search(n));
+        assertNull(ascendente.search(null));
+    }
+
+    @Test
+    void keepsDuplicatesAndMatchesASortedListUnderRandomInserts() {
+        Random random = new Random(2);
+        AVLTree<Integer> arbol = new AVLTree<>();
+        List<Integer> esperado = new ArrayList<>();
+
+        // Pocos valores posibles para que haya muchos duplicados, que BinaryTree manda a la derecha
+        for (int i = 0; i < 20_000; i++) {
+            int valor = random.nextInt(500);
+            arbol.insert(valor);
+            esperado.add(valor);
+        }
+
+        verificarAvl(arbol, Comparator.naturalOrder());
+        Collections.sort(esperado);
+        List<Integer> enOrden = new ArrayList<>();
+        for (Integer valor : arbol.toList())
+            enOrden.add(valor);
+        assertEquals(esperado, enOrden);
+    }
+
+    @Test
+    void usesTheGivenComparatorAndRejectsNull() {
+        AVLTree<String> arbol = new AVLTree<>(Comparator.comparing(String::length));
+        for (String palabra : new String[]{"ccc", "a", "bbbb", "dd", "eeeee"})
+            arbol.insert(palabra);
+
+        verificarAvl(arbol, Comparator.comparing(String::length));
+        // La búsqueda compara con el comparador, no con equals
+        assertEquals("dd", arbol.search("xx"));
+        assertNull(arbol.search("xxxxxx"));
+        assertThrows(NullPointerException.class, () -> arbol.insert(null));
+        assertEquals(5, arbol.size());
+    }
+}
@@ -0,0 +1,86 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import mx.edu.utez.gestioncitas.model.Medico;
+import org.junit.jupiter.api.Test;
+
+import java.text.CollationKey;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClavesOrdenTest {
+
+    private static Medico medico(int id, String nombre, String apellido) {
+        Medico medico = new Medico();
+        medico.setId(id);
+        medico.setNombre(nombre);
+        medico.setApellido(apellido);
+        return medico;
+    }
+
+    private static List<String> nombres(ListaSimple<Medico> medicos) {
+        ListaSimple<String> nombres = new ListaSimple<>();
+        for (Medico medico : medicos)
+            nombres.add(medico.getNombre() + " " + medico.getApellido());
+        return nombres;
+    }
+
+    @Test
+    void sortsSpanishNamesLikeADictionary() {
+        ClavesOrden<Medico> claves = new ClavesOrden<>(Medico::getId, m -> m.getNombre() + " " + m.getApellido());
+
+        ListaSimple<Medico> medicos = new ListaSimple<>();
+        medicos.add(medico(1, "Óscar", "Núñez"));
+        medicos.add(medico(2, "oscar", "Nava"));
+        medicos.add(medico(3, "Ángel", "Zamora"));
+        medicos.add(medico(4, "Beatriz", "Ochoa"));
+        medicos.add(medico(5, "Ana", "López"));
+
+        // Con String.compareTo "Óscar" y "Ángel" quedarían después de la "z"
+        assertEquals(List.of("Ana López", "Ángel Zamora", "Beatriz Ochoa", "oscar Nava", "Óscar Núñez"),
+                nombres(claves.ordenar(medicos)));
+        assertEquals(5, claves.size());
+    }
+
+    @Test
+    void keysAreComputedOncePerEntityAndRefreshedWhenTheTextChanges() {
+        ClavesOrden<Medico> claves = new ClavesOrden<>(Medico::getId, Medico::getApellido);
+        Medico medico = medico(1, "Elena", "Ruiz");
+
+        CollationKey clave = claves.getClave(medico);
+        assertSame(clave, claves.getClave(medico));
+
+        // Cambio sin invalidar: la clave vieja no se devuelve
+        medico.setApellido("Aguilar");
+        CollationKey nueva = claves.getClave(medico);
+        assertNotSame(clave, nueva);
+        assertEquals("Aguilar", nueva.getSourceString());
+
+        claves.invalidar(1);
+        assertEquals(0, claves.size());
+        assertNotSame(nueva, claves.getClave(medico));
+
+        // Sin ID no se guarda en caché; texto null cuenta como vacío
+        assertEquals("", claves.getClave(medico(0, "Sin", null)).getSourceString());
+        claves.getClave(new Medico());
+        assertEquals(2, claves.size());
+    }
+
+    @Test
+    void sortByKeyComputesEachKeyOnceAndPutsNullsLast() {
+        ListaSimple<String> palabras = new ListaSimple<>();
+        for (String palabra : new String[]{"pera", null, "kiwi", "uva", "higo", null, "lima"})
+            palabras.add(palabra);
+
+        int[] llamadas = {0};
+        ListaSimple<String> ordenadas = MergeSort.sortByKey(palabras, palabra -> {
+            llamadas[0]++;
+            return palabra == null ? null : palabra.length();
+        });
+
+        assertEquals(palabras.size(), llamadas[0]);
+        assertEquals(List.of("uva", "pera", "kiwi", "higo", "lima"), ordenadas.subList(0, 5));
+        assertNull(ordenadas.get(5));
+        assertNull(ordenadas.get(6));
+    }
+}
@@ -0,0 +1,195 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentCustomMapTest {
+
+    private static final int HILOS = 8;
+    private static final int POR_HILO = 20_000;
+
+    /**
+     * Ejecuta la tarea en varios hilos que arrancan a la vez y propaga la primera falla
+     */
+    private static void enParalelo(int hilos, TareaHilo tarea) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            CountDownLatch salida = new CountDownLatch(1);
+            Future<?>[] futuros = new Future<?>[hilos];
+            for (int h = 0; h < hilos; h++) {
+                int hilo = h;
+                futuros[h] = executor.submit(() -> {
+                    salida.await();
+                    tarea.correr(hilo);
+                    return null;
+                });
+            }
+            salida.countDown();
+            for (Future<?> futuro : futuros)
+                futuro.get();
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @FunctionalInterface
+    private interface TareaHilo {
+        void correr(int hilo) throws Exception;
+    }
+
+    @Test
+    void concurrentPutsWhileEverySegmentResizes() {
+        // Capacidad mínima: cada segmento se duplica muchas veces mientras los demás hilos escriben
+        ConcurrentCustomMap<Integer, Integer> map = new ConcurrentCustomMap<>(0, 4);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> enParalelo(HILOS, hilo -> {
+            for (int i = 0; i < POR_HILO; i++) {
+                int clave = hilo * POR_HILO + i;
+                assertNull(map.put(clave, -clave));
+                // La clave recién escrita debe verse aunque su segmento se esté redimensionando
+                assertEquals(-clave, map.get(clave));
+            }
+        }));
+
+        assertEquals(HILOS * POR_HILO, map.size());
+        for (int clave = 0; clave < HILOS * POR_HILO; clave++)
+            assertEquals(-clave, map.get(clave));
+    }
+
+    @Test
+    void readersNeverSeeForeignValuesDuringPutsAndRemoves() {
+        ConcurrentCustomMap<Integer, Integer> map = new ConcurrentCustomMap<>(0, 2);
+        AtomicBoolean escribiendo = new AtomicBoolean(true);
+        AtomicInteger lecturas = new AtomicInteger();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> enParalelo(HILOS, hilo -> {
+            if (hilo % 2 == 1) {
+                // Lectores: un valor presente siempre es el que le corresponde a la clave
+                while (escribiendo.get()) {
+                    for (int clave = 0; clave < 2_000; clave += 7) {
+                        Integer valor = map.get(clave);
+                        if (valor != null)
+                            assertEquals(clave * 3, valor);
+                    }
+                    lecturas.incrementAndGet();
+                }
+                return;
+            }
+
+            int base = hilo * POR_HILO;
+            for (int i = 0; i < POR_HILO; i++)
+                map.put(base + i, (base + i) * 3);
+            for (int i = 0; i < POR_HILO; i += 2)
+                assertEquals((base + i) * 3, map.remove(base + i));
+            if (hilo == 0)
+                escribiendo.set(false);
+        }));
+
+        assertTrue(lecturas.get() > 0);
+        assertEquals(HILOS / 2 * POR_HILO / 2, map.size());
+        for (int hilo = 0; hilo < HILOS; hilo += 2)
+            for (int i = 0; i < POR_HILO; i++)
+                assertEquals(i % 2 == 0 ? null : (hilo * POR_HILO + i) * 3, map.get(hilo * POR_HILO + i));
+    }
+
+    @Test
+    void computeAndMergeAreAtomicPerKey() {
+        ConcurrentCustomMap<Integer, Integer> contadores = new ConcurrentCustomMap<>(0, 4);
+        int claves = 64;
+
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> enParalelo(HILOS, hilo -> {
+            for (int i = 0; i < POR_HILO; i++) {
+                int clave = i % claves;
+                if (i % 2 == 0)
+                    contadores.merge(clave, 1, Integer::sum);
+                else
+                    contadores.compute(clave, (k, v) -> v == null ? 1 : v + 1);
+                // Claves nuevas mientras tanto, para que los segmentos crezcan durante los compute
+                contadores.putIfAbsent(claves + hilo * POR_HILO + i, 0);
+            }
+        }));
+
+        int total = 0;
+        for (int clave = 0; clave < claves; clave++)
+            total += contadores.get(clave);
+        assertEquals(HILOS * POR_HILO, total);
+        assertEquals(claves + HILOS * POR_HILO, contadores.size());
+
+        // compute que devuelve null elimina; computeIfAbsent no pisa lo que ya está
+        assertNull(contadores.compute(0, (k, v) -> null));
+        assertFalse(contadores.containsKey(0));
+        assertEquals(7, contadores.computeIfAbsent(0, k -> 7));
+        assertEquals(7, contadores.computeIfAbsent(0, k -> 8));
+    }
+
+    @Test
+    void iteratorSeesEveryEntryAndWritesThrough() {
+        ConcurrentCustomMap<Integer, String> map = new ConcurrentCustomMap<>(0, 4);
+        for (int i = 0; i < 1_000; i++)
+            map.put(i, "v" + i);
+
+        Set<Integer> vistas = new HashSet<>();
+        Iterator<Map.Entry<Integer, String>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, String> entrada = it.next();
+            assertTrue(vistas.add(entrada.getKey()), "clave repetida: " + entrada.getKey());
+            assertEquals("v" + entrada.getKey(), entrada.getValue());
+            if (entrada.getKey() % 3 == 0)
+                it.remove();
+            else if (entrada.getKey() % 3 == 1)
+                entrada.setValue("uno");
+        }
+        assertEquals(1_000, vistas.size());
+        assertEquals(1_000 - 334, map.size());
+
+        it = map.entrySet().iterator();
+        Map.Entry<Integer, String> primera = it.next();
+        it.remove();
+        assertThrows(IllegalStateException.class, it::remove);
+        assertFalse(map.containsKey(primera.getKey()));
+        map.put(primera.getKey(), primera.getValue());
+
+        assertNull(map.get(3));
+        assertEquals("uno", map.get(4));
+        assertEquals("v5", map.get(5));
+    }
+
+    @Test
+    void iteratorIsWeaklyConsistentUnderConcurrentEdits() {
+        ConcurrentCustomMap<Integer, Integer> map = new ConcurrentCustomMap<>(0, 4);
+        for (int i = 0; i < 5_000; i++)
+            map.put(i, i);
+
+        // Modificar durante la iteración no lanza ConcurrentModificationException;
+        // las claves que nadie toca se ven exactamente una vez
+        Set<Integer> vistas = new HashSet<>();
+        int agregadas = 5_000;
+        for (Map.Entry<Integer, Integer> entrada : map.entrySet()) {
+            if (entrada.getKey() < 5_000)
+                assertTrue(vistas.add(entrada.getKey()));
+            if (agregadas < 10_000)
+                map.put(agregadas++, 0);
+        }
+        for (int i = 0; i < 5_000; i++)
+            assertTrue(vistas.contains(i));
+        assertEquals(10_000, map.size());
+
+        assertThrows(NullPointerException.class, () -> map.put(null, 1));
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+    }
+}
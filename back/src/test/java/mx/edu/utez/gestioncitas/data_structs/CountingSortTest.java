@@ -0,0 +1,90 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import mx.edu.utez.gestioncitas.model.Paciente;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountingSortTest {
+
+    private static final int N = 100_000;
+
+    private static final Function<Paciente, Integer> PRIORIDAD = Paciente::getPrioridad;
+
+    /**
+     * Genera n pacientes con prioridad 1 a 3 (algunos sin prioridad); el ID es el orden de llegada
+     */
+    private static ListaSimple<Paciente> pacientes(int n, long semilla) {
+        Random random = new Random(semilla);
+        ListaSimple<Paciente> pacientes = new ListaSimple<>();
+        for (int i = 0; i < n; i++) {
+            Paciente paciente = new Paciente();
+            paciente.setId(i);
+            paciente.setPrioridad(random.nextInt(20) == 0 ? null : 1 + random.nextInt(3));
+            pacientes.add(paciente);
+        }
+        return pacientes;
+    }
+
+    @Test
+    void sortsByPrioridadKeepingArrivalOrder() {
+        ListaSimple<Paciente> original = pacientes(N, 5);
+        int[] llamadas = {0};
+
+        ListaSimple<Paciente> ordenados = CountingSort.sort(original, paciente -> {
+            llamadas[0]++;
+            return paciente.getPrioridad();
+        }, 1, 3);
+
+        // Una sola lectura de la clave por elemento: O(n + k), sin comparaciones
+        assertEquals(N, llamadas[0]);
+        // Mismo resultado que el merge sort estable
+        assertEquals(MergeSort.sortByPrioridadAsc(original), ordenados);
+        assertNull(ordenados.get(N - 1).getPrioridad());
+        assertEquals(0, original.getFirst().getId()); // La lista original no cambia
+        ordenados.add(null);
+        assertNull(ordenados.get(N)); // la cola quedó en el último nodo
+    }
+
+    @Test
+    void keysOutsideTheRangeFallBackToMergeSort() {
+        ListaSimple<Paciente> pacientes = new ListaSimple<>();
+        for (Integer prioridad : new Integer[]{3, null, 7, 1, 0, 1}) {
+            Paciente paciente = new Paciente();
+            paciente.setId(pacientes.size());
+            paciente.setPrioridad(prioridad);
+            pacientes.add(paciente);
+        }
+
+        ListaSimple<Integer> ids = new ListaSimple<>();
+        for (Paciente paciente : CountingSort.sort(pacientes, PRIORIDAD, 1, 3))
+            ids.add(paciente.getId());
+
+        assertEquals(List.of(4, 3, 5, 0, 2, 1), ids);
+        assertEquals(6, pacientes.size());
+        assertThrows(IllegalArgumentException.class, () -> CountingSort.sort(pacientes, PRIORIDAD, 3, 1));
+        assertTrue(CountingSort.sort(null, PRIORIDAD, 1, 3).isEmpty());
+    }
+
+    @Test
+    void twoStablePassesSortByBothKeys() {
+        Random random = new Random(9);
+        ListaSimple<int[]> pares = new ListaSimple<>();
+        for (int i = 0; i < 10_000; i++)
+            pares.add(new int[]{random.nextInt(4), random.nextInt(100), i});
+
+        // Primero la clave secundaria y luego la principal
+        ListaSimple<int[]> ordenados = CountingSort.sort(pares, par -> par[1], 0, 99);
+        ordenados = CountingSort.sort(ordenados, par -> par[0], 0, 3);
+
+        Comparator<int[]> esperado = Comparator.<int[]>comparingInt(par -> par[0])
+                .thenComparingInt(par -> par[1])
+                .thenComparingInt(par -> par[2]);
+        assertEquals(MergeSort.sort(pares, esperado), ordenados);
+    }
+}
@@ -0,0 +1,141 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomMapTest {
+
+    /**
+     * Clave Comparable cuyo hash se fija a mano para forzar colisiones.
+     * Cuenta las llamadas a equals y compareTo para medir el costo de una búsqueda.
+     */
+    private static final class ClaveComparable implements Comparable<ClaveComparable> {
+        static long comparaciones = 0;
+
+        final int id;
+        final int hash;
+
+        ClaveComparable(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public int compareTo(ClaveComparable o) {
+            comparaciones++;
+            return Integer.compare(id, o.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            comparaciones++;
+            return o instanceof ClaveComparable c && c.id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Clave sin orden natural y con hash fijo: el árbol solo puede desempatar por creación.
+     */
+    private record ClaveSinOrden(int id, int hash) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ClaveSinOrden c && c.id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Test
+    void collidingComparableKeysAreFoundInLogarithmicTime() {
+        int n = 20_000;
+        CustomMap<ClaveComparable, Integer> map = new CustomMap<>();
+        for (int i = 0; i < n; i++)
+            map.put(new ClaveComparable(i, 7), i);
+
+        assertEquals(n, map.size());
+
+        ClaveComparable.comparaciones = 0;
+        assertEquals(n - 1, map.get(new ClaveComparable(n - 1, 7)));
+        assertNull(map.get(new ClaveComparable(n, 7)));
+        // Con una cadena serían ~n comparaciones; con el árbol son unas cuantas por nivel
+        assertTrue(ClaveComparable.comparaciones < 100, "comparaciones: " + ClaveComparable.comparaciones);
+
+        for (int i = 0; i < n; i += 2)
+            assertEquals(i, map.remove(new ClaveComparable(i, 7)));
+
+        assertEquals(n / 2, map.size());
+        for (int i = 0; i < n; i++)
+            assertEquals(i % 2 == 0 ? null : i, map.get(new ClaveComparable(i, 7)));
+    }
+
+    @Test
+    void collidingKeysBehaveLikeHashMap() {
+        Random random = new Random(42);
+        CustomMap<Object, Integer> map = new CustomMap<>();
+        Map<Object, Integer> esperado = new HashMap<>();
+
+        for (int paso = 0; paso < 60_000; paso++) {
+            int id = random.nextInt(600);
+            // Pocos hashes distintos para que varios buckets se conviertan en árbol y regresen a cadena
+            Object clave = id % 2 == 0
+                    ? new ClaveComparable(id, id % 5)
+                    : new ClaveSinOrden(id, id % 5);
+
+            switch (random.nextInt(4)) {
+                case 0, 1 -> assertEquals(esperado.put(clave, paso), map.put(clave, paso));
+                case 2 -> assertEquals(esperado.remove(clave), map.remove(clave));
+                default -> assertEquals(esperado.putIfAbsent(clave, paso), map.putIfAbsent(clave, paso));
+            }
+            assertEquals(esperado.size(), map.size());
+        }
+
+        assertEquals(esperado, map);
+        assertEquals(map, esperado);
+        assertEquals(esperado.hashCode(), map.hashCode());
+    }
+
+    @Test
+    void treeBinsShrinkBackToChainsAndSupportIteratorRemove() {
+        CustomMap<ClaveSinOrden, Integer> map = new CustomMap<>(128);
+        for (int i = 0; i < 40; i++)
+            map.put(new ClaveSinOrden(i, 3), i);
+
+        int recorridos = 0;
+        Iterator<Map.Entry<ClaveSinOrden, Integer>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<ClaveSinOrden, Integer> entrada = it.next();
+            recorridos++;
+            if (entrada.getKey().id() >= 2)
+                it.remove();
+        }
+
+        assertEquals(40, recorridos);
+        assertEquals(2, map.size());
+        assertEquals(0, map.get(new ClaveSinOrden(0, 3)));
+        assertEquals(1, map.get(new ClaveSinOrden(1, 3)));
+
+        for (int i = 2; i < 20; i++)
+            map.put(new ClaveSinOrden(i, 3), i);
+        assertEquals(20, map.size());
+        for (int i = 0; i < 20; i++)
+            assertEquals(i, map.get(new ClaveSinOrden(i, 3)));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(new ClaveSinOrden(0, 3)));
+    }
+}
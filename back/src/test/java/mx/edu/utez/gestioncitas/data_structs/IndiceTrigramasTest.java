@@ -0,0 +1,98 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceTrigramasTest {
+
+    private static IndiceTrigramas indice(String... textos) {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        for (int id = 0; id < textos.length; id++)
+            indice.agregar(id + 1, textos[id]);
+        return indice;
+    }
+
+    @Test
+    void intersectsTrigramsAndConfirmsTheSubstring() {
+        IndiceTrigramas indice = indice("María López", "Mario Gómez", "Ramón Marín", "Lorena Ríos");
+
+        assertEquals(List.of(1, 2, 3), indice.buscar("mari"));
+        assertEquals(List.of(2), indice.buscar("mario"));
+        assertEquals(List.of(1), indice.buscar("LOPEZ"));
+        assertEquals(List.of(3), indice.buscar("ramon mar"));
+        assertEquals(List.of(), indice.buscar("xyz"));
+
+        // "rio" y "ios" están en "Mario Gómez" y "Lorena Ríos", pero solo el segundo tiene "rios"
+        assertEquals(List.of(2, 4), indice.buscar("rio"));
+        assertEquals(List.of(4), indice.buscar("rios"));
+    }
+
+    @Test
+    void shortQueriesScanEveryTextInIdOrder() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.agregar(30, "Ana Ruiz");
+        indice.agregar(10, "Iván Sosa");
+        indice.agregar(20, "Luis Peña");
+
+        assertEquals(List.of(10, 20, 30), indice.buscar(""));
+        assertEquals(List.of(10, 20), indice.buscar("s"));
+        assertEquals(List.of(20, 30), indice.buscar("ÑA"));
+    }
+
+    @Test
+    void removesIdsWhoseTextRepeatsATrigram() {
+        // "anana" tiene "ana" dos veces: quitarlo no debe dejar al otro ID fuera de la lista
+        IndiceTrigramas indice = indice("Ana Anaya", "Banana", "Juliana");
+
+        assertTrue(indice.quitar(2));
+        assertFalse(indice.quitar(2));
+        assertEquals(List.of(1, 3), indice.buscar("ana"));
+        assertEquals(List.of(), indice.buscar("nan"));
+
+        // Reemplazar el texto quita los trigramas viejos
+        indice.agregar(1, "Anaya");
+        assertTrue(indice.coincide(1, "ANAYA"));
+        assertFalse(indice.coincide(1, "Ana Anaya"));
+        assertEquals(List.of(), indice.buscar("ana ana"));
+
+        assertTrue(indice.quitar(1));
+        assertTrue(indice.quitar(3));
+        assertEquals(0, indice.size());
+        assertEquals(List.of(), indice.buscar("ana"));
+        assertTrue(indice.coincide(3, null));
+    }
+
+    @Test
+    void matchesALinearScanUnderRandomEdits() {
+        Random random = new Random(15);
+        String[] silabas = {"an", "na", "ma", "ri", "lo", "pe", "z ", "a "};
+        IndiceTrigramas indice = new IndiceTrigramas();
+        String[] textos = new String[300];
+
+        for (int paso = 0; paso < 3_000; paso++) {
+            int id = random.nextInt(textos.length);
+            if (random.nextInt(4) == 0) {
+                assertEquals(textos[id] != null, indice.quitar(id));
+                textos[id] = null;
+            } else {
+                StringBuilder texto = new StringBuilder();
+                for (int i = random.nextInt(8); i >= 0; i--)
+                    texto.append(silabas[random.nextInt(silabas.length)]);
+                textos[id] = texto.toString();
+                indice.agregar(id, textos[id]);
+            }
+        }
+
+        for (String consulta : new String[]{"ana", "anan", "mari", "a a", "lope", "z a", "na"}) {
+            ListaSimple<Integer> esperado = new ListaSimple<>();
+            for (int id = 0; id < textos.length; id++)
+                if (textos[id] != null && textos[id].contains(consulta))
+                    esperado.add(id);
+            assertEquals(esperado, indice.buscar(consulta), consulta);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntCustomMapTest {
+
+    // Tabla de un IntCustomMap por defecto: 16 entradas / 0.6 -> 32 casillas
+    private static final int CASILLAS = 32;
+
+    /**
+     * Misma mezcla que IntCustomMap.hash: permite elegir claves que caen en una casilla dada
+     */
+    private static int casilla(int clave) {
+        int h = clave * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (CASILLAS - 1);
+    }
+
+    /**
+     * Busca claves positivas distintas cuya casilla ideal es la dada
+     */
+    private static int[] clavesEnCasilla(int casilla, int cuantas, int desde) {
+        int[] claves = new int[cuantas];
+        int n = 0;
+        for (int clave = desde; n < cuantas; clave++)
+            if (casilla(clave) == casilla)
+                claves[n++] = clave;
+        return claves;
+    }
+
+    @Test
+    void backwardShiftWrapsAroundTheEndOfTheTable() {
+        IntCustomMap<String> map = new IntCustomMap<>();
+
+        // Tres claves de la última casilla: ocupan 31, 0 y 1. Una de la casilla 0 queda en 2
+        int[] ultimas = clavesEnCasilla(CASILLAS - 1, 3, 1);
+        int[] deCero = clavesEnCasilla(0, 1, 1);
+        int[] deUno = clavesEnCasilla(1, 1, 1);
+        for (int clave : ultimas)
+            map.put(clave, "u" + clave);
+        map.put(deCero[0], "c" + deCero[0]);
+        map.put(deUno[0], "d" + deUno[0]);
+
+        // Quitar la primera del racimo recorre hacia atrás cruzando el final de la tabla
+        assertEquals("u" + ultimas[0], map.remove(ultimas[0]));
+        assertNull(map.get(ultimas[0]));
+        assertEquals("u" + ultimas[1], map.get(ultimas[1]));
+        assertEquals("u" + ultimas[2], map.get(ultimas[2]));
+        assertEquals("c" + deCero[0], map.get(deCero[0]));
+        assertEquals("d" + deUno[0], map.get(deUno[0]));
+
+        // Quitar una del medio del racimo, ya del otro lado del final
+        assertEquals("u" + ultimas[2], map.remove(ultimas[2]));
+        assertEquals("u" + ultimas[1], map.get(ultimas[1]));
+        assertEquals("c" + deCero[0], map.get(deCero[0]));
+        assertEquals("d" + deUno[0], map.get(deUno[0]));
+        assertEquals(3, map.size());
+
+        // Sin marcas de borrado: reinsertar reutiliza los huecos y todo sigue accesible
+        map.put(ultimas[0], "otra vez");
+        map.put(ultimas[2], "y otra");
+        assertEquals(5, map.size());
+        for (int clave : new int[]{ultimas[0], ultimas[1], ultimas[2], deCero[0], deUno[0]})
+            assertTrue(map.containsKey(clave), "clave " + clave);
+    }
+
+    @Test
+    void matchesAHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(6);
+        IntCustomMap<Integer> map = new IntCustomMap<>();
+        Map<Integer, Integer> esperado = new HashMap<>();
+
+        // Pocas claves posibles (incluidas negativas) para formar racimos largos y borrar mucho
+        for (int paso = 0; paso < 100_000; paso++) {
+            int clave = random.nextInt(400) - 200;
+            if (random.nextBoolean())
+                assertEquals(esperado.put(clave, paso), map.put(clave, Integer.valueOf(paso)));
+            else
+                assertEquals(esperado.remove(clave), map.remove(clave));
+        }
+
+        assertEquals(esperado.size(), map.size());
+        assertEquals(esperado, map);
+        for (int clave = -201; clave <= 200; clave++)
+            assertEquals(esperado.get(clave), map.get(clave));
+    }
+
+    @Test
+    void rejectsNullValuesAndTreatsObjectKeysLikeInts() {
+        IntCustomMap<String> map = new IntCustomMap<>();
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+
+        map.put(Integer.valueOf(7), "siete");
+        assertEquals("siete", map.get(7));
+        assertEquals("siete", map.get((Object) 7));
+        assertNull(map.get("7"));
+        assertTrue(map.containsKey(Integer.valueOf(7)));
+        assertEquals("siete", map.putIfAbsent(7, "otro"));
+        assertEquals("siete", map.remove((Object) 7));
+        assertTrue(map.isEmpty());
+    }
+}
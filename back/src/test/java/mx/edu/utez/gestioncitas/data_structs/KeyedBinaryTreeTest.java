@@ -0,0 +1,103 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedBinaryTreeTest {
+
+    private static KeyedBinaryTree<Integer, int[]> arbol() {
+        return new KeyedBinaryTree<>(par -> par[0], Comparator.naturalOrder());
+    }
+
+    private static Integer clave(int[] par) {
+        return par == null ? null : par[0];
+    }
+
+    private static void verificarAvl(KeyedBinaryTree<Integer, int[]> arbol) {
+        AVLTreeTest.verificarAvl(arbol, Comparator.comparingInt(par -> par[0]));
+    }
+
+    @Test
+    void removesNodesWithTwoChildrenAndRebalances() {
+        KeyedBinaryTree<Integer, int[]> arbol = arbol();
+        for (int i = 1; i <= 15; i++)
+            arbol.put(new int[]{i, i * 10});
+
+        // Con 15 claves ascendentes la raíz es 8 y tiene dos hijos: la reemplaza su sucesor 9
+        assertEquals(8, clave(arbol.root.getData()));
+        assertEquals(80, arbol.remove(8)[1]);
+        assertEquals(9, clave(arbol.root.getData()));
+        assertNull(arbol.get(8));
+        assertNull(arbol.remove(8));
+        verificarAvl(arbol);
+
+        // Vaciar un lado fuerza rotaciones al eliminar
+        for (int i = 1; i <= 7; i++)
+            assertEquals(i, clave(arbol.remove(i)));
+        verificarAvl(arbol);
+        assertEquals(7, arbol.size());
+        assertEquals(List.of(9, 10, 11, 12, 13, 14, 15), claves(arbol.toList()));
+    }
+
+    @Test
+    void putReplacesAndMatchesATreeMapUnderRandomEdits() {
+        Random random = new Random(2);
+        KeyedBinaryTree<Integer, int[]> arbol = arbol();
+        TreeMap<Integer, Integer> esperado = new TreeMap<>();
+
+        for (int paso = 0; paso < 20_000; paso++) {
+            int clave = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                Integer quitado = esperado.remove(clave);
+                int[] par = arbol.remove(clave);
+                assertEquals(quitado, par == null ? null : par[1]);
+            } else {
+                Integer anterior = esperado.put(clave, paso);
+                int[] reemplazado = arbol.put(new int[]{clave, paso});
+                assertEquals(anterior, reemplazado == null ? null : reemplazado[1]);
+            }
+        }
+
+        verificarAvl(arbol);
+        assertEquals(esperado.size(), arbol.size());
+        assertEquals(new ArrayList<>(esperado.keySet()), claves(arbol.toList()));
+        for (int clave = -1; clave <= 2_001; clave++) {
+            assertEquals(esperado.floorKey(clave), clave(arbol.floor(clave)), "floor " + clave);
+            assertEquals(esperado.ceilingKey(clave), clave(arbol.ceiling(clave)), "ceiling " + clave);
+            assertEquals(esperado.containsKey(clave), arbol.containsKey(clave));
+        }
+    }
+
+    @Test
+    void floorAndCeilingAtTheEdges() {
+        KeyedBinaryTree<Integer, int[]> arbol = arbol();
+        assertNull(arbol.floor(5));
+        assertNull(arbol.ceiling(5));
+
+        for (int clave : new int[]{10, 20, 30})
+            arbol.put(new int[]{clave, 0});
+
+        assertNull(arbol.floor(9));
+        assertEquals(10, clave(arbol.floor(10)));
+        assertEquals(20, clave(arbol.floor(29)));
+        assertEquals(30, clave(arbol.floor(100)));
+        assertEquals(10, clave(arbol.ceiling(-5)));
+        assertEquals(30, clave(arbol.ceiling(21)));
+        assertEquals(30, clave(arbol.ceiling(30)));
+        assertNull(arbol.ceiling(31));
+    }
+
+    private static List<Integer> claves(ListaSimple<int[]> pares) {
+        List<Integer> claves = new ArrayList<>();
+        for (int[] par : pares)
+            claves.add(par[0]);
+        return claves;
+    }
+}
@@ -0,0 +1,120 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinkedCustomMapTest {
+
+    private static List<Integer> claves(Map<Integer, ?> map) {
+        return new ArrayList<>(map.keySet());
+    }
+
+    @Test
+    void keepsInsertionOrderByDefault() {
+        LinkedCustomMap<Integer, String> map = new LinkedCustomMap<>();
+        for (int i : new int[]{5, 1, 4, 2, 3})
+            map.put(i, "v" + i);
+
+        // Leer o reemplazar un valor no cambia el orden de inserción
+        assertEquals("v4", map.get(4));
+        assertEquals("v1", map.put(1, "uno"));
+        assertEquals(List.of(5, 1, 4, 2, 3), claves(map));
+
+        map.remove(4);
+        map.put(4, "v4");
+        assertEquals(List.of(5, 1, 2, 3, 4), claves(map));
+        assertEquals("uno", map.get(1));
+    }
+
+    @Test
+    void accessOrderMovesReadAndWrittenEntriesToTheEnd() {
+        LinkedCustomMap<Integer, String> map = new LinkedCustomMap<>(0, true, null);
+        for (int i = 1; i <= 5; i++)
+            map.put(i, "v" + i);
+
+        map.get(2);
+        map.put(1, "uno");
+        map.putIfAbsent(3, "no se usa");
+        assertNull(map.get(99));
+        assertEquals(List.of(4, 5, 2, 1, 3), claves(map));
+        assertEquals("v3", map.get(3));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedAndNotifiesTheCallback() {
+        List<String> desalojados = new ArrayList<>();
+        LinkedCustomMap<Integer, String> cache = new LinkedCustomMap<>(3, true,
+                (clave, valor) -> desalojados.add(clave + "=" + valor));
+
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+        cache.get(1); // 2 pasa a ser la menos usada
+        cache.put(4, "d");
+        cache.put(3, "c2"); // Reemplazar no desaloja
+        cache.put(5, "e");
+
+        assertEquals(List.of("2=b", "1=a"), desalojados);
+        assertEquals(List.of(4, 3, 5), claves(cache));
+        assertEquals(3, cache.size());
+        assertFalse(cache.containsKey(1));
+
+        // Quitar a mano o vaciar no llama al callback
+        cache.remove(4);
+        cache.clear();
+        assertEquals(2, desalojados.size());
+        assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    void subclassesCanChangeTheEvictionRule() {
+        LinkedCustomMap<Integer, Integer> soloPares = new LinkedCustomMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return eldest.getValue() % 2 == 1;
+            }
+        };
+
+        for (int i = 1; i <= 4; i++)
+            soloPares.put(i, i);
+        // Cada impar sale en cuanto queda como el más antiguo
+        assertEquals(List.of(2, 3, 4), claves(soloPares));
+    }
+
+    @Test
+    void iteratorRemovesAndFailsFast() {
+        LinkedCustomMap<Integer, String> map = new LinkedCustomMap<>(10);
+        for (int i = 0; i < 6; i++)
+            map.put(i, "v" + i);
+
+        Iterator<Map.Entry<Integer, String>> it = map.entrySet().iterator();
+        while (it.hasNext())
+            if (it.next().getKey() % 2 == 0)
+                it.remove();
+        assertEquals(List.of(1, 3, 5), claves(map));
+
+        it = map.entrySet().iterator();
+        it.next();
+        it.remove();
+        assertThrows(IllegalStateException.class, it::remove);
+        assertEquals(List.of(3, 5), claves(map));
+
+        // En orden de acceso, get también es una modificación estructural
+        Iterator<Integer> claves = map.keySet().iterator();
+        claves.next();
+        map.get(3);
+        assertThrows(ConcurrentModificationException.class, claves::next);
+    }
+
+    @Test
+    void rejectsNegativeMaxSize() {
+        assertThrows(IllegalArgumentException.class, () -> new LinkedCustomMap<>(-1, true, null));
+    }
+}
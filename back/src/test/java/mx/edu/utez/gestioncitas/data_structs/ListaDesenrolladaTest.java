@@ -0,0 +1,179 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mx.edu.utez.gestioncitas.model.Paciente;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListaDesenrolladaTest {
+
+    private static final int N = 100_000;
+
+    @Test
+    void behavesLikeAnArrayListUnderRandomEdits() {
+        Random random = new Random(21);
+        ListaDesenrollada<Integer> lista = new ListaDesenrollada<>();
+        List<Integer> esperado = new ArrayList<>();
+
+        for (int paso = 0; paso < 20_000; paso++) {
+            int operacion = random.nextInt(10);
+            int valor = random.nextInt(1_000);
+
+            if (operacion < 4 || esperado.isEmpty()) {
+                lista.add(valor);
+                esperado.add(valor);
+            } else if (operacion < 6) {
+                int idx = random.nextInt(esperado.size() + 1);
+                lista.add(idx, valor);
+                esperado.add(idx, valor);
+            } else if (operacion < 9) {
+                int idx = random.nextInt(esperado.size());
+                assertEquals(esperado.remove(idx), lista.remove(idx));
+            } else {
+                int idx = random.nextInt(esperado.size());
+                assertEquals(esperado.set(idx, valor), lista.set(idx, valor));
+            }
+        }
+
+        assertEquals(esperado, lista);
+        assertEquals(esperado.size(), lista.size());
+        for (int i = 0; i < esperado.size(); i += 97)
+            assertEquals(esperado.get(i), lista.get(i));
+
+        // removeIf compacta los bloques en una sola pasada, aunque no elimine nada
+        assertFalse(lista.removeIf(v -> v < 0));
+        assertEquals(esperado, lista);
+        lista.add(0, -3);
+        esperado.add(0, -3);
+        assertEquals(esperado, lista);
+        assertTrue(lista.removeIf(v -> v % 3 == 0));
+        esperado.removeIf(v -> v % 3 == 0);
+        assertEquals(esperado, lista);
+        assertFalse(lista.removeIf(v -> v < 0));
+        lista.add(-1);
+        esperado.add(-1);
+        assertEquals(esperado, lista);
+    }
+
+    @Test
+    void listIteratorEditsInPlace() {
+        ListaDesenrollada<Integer> lista = new ListaDesenrollada<>();
+        List<Integer> esperado = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            lista.add(i);
+            esperado.add(i);
+        }
+
+        // Quitar los pares, duplicar los múltiplos de 5 y negar los de 7, hacia adelante
+        ListIterator<Integer> it = lista.listIterator();
+        ListIterator<Integer> itEsperado = esperado.listIterator();
+        while (it.hasNext()) {
+            int v = it.next();
+            assertEquals(itEsperado.next(), v);
+            if (v % 2 == 0) {
+                it.remove();
+                itEsperado.remove();
+            } else if (v % 5 == 0) {
+                it.add(v);
+                itEsperado.add(v);
+            } else if (v % 7 == 0) {
+                it.set(-v);
+                itEsperado.set(-v);
+            }
+            assertEquals(itEsperado.nextIndex(), it.nextIndex());
+        }
+        assertEquals(esperado, lista);
+
+        // Y hacia atrás, quitando uno de cada tres
+        int contador = 0;
+        while (it.hasPrevious()) {
+            assertEquals(itEsperado.previous(), it.previous());
+            if (contador++ % 3 == 0) {
+                it.remove();
+                itEsperado.remove();
+            }
+        }
+        assertEquals(esperado, lista);
+        assertEquals(esperado.get(0), lista.getFirst());
+    }
+
+    @Test
+    void iteratorFailsFastAndFailingFilterKeepsElements() {
+        ListaDesenrollada<Integer> lista = new ListaDesenrollada<>();
+        for (int i = 0; i < 100; i++)
+            lista.add(i);
+
+        Iterator<Integer> it = lista.iterator();
+        it.next();
+        lista.add(100);
+        assertThrows(ConcurrentModificationException.class, it::next);
+
+        assertThrows(IllegalStateException.class, () -> lista.removeIf(v -> {
+            if (v == 50)
+                throw new IllegalStateException("falla");
+            return v % 2 == 1;
+        }));
+        // Se quitaron los impares anteriores al 50 y se conservó todo lo demás
+        assertEquals(25 + 51, lista.size());
+        assertEquals(48, lista.get(24));
+        assertEquals(50, lista.get(25));
+        assertEquals(100, lista.get(lista.size() - 1));
+    }
+
+    @Test
+    void sortIsStable() {
+        ListaDesenrollada<int[]> pares = new ListaDesenrollada<>();
+        Random random = new Random(4);
+        for (int i = 0; i < 5_000; i++)
+            pares.add(new int[]{random.nextInt(10), i});
+
+        pares.sort(Comparator.comparingInt(par -> par[0]));
+
+        int[] anterior = null;
+        for (int[] par : pares) {
+            if (anterior != null) {
+                assertTrue(anterior[0] <= par[0]);
+                if (anterior[0] == par[0])
+                    assertTrue(anterior[1] < par[1]);
+            }
+            anterior = par;
+        }
+        assertEquals(5_000, pares.size());
+    }
+
+    @Test
+    void serializesLikeListaSimple() throws Exception {
+        ListaDesenrollada<Paciente> pacientes = new ListaDesenrollada<>();
+        ListaSimple<Paciente> mismos = new ListaSimple<>();
+        for (int i = 0; i < 70; i++) {
+            Paciente paciente = new Paciente();
+            paciente.setId(i);
+            paciente.setNombre("Paciente " + i);
+            pacientes.add(paciente);
+            mismos.add(paciente);
+        }
+
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        assertEquals(mapper.writeValueAsString(mismos), mapper.writeValueAsString(pacientes));
+
+        ListaDesenrollada<Integer> numeros = new ListaDesenrollada<>();
+        for (int i = 0; i < N; i++)
+            numeros.add(i);
+        String json = assertTimeoutPreemptively(Duration.ofSeconds(2), () -> mapper.writeValueAsString(numeros));
+        assertTrue(json.startsWith("[0,1,2,"));
+        assertTrue(json.endsWith("," + (N - 1) + "]"));
+
+        ListaDesenrollada<?> leida = mapper.readValue("[1,2,3]", ListaDesenrollada.class);
+        assertEquals(List.of(1, 2, 3), leida);
+    }
+}
@@ -0,0 +1,305 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListaSimpleTest {
+
+    private static final int N = 100_000;
+
+    /**
+     * Lista que cuenta las llamadas a get(int) para verificar que los recorridos no usan acceso por índice.
+     */
+    private static class ListaContada extends ListaSimple<Integer> {
+        int llamadasGet = 0;
+
+        @Override
+        public Integer get(int idx) {
+            llamadasGet++;
+            return super.get(idx);
+        }
+    }
+
+    private static ListaSimple<Integer> listaDe(int... valores) {
+        ListaSimple<Integer> lista = new ListaSimple<>();
+        for (int v : valores)
+            lista.add(v);
+        return lista;
+    }
+
+    @Test
+    void traversalsDoNotUseIndexAccess() throws Exception {
+        ListaContada lista = new ListaContada();
+        for (int i = 0; i < N; i++)
+            lista.add(i);
+
+        long suma = 0;
+        for (Integer v : lista)
+            suma += v;
+
+        long[] sumaForEach = {0};
+        lista.forEach(v -> sumaForEach[0] += v);
+
+        ListaSimple<Integer> copia = new ListaSimple<>();
+        copia.addAll(lista);
+
+        assertEquals((long) N * (N - 1) / 2, suma);
+        assertEquals(suma, sumaForEach[0]);
+        assertEquals(lista, copia);
+        assertEquals(lista.hashCode(), copia.hashCode());
+        assertNotNull(new ObjectMapper().writeValueAsString(lista));
+        assertEquals(0, lista.llamadasGet);
+    }
+
+    @Test
+    void serializationIsLinearAt100k() {
+        ListaSimple<Integer> lista = new ListaSimple<>();
+        for (int i = 0; i < N; i++)
+            lista.add(i);
+
+        // Con el iterador por índices esto serían ~5 * 10^9 saltos entre nodos
+        String json = assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> new ObjectMapper().writeValueAsString(lista));
+
+        assertTrue(json.startsWith("[0,1,2,"));
+        assertTrue(json.endsWith("," + (N - 1) + "]"));
+    }
+
+    @Test
+    void listIteratorEditsInPlace() {
+        ListaSimple<Integer> lista = listaDe(1, 2, 3, 4, 5);
+
+        ListIterator<Integer> it = lista.listIterator();
+        while (it.hasNext()) {
+            int v = it.next();
+            if (v % 2 == 0)
+                it.remove();
+            else if (v == 3)
+                it.set(30);
+            else if (v == 5)
+                it.add(6);
+        }
+
+        assertEquals(List.of(1, 30, 5, 6), lista);
+        assertEquals(6, lista.getLast());
+
+        lista.add(7);
+        assertEquals(List.of(1, 30, 5, 6, 7), lista);
+    }
+
+    @Test
+    void listIteratorWalksBackwards() {
+        ListaSimple<Integer> lista = listaDe(1, 2, 3);
+
+        ListIterator<Integer> it = lista.listIterator(lista.size());
+        assertEquals(3, it.previous());
+        it.remove();
+        assertEquals(2, it.previous());
+        it.add(9);
+        assertEquals(1, it.previousIndex());
+        assertEquals(9, it.previous());
+
+        assertEquals(List.of(1, 9, 2), lista);
+
+        lista.add(4);
+        assertEquals(List.of(1, 9, 2, 4), lista);
+    }
+
+    @Test
+    void indexedAddAndRemoveKeepTail() {
+        ListaSimple<Integer> lista = listaDe(1);
+        lista.remove(0);
+        lista.add(2);
+        lista.add(0, 1);
+        lista.add(2, 3);
+
+        assertEquals(List.of(1, 2, 3), lista);
+
+        lista.clear();
+        lista.add(5);
+        assertEquals(List.of(5), lista);
+    }
+
+    @Test
+    void iteratorFailsFastOnStructuralChange() {
+        ListaSimple<Integer> lista = listaDe(1, 2, 3);
+
+        Iterator<Integer> it = lista.iterator();
+        it.next();
+        lista.add(4);
+
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test
+    void sortIsStableAndRelinksWithoutIndexAccess() {
+        Random random = new Random(42);
+        // Pares (clave, posición original): pocas claves distintas para forzar empates
+        Comparator<int[]> porClave = Comparator.comparingInt(par -> par[0]);
+
+        for (int n : new int[]{0, 1, 2, 7, 8, 9, 16, 17, 100, 1_000, N}) {
+            ListaSimple<int[]> lista = new ListaSimple<>();
+            List<int[]> esperado = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                int[] par = {random.nextInt(50), i};
+                lista.add(par);
+                esperado.add(par);
+            }
+
+            lista.sort(porClave);
+            esperado.sort(porClave); // List.sort de ArrayList es estable
+
+            assertEquals(n, lista.size());
+            assertEquals(esperado, lista, "n = " + n);
+            lista.add(new int[]{-1, -1});
+            assertEquals(-1, lista.get(n)[0]); // la cola quedó en el último nodo
+        }
+
+        ListaContada contada = new ListaContada();
+        for (int i = N; i > 0; i--)
+            contada.add(i);
+        contada.sort(null);
+        assertEquals(1, contada.getFirst());
+        assertEquals(0, contada.llamadasGet);
+
+        ListaSimple<Integer> original = listaDe(3, 1, 2);
+        assertEquals(List.of(3, 2, 1), MergeSort.sort(original, Comparator.reverseOrder()));
+        assertEquals(List.of(3, 1, 2), original);
+    }
+
+    /**
+     * Recorre la lista con descendingIterator
+     */
+    private static <T> List<T> alReves(ListaSimple<T> lista) {
+        List<T> elementos = new ArrayList<>();
+        lista.descendingIterator().forEachRemaining(elementos::add);
+        return elementos;
+    }
+
+    @Test
+    void backwardLinksMakeTailOperationsConstantTime() {
+        ListaSimple<Integer> lista = new ListaSimple<>();
+        for (int i = 0; i < N; i++)
+            lista.add(i);
+
+        // Con enlaces solo hacia adelante serían ~5 * 10^9 saltos entre nodos
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            for (int i = N - 1; i >= N / 2; i--) {
+                assertEquals(i, lista.getLast());
+                assertEquals(i, lista.removeLast());
+            }
+            ListIterator<Integer> it = lista.listIterator(lista.size());
+            while (it.hasPrevious())
+                it.previous();
+        });
+
+        assertEquals(N / 2, lista.size());
+        assertEquals(0, lista.removeFirst());
+        Iterator<Integer> desc = lista.descendingIterator();
+        assertEquals(N / 2 - 1, desc.next());
+        desc.remove();
+        assertEquals(N / 2 - 2, lista.getLast());
+        assertThrows(NoSuchElementException.class, () -> new ListaSimple<Integer>().removeLast());
+    }
+
+    @Test
+    void nodeHandlesUnlinkInConstantTime() {
+        ListaSimple<String> lista = new ListaSimple<>();
+        Nodo<String> a = lista.addNode("a");
+        Nodo<String> b = lista.addNode("b");
+        Nodo<String> c = lista.addNode("c");
+        lista.add(1, "x");
+
+        assertEquals("b", lista.removeNode(b));
+        assertEquals(List.of("a", "x", "c"), lista);
+        assertThrows(IllegalArgumentException.class, () -> lista.removeNode(b));
+
+        assertEquals("c", lista.removeNode(c));
+        assertEquals("a", lista.removeNode(a));
+        assertEquals(List.of("x"), lista);
+        assertEquals(List.of("x"), alReves(lista));
+        lista.add("y");
+        assertEquals(List.of("y", "x"), alReves(lista));
+    }
+
+    @Test
+    void removeNodeRejectsHandlesFromClearedOrOtherLists() {
+        ListaSimple<String> lista = new ListaSimple<>();
+        lista.add("a");
+        Nodo<String> b = lista.addNode("b");
+        lista.add("c");
+
+        ListaSimple<String> otra = new ListaSimple<>();
+        otra.add("x");
+        Nodo<String> y = otra.addNode("y");
+        otra.add("z");
+
+        // Un nodo de en medio de otra lista tiene anterior, pero no es de esta
+        assertThrows(IllegalArgumentException.class, () -> lista.removeNode(y));
+        assertEquals(List.of("x", "y", "z"), otra);
+
+        lista.clear();
+        assertThrows(IllegalArgumentException.class, () -> lista.removeNode(b));
+        assertTrue(lista.isEmpty());
+        assertEquals(0, lista.size());
+
+        lista.add("d");
+        assertEquals(List.of("d"), lista);
+        assertEquals(List.of("d"), alReves(lista));
+        assertEquals("y", otra.removeNode(y));
+        assertEquals(List.of("z", "x"), alReves(otra));
+    }
+
+    @Test
+    void everyEditKeepsBackwardLinksConsistent() {
+        Random random = new Random(8);
+        ListaSimple<Integer> lista = new ListaSimple<>();
+        List<Integer> esperado = new ArrayList<>();
+
+        for (int paso = 0; paso < 3_000; paso++) {
+            int valor = random.nextInt(100);
+            switch (esperado.isEmpty() ? 0 : random.nextInt(6)) {
+                case 0 -> { lista.add(valor); esperado.add(valor); }
+                case 1 -> {
+                    int idx = random.nextInt(esperado.size() + 1);
+                    lista.add(idx, valor);
+                    esperado.add(idx, valor);
+                }
+                case 2 -> {
+                    int idx = random.nextInt(esperado.size());
+                    assertEquals(esperado.remove(idx), lista.remove(idx));
+                }
+                case 3 -> assertEquals(esperado.removeLast(), lista.removeLast());
+                case 4 -> assertEquals(lista.removeIf(v -> v == valor), esperado.removeIf(v -> v == valor));
+                default -> {
+                    // Ordenar (MergeSort o CountingSort) solo reenlaza hacia adelante
+                    if (random.nextBoolean()) {
+                        lista.sort(null);
+                        esperado.sort(null);
+                    } else {
+                        lista = CountingSort.sort(lista, v -> v % 10, 0, 9);
+                        esperado.sort(Comparator.comparingInt(v -> v % 10));
+                    }
+                }
+            }
+
+            List<Integer> reves = new ArrayList<>(esperado);
+            Collections.reverse(reves);
+            assertEquals(esperado, lista);
+            assertEquals(reves, alReves(lista));
+        }
+    }
+}
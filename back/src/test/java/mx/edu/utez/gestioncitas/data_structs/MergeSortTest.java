@@ -0,0 +1,157 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import mx.edu.utez.gestioncitas.model.Cita;
+import mx.edu.utez.gestioncitas.model.Paciente;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MergeSortTest {
+
+    private static final int N = 100_000;
+
+    /**
+     * Genera n citas de pacientes con prioridad 1 a 3 (algunos sin prioridad) en pocos días y horas,
+     * para que haya muchos empates completos
+     */
+    private static ListaSimple<Cita> citas(int n, long semilla) {
+        Random random = new Random(semilla);
+        LocalDate hoy = LocalDate.of(2025, 1, 1);
+        ListaSimple<Cita> citas = new ListaSimple<>();
+
+        for (int i = 0; i < n; i++) {
+            Paciente paciente = new Paciente();
+            paciente.setId(i);
+            paciente.setPrioridad(random.nextInt(20) == 0 ? null : 1 + random.nextInt(3));
+
+            Cita cita = new Cita();
+            cita.setId(i);
+            cita.setPaciente(paciente);
+            cita.setFecha(hoy.plusDays(random.nextInt(3)));
+            cita.setHora(LocalTime.of(8 + random.nextInt(10), 15 * random.nextInt(4)));
+            citas.add(cita);
+        }
+        return citas;
+    }
+
+    /**
+     * Ordena citas contando las comparaciones
+     */
+    private static long comparaciones(int n) {
+        AtomicLong contador = new AtomicLong();
+        Comparator<Cita> contado = (a, b) -> {
+            contador.incrementAndGet();
+            return MergeSort.CITA_POR_PRIORIDAD.compare(a, b);
+        };
+        MergeSort.sort(citas(n, n), contado);
+        return contador.get();
+    }
+
+    @Test
+    void sortsCitasByPrioridadFechaHoraStably() {
+        ListaSimple<Cita> original = citas(N, 7);
+
+        ListaSimple<Cita> ordenadas = assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> MergeSort.sortCitasByPrioridadAsc(original));
+
+        assertEquals(N, ordenadas.size());
+        Cita anterior = null;
+        for (Cita cita : ordenadas) {
+            if (anterior != null) {
+                int cmp = MergeSort.CITA_POR_PRIORIDAD.compare(anterior, cita);
+                assertTrue(cmp <= 0);
+                // Estable: en empate completo se conserva el orden original (IDs crecientes)
+                if (cmp == 0)
+                    assertTrue(anterior.getId() < cita.getId());
+            }
+            anterior = cita;
+        }
+        assertNull(ordenadas.get(N - 1).getPaciente().getPrioridad());
+        assertEquals(0, original.getFirst().getId()); // La lista original no cambia
+    }
+
+    @Test
+    void comparisonsGrowAsNLogN() {
+        long mitad = comparaciones(N / 2);
+        long completo = comparaciones(N);
+        double nLogN = N * (Math.log(N) / Math.log(2));
+
+        // Un merge sort hace a lo más n log2 n comparaciones; uno cuadrático haría ~5e9
+        assertTrue(completo <= nLogN, completo + " comparaciones");
+        // Duplicar n apenas duplica el trabajo (cuadrático lo multiplicaría por 4)
+        assertTrue(completo < 2.3 * mitad, mitad + " -> " + completo);
+    }
+
+    @Test
+    void sortByPrioridadAscPutsPacientesWithoutPrioridadLast() {
+        ListaSimple<Paciente> pacientes = new ListaSimple<>();
+        for (Integer prioridad : new Integer[]{3, null, 1, 2, 1}) {
+            Paciente paciente = new Paciente();
+            paciente.setId(pacientes.size());
+            paciente.setPrioridad(prioridad);
+            pacientes.add(paciente);
+        }
+
+        ListaSimple<Integer> ids = new ListaSimple<>();
+        for (Paciente paciente : MergeSort.sortByPrioridadAsc(pacientes))
+            ids.add(paciente.getId());
+
+        assertEquals(List.of(2, 4, 3, 0, 1), ids);
+    }
+
+    @Test
+    void parallelSortMatchesSequentialSort() {
+        ListaSimple<Cita> original = citas(N, 11);
+        ListaSimple<Cita> secuencial = MergeSort.sort(original, MergeSort.CITA_POR_PRIORIDAD);
+
+        // Pool propio para que haya varios hilos aunque la máquina tenga un solo núcleo
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ListaSimple<Cita> paralelo;
+        try {
+            paralelo = MergeSort.parallelSort(original, MergeSort.CITA_POR_PRIORIDAD, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        // Misma secuencia de objetos: los empates quedan en el mismo orden (estable)
+        assertEquals(secuencial, paralelo);
+        assertEquals(secuencial, MergeSort.parallelSort(original, MergeSort.CITA_POR_PRIORIDAD));
+        paralelo.add(null);
+        assertNull(paralelo.get(N)); // la cola quedó en el último nodo
+
+        ListaSimple<Integer> chica = new ListaSimple<>();
+        for (int i = 0; i < 100; i++)
+            chica.add(i % 7);
+        assertEquals(MergeSort.sort(chica, null), MergeSort.parallelSort(chica, null));
+    }
+
+    @Test
+    void failingComparatorKeepsEveryElement() {
+        ListaSimple<Integer> lista = new ListaSimple<>();
+        for (int i = 0; i < 1_000; i++)
+            lista.add((i * 7919) % 1_000);
+
+        int[] llamadas = {0};
+        Comparator<Integer> falla = (a, b) -> {
+            if (++llamadas[0] == 2_000)
+                throw new IllegalStateException("falla");
+            return Integer.compare(a, b);
+        };
+
+        assertThrows(IllegalStateException.class, () -> lista.sort(falla));
+
+        assertEquals(1_000, lista.size());
+        lista.sort(null);
+        for (int i = 0; i < 1_000; i++)
+            assertEquals(i, lista.get(i));
+    }
+}
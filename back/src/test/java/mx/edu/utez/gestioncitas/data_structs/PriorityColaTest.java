@@ -0,0 +1,104 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityColaTest {
+
+    // Pares {id, prioridad}: sale primero la prioridad menor y, en empate, el ID menor
+    private static final Comparator<int[]> POR_PRIORIDAD = Comparator
+            .<int[]>comparingInt(par -> par[1])
+            .thenComparingInt(par -> par[0]);
+
+    private static PriorityCola<int[]> cola() {
+        return new PriorityCola<>(POR_PRIORIDAD, par -> par[0]);
+    }
+
+    private static List<Integer> vaciar(PriorityCola<int[]> cola) {
+        List<Integer> ids = new ArrayList<>();
+        while (!cola.isEmpty())
+            ids.add(cola.poll()[0]);
+        return ids;
+    }
+
+    @Test
+    void offeringAnExistingIdReKeysTheElement() {
+        PriorityCola<int[]> cola = cola();
+        for (int id = 1; id <= 6; id++)
+            cola.offer(new int[]{id, 2});
+
+        // Sube al frente, baja al final y se queda igual: el tamaño no cambia
+        cola.offer(new int[]{5, 1});
+        cola.offer(new int[]{1, 3});
+        cola.offer(new int[]{3, 2});
+        assertEquals(6, cola.size());
+        assertEquals(5, cola.peek()[0]);
+        assertEquals(3, cola.getById(1)[1]);
+
+        assertEquals(List.of(5, 2, 3, 4, 6, 1), vaciar(cola));
+        assertFalse(cola.containsId(5));
+    }
+
+    @Test
+    void removeByIdKeepsTheHeapOrdered() {
+        PriorityCola<int[]> cola = cola();
+        for (int id = 0; id < 20; id++)
+            cola.offer(new int[]{id, (id * 7) % 5});
+
+        // Del medio, la raíz, uno que no está y el último del arreglo
+        assertEquals(13, cola.removeById(13)[0]);
+        assertEquals(0, cola.removeById(0)[0]);
+        assertNull(cola.removeById(13));
+        assertNull(cola.removeById(99));
+        assertNotNull(cola.removeById(cola.toArray(new int[0][])[cola.size() - 1][0]));
+        assertEquals(17, cola.size());
+
+        int[] anterior = null;
+        while (!cola.isEmpty()) {
+            int[] actual = cola.poll();
+            if (anterior != null)
+                assertTrue(POR_PRIORIDAD.compare(anterior, actual) < 0);
+            anterior = actual;
+        }
+    }
+
+    @Test
+    void matchesASortUnderRandomReKeysAndRemovals() {
+        Random random = new Random(8);
+        PriorityCola<int[]> cola = cola();
+        int[] prioridades = new int[500];
+        boolean[] presentes = new boolean[prioridades.length];
+
+        for (int paso = 0; paso < 20_000; paso++) {
+            int id = random.nextInt(prioridades.length);
+            if (random.nextInt(4) == 0) {
+                assertEquals(presentes[id], cola.removeById(id) != null);
+                presentes[id] = false;
+            } else {
+                // Se ofrece un par nuevo: la prioridad del que ya está en la cola no se toca
+                prioridades[id] = random.nextInt(10);
+                cola.offer(new int[]{id, prioridades[id]});
+                presentes[id] = true;
+            }
+        }
+
+        List<int[]> esperado = new ArrayList<>();
+        for (int id = 0; id < prioridades.length; id++)
+            if (presentes[id])
+                esperado.add(new int[]{id, prioridades[id]});
+        esperado.sort(POR_PRIORIDAD);
+
+        assertEquals(esperado.size(), cola.size());
+        for (int[] par : esperado) {
+            int[] sacado = cola.poll();
+            assertArrayEquals(par, sacado);
+        }
+        assertNull(cola.poll());
+    }
+}
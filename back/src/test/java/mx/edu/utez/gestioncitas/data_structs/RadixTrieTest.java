@@ -0,0 +1,88 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixTrieTest {
+
+    private static final String[] NOMBRES = {
+            "ana", "andres", "angel", "antonio", "beatriz", "carlos", "carmen", "cesar", "daniel", "diana",
+            "eduardo", "elena", "fernanda", "fernando", "gabriel", "gabriela", "hector", "irene", "javier", "jorge",
+            "jose", "josefina", "juan", "juana", "laura", "luis", "luisa", "manuel", "maria", "mario",
+            "miguel", "monica", "nicolas", "patricia", "pedro", "raul", "rosa", "sofia", "tomas", "valeria"
+    };
+
+    private static final String[] APELLIDOS = {
+            "aguilar", "alvarez", "castillo", "castro", "chavez", "cruz", "diaz", "flores", "garcia", "gomez",
+            "gonzalez", "gutierrez", "hernandez", "jimenez", "lopez", "martinez", "medina", "mendoza", "morales", "moreno",
+            "ortiz", "perez", "ramirez", "ramos", "reyes", "rivera", "rodriguez", "romero", "ruiz", "salazar"
+    };
+
+    /**
+     * Genera ~36k nombres completos "nombre apellido apellido" sin repetir
+     */
+    private static List<String> nombresCompletos() {
+        List<String> nombres = new ArrayList<>();
+        for (String nombre : NOMBRES)
+            for (String paterno : APELLIDOS)
+                for (String materno : APELLIDOS)
+                    nombres.add(nombre + " " + paterno + " " + materno);
+        return nombres;
+    }
+
+    @Test
+    void suggestionsMatchTrie() {
+        Trie trie = new Trie();
+        RadixTrie radix = new RadixTrie();
+        List<String> palabras = List.of("ana", "anabel", "andres", "and", "angel", "b", "beatriz", "bea", "ana lopez");
+
+        for (String palabra : palabras) {
+            trie.insert(palabra);
+            assertTrue(radix.insert(palabra));
+        }
+        assertFalse(radix.insert("ana"));
+        assertEquals(palabras.size(), radix.size());
+
+        for (String prefijo : List.of("", "a", "an", "ana", "anab", "and", "andr", "ang", "b", "be", "bea", "c", "anax", "ana "))
+            assertEquals(new HashSet<>(trie.getSuggestions(prefijo)), new HashSet<>(radix.getSuggestions(prefijo)), prefijo);
+
+        assertEquals(List.of("ana", "ana lopez", "anabel", "and", "andres", "angel"), new ArrayList<>(radix.getSuggestions("a")));
+        assertTrue(radix.contains("and"));
+        assertFalse(radix.contains("an"));
+        assertFalse(radix.contains("anabela"));
+    }
+
+    @Test
+    void usesFarFewerAllocationsThanTrie() {
+        List<String> nombres = nombresCompletos();
+
+        Trie trie = new Trie();
+        RadixTrie radix = new RadixTrie();
+        for (String nombre : nombres) {
+            trie.insert(nombre);
+            radix.insert(nombre);
+        }
+
+        assertEquals(nombres.size(), radix.size());
+        assertEquals(nombres.size(), radix.getSuggestions("").size());
+
+        // Cada nombre agrega a lo más una hoja y una bifurcación
+        int nodosRadix = radix.countNodes();
+        assertTrue(nodosRadix <= 2 * nombres.size() + 1, nodosRadix + " nodos");
+        // Un nodo comprimido tiene a lo más tres arreglos propios (etiqueta, claves e hijos)
+        int arreglosRadix = radix.countArrays();
+        assertTrue(arreglosRadix <= 3 * nodosRadix, arreglosRadix + " arreglos");
+
+        // Cada nodo del Trie es un carácter con su propio CustomMap y la tabla de éste: al menos tres objetos.
+        // El RadixTrie guarda las mismas palabras con menos de un tercio de los objetos
+        int objetosTrie = 3 * trie.countNodes();
+        int objetosRadix = nodosRadix + arreglosRadix;
+        assertTrue(3 * objetosRadix < objetosTrie,
+                "Trie >= " + objetosTrie + " objetos, RadixTrie " + objetosRadix + " objetos");
+    }
+}
@@ -0,0 +1,77 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTest {
+
+    private static final int N = 100_000;
+
+    /**
+     * Pares {clave, orden de llegada} con muchas claves repetidas
+     */
+    private static ListaSimple<int[]> pares(int n, long semilla) {
+        Random random = new Random(semilla);
+        ListaSimple<int[]> pares = new ListaSimple<>();
+        for (int i = 0; i < n; i++)
+            pares.add(new int[]{random.nextInt(1_000), i});
+        return pares;
+    }
+
+    private static <T> ListaSimple<T> primeros(ListaSimple<T> lista, int k) {
+        ListaSimple<T> primeros = new ListaSimple<>();
+        for (T dato : lista) {
+            if (primeros.size() == k)
+                break;
+            primeros.add(dato);
+        }
+        return primeros;
+    }
+
+    @Test
+    void selectsTheSameHeadAsAStableSort() {
+        ListaSimple<int[]> pares = pares(N, 3);
+        Comparator<int[]> porClave = Comparator.comparingInt(par -> par[0]);
+        ListaSimple<int[]> ordenados = MergeSort.sort(pares, porClave);
+
+        for (int k : new int[]{1, 10, 250})
+            assertEquals(primeros(ordenados, k), TopK.select(pares, k, porClave), "k = " + k);
+
+        // k mayor que n: toda la lista ordenada
+        ListaSimple<int[]> pocos = primeros(pares, 50);
+        assertEquals(MergeSort.sort(pocos, porClave), TopK.select(pocos, 80, porClave));
+    }
+
+    @Test
+    void comparesAboutOncePerElementForSmallK() {
+        long[] comparaciones = {0};
+        Comparator<int[]> contado = (a, b) -> {
+            comparaciones[0]++;
+            return Integer.compare(a[0], b[0]);
+        };
+
+        assertEquals(10, TopK.select(pares(N, 5), 10, contado).size());
+
+        // Ordenar todo serían ~n log2 n (1.6 millones); con k = 10 casi todos se descartan con una comparación
+        assertTrue(comparaciones[0] < 2L * N, comparaciones[0] + " comparaciones");
+    }
+
+    @Test
+    void handlesEdgeCases() {
+        ListaSimple<Integer> numeros = new ListaSimple<>();
+        for (int numero : new int[]{5, 3, 9, 1, 3})
+            numeros.add(numero);
+
+        assertEquals(List.of(1, 3, 3), TopK.select(numeros, 3, null));
+        assertEquals(List.of(9, 5), TopK.select(numeros, 2, Comparator.reverseOrder()));
+        assertTrue(TopK.select(numeros, 0, null).isEmpty());
+        assertTrue(TopK.select(null, 3, null).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> TopK.select(numeros, -1, null));
+        assertEquals(List.of(5, 3, 9, 1, 3), numeros); // La lista original no cambia
+    }
+}
@@ -0,0 +1,136 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrieSnapshotTest {
+
+    private static final String[] NOMBRES = {
+            "Ana", "Andrés", "Ángel", "Antonio", "Beatriz", "Carlos", "Carmen", "César", "Daniel", "Diana",
+            "Eduardo", "Elena", "Fernanda", "Fernando", "Gabriel", "Gabriela", "Héctor", "Irene", "Javier", "Jorge"
+    };
+
+    private static final String[] APELLIDOS = {
+            "Aguilar", "Álvarez", "Castillo", "Castro", "Chávez", "Cruz", "Díaz", "Flores", "García", "Gómez",
+            "González", "Gutiérrez", "Hernández", "Jiménez", "López", "Martínez", "Medina", "Mendoza", "Morales", "Moreno"
+    };
+
+    @TempDir
+    Path directorio;
+
+    /**
+     * Trie normalizado con un paciente por combinación nombre + dos apellidos, indexado por cada término
+     */
+    private static Trie pacientes() {
+        Trie trie = new Trie(true);
+        Random random = new Random(17);
+        int id = 1;
+        for (String nombre : NOMBRES) {
+            for (String paterno : APELLIDOS) {
+                String materno = APELLIDOS[random.nextInt(APELLIDOS.length)];
+                String texto = nombre + " " + paterno + " " + materno;
+                for (String termino : List.of(nombre, paterno, materno, texto))
+                    trie.insert(termino, id, texto);
+                id++;
+            }
+        }
+        for (int i = 0; i < 500; i++)
+            trie.registrarUso(APELLIDOS[random.nextInt(APELLIDOS.length)]);
+        return trie;
+    }
+
+    private static ListaSimple<TrieSnapshot.Palabra> palabras(Trie trie) {
+        ListaSimple<TrieSnapshot.Palabra> palabras = new ListaSimple<>();
+        for (String palabra : trie.getSuggestions(""))
+            palabras.add(new TrieSnapshot.Palabra(palabra, trie.getScore(palabra), trie.getEntradas(palabra)));
+        return palabras;
+    }
+
+    private static <T> List<T> lista(Iterable<T> elementos) {
+        List<T> lista = new ArrayList<>();
+        elementos.forEach(lista::add);
+        return lista;
+    }
+
+    @Test
+    void snapshotAnswersLikeTheTrie() throws IOException {
+        Trie trie = pacientes();
+        Path archivo = directorio.resolve("nombres.idx");
+        TrieSnapshot.escribir(archivo, palabras(trie));
+        TrieSnapshot snapshot = TrieSnapshot.abrir(archivo);
+
+        assertEquals(trie.getSuggestions("").size(), snapshot.size());
+        // Los sufijos comunes de los nombres completos se comparten
+        assertTrue(snapshot.countNodes() * 2 < trie.countNodes(),
+                "Trie " + trie.countNodes() + " nodos, snapshot " + snapshot.countNodes());
+
+        for (String prefijo : List.of("", "g", "ga", "gabriel", "gabriel g", "mar", "x", "alv")) {
+            String clave = Trie.normalizar(prefijo);
+            List<String> sugerencias = lista(snapshot.getSuggestions(clave));
+            assertEquals(new HashSet<>(lista(trie.getSuggestions(clave))), new HashSet<>(sugerencias), prefijo);
+            assertEquals(sugerencias.stream().sorted().toList(), sugerencias, prefijo);
+            assertEquals(lista(trie.getSuggestions(clave, 7)), lista(snapshot.getSuggestions(clave, 7, p -> false)), prefijo);
+        }
+
+        for (String palabra : trie.getSuggestions("")) {
+            assertTrue(snapshot.contains(palabra));
+            assertEquals(trie.getScore(palabra), snapshot.getScore(palabra), palabra);
+            assertEquals(Map.copyOf(trie.getEntradas(palabra)), Map.copyOf(snapshot.getEntradas(palabra)), palabra);
+        }
+        assertFalse(snapshot.contains("gabri"));
+        assertEquals(-1, snapshot.getScore("gabri"));
+
+        assertEquals(new HashSet<>(lista(trie.buscarAproximado("gonzales", 2, Long.MAX_VALUE))),
+                new HashSet<>(lista(snapshot.buscarAproximado("gonzales", 2, Long.MAX_VALUE))));
+    }
+
+    @Test
+    void overlayKeepsChangesUntilCompaction() throws IOException {
+        TriePersistente indice = TriePersistente.abrir(directorio, "pacientes");
+        assertFalse(indice.tieneSnapshot());
+
+        indice.replace(List.of(), List.of("Ana", "López", "Ana López"), 1, "Ana López");
+        indice.replace(List.of(), List.of("Andrés", "Pérez", "Andrés Pérez"), 2, "Andrés Pérez");
+        indice.compactar();
+        assertTrue(indice.tieneSnapshot());
+        assertEquals(0, indice.cambiosPendientes());
+
+        // Cambios sobre palabras del snapshot: se sombrean y quedan en el overlay
+        indice.replace(List.of("Ana", "López", "Ana López"), List.of("Ana", "Lopes", "Ana Lopes"), 1, "Ana Lopes");
+        indice.replace(List.of(), List.of("Ángel", "Ruiz", "Ángel Ruiz"), 3, "Ángel Ruiz");
+        assertTrue(indice.registrarUso("andres"));
+        assertTrue(indice.cambiosPendientes() > 0);
+
+        assertEquals(List.of(2, 1, 3), lista(indice.buscarEntradas("an", 10).keySet()));
+        assertEquals("Ana Lopes", indice.buscarEntradas("ana", 10).get(1));
+        assertTrue(indice.buscarEntradas("lopez", 10).isEmpty());
+        assertEquals(List.of(1), lista(indice.buscarEntradasAproximadas("lopez", 1, 10, Long.MAX_VALUE).keySet()));
+
+        indice.compactar();
+        TriePersistente reabierto = TriePersistente.abrir(directorio, "pacientes");
+        assertTrue(reabierto.tieneSnapshot());
+        assertEquals(0, reabierto.cambiosPendientes());
+        assertEquals(List.of(2, 1, 3), lista(reabierto.buscarEntradas("an", 10).keySet()));
+        assertEquals(1, reabierto.getScore("Andrés"));
+        assertTrue(reabierto.buscarEntradas("lopez", 10).isEmpty());
+        assertEquals(Map.of("ana", "Ana Lopes", "lopes", "Ana Lopes", "ana lopes", "Ana Lopes"),
+                Map.copyOf(reabierto.entradasPorId().get(1)));
+
+        // Solo queda la generación vigente
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            assertEquals(1, archivos.count());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package mx.edu.utez.gestioncitas.data_structs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrieTest {
+
+    private static final String[] SILABAS = {
+            "ma", "ri", "a", "jo", "se", "lu", "is", "car", "los", "gon", "za", "lez", "her", "nan", "dez",
+            "pe", "rez", "ro", "dri", "guez", "mar", "tin", "gar", "cia", "lo", "pez", "san", "chez", "ra", "mi",
+            "fer", "no", "do", "al", "var", "to", "be", "tri", "mo", "ta", "cas", "ti", "llo", "ve", "ga"
+    };
+
+    /**
+     * Genera un diccionario de nombres distintos armados con sílabas (semilla fija)
+     */
+    private static List<String> diccionario(int tamano) {
+        Random random = new Random(42);
+        Set<String> nombres = new LinkedHashSet<>();
+        while (nombres.size() < tamano) {
+            StringBuilder sb = new StringBuilder();
+            int silabas = 2 + random.nextInt(4);
+            for (int i = 0; i < silabas; i++)
+                sb.append(SILABAS[random.nextInt(SILABAS.length)]);
+            nombres.add(sb.toString());
+        }
+        return new ArrayList<>(nombres);
+    }
+
+    /**
+     * Cambia, quita o agrega una letra al azar
+     */
+    private static String conErrorDeDedo(String palabra, Random random) {
+        StringBuilder sb = new StringBuilder(palabra);
+        int pos = random.nextInt(palabra.length());
+        char letra = (char) ('a' + random.nextInt(26));
+        switch (random.nextInt(3)) {
+            case 0 -> sb.setCharAt(pos, letra);
+            case 1 -> sb.deleteCharAt(pos);
+            default -> sb.insert(pos, letra);
+        }
+        return sb.toString();
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] anterior = new int[b.length() + 1];
+        int[] fila = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++)
+            anterior[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            fila[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int sustitucion = anterior[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                fila[j] = Math.min(sustitucion, Math.min(anterior[j] + 1, fila[j - 1] + 1));
+            }
+            int[] tmp = anterior;
+            anterior = fila;
+            fila = tmp;
+        }
+        return anterior[b.length()];
+    }
+
+    @Test
+    void fuzzyMatchesBruteForce() {
+        List<String> nombres = diccionario(5_000);
+        Trie trie = new Trie();
+        for (String nombre : nombres)
+            trie.insert(nombre);
+
+        Random random = new Random(7);
+        for (int q = 0; q < 50; q++) {
+            String consulta = conErrorDeDedo(nombres.get(random.nextInt(nombres.size())), random);
+            for (int maxDistancia = 0; maxDistancia <= 2; maxDistancia++) {
+                Set<String> esperadas = new HashSet<>();
+                for (String nombre : nombres)
+                    if (levenshtein(consulta, nombre) <= maxDistancia)
+                        esperadas.add(nombre);
+
+                List<String> encontradas = new ArrayList<>(trie.buscarAproximado(consulta, maxDistancia, Long.MAX_VALUE / 2));
+                assertEquals(esperadas, new HashSet<>(encontradas), consulta + " / " + maxDistancia);
+
+                // De menor a mayor distancia
+                for (int i = 1; i < encontradas.size(); i++)
+                    assertTrue(levenshtein(consulta, encontradas.get(i - 1)) <= levenshtein(consulta, encontradas.get(i)));
+            }
+        }
+    }
+
+    @Test
+    void fuzzyResolvesNormalizedEntries() {
+        Trie trie = new Trie(true);
+        trie.insert("José Pérez", 1, "José Pérez");
+        trie.insert("Josefa Peña", 2, "Josefa Peña");
+        trie.insert("pérez", 1, "José Pérez");
+
+        LinkedCustomMap<Integer, String> resultado = trie.buscarEntradasAproximadas("JOSE PERZ", 2, 10, Long.MAX_VALUE / 2);
+        assertEquals(List.of(1), new ArrayList<>(resultado.keySet()));
+        assertEquals("José Pérez", resultado.get(1));
+
+        assertEquals(List.of(1), new ArrayList<>(trie.buscarEntradasAproximadas("peres", 1, 10, Long.MAX_VALUE / 2).keySet()));
+        assertThrows(IllegalArgumentException.class, () -> trie.buscarAproximado("jose", -1, 1_000_000L));
+    }
+
+    @Test
+    void fuzzyBenchmarkOn100kNames() {
+        List<String> nombres = diccionario(100_000);
+        Trie trie = new Trie();
+        for (String nombre : nombres)
+            trie.insert(nombre);
+
+        Random random = new Random(11);
+        String[] consultas = new String[500];
+        for (int i = 0; i < consultas.length; i++)
+            consultas[i] = conErrorDeDedo(nombres.get(random.nextInt(nombres.size())), random);
+
+        // Calentamiento del JIT
+        for (String consulta : consultas)
+            trie.buscarAproximado(consulta, 2, Long.MAX_VALUE / 2);
+
+        long[] tiempos = new long[consultas.length];
+        int encontradas = 0;
+        for (int i = 0; i < consultas.length; i++) {
+            long inicio = System.nanoTime();
+            ListaSimple<String> resultado = trie.buscarAproximado(consultas[i], 2, Long.MAX_VALUE / 2);
+            tiempos[i] = System.nanoTime() - inicio;
+            if (!resultado.isEmpty())
+                encontradas++;
+        }
+        Arrays.sort(tiempos);
+
+        long mediana = tiempos[tiempos.length / 2];
+
+        // Cada consulta está a una edición de un nombre del diccionario
+        assertEquals(consultas.length, encontradas);
+        assertTrue(mediana < 50_000_000L, "mediana " + mediana + " ns");
+
+        // Con un presupuesto mínimo la búsqueda se corta sin fallar
+        ListaSimple<String> parcial = trie.buscarAproximado(consultas[0], 2, 1L);
+        assertTrue(parcial.size() <= trie.buscarAproximado(consultas[0], 2, Long.MAX_VALUE / 2).size());
+    }
+
+    @Test
+    void removeAndReplacePruneNodes() {
+        Trie trie = new Trie(true);
+        trie.insert("Ana", 1, "Ana");
+        int soloAna = trie.countNodes();
+
+        trie.insert("Anabel", 2, "Anabel");
+        trie.insert("Anabel", 3, "Anabel");
+        assertTrue(trie.remove("anabel", 2));
+        assertFalse(trie.remove("anabel", 2));
+        assertEquals(List.of(3), new ArrayList<>(trie.buscarIds("anab", 10)));
+
+        // Sin IDs la palabra deja de existir y sus nodos se podan
+        assertTrue(trie.remove("anabel", 3));
+        assertTrue(trie.getSuggestions("anab").isEmpty());
+        assertEquals(soloAna, trie.countNodes());
+
+        trie.replace("ana", "Anahí", 1, "Anahí");
+        assertEquals(List.of("anahi"), new ArrayList<>(trie.getSuggestions("ana")));
+        assertEquals("Anahí", trie.buscarEntradas("ANAHI", 1).get(1));
+
+        assertTrue(trie.remove("anahi"));
+        assertFalse(trie.remove("anahi"));
+        assertEquals(1, trie.countNodes());
+    }
+
+    @Test
+    void readersNeverSeeHalfAppliedReplace() throws InterruptedException {
+        Trie trie = new Trie();
+        List<String> alfa = List.of("alfa", "alfa beta", "beta");
+        List<String> gama = List.of("gama", "gama delta", "delta");
+        for (int id = 0; id < 200; id++)
+            trie.insert("otro" + id, id + 1000);
+        trie.replace(List.of(), alfa, 1, "Alfa Beta");
+
+        AtomicBoolean escribiendo = new AtomicBoolean(true);
+        AtomicReference<String> error = new AtomicReference<>();
+
+        Thread lector = new Thread(() -> {
+            while (escribiendo.get() && error.get() == null) {
+                // Cada lectura toma una versión completa: el ID 1 está en "alfa*" o en "gama*", nunca en ambos ni en ninguno
+                int conId = 0;
+                for (Integer id : trie.buscarIds("", Integer.MAX_VALUE))
+                    if (id == 1) conId++;
+                ListaSimple<String> palabras = new ListaSimple<>();
+                for (String palabra : trie.getSuggestions(""))
+                    if (!palabra.startsWith("otro"))
+                        palabras.add(palabra);
+                if (conId != 1 || palabras.size() != 3)
+                    error.set("ID 1 visto " + conId + " veces, palabras " + palabras.size());
+            }
+        });
+        lector.start();
+
+        for (int i = 0; i < 2_000; i++) {
+            if (i % 2 == 0)
+                trie.replace(alfa, gama, 1, "Gama Delta");
+            else
+                trie.replace(gama, alfa, 1, "Alfa Beta");
+        }
+        escribiendo.set(false);
+        lector.join();
+
+        assertNull(error.get());
+        assertEquals(List.of(1), new ArrayList<>(trie.buscarIds("alfa", 10)));
+    }
+}
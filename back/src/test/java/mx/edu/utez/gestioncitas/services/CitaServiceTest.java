@@ -0,0 +1,470 @@
+package mx.edu.utez.gestioncitas.services;
+
+import mx.edu.utez.gestioncitas.data_structs.CustomMap;
+import mx.edu.utez.gestioncitas.data_structs.ListaSimple;
+import mx.edu.utez.gestioncitas.dtos.CreateCitaDTO;
+import mx.edu.utez.gestioncitas.model.Cita;
+import mx.edu.utez.gestioncitas.model.Medico;
+import mx.edu.utez.gestioncitas.model.Paciente;
+import mx.edu.utez.gestioncitas.repository.CitaRepository;
+import mx.edu.utez.gestioncitas.repository.MedicoRepository;
+import mx.edu.utez.gestioncitas.repository.PacienteRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de CitaService con repositorios simulados. Las "tablas" guardan copias y cada lectura
+ * arma entidades nuevas con el paciente y el médico actuales, como lo haría JPA: así una copia
+ * vieja que el servicio tenga en memoria no se confunde con lo que hay en la BD.
+ */
+class CitaServiceTest {
+
+    private static final LocalDate HOY = LocalDate.now();
+
+    // Ordenadas por ID y seguras para el hilo del scheduler, que también escribe al terminar una atención
+    private final Map<Integer, Cita> tablaCitas = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Paciente> tablaPacientes = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Medico> tablaMedicos = new ConcurrentSkipListMap<>();
+    private int siguienteIdCita = 100;
+    private volatile boolean fallarAlGuardarCita;
+
+    private final CitaRepository citaRepository = mock(CitaRepository.class);
+    private final PacienteRepository pacienteRepository = mock(PacienteRepository.class);
+    private final MedicoRepository medicoRepository = mock(MedicoRepository.class);
+
+    private CitaService service;
+
+    @BeforeEach
+    void simularRepositorios() {
+        when(citaRepository.findById(any())).thenAnswer(inv ->
+                Optional.ofNullable(tablaCitas.get(inv.<Integer>getArgument(0))).map(this::leerCita));
+        when(citaRepository.findAll()).thenAnswer(inv -> {
+            List<Cita> citas = new ArrayList<>();
+            for (Cita cita : tablaCitas.values())
+                citas.add(leerCita(cita));
+            return citas;
+        });
+        when(citaRepository.findByEstado(any())).thenAnswer(inv -> {
+            ListaSimple<Cita> citas = new ListaSimple<>();
+            for (Cita cita : tablaCitas.values())
+                if (inv.getArgument(0).equals(cita.getEstado()))
+                    citas.add(leerCita(cita));
+            return citas;
+        });
+        when(citaRepository.findByFechaAndEstadoIn(any(), any())).thenAnswer(inv -> {
+            Collection<Character> estados = inv.getArgument(1);
+            ListaSimple<Cita> citas = new ListaSimple<>();
+            for (Cita cita : tablaCitas.values())
+                if (inv.getArgument(0).equals(cita.getFecha()) && estados.contains(cita.getEstado()))
+                    citas.add(leerCita(cita));
+            return citas;
+        });
+        when(citaRepository.save(any(Cita.class))).thenAnswer(inv -> {
+            if (fallarAlGuardarCita)
+                throw new IllegalStateException("BD no disponible");
+            Cita cita = inv.getArgument(0);
+            if (cita.getId() == null)
+                cita.setId(siguienteIdCita++);
+            tablaCitas.put(cita.getId(), copiarCita(cita));
+            return cita;
+        });
+        doAnswer(inv -> tablaCitas.remove(inv.<Cita>getArgument(0).getId()))
+                .when(citaRepository).delete(any(Cita.class));
+
+        when(pacienteRepository.findById(any())).thenAnswer(inv ->
+                Optional.ofNullable(tablaPacientes.get(inv.<Integer>getArgument(0))).map(CitaServiceTest::copiarPaciente));
+        when(pacienteRepository.save(any(Paciente.class))).thenAnswer(inv -> {
+            Paciente paciente = inv.getArgument(0);
+            tablaPacientes.put(paciente.getId(), copiarPaciente(paciente));
+            return paciente;
+        });
+
+        when(medicoRepository.findById(any())).thenAnswer(inv ->
+                Optional.ofNullable(tablaMedicos.get(inv.<Integer>getArgument(0))).map(CitaServiceTest::copiarMedico));
+        when(medicoRepository.save(any(Medico.class))).thenAnswer(inv -> {
+            Medico medico = inv.getArgument(0);
+            tablaMedicos.put(medico.getId(), copiarMedico(medico));
+            return medico;
+        });
+        when(medicoRepository.findByOcupadoFalseOrOcupadoIsNull()).thenAnswer(inv -> {
+            ListaSimple<Medico> libres = new ListaSimple<>();
+            for (Medico medico : tablaMedicos.values())
+                if (medico.getOcupado() == null || !medico.getOcupado())
+                    libres.add(copiarMedico(medico));
+            return libres;
+        });
+    }
+
+    @AfterEach
+    void cerrarServicio() {
+        if (service != null)
+            service.cerrar();
+    }
+
+    // ---- Datos de prueba ----
+
+    private void paciente(int id, String nombre, String apellido, Integer prioridad) {
+        Paciente paciente = new Paciente();
+        paciente.setId(id);
+        paciente.setNombre(nombre);
+        paciente.setApellido(apellido);
+        paciente.setPrioridad(prioridad);
+        paciente.setEnAtencion(false);
+        tablaPacientes.put(id, paciente);
+    }
+
+    private void medico(int id, String nombre) {
+        Medico medico = new Medico();
+        medico.setId(id);
+        medico.setNombre(nombre);
+        medico.setApellido("Ruiz");
+        medico.setEspecialidad("General");
+        medico.setNumeroConsultorio(id);
+        medico.setOcupado(false);
+        tablaMedicos.put(id, medico);
+    }
+
+    private void cita(int id, int idPaciente, int idMedico, char estado, LocalDate fecha, int hora) {
+        Cita cita = new Cita();
+        cita.setId(id);
+        cita.setPaciente(tablaPacientes.get(idPaciente));
+        cita.setMedicoAsignado(tablaMedicos.get(idMedico));
+        cita.setEstado(estado);
+        cita.setFecha(fecha);
+        cita.setHora(LocalTime.of(hora, 0));
+        tablaCitas.put(id, copiarCita(cita));
+    }
+
+    private CitaService nuevoServicio() {
+        service = new CitaService(citaRepository, pacienteRepository, medicoRepository);
+        return service;
+    }
+
+    /**
+     * Espera a que se cumpla la condición, por ejemplo a que termine el timeout de una atención
+     */
+    private static void esperarHasta(BooleanSupplier condicion, String descripcion) throws InterruptedException {
+        long limite = System.nanoTime() + 15_000_000_000L;
+        while (!condicion.getAsBoolean()) {
+            assertTrue(System.nanoTime() < limite, "no se cumplió: " + descripcion);
+            Thread.sleep(50);
+        }
+    }
+
+    private static CreateCitaDTO conEstado(char estado) {
+        CreateCitaDTO dto = new CreateCitaDTO();
+        dto.setEstado(estado);
+        return dto;
+    }
+
+    // ---- Copias: la "BD" nunca comparte instancias con el servicio ----
+
+    private Cita leerCita(Cita guardada) {
+        Cita cita = copiarCita(guardada);
+        if (guardada.getPaciente() != null)
+            cita.setPaciente(copiarPaciente(tablaPacientes.get(guardada.getPaciente().getId())));
+        if (guardada.getMedicoAsignado() != null)
+            cita.setMedicoAsignado(copiarMedico(tablaMedicos.get(guardada.getMedicoAsignado().getId())));
+        return cita;
+    }
+
+    private static Cita copiarCita(Cita cita) {
+        Cita copia = new Cita();
+        copia.setId(cita.getId());
+        copia.setFecha(cita.getFecha());
+        copia.setHora(cita.getHora());
+        copia.setPaciente(cita.getPaciente() == null ? null : copiarPaciente(cita.getPaciente()));
+        copia.setMedicoAsignado(cita.getMedicoAsignado() == null ? null : copiarMedico(cita.getMedicoAsignado()));
+        copia.setMotivoConsulta(cita.getMotivoConsulta());
+        copia.setEstado(cita.getEstado());
+        return copia;
+    }
+
+    private static Paciente copiarPaciente(Paciente paciente) {
+        Paciente copia = new Paciente();
+        copia.setId(paciente.getId());
+        copia.setNombre(paciente.getNombre());
+        copia.setApellido(paciente.getApellido());
+        copia.setPrioridad(paciente.getPrioridad());
+        copia.setEnAtencion(paciente.getEnAtencion());
+        return copia;
+    }
+
+    private static Medico copiarMedico(Medico medico) {
+        Medico copia = new Medico();
+        copia.setId(medico.getId());
+        copia.setNombre(medico.getNombre());
+        copia.setApellido(medico.getApellido());
+        copia.setEspecialidad(medico.getEspecialidad());
+        copia.setNumeroConsultorio(medico.getNumeroConsultorio());
+        copia.setOcupado(medico.getOcupado());
+        return copia;
+    }
+
+    // ---- Consultas sobre el historial ----
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> idsEnHistorial() {
+        List<Integer> ids = new ArrayList<>();
+        for (Cita cita : (ListaSimple<Cita>) service.getHistorialCitas().get("historialCitas"))
+            ids.add(cita.getId());
+        return ids;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> idsPorPaciente(String termino) {
+        List<Integer> ids = new ArrayList<>();
+        for (Cita cita : (ListaSimple<Cita>) service.buscarCitasPorPaciente(termino).get("citasEncontradas"))
+            ids.add(cita.getId());
+        return ids;
+    }
+
+    // ---- Historial incremental ----
+
+    @Test
+    void everyCitaTransitionMovesItIntoOrOutOfTheHistorial() {
+        paciente(1, "Ana", "López", 2);
+        paciente(2, "Luis", "Peña", 3);
+        medico(1, "Elena");
+        cita(1, 1, 1, 'F', HOY.minusDays(1), 9);
+        cita(2, 1, 1, 'P', HOY, 9);
+        cita(3, 2, 1, 'P', HOY, 10);
+        nuevoServicio();
+
+        // Al iniciar solo entran las finalizadas
+        assertEquals(List.of(1), idsEnHistorial());
+        assertEquals(404, service.buscarCitaEnHistorial(2).get("code"));
+
+        // P -> F al atender la siguiente de la cola
+        Cita atendida = (Cita) service.atenderSiguienteCita().get("citaAtendida");
+        assertEquals(2, atendida.getId());
+        assertEquals('F', tablaCitas.get(2).getEstado());
+        assertEquals(List.of(2, 1), idsEnHistorial());
+
+        // P -> F al actualizar
+        assertEquals(200, service.update(3, conEstado('F')).get("code"));
+        assertEquals(List.of(3, 2, 1), idsEnHistorial());
+        assertEquals(List.of(3), idsPorPaciente("pena"));
+
+        // F -> R sale del historial
+        service.update(1, conEstado('R'));
+        assertEquals(List.of(3, 2), idsEnHistorial());
+        assertEquals(404, service.buscarCitaEnHistorial(1).get("code"));
+
+        // Crear una cita ya finalizada la agrega; eliminarla la quita
+        CreateCitaDTO nueva = conEstado('F');
+        nueva.setFecha(HOY);
+        nueva.setHora(LocalTime.of(12, 0));
+        nueva.setPaciente(copiarPaciente(tablaPacientes.get(2)));
+        nueva.getPaciente().setPrioridad(null);
+        nueva.setMedicoAsignado(copiarMedico(tablaMedicos.get(1)));
+        Integer idNueva = ((Cita) service.create(nueva).get("cita")).getId();
+        assertEquals(List.of(idNueva, 3, 2), idsEnHistorial());
+        assertEquals(200, service.delete(idNueva).get("code"));
+        assertEquals(List.of(3, 2), idsEnHistorial());
+
+        // F -> C sale y deja de aparecer en la búsqueda por paciente
+        service.update(3, conEstado('C'));
+        assertEquals(List.of(2), idsEnHistorial());
+        assertEquals(List.of(), idsPorPaciente("pena"));
+
+        // F -> F reemplaza la entrada sin duplicarla
+        service.update(2, conEstado('F'));
+        assertEquals(List.of(2), idsEnHistorial());
+        assertEquals(1, service.getMetricasHistorial().get("tamaño"));
+    }
+
+    @Test
+    void reconciliationFixesDriftFromTheDatabaseAndCountsIt() {
+        paciente(1, "Ana", "López", 2);
+        paciente(2, "Luis", "Peña", 3);
+        medico(1, "Elena");
+        cita(1, 1, 1, 'F', HOY.minusDays(2), 9);
+        cita(2, 2, 1, 'F', HOY.minusDays(1), 9);
+        cita(3, 2, 1, 'P', HOY, 10);
+        nuevoServicio();
+
+        CustomMap<String, Object> metricas = service.getMetricasHistorial();
+        assertEquals(0L, metricas.get("reconciliaciones"));
+        assertNull(metricas.get("ultimaReconciliacion"));
+
+        // Cambios hechos directo en la BD, sin pasar por el servicio
+        tablaCitas.get(2).setEstado('C');          // sobra en memoria
+        tablaCitas.get(3).setEstado('F');          // falta en memoria
+        tablaPacientes.get(1).setNombre("Ana María"); // indexada con el nombre viejo
+
+        service.reconciliarHistorial();
+
+        // La 1 se reemplaza en su lugar y la 3 entra como la más reciente
+        assertEquals(List.of(3, 1), idsEnHistorial());
+        assertEquals(List.of(1), idsPorPaciente("ana maria"));
+        assertEquals(List.of(3), idsPorPaciente("luis"));
+
+        metricas = service.getMetricasHistorial();
+        assertEquals(2, metricas.get("tamaño"));
+        assertEquals(1L, metricas.get("reconciliaciones"));
+        assertEquals(3, metricas.get("discrepanciasUltimaReconciliacion"));
+        assertEquals(3L, metricas.get("discrepanciasAcumuladas"));
+        assertNotNull(metricas.get("ultimaReconciliacion"));
+
+        // Sin cambios nuevos no hay nada que corregir, pero el acumulado se conserva
+        service.reconciliarHistorial();
+        metricas = service.getMetricasHistorial();
+        assertEquals(2L, metricas.get("reconciliaciones"));
+        assertEquals(0, metricas.get("discrepanciasUltimaReconciliacion"));
+        assertEquals(3L, metricas.get("discrepanciasAcumuladas"));
+    }
+
+    // ---- Atención por prioridad ----
+
+    @Test
+    void dispatchAssignsAFreeDoctorWhenTheCitasDoctorBecameBusy() {
+        paciente(1, "Ana", "López", 1);
+        paciente(2, "Luis", "Peña", 2);
+        medico(1, "Elena");
+        medico(2, "Jorge");
+        medico(3, "Sofía");
+        cita(1, 1, 3, 'P', HOY, 9);
+        cita(2, 2, 1, 'P', HOY, 10);
+        nuevoServicio();
+
+        // La primera atención carga la cola de prioridad: la cita 2 queda encolada con su médico de ese momento
+        assertEquals(1, ((Cita) service.atenderPacientePorPrioridad().get("cita")).getId());
+        clearInvocations(citaRepository, medicoRepository);
+
+        // Después, su médico se ocupa y cambia de consultorio, y la cita cambia de motivo
+        tablaMedicos.get(1).setOcupado(true);
+        tablaMedicos.get(1).setNumeroConsultorio(9);
+        tablaCitas.get(2).setMotivoConsulta("Dolor de cabeza");
+
+        CustomMap<String, Object> respuesta = service.atenderPacientePorPrioridad();
+
+        assertEquals(200, respuesta.get("code"));
+        Cita enAtencion = tablaCitas.get(2);
+        assertEquals('E', enAtencion.getEstado());
+        assertEquals(2, enAtencion.getMedicoAsignado().getId());
+        assertEquals("Dolor de cabeza", enAtencion.getMotivoConsulta());
+        assertTrue(tablaMedicos.get(2).getOcupado());
+        assertTrue(tablaPacientes.get(2).getEnAtencion());
+
+        // El médico 1 conserva lo que cambió después de encolar la cita
+        assertTrue(tablaMedicos.get(1).getOcupado());
+        assertEquals(9, tablaMedicos.get(1).getNumeroConsultorio());
+
+        // Sin recorrer tablas completas
+        verify(medicoRepository, never()).findAll();
+        verify(citaRepository, never()).findAll();
+    }
+
+    @Test
+    void dispatchKeepsTheCitasOwnFreeDoctorAndSkipsCitasChangedInTheDatabase() {
+        paciente(1, "Ana", "López", 1);
+        paciente(2, "Luis", "Peña", 2);
+        paciente(3, "Irene", "Sosa", 3);
+        medico(1, "Elena");
+        medico(2, "Jorge");
+        medico(3, "Sofía");
+        cita(1, 1, 3, 'P', HOY, 9);
+        cita(2, 2, 1, 'P', HOY, 9);
+        cita(3, 3, 2, 'P', HOY, 9);
+        nuevoServicio();
+
+        // La primera atención carga la cola; luego la cita 2 se cancela directo en la BD
+        assertEquals(1, ((Cita) service.atenderPacientePorPrioridad().get("cita")).getId());
+        tablaCitas.get(2).setEstado('C');
+
+        CustomMap<String, Object> respuesta = service.atenderPacientePorPrioridad();
+
+        assertEquals(200, respuesta.get("code"));
+        assertEquals(3, ((Cita) respuesta.get("cita")).getId());
+        // Su propio médico sigue libre: no se cambia por el primero de la lista
+        assertEquals(2, tablaCitas.get(3).getMedicoAsignado().getId());
+        assertFalse(tablaMedicos.get(1).getOcupado());
+        assertEquals('C', tablaCitas.get(2).getEstado());
+
+        assertEquals(404, service.atenderPacientePorPrioridad().get("code"));
+    }
+
+    @Test
+    void savedPriorityReordersTheQueuedCitasOfThePatient() {
+        paciente(1, "Ana", "López", 3);
+        paciente(2, "Luis", "Peña", 2);
+        medico(1, "Elena");
+        medico(2, "Jorge");
+        cita(1, 1, 1, 'P', HOY, 9);
+        cita(2, 2, 2, 'P', HOY, 10);
+        nuevoServicio();
+
+        // Como lo haría PacienteService.update: guardar la prioridad y avisar a CitaService
+        tablaPacientes.get(1).setPrioridad(1);
+        service.invalidarPaciente(1);
+        service.actualizarPrioridadPaciente(1, 1);
+
+        assertEquals(1, ((Cita) service.atenderPacientePorPrioridad().get("cita")).getId());
+        assertEquals(2, ((Cita) service.atenderPacientePorPrioridad().get("cita")).getId());
+    }
+
+    @Test
+    void failedSaveReleasesDoctorAndPatientAndRequeuesTheCita() {
+        paciente(1, "Ana", "López", 1);
+        medico(1, "Elena");
+        cita(1, 1, 1, 'P', HOY, 9);
+        nuevoServicio();
+
+        fallarAlGuardarCita = true;
+        assertEquals(500, service.atenderPacientePorPrioridad().get("code"));
+        assertEquals('P', tablaCitas.get(1).getEstado());
+        assertFalse(tablaMedicos.get(1).getOcupado());
+        assertFalse(tablaPacientes.get(1).getEnAtencion());
+
+        // La cita volvió a la cola y se puede atender en cuanto la BD responde
+        fallarAlGuardarCita = false;
+        CustomMap<String, Object> respuesta = service.atenderPacientePorPrioridad();
+        assertEquals(200, respuesta.get("code"));
+        assertEquals(1, ((Cita) respuesta.get("cita")).getId());
+        assertEquals('E', tablaCitas.get(1).getEstado());
+    }
+
+    @Test
+    void timeoutFinishesTheCitaAndFreesThePatientOnlyWithoutOtherActiveCitas() throws InterruptedException {
+        paciente(1, "Ana", "López", 1);
+        paciente(2, "Luis", "Peña", 2);
+        medico(1, "Elena");
+        medico(2, "Jorge");
+        cita(1, 1, 1, 'P', HOY, 9);
+        cita(2, 2, 2, 'P', HOY, 9);
+        cita(3, 2, 2, 'P', HOY, 15); // Luis tiene otra cita activa hoy
+        nuevoServicio();
+        clearInvocations(citaRepository);
+
+        assertEquals(200, service.atenderPacientePorPrioridad().get("code"));
+        assertEquals(200, service.atenderPacientePorPrioridad().get("code"));
+
+        esperarHasta(() -> tablaCitas.get(1).getEstado() == 'F' && tablaCitas.get(2).getEstado() == 'F',
+                "las dos atenciones terminan");
+        esperarHasta(() -> idsEnHistorial().size() == 2, "las citas atendidas entran al historial");
+
+        assertFalse(tablaMedicos.get(1).getOcupado());
+        assertFalse(tablaMedicos.get(2).getOcupado());
+        assertFalse(tablaPacientes.get(1).getEnAtencion());
+        assertTrue(tablaPacientes.get(2).getEnAtencion());
+        assertEquals('P', tablaCitas.get(3).getEstado());
+        verify(citaRepository, never()).findAll();
+    }
+}
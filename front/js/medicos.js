@@ -191,3 +191,74 @@ document.addEventListener('click', async (event) => {
         }
     }
 });
+
+// Autocompletado: sugiere médicos mientras se escribe; elegir uno registra la selección y abre su edición
+const inpBuscarMedico = document.getElementById('inpBuscarMedico');
+const sugerenciasMedicos = document.getElementById('sugerenciasMedicos');
+let sugerenciasMedicosActuales = [];
+let temporizadorBusquedaMedico = null;
+
+inpBuscarMedico.addEventListener('input', () => {
+    // Si el texto es igual a una sugerencia, el usuario la eligió de la lista
+    const elegida = sugerenciasMedicosActuales.find(s => s.nombre === inpBuscarMedico.value);
+    if (elegida) {
+        seleccionarMedico(elegida.id);
+        return;
+    }
+
+    const termino = inpBuscarMedico.value.trim();
+    clearTimeout(temporizadorBusquedaMedico);
+    if (termino === '') {
+        mostrarSugerenciasMedicos([]);
+        return;
+    }
+    temporizadorBusquedaMedico = setTimeout(() => autocompletarMedicos(termino), 200);
+});
+
+async function autocompletarMedicos(termino) {
+    try {
+        const URL = `http://localhost:8080/api/medico/autocomplete?termino=${encodeURIComponent(termino)}&limite=10`;
+        const response = await fetch(URL, {
+            method: 'GET',
+            headers: {
+                'Content-Type': 'application/json'
+            }
+        });
+
+        // Ignorar respuestas de un término que ya no está escrito
+        if (response.ok && inpBuscarMedico.value.trim() === termino) {
+            const result = await response.json();
+            mostrarSugerenciasMedicos(result.resultados);
+        }
+    } catch (error) {
+        console.error('Error:', error);
+    }
+}
+
+function mostrarSugerenciasMedicos(resultados) {
+    sugerenciasMedicosActuales = resultados;
+    sugerenciasMedicos.replaceChildren(...resultados.map(r => {
+        const opcion = document.createElement('option');
+        opcion.value = r.nombre;
+        return opcion;
+    }));
+}
+
+async function seleccionarMedico(id) {
+    inpBuscarMedico.value = '';
+    mostrarSugerenciasMedicos([]);
+
+    try {
+        // Cuenta la visita para que el autocompletado sugiera primero a los más consultados
+        await fetch(`http://localhost:8080/api/medico/${id}/seleccion`, {
+            method: 'POST',
+            headers: {
+                'Content-Type': 'application/json'
+            }
+        });
+    } catch (error) {
+        console.error('Error:', error);
+    }
+
+    await cargarDatosMedico(id);
+}
@@ -211,3 +211,74 @@ document.addEventListener('click', async (event) => {
         }
     }
 });
+
+// Autocompletado: sugiere pacientes mientras se escribe; elegir uno registra la selección y abre su edición
+const inpBuscarPaciente = document.getElementById('inpBuscarPaciente');
+const sugerenciasPacientes = document.getElementById('sugerenciasPacientes');
+let sugerenciasPacientesActuales = [];
+let temporizadorBusquedaPaciente = null;
+
+inpBuscarPaciente.addEventListener('input', () => {
+    // Si el texto es igual a una sugerencia, el usuario la eligió de la lista
+    const elegida = sugerenciasPacientesActuales.find(s => s.nombre === inpBuscarPaciente.value);
+    if (elegida) {
+        seleccionarPaciente(elegida.id);
+        return;
+    }
+
+    const termino = inpBuscarPaciente.value.trim();
+    clearTimeout(temporizadorBusquedaPaciente);
+    if (termino === '') {
+        mostrarSugerenciasPacientes([]);
+        return;
+    }
+    temporizadorBusquedaPaciente = setTimeout(() => autocompletarPacientes(termino), 200);
+});
+
+async function autocompletarPacientes(termino) {
+    try {
+        const URL = `http://localhost:8080/api/paciente/autocomplete?termino=${encodeURIComponent(termino)}&limite=10`;
+        const response = await fetch(URL, {
+            method: 'GET',
+            headers: {
+                'Content-Type': 'application/json'
+            }
+        });
+
+        // Ignorar respuestas de un término que ya no está escrito
+        if (response.ok && inpBuscarPaciente.value.trim() === termino) {
+            const result = await response.json();
+            mostrarSugerenciasPacientes(result.resultados);
+        }
+    } catch (error) {
+        console.error('Error:', error);
+    }
+}
+
+function mostrarSugerenciasPacientes(resultados) {
+    sugerenciasPacientesActuales = resultados;
+    sugerenciasPacientes.replaceChildren(...resultados.map(r => {
+        const opcion = document.createElement('option');
+        opcion.value = r.nombre;
+        return opcion;
+    }));
+}
+
+async function seleccionarPaciente(id) {
+    inpBuscarPaciente.value = '';
+    mostrarSugerenciasPacientes([]);
+
+    try {
+        // Cuenta la visita para que el autocompletado sugiera primero a los más consultados
+        await fetch(`http://localhost:8080/api/paciente/${id}/seleccion`, {
+            method: 'POST',
+            headers: {
+                'Content-Type': 'application/json'
+            }
+        });
+    } catch (error) {
+        console.error('Error:', error);
+    }
+
+    await cargarDatosPaciente(id);
+}